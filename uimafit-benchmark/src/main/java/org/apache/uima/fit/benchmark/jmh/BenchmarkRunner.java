@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.benchmark.jmh;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark uber-jar. Accepts the usual JMH command line options, but writes the
+ * results in JSON format to {@code jmh-result.json} unless a different result format or file is
+ * given. This allows comparing results across uimaFIT versions, e.g.:
+ *
+ * <pre>
+ * java -jar uimafit-benchmark-VERSION-jmh.jar SelectBenchmark -rff select-VERSION.json
+ * </pre>
+ */
+public final class BenchmarkRunner {
+  private BenchmarkRunner() {
+    // No instances
+  }
+
+  public static void main(String[] aArgs) throws Exception {
+    CommandLineOptions cmdOptions = new CommandLineOptions(aArgs);
+
+    if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+            || cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+      Main.main(aArgs);
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+    if (!cmdOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!cmdOptions.getResult().hasValue()) {
+      options.result("jmh-result.json");
+    }
+
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.benchmark.jmh;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.factory.ExternalResourceFactory.createResourceDescription;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.Resource_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.descriptor.ExternalResource;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the instantiation of an analysis engine with configuration parameters and nested
+ * external resources. Each run uses one, four and all available threads to show how component
+ * initialization scales when engines are instantiated in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentInitializationBenchmark {
+  private AnalysisEngineDescription desc;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    desc = createEngineDescription(AnnotatorWithResources.class, //
+            AnnotatorWithResources.PARAM_NAME, "test", //
+            AnnotatorWithResources.PARAM_THRESHOLD, 0.5f, //
+            AnnotatorWithResources.PARAM_TAGS, new String[] { "A", "B", "C" }, //
+            AnnotatorWithResources.RES_OUTER, createResourceDescription(OuterResource.class, //
+                    OuterResource.PARAM_SIZE, 10, //
+                    OuterResource.RES_INNER, createResourceDescription(InnerResource.class)));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public AnalysisEngine createEngineSingleThread() throws Exception {
+    return createEngine(desc);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public AnalysisEngine createEngineFourThreads() throws Exception {
+    return createEngine(desc);
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public AnalysisEngine createEngineMaxThreads() throws Exception {
+    return createEngine(desc);
+  }
+
+  public static class AnnotatorWithResources extends JCasAnnotator_ImplBase {
+    public static final String PARAM_NAME = "name";
+    @ConfigurationParameter(name = PARAM_NAME)
+    private String name;
+
+    public static final String PARAM_THRESHOLD = "threshold";
+    @ConfigurationParameter(name = PARAM_THRESHOLD)
+    private float threshold;
+
+    public static final String PARAM_TAGS = "tags";
+    @ConfigurationParameter(name = PARAM_TAGS)
+    private String[] tags;
+
+    public static final String RES_OUTER = "outer";
+    @ExternalResource(key = RES_OUTER)
+    private OuterResource outer;
+
+    @Override
+    public void process(JCas aJCas) {
+      // Nothing to do
+    }
+  }
+
+  public static class OuterResource extends Resource_ImplBase {
+    public static final String PARAM_SIZE = "size";
+    @ConfigurationParameter(name = PARAM_SIZE)
+    private int size;
+
+    public static final String RES_INNER = "inner";
+    @ExternalResource(key = RES_INNER)
+    private InnerResource inner;
+  }
+
+  public static class InnerResource extends Resource_ImplBase {
+    // No configuration
+  }
+}
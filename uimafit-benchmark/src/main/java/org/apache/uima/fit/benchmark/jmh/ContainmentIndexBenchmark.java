@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.benchmark.jmh;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.apache.uima.fit.util.JCasUtil.selectCovered;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.fit.benchmark.CachingRandomJCasProvider;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.fit.util.ContainmentIndex;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link ContainmentIndex} against the implementation it replaced which called
+ * {@code selectCovered} for every covering annotation and stored the results in linked lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContainmentIndexBenchmark {
+  @Param({ "100", "1000", "10000" })
+  private int annotationCount;
+
+  private JCas jcas;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    CachingRandomJCasProvider casProvider = new CachingRandomJCasProvider();
+    casProvider.prepare(annotationCount);
+    jcas = casProvider.get();
+  }
+
+  @Benchmark
+  public void buildAndQuery(Blackhole aBlackhole) {
+    ContainmentIndex<Sentence, Token> idx = ContainmentIndex.create(jcas, Sentence.class,
+            Token.class);
+    query(aBlackhole, idx::containedIn, idx::containing, idx::isContainedIn);
+  }
+
+  @Benchmark
+  public void buildAndQueryLegacy(Blackhole aBlackhole) {
+    LegacyContainmentIndex idx = new LegacyContainmentIndex(jcas);
+    query(aBlackhole, idx::containedIn, idx::containing, idx::isContainedIn);
+  }
+
+  private void query(Blackhole aBlackhole, Lookup<Sentence, Token> aContainedIn,
+          Lookup<Token, Sentence> aContaining, Check aIsContainedIn) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      for (Token t : aContainedIn.lookup(s)) {
+        aBlackhole.consume(aIsContainedIn.check(s, t));
+      }
+    }
+    for (Token t : select(jcas, Token.class)) {
+      aBlackhole.consume(aContaining.lookup(t).size());
+    }
+  }
+
+  @FunctionalInterface
+  private interface Lookup<K, V> {
+    Collection<V> lookup(K aKey);
+  }
+
+  @FunctionalInterface
+  private interface Check {
+    boolean check(Sentence aSentence, Token aToken);
+  }
+
+  /**
+   * The implementation of the containment index before it was moved to a sweep-line algorithm.
+   */
+  private static class LegacyContainmentIndex {
+    private final Map<Sentence, Collection<Token>> data = new LinkedHashMap<>();
+
+    private final Map<Token, Collection<Sentence>> dataRev = new LinkedHashMap<>();
+
+    LegacyContainmentIndex(JCas aJCas) {
+      for (Sentence s : select(aJCas, Sentence.class)) {
+        for (Token u : selectCovered(Token.class, s)) {
+          data.computeIfAbsent(s, k -> new LinkedList<>()).add(u);
+          dataRev.computeIfAbsent(u, k -> new LinkedList<>()).add(s);
+        }
+      }
+    }
+
+    Collection<Token> containedIn(Sentence aSuper) {
+      return data.getOrDefault(aSuper, Collections.emptySet());
+    }
+
+    Collection<Sentence> containing(Token aUnder) {
+      return dataRev.getOrDefault(aUnder, Collections.emptySet());
+    }
+
+    boolean isContainedIn(Sentence aSuper, Token aUnder) {
+      return containedIn(aSuper).contains(aUnder);
+    }
+  }
+}
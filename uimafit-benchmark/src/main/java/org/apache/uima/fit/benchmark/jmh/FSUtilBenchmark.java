@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.fit.util.FSUtil;
+import org.apache.uima.fit.util.FeatureAccessor;
+import org.apache.uima.jcas.JCas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH counterpart of the {@code FSUtilBenchmark} test. Compares the generic feature access via
+ * {@link FSUtil} and {@link FeatureAccessor} to the JCas getters and setters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FSUtilBenchmark {
+  private Token fs;
+
+  private FeatureAccessor pos;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    JCas jcas = JCasFactory.createText("test");
+    fs = new Token(jcas, 0, 1);
+    fs.setPos("NN");
+    fs.addToIndexes();
+    pos = FeatureAccessor.of(fs.getType(), "pos");
+  }
+
+  @Benchmark
+  public void setFeatureJCas() {
+    fs.setPos("NN");
+  }
+
+  @Benchmark
+  public void setFeature() {
+    FSUtil.setFeature(fs, "pos", "NN");
+  }
+
+  @Benchmark
+  public void setFeatureAccessor() {
+    pos.setString(fs, "NN");
+  }
+
+  @Benchmark
+  public String getFeatureJCas() {
+    return fs.getPos();
+  }
+
+  @Benchmark
+  public String getFeature() {
+    return FSUtil.getFeature(fs, "pos", String.class);
+  }
+
+  @Benchmark
+  public String getFeatureAccessor() {
+    return pos.getString(fs);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.benchmark.jmh;
+
+import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.createTypeSystemDescription;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.fit.factory.CasFactory;
+import org.apache.uima.fit.factory.CasTemplate;
+import org.apache.uima.fit.factory.CasTemplatePool;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH counterpart of the {@code JCasFactoryBenchmark} test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JCasFactoryBenchmark {
+  private TypeSystemDescription tsd;
+
+  private CasTemplate template;
+
+  private CasTemplatePool pool;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    tsd = createTypeSystemDescription();
+    template = CasFactory.createCasTemplate();
+    pool = template.createPool(1);
+  }
+
+  @Benchmark
+  public TypeSystemDescription createTypeSystemDescriptionFromClasspath() throws Exception {
+    return createTypeSystemDescription();
+  }
+
+  @Benchmark
+  public CAS createCasReusingTypeSystemDescription() throws Exception {
+    return CasCreationUtils.createCas(tsd, null, null);
+  }
+
+  @Benchmark
+  public JCas createJCasReusingTypeSystemDescription() throws Exception {
+    return CasCreationUtils.createCas(tsd, null, null).getJCas();
+  }
+
+  @Benchmark
+  public JCas createJCas() throws Exception {
+    return JCasFactory.createJCas();
+  }
+
+  @Benchmark
+  public JCas createJCasFromCachedTemplate() throws Exception {
+    return CasFactory.createCasTemplate().createJCas();
+  }
+
+  @Benchmark
+  public JCas createJCasFromTemplate() throws Exception {
+    return template.createJCas();
+  }
+
+  @Benchmark
+  public JCas getAndReleaseJCasFromPool() throws Exception {
+    JCas jcas = pool.getJCas();
+    jcas.setDocumentText("text");
+    pool.release(jcas);
+    return jcas;
+  }
+}
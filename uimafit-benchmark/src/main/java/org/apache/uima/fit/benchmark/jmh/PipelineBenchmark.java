@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.benchmark.jmh;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReaderDescription;
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.apache.uima.fit.util.JCasUtil.selectCovered;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.benchmark.CasInitializationUtils;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.pipeline.SimplePipeline;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.Progress;
+import org.apache.uima.util.ProgressImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the document throughput of a simple reader/annotator pipeline. The score is given in
+ * documents per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+  private static final int DOCUMENTS = 100;
+
+  @Param({ "10", "100", "1000" })
+  private int annotationCount;
+
+  private CollectionReaderDescription reader;
+
+  private AnalysisEngineDescription annotator;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    reader = createReaderDescription(RandomDocumentReader.class, //
+            RandomDocumentReader.PARAM_DOCUMENT_COUNT, DOCUMENTS, //
+            RandomDocumentReader.PARAM_ANNOTATION_COUNT, annotationCount);
+    annotator = createEngineDescription(CoveredTokenCounter.class);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DOCUMENTS)
+  public void runPipeline() throws Exception {
+    SimplePipeline.runPipeline(reader, annotator);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DOCUMENTS)
+  public void runPipelineMultiThreaded() throws Exception {
+    SimplePipeline.runPipeline(Runtime.getRuntime().availableProcessors(), reader, annotator);
+  }
+
+  /**
+   * Produces documents with random token and sentence annotations.
+   */
+  public static class RandomDocumentReader extends JCasCollectionReader_ImplBase {
+    public static final String PARAM_DOCUMENT_COUNT = "documentCount";
+    @ConfigurationParameter(name = PARAM_DOCUMENT_COUNT)
+    private int documentCount;
+
+    public static final String PARAM_ANNOTATION_COUNT = "annotationCount";
+    @ConfigurationParameter(name = PARAM_ANNOTATION_COUNT)
+    private int annotationCount;
+
+    private int current;
+
+    @Override
+    public boolean hasNext() throws IOException, CollectionException {
+      return current < documentCount;
+    }
+
+    @Override
+    public void getNext(JCas aJCas) throws IOException, CollectionException {
+      CasInitializationUtils.initRandomCas(aJCas.getCas(), 10, annotationCount, 30, 1000, current);
+      current++;
+    }
+
+    @Override
+    public Progress[] getProgress() {
+      return new Progress[] { new ProgressImpl(current, documentCount, Progress.ENTITIES) };
+    }
+  }
+
+  /**
+   * Performs a typical nested sentence/token iteration.
+   */
+  public static class CoveredTokenCounter extends JCasAnnotator_ImplBase {
+    private long count;
+
+    @Override
+    public void process(JCas aJCas) throws AnalysisEngineProcessException {
+      for (Sentence s : select(aJCas, Sentence.class)) {
+        count += selectCovered(Token.class, s).size();
+      }
+    }
+  }
+}
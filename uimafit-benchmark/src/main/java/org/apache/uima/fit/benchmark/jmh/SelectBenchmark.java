@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.benchmark.jmh;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.fit.benchmark.CachingRandomJCasProvider;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.fit.util.AnnotationCursor;
+import org.apache.uima.fit.util.CoveredCursor;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.fit.util.SpanIndex;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.TOP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH counterpart of the {@code SelectBenchmark} test. Each benchmark iterates over all sentences
+ * of a random CAS and performs the respective selection for each of them. Run with
+ * {@code -prof gc} to compare the allocation rates of the list-returning selections with the
+ * {@code forEach} and cursor variants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectBenchmark {
+  @Param({ "10", "100", "1000", "10000" })
+  private int annotationCount;
+
+  private JCas jcas;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    CachingRandomJCasProvider casProvider = new CachingRandomJCasProvider();
+    casProvider.prepare(annotationCount);
+    jcas = casProvider.get();
+  }
+
+  @Benchmark
+  public void getType(Blackhole aBlackhole) {
+    aBlackhole.consume(JCasUtil.getType(jcas, Token.class));
+  }
+
+  @Benchmark
+  public void getTypeUncached(Blackhole aBlackhole) {
+    aBlackhole.consume(jcas.getTypeSystem().getType(Token.class.getName()));
+  }
+
+  @Benchmark
+  public void getAnnotationType(Blackhole aBlackhole) {
+    aBlackhole.consume(JCasUtil.getAnnotationType(jcas, Token.class));
+  }
+
+  @Benchmark
+  public void selectAll(Blackhole aBlackhole) {
+    JCasUtil.selectAll(jcas).forEach(aBlackhole::consume);
+  }
+
+  @Benchmark
+  public void selectTop(Blackhole aBlackhole) {
+    JCasUtil.select(jcas, TOP.class).forEach(aBlackhole::consume);
+  }
+
+  @Benchmark
+  public void selectToken(Blackhole aBlackhole) {
+    JCasUtil.select(jcas, Token.class).forEach(aBlackhole::consume);
+  }
+
+  @Benchmark
+  public void selectTokenV3(Blackhole aBlackhole) {
+    jcas.select(Token.class).forEach(aBlackhole::consume);
+  }
+
+  @Benchmark
+  public void selectCovered(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      JCasUtil.selectCovered(Token.class, s).forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void forEachCovered(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      JCasUtil.forEachCovered(jcas, Token.class, s, aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectCoveredCursor(Blackhole aBlackhole) {
+    AnnotationCursor<Token> tokens = AnnotationCursor.create(jcas, Token.class);
+    for (Sentence s : select(jcas, Sentence.class)) {
+      tokens.covered(s.getBegin(), s.getEnd());
+      while (tokens.next()) {
+        aBlackhole.consume(tokens.get());
+      }
+    }
+  }
+
+  @Benchmark
+  public void selectCoveredWindowed(Blackhole aBlackhole) {
+    CoveredCursor<Token> tokens = CoveredCursor.create(jcas, Token.class);
+    for (Sentence s : select(jcas, Sentence.class)) {
+      tokens.forEach(s, aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectCoveredByOffsets(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      JCasUtil.selectCovered(jcas, Token.class, s.getBegin(), s.getEnd())
+              .forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectCoveredV3(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      jcas.select(Token.class).coveredBy(s).forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectCovering(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      JCasUtil.selectCovering(Token.class, s).forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void forEachCovering(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      JCasUtil.forEachCovering(jcas, Token.class, s.getBegin(), s.getEnd(), aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectCoveringV3(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      jcas.select(Token.class).covering(s).forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectOverlapping(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      JCasUtil.selectOverlapping(Token.class, s).forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectAt(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      JCasUtil.selectAt(jcas, Token.class, s.getBegin(), s.getEnd()).forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectAtSpanIndex(Blackhole aBlackhole) {
+    SpanIndex<Token> index = SpanIndex.create(jcas, Token.class);
+    for (Sentence s : select(jcas, Sentence.class)) {
+      index.forEachAt(s.getBegin(), s.getEnd(), aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void selectAtV3(Blackhole aBlackhole) {
+    for (Sentence s : select(jcas, Sentence.class)) {
+      jcas.select(Token.class).at(s).forEach(aBlackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void indexCovered(Blackhole aBlackhole) {
+    aBlackhole.consume(JCasUtil.indexCovered(jcas, Sentence.class, Token.class));
+  }
+
+  @Benchmark
+  public void indexCovering(Blackhole aBlackhole) {
+    aBlackhole.consume(JCasUtil.indexCovering(jcas, Token.class, Sentence.class));
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.internal.ByteBufferInputStream;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.CasLoadMode;
+import org.apache.uima.util.CasIOUtils;
+import org.apache.uima.util.Progress;
+import org.apache.uima.util.ProgressImpl;
+
+/**
+ * Reads CASes written by {@link BinaryCasWriter} or any other files in a format supported by
+ * {@link CasIOUtils}. The files are read in the order of their names. If the reader is configured
+ * to read a {@link ShardableCollectionReader shard}, it reads a contiguous range of these files.
+ * <p>
+ * Files exceeding the {@link #PARAM_MAPPING_THRESHOLD mapping threshold} are memory-mapped instead
+ * of being read through a stream, which avoids copying large files through the Java heap. Java
+ * offers no way to explicitly unmap a file, so a mapping is only released once its buffer has been
+ * garbage collected.
+ */
+public class BinaryCasReader extends CasCollectionReader_ImplBase
+        implements ShardableCollectionReader {
+
+  /**
+   * The folder containing the files to read.
+   */
+  public static final String PARAM_SOURCE_LOCATION = "sourceLocation";
+  @ConfigurationParameter(name = PARAM_SOURCE_LOCATION, mandatory = true)
+  private File sourceLocation;
+
+  /**
+   * Only files with this extension are read.
+   */
+  public static final String PARAM_FILENAME_EXTENSION = "filenameExtension";
+  @ConfigurationParameter(name = PARAM_FILENAME_EXTENSION, mandatory = true, //
+          defaultValue = ".bcas")
+  private String filenameExtension;
+
+  /**
+   * The type system file written by {@link BinaryCasWriter} if the CAS files do not include the
+   * type system themselves.
+   */
+  public static final String PARAM_TYPE_SYSTEM_FILE = "typeSystemFile";
+  @ConfigurationParameter(name = PARAM_TYPE_SYSTEM_FILE, mandatory = false)
+  private File typeSystemFile;
+
+  /**
+   * Files of at least this size in bytes are memory-mapped. A single mapping cannot exceed
+   * {@link Integer#MAX_VALUE} bytes, so files larger than 2 GB are always read through a stream.
+   */
+  public static final String PARAM_MAPPING_THRESHOLD = "mappingThreshold";
+  @ConfigurationParameter(name = PARAM_MAPPING_THRESHOLD, mandatory = true, //
+          defaultValue = "1048576")
+  private int mappingThreshold;
+
+  @ConfigurationParameter(name = PARAM_SHARD_INDEX, mandatory = true, defaultValue = "0")
+  private int shardIndex;
+
+  @ConfigurationParameter(name = PARAM_SHARD_COUNT, mandatory = true, defaultValue = "1")
+  private int shardCount;
+
+  private File[] files;
+
+  private TypeSystemImpl typeSystem;
+
+  private int current = 0;
+
+  @Override
+  public void initialize(UimaContext aContext) throws ResourceInitializationException {
+    super.initialize(aContext);
+
+    files = sourceLocation.listFiles(f -> f.isFile() && f.getName().endsWith(filenameExtension));
+    if (files == null) {
+      throw new ResourceInitializationException(new IOException(
+              "Unable to list files in [" + sourceLocation + "]"));
+    }
+    Arrays.sort(files);
+
+    try {
+      int[] range = ShardableCollectionReader.getShardRange(files.length, shardIndex, shardCount);
+      files = Arrays.copyOfRange(files, range[0], range[1]);
+    } catch (IllegalArgumentException e) {
+      throw new ResourceInitializationException(e);
+    }
+
+    if (typeSystemFile != null) {
+      try (InputStream is = new BufferedInputStream(
+              Files.newInputStream(typeSystemFile.toPath()))) {
+        typeSystem = CasIOUtils.readCasManager(is).getTypeSystem();
+      } catch (IOException e) {
+        throw new ResourceInitializationException(e);
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws IOException, CollectionException {
+    return current < files.length;
+  }
+
+  @Override
+  public void getNext(CAS aCAS) throws IOException, CollectionException {
+    File file = files[current];
+    current++;
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      InputStream is;
+      if (isMapped(size, mappingThreshold)) {
+        is = new ByteBufferInputStream(channel.map(READ_ONLY, 0, size));
+      } else {
+        is = new BufferedInputStream(Channels.newInputStream(channel));
+      }
+
+      CasIOUtils.load(is, null, aCAS, CasLoadMode.DEFAULT, typeSystem);
+    } catch (IOException e) {
+      throw new IOException("Unable to read [" + file + "]", e);
+    }
+  }
+
+  @Override
+  public Progress[] getProgress() {
+    return new Progress[] { new ProgressImpl(current, files.length, Progress.ENTITIES) };
+  }
+
+  /**
+   * @return whether a file of the given size is memory-mapped. Files which do not fit into a single
+   *         mapping are streamed regardless of the threshold.
+   */
+  static boolean isMapped(long aSize, int aThreshold) {
+    return aSize >= aThreshold && aSize <= Integer.MAX_VALUE;
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.CasIOUtils;
+
+/**
+ * Writes each CAS to a file in one of the binary formats supported by {@link CasIOUtils}. The files
+ * can be read back using {@link BinaryCasReader}.
+ * <p>
+ * By default, the {@link SerialFormat#COMPRESSED_FILTERED_TSI} format is used which includes the
+ * type system in every file. If a {@link #PARAM_TYPE_SYSTEM_FILE type system file} is set, the type
+ * system is instead written only once to that file and the CASes are written in the corresponding
+ * format without type system, e.g. {@link SerialFormat#COMPRESSED_FILTERED}.
+ * <p>
+ * A CAS is serialized to memory on the processing thread, so that it can be reused as soon as
+ * {@link #process(CAS)} returns. Writing the data to disk is done by a pool of
+ * {@link #PARAM_WRITER_THREADS writer threads}. At most {@link #PARAM_MAX_PENDING} serialized CASes
+ * are waiting to be written at any time; if the limit is reached, processing blocks until a writer
+ * thread has caught up. Errors occurring while writing are reported by the next call to
+ * {@link #process(CAS)} or {@link #collectionProcessComplete()}.
+ * <p>
+ * The files are named by a running number, so a reader sorting files by name reproduces the order
+ * in which the CASes were written.
+ */
+public class BinaryCasWriter extends CasConsumer_ImplBase {
+
+  /**
+   * The folder to which the files are written.
+   */
+  public static final String PARAM_TARGET_LOCATION = "targetLocation";
+  @ConfigurationParameter(name = PARAM_TARGET_LOCATION, mandatory = true)
+  private File targetLocation;
+
+  /**
+   * The {@link SerialFormat} to write. Must be one of the binary formats.
+   */
+  public static final String PARAM_FORMAT = "format";
+  @ConfigurationParameter(name = PARAM_FORMAT, mandatory = true, //
+          defaultValue = "COMPRESSED_FILTERED_TSI")
+  private String format;
+
+  /**
+   * If set, the type system is written once to this file instead of into every CAS file.
+   */
+  public static final String PARAM_TYPE_SYSTEM_FILE = "typeSystemFile";
+  @ConfigurationParameter(name = PARAM_TYPE_SYSTEM_FILE, mandatory = false)
+  private File typeSystemFile;
+
+  /**
+   * The extension of the CAS files.
+   */
+  public static final String PARAM_FILENAME_EXTENSION = "filenameExtension";
+  @ConfigurationParameter(name = PARAM_FILENAME_EXTENSION, mandatory = true, defaultValue = ".bcas")
+  private String filenameExtension;
+
+  /**
+   * The number of threads writing data to disk. If set to {@code 0}, the data is written on the
+   * processing thread.
+   */
+  public static final String PARAM_WRITER_THREADS = "writerThreads";
+  @ConfigurationParameter(name = PARAM_WRITER_THREADS, mandatory = true, defaultValue = "1")
+  private int writerThreads;
+
+  /**
+   * The maximum number of serialized CASes waiting to be written.
+   */
+  public static final String PARAM_MAX_PENDING = "maxPending";
+  @ConfigurationParameter(name = PARAM_MAX_PENDING, mandatory = true, defaultValue = "16")
+  private int maxPending;
+
+  private SerialFormat serialFormat;
+
+  private TypeSystem writtenTypeSystem;
+
+  private ExecutorService executor;
+
+  private Semaphore pending;
+
+  private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+  private int count = 0;
+
+  @Override
+  public void initialize(UimaContext aContext) throws ResourceInitializationException {
+    super.initialize(aContext);
+
+    if (writerThreads < 0) {
+      throw new ResourceInitializationException(new IllegalArgumentException(
+              "Parameter [" + PARAM_WRITER_THREADS + "] must not be negative"));
+    }
+
+    if (maxPending < 1) {
+      throw new ResourceInitializationException(new IllegalArgumentException(
+              "Parameter [" + PARAM_MAX_PENDING + "] must be at least 1"));
+    }
+
+    try {
+      serialFormat = SerialFormat.valueOf(format);
+    } catch (IllegalArgumentException e) {
+      throw new ResourceInitializationException(e);
+    }
+
+    if (typeSystemFile != null) {
+      serialFormat = withoutTypeSystem(serialFormat);
+    }
+
+    pending = new Semaphore(maxPending);
+  }
+
+  @Override
+  public void process(CAS aCAS) throws AnalysisEngineProcessException {
+    rethrowFailure();
+
+    byte[] data;
+    try {
+      if (typeSystemFile != null && writtenTypeSystem != aCAS.getTypeSystem()) {
+        writeTypeSystem(aCAS);
+      }
+
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+      CasIOUtils.save(aCAS, buffer, serialFormat);
+      data = buffer.toByteArray();
+    } catch (IOException e) {
+      throw new AnalysisEngineProcessException(e);
+    }
+
+    File file = new File(targetLocation, String.format("%08d%s", count, filenameExtension));
+    count++;
+
+    if (writerThreads == 0) {
+      try {
+        write(file, data);
+      } catch (IOException e) {
+        throw new AnalysisEngineProcessException(e);
+      }
+      return;
+    }
+
+    if (executor == null) {
+      AtomicInteger threadCounter = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(writerThreads, r -> {
+        Thread t = new Thread(r, "uimafit-cas-writer-" + threadCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    }
+
+    try {
+      pending.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisEngineProcessException(e);
+    }
+
+    executor.execute(() -> {
+      try {
+        write(file, data);
+      } catch (IOException e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        pending.release();
+      }
+    });
+  }
+
+  @Override
+  public void collectionProcessComplete() throws AnalysisEngineProcessException {
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+          // Wait until all pending data has been written
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AnalysisEngineProcessException(e);
+      } finally {
+        executor = null;
+      }
+    }
+
+    rethrowFailure();
+
+    super.collectionProcessComplete();
+  }
+
+  @Override
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+
+    super.destroy();
+  }
+
+  private void writeTypeSystem(CAS aCAS) throws IOException {
+    if (writtenTypeSystem != null) {
+      throw new IOException("Type system changed, but all CASes must share the type system "
+              + "written to [" + typeSystemFile + "]");
+    }
+
+    if (typeSystemFile.getParentFile() != null) {
+      typeSystemFile.getParentFile().mkdirs();
+    }
+
+    try (OutputStream os = Files.newOutputStream(typeSystemFile.toPath())) {
+      CasIOUtils.writeTypeSystem(aCAS, os, true);
+    }
+    writtenTypeSystem = aCAS.getTypeSystem();
+  }
+
+  private void write(File aFile, byte[] aData) throws IOException {
+    targetLocation.mkdirs();
+    Files.write(aFile.toPath(), aData);
+  }
+
+  private void rethrowFailure() throws AnalysisEngineProcessException {
+    IOException e = failure.getAndSet(null);
+    if (e != null) {
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+
+  /**
+   * Get the variant of the given format which does not include the type system.
+   */
+  static SerialFormat withoutTypeSystem(SerialFormat aFormat) {
+    switch (aFormat) {
+      case COMPRESSED_FILTERED_TSI:
+        return SerialFormat.COMPRESSED_FILTERED;
+      case BINARY_TSI:
+        return SerialFormat.BINARY;
+      case SERIALIZED_TSI:
+        return SerialFormat.SERIALIZED;
+      default:
+        return aFormat;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.util.CasArchive;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.Progress;
+import org.apache.uima.util.ProgressImpl;
+
+/**
+ * Reads the CASes from a {@link CasArchive} written by {@link CasArchiveWriter}. The archive can be
+ * split into several shards, each of which is read by a separate reader instance, e.g. to read an
+ * archive in parallel (see {@link ShardableCollectionReader}).
+ */
+public class CasArchiveReader extends CasCollectionReader_ImplBase
+        implements ShardableCollectionReader {
+
+  /**
+   * The archive file.
+   */
+  public static final String PARAM_SOURCE_FILE = "sourceFile";
+  @ConfigurationParameter(name = PARAM_SOURCE_FILE, mandatory = true)
+  private File sourceFile;
+
+  @ConfigurationParameter(name = PARAM_SHARD_INDEX, mandatory = true, defaultValue = "0")
+  private int shardIndex;
+
+  @ConfigurationParameter(name = PARAM_SHARD_COUNT, mandatory = true, defaultValue = "1")
+  private int shardCount;
+
+  private CasArchive archive;
+
+  private int begin;
+
+  private int end;
+
+  private int current;
+
+  @Override
+  public void initialize(UimaContext aContext) throws ResourceInitializationException {
+    super.initialize(aContext);
+
+    try {
+      archive = CasArchive.open(sourceFile);
+      int[] range = archive.getRange(shardIndex, shardCount);
+      begin = range[0];
+      end = range[1];
+      current = begin;
+    } catch (IOException | IllegalArgumentException e) {
+      throw new ResourceInitializationException(e);
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws IOException, CollectionException {
+    return current < end;
+  }
+
+  @Override
+  public void getNext(CAS aCAS) throws IOException, CollectionException {
+    archive.read(current, aCAS);
+    current++;
+  }
+
+  @Override
+  public Progress[] getProgress() {
+    return new Progress[] { new ProgressImpl(current - begin, end - begin, Progress.ENTITIES) };
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (archive != null) {
+      archive.close();
+      archive = null;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    try {
+      close();
+    } catch (IOException e) {
+      // Ignore
+    }
+
+    super.destroy();
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.descriptor.OperationalProperties;
+import org.apache.uima.fit.util.CasArchive;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.CasIOUtils;
+
+/**
+ * Appends all CASes to a single {@link CasArchive} file. The type system is stored only once at the
+ * beginning of the archive and the CASes are stored in the
+ * {@link SerialFormat#COMPRESSED_FILTERED} format. The index of the archive is written when
+ * {@link #collectionProcessComplete()} is called; until then, the archive is incomplete and cannot
+ * be read.
+ * <p>
+ * All CASes must share the same type system. An existing archive file is not appended to but
+ * replaced when the writer is initialized, so every run produces a new archive.
+ */
+@OperationalProperties(multipleDeploymentAllowed = false)
+public class CasArchiveWriter extends CasConsumer_ImplBase {
+
+  /**
+   * The archive file. If the file exists, it is overwritten.
+   */
+  public static final String PARAM_TARGET_FILE = "targetFile";
+  @ConfigurationParameter(name = PARAM_TARGET_FILE, mandatory = true)
+  private File targetFile;
+
+  /**
+   * Fully qualified name of a string feature of the document annotation which holds the ID under
+   * which a CAS is stored, e.g. {@code my.DocumentMetaData:documentId}. If not set or if the
+   * feature has no value, the position of the CAS in the archive is used as ID. IDs are limited to
+   * 65535 bytes in modified UTF-8 (see {@link CasArchive}); processing a CAS with a longer ID
+   * fails.
+   */
+  public static final String PARAM_DOCUMENT_ID_FEATURE = "documentIdFeature";
+  @ConfigurationParameter(name = PARAM_DOCUMENT_ID_FEATURE, mandatory = false)
+  private String documentIdFeature;
+
+  /**
+   * Maximum length of an ID in bytes as limited by {@link DataOutputStream#writeUTF(String)}.
+   */
+  private static final int MAX_ID_LENGTH = 65535;
+
+  private DataOutputStream out;
+
+  private long position;
+
+  private TypeSystem typeSystem;
+
+  private Feature idFeature;
+
+  private long[] offsets = new long[1024];
+
+  private int[] lengths = new int[1024];
+
+  private String[] ids = new String[1024];
+
+  private int count;
+
+  @Override
+  public void initialize(UimaContext aContext) throws ResourceInitializationException {
+    super.initialize(aContext);
+
+    if (targetFile.getParentFile() != null) {
+      targetFile.getParentFile().mkdirs();
+    }
+
+    try {
+      out = new DataOutputStream(
+              new BufferedOutputStream(new FileOutputStream(targetFile), 64 * 1024));
+    } catch (IOException e) {
+      throw new ResourceInitializationException(e);
+    }
+  }
+
+  @Override
+  public void process(CAS aCAS) throws AnalysisEngineProcessException {
+    try {
+      if (typeSystem == null) {
+        idFeature = resolveDocumentIdFeature(aCAS.getTypeSystem());
+        writeHeader(aCAS);
+      } else if (typeSystem != aCAS.getTypeSystem()) {
+        throw new IOException(
+                "Type system changed, but all CASes in an archive must share the type system");
+      }
+
+      // Check the ID before writing anything so a failure does not corrupt the archive
+      String id = getDocumentId(aCAS);
+
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+      CasIOUtils.save(aCAS, buffer, SerialFormat.COMPRESSED_FILTERED);
+
+      if (count == offsets.length) {
+        int capacity = count * 2;
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+      }
+
+      offsets[count] = position;
+      lengths[count] = buffer.size();
+      ids[count] = id;
+      count++;
+
+      buffer.writeTo(out);
+      position += buffer.size();
+    } catch (IOException e) {
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+
+  @Override
+  public void collectionProcessComplete() throws AnalysisEngineProcessException {
+    if (out == null) {
+      return;
+    }
+
+    try {
+      if (typeSystem == null) {
+        // Empty archive
+        writeHeader(null);
+      }
+
+      long indexOffset = position;
+      out.writeInt(count);
+      for (int i = 0; i < count; i++) {
+        out.writeLong(offsets[i]);
+        out.writeInt(lengths[i]);
+        out.writeUTF(ids[i]);
+      }
+      out.writeLong(indexOffset);
+      out.write(CasArchive.MAGIC);
+      out.close();
+    } catch (IOException e) {
+      throw new AnalysisEngineProcessException(e);
+    } finally {
+      IOUtils.closeQuietly(out);
+      out = null;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    IOUtils.closeQuietly(out);
+    out = null;
+
+    super.destroy();
+  }
+
+  private void writeHeader(CAS aCAS) throws IOException {
+    byte[] ts = new byte[0];
+    if (aCAS != null) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      CasIOUtils.writeTypeSystem(aCAS, buffer, true);
+      ts = buffer.toByteArray();
+      typeSystem = aCAS.getTypeSystem();
+    }
+
+    out.write(CasArchive.MAGIC);
+    out.writeInt(CasArchive.VERSION);
+    out.writeInt(ts.length);
+    out.write(ts);
+    position = CasArchive.MAGIC.length + Integer.BYTES * 2 + ts.length;
+  }
+
+  private Feature resolveDocumentIdFeature(TypeSystem aTypeSystem)
+          throws AnalysisEngineProcessException {
+    if (documentIdFeature == null) {
+      return null;
+    }
+
+    Feature feature = aTypeSystem.getFeatureByFullName(documentIdFeature);
+    if (feature == null) {
+      throw new AnalysisEngineProcessException(new IllegalArgumentException(
+              "Feature [" + documentIdFeature + "] does not exist in the type system"));
+    }
+    return feature;
+  }
+
+  private String getDocumentId(CAS aCAS) throws AnalysisEngineProcessException {
+    if (idFeature != null) {
+      String id = aCAS.getDocumentAnnotation().getFeatureValueAsString(idFeature);
+      if (id != null) {
+        if (getModifiedUtf8Length(id) > MAX_ID_LENGTH) {
+          throw new AnalysisEngineProcessException(new IllegalArgumentException("Document ID ["
+                  + id.substring(0, 64) + "...] exceeds " + MAX_ID_LENGTH
+                  + " bytes in modified UTF-8"));
+        }
+        return id;
+      }
+    }
+
+    return Integer.toString(count);
+  }
+
+  /**
+   * @return the number of bytes {@link DataOutputStream#writeUTF(String)} needs for the string
+   *         without the length prefix.
+   */
+  private static long getModifiedUtf8Length(String aString) {
+    long length = 0;
+    for (int i = 0; i < aString.length(); i++) {
+      char c = aString.charAt(i);
+      if (c >= 0x0001 && c <= 0x007F) {
+        length++;
+      } else if (c <= 0x07FF) {
+        length += 2;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import org.apache.uima.fit.factory.CollectionReaderFactory;
+
+/**
+ * Marks a collection reader which can split its input into disjoint shards, so that several
+ * instances of the reader can be run in parallel without producing the same document twice.
+ * <br>
+ * <b>It is mandatory that any reader implementing this interface declares the integer
+ * configuration parameters {@link #PARAM_SHARD_INDEX} (default {@code 0}) and
+ * {@link #PARAM_SHARD_COUNT} (default {@code 1}).</b> The reader instances for the shards
+ * {@code 0} to {@code shardCount - 1} together must produce every document of the input exactly
+ * once. With the default settings, the reader produces its complete input.
+ * 
+ * @see CollectionReaderFactory#createShardReaderDescription
+ */
+public interface ShardableCollectionReader {
+  /**
+   * The shard to read, starting at {@code 0}.
+   */
+  String PARAM_SHARD_INDEX = "shardIndex";
+
+  /**
+   * The number of shards into which the input is split.
+   */
+  String PARAM_SHARD_COUNT = "shardCount";
+
+  /**
+   * Get the contiguous range of items belonging to a shard if a sequence of items is split into
+   * shards of (almost) equal size.
+   * 
+   * @param aSize
+   *          the total number of items.
+   * @param aShardIndex
+   *          the shard index.
+   * @param aShardCount
+   *          the number of shards.
+   * @return the begin (inclusive) and end (exclusive) offsets of the shard.
+   * @throws IllegalArgumentException
+   *           if the shard index is not in the range {@code [0, aShardCount)}.
+   */
+  static int[] getShardRange(int aSize, int aShardIndex, int aShardCount) {
+    checkShard(aShardIndex, aShardCount);
+    int begin = (int) ((long) aSize * aShardIndex / aShardCount);
+    int end = (int) ((long) aSize * (aShardIndex + 1) / aShardCount);
+    return new int[] { begin, end };
+  }
+
+  /**
+   * Check that a shard index and count are valid.
+   * 
+   * @param aShardIndex
+   *          the shard index.
+   * @param aShardCount
+   *          the number of shards.
+   * @throws IllegalArgumentException
+   *           if the shard index is not in the range {@code [0, aShardCount)}.
+   */
+  static void checkShard(int aShardIndex, int aShardCount) {
+    if (aShardCount < 1 || aShardIndex < 0 || aShardIndex >= aShardCount) {
+      throw new IllegalArgumentException(
+              "Invalid shard [" + aShardIndex + "] of [" + aShardCount + "] shards");
+    }
+  }
+}
@@ -22,18 +22,10 @@ import static org.apache.uima.UIMAFramework.getLogger;
 import static org.apache.uima.UIMAFramework.newConfigurationManager;
 import static org.apache.uima.UIMAFramework.newUimaContext;
 import static org.apache.uima.fit.factory.ConfigurationParameterFactory.createConfigurationData;
-import static org.apache.uima.fit.factory.ConfigurationParameterFactory.getConfigurationParameterName;
-import static org.apache.uima.fit.factory.ConfigurationParameterFactory.getDefaultValue;
 import static org.apache.uima.fit.factory.ConfigurationParameterFactory.getParameterSettings;
-import static org.apache.uima.fit.factory.ConfigurationParameterFactory.isConfigurationParameterField;
-import static org.apache.uima.fit.internal.ReflectionUtil.getAnnotation;
-import static org.apache.uima.fit.internal.ReflectionUtil.getFields;
 import static org.apache.uima.fit.internal.ResourceManagerFactory.newResourceManager;
 import static org.apache.uima.fit.internal.propertyeditors.PropertyEditorUtil.registerUimaFITEditors;
-import static org.springframework.beans.PropertyAccessorUtils.canonicalPropertyName;
-import static org.springframework.util.ObjectUtils.isEmpty;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -57,7 +49,6 @@ import org.apache.uima.resource.metadata.ConfigurationParameterSettings;
 import org.apache.uima.resource.metadata.NameValuePair;
 import org.apache.uima.resource.metadata.ResourceMetaData;
 import org.springframework.beans.MutablePropertyValues;
-import org.springframework.beans.PropertyValue;
 import org.springframework.validation.DataBinder;
 import org.springframework.validation.ObjectError;
 
@@ -96,100 +87,54 @@ public final class ConfigurationParameterInitializer {
   public static void initialize(final Object component, final UimaContext context)
           throws ResourceInitializationException {
     MutablePropertyValues values = new MutablePropertyValues();
-    List<String> mandatoryValues = new ArrayList<>();
+    List<String> errors = new ArrayList<>();
 
-    for (Field field : getFields(component)) { // component.getClass().getDeclaredFields())
-      if (isConfigurationParameterField(field)) {
-        org.apache.uima.fit.descriptor.ConfigurationParameter annotation = getAnnotation(field,
-                org.apache.uima.fit.descriptor.ConfigurationParameter.class);
-
-        Object parameterValue;
-        String parameterName = getConfigurationParameterName(field);
-
-        // Obtain either from the context - or - if the context does not provide the
-        // parameter, check if there is a default value. Note there are three possibilities:
-        // 1) Parameter present and set
-        // 2) Parameter present and set to null (null value)
-        // 3) Parameter not present (also provided as null value by UIMA)
-        // Unfortunately we cannot make a difference between case 2 and 3 since UIMA does
-        // not allow us to actually get a list of the parameters set in the context. We can
-        // only get a list of the declared parameters. Thus we have to rely on the null
-        // value.
-        parameterValue = context.getConfigParameterValue(parameterName);
-        if (parameterValue == null) {
-          parameterValue = getDefaultValue(field);
-        }
-
-        if (parameterValue != null) {
-          values.addPropertyValue(field.getName(), parameterValue);
-        }
+    for (ConfigurationParameterInjector injector : ConfigurationParameterInjector
+            .forClass(component.getClass())) {
+      Object parameterValue = injector.getValue(context);
 
+      if (parameterValue == null) {
         // TODO does this check really belong here? It seems that
         // this check is already performed by UIMA
-        if (annotation.mandatory()) {
-          mandatoryValues.add(field.getName());
+        if (injector.isMandatory()) {
+          errors.add("Field '" + injector.getFieldName() + "' is required");
         }
+        continue;
       }
-    }
 
-    DataBinder binder = new DataBinder(component) {
-      @Override
-      protected void checkRequiredFields(MutablePropertyValues mpvs) {
-        String[] requiredFields = getRequiredFields();
-        if (!isEmpty(requiredFields)) {
-          Map<String, PropertyValue> propertyValues = new HashMap<>();
-          PropertyValue[] pvs = mpvs.getPropertyValues();
-          for (PropertyValue pv : pvs) {
-            propertyValues.put(canonicalPropertyName(pv.getName()), pv);
-          }
-          for (String field : requiredFields) {
-            PropertyValue pv = propertyValues.get(field);
-            boolean empty = (pv == null || pv.getValue() == null);
-            // For our purposes, empty Strings or empty String arrays do not count as
-            // empty. Empty is only "null".
-            // if (!empty) {
-            // if (pv.getValue() instanceof String) {
-            // empty = !StringUtils.hasText((String) pv.getValue());
-            // }
-            // else if (pv.getValue() instanceof String[]) {
-            // String[] values = (String[]) pv.getValue();
-            // empty = (values.length == 0 || !StringUtils.hasText(values[0]));
-            // }
-            // }
-            if (empty) {
-              // Use bind error processor to create FieldError.
-              getBindingErrorProcessor().processMissingFieldError(field,
-                      getInternalBindingResult());
-              // Remove property from property values to bind:
-              // It has already caused a field error with a rejected value.
-              if (pv != null) {
-                mpvs.removePropertyValue(pv);
-                propertyValues.remove(field);
-              }
-            }
-          }
-        }
+      // Values which cannot be injected directly are bound via Spring which offers a much wider
+      // range of type conversions
+      if (!injector.inject(component, parameterValue)) {
+        values.addPropertyValue(injector.getFieldName(), parameterValue);
       }
-    };
-    binder.initDirectFieldAccess();
-    registerUimaFITEditors(binder);
-    binder.setRequiredFields(mandatoryValues.toArray(new String[mandatoryValues.size()]));
+    }
 
-    binder.bind(values);
+    if (!values.isEmpty()) {
+      bind(component, values, errors);
+    }
 
-    if (binder.getBindingResult().hasErrors()) {
+    if (!errors.isEmpty()) {
       StringBuilder sb = new StringBuilder();
       sb.append("Errors initializing [" + component.getClass() + "]");
-      for (ObjectError error : binder.getBindingResult().getAllErrors()) {
-        if (sb.length() > 0) {
-          sb.append("\n");
-        }
-        sb.append(error.getDefaultMessage());
+      for (String error : errors) {
+        sb.append("\n");
+        sb.append(error);
       }
       throw new IllegalArgumentException(sb.toString());
     }
   }
 
+  private static void bind(Object component, MutablePropertyValues values, List<String> errors) {
+    DataBinder binder = new DataBinder(component);
+    binder.initDirectFieldAccess();
+    registerUimaFITEditors(binder);
+    binder.bind(values);
+
+    for (ObjectError error : binder.getBindingResult().getAllErrors()) {
+      errors.add(error.getDefaultMessage());
+    }
+  }
+
   /**
    * Initialize a component from a map.
    *
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component.initialize;
+
+import static java.lang.invoke.MethodType.methodType;
+import static org.apache.uima.fit.factory.ConfigurationParameterFactory.getConfigurationParameterName;
+import static org.apache.uima.fit.factory.ConfigurationParameterFactory.getDefaultValue;
+import static org.apache.uima.fit.factory.ConfigurationParameterFactory.isConfigurationParameterField;
+import static org.apache.uima.fit.internal.ReflectionUtil.getAnnotation;
+import static org.apache.uima.fit.internal.ReflectionUtil.getFields;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Injects the value of a single configuration parameter into a field. The injectors of a class are
+ * created once and cached. Values which do not require conversion or which only require a simple
+ * conversion (unboxing, arrays to collections or primitive arrays, strings to enums) are set
+ * directly through a pre-compiled method handle. All other values are left to the caller which
+ * binds them through Spring.
+ */
+final class ConfigurationParameterInjector {
+
+  private static final ClassValue<List<ConfigurationParameterInjector>> INJECTORS = //
+          new ClassValue<List<ConfigurationParameterInjector>>() {
+            @Override
+            protected List<ConfigurationParameterInjector> computeValue(Class<?> aClass) {
+              List<ConfigurationParameterInjector> injectors = new ArrayList<>();
+              for (Field field : getFields(aClass)) {
+                if (isConfigurationParameterField(field)) {
+                  injectors.add(new ConfigurationParameterInjector(field));
+                }
+              }
+              return injectors;
+            }
+          };
+
+  private final Field field;
+
+  private final String parameterName;
+
+  private final boolean mandatory;
+
+  private final Object defaultValue;
+
+  private final Class<?> fieldType;
+
+  private final Class<?> elementType;
+
+  private final MethodHandle setter;
+
+  private ConfigurationParameterInjector(Field aField) {
+    field = aField;
+    parameterName = getConfigurationParameterName(aField);
+    mandatory = getAnnotation(aField, ConfigurationParameter.class).mandatory();
+    defaultValue = getDefaultValue(aField);
+    fieldType = ClassUtils.resolvePrimitiveIfNecessary(aField.getType());
+    elementType = getElementType(aField);
+    setter = getSetter(aField);
+  }
+
+  /**
+   * @return the injectors for all configuration parameter fields of the given class and its
+   *         superclasses.
+   */
+  static List<ConfigurationParameterInjector> forClass(Class<?> aClass) {
+    return INJECTORS.get(aClass);
+  }
+
+  String getFieldName() {
+    return field.getName();
+  }
+
+  boolean isMandatory() {
+    return mandatory;
+  }
+
+  /**
+   * Obtain the parameter value from the context or - if the context does not provide the parameter
+   * - the default value. Note there are three possibilities:
+   * <ol>
+   * <li>Parameter present and set</li>
+   * <li>Parameter present and set to null (null value)</li>
+   * <li>Parameter not present (also provided as null value by UIMA)</li>
+   * </ol>
+   * Unfortunately we cannot make a difference between case 2 and 3 since UIMA does not allow us to
+   * actually get a list of the parameters set in the context. We can only get a list of the
+   * declared parameters. Thus we have to rely on the null value.
+   */
+  Object getValue(UimaContext aContext) {
+    Object value = aContext.getConfigParameterValue(parameterName);
+    if (value != null) {
+      return value;
+    }
+
+    // Arrays are mutable and must not be shared between component instances
+    if (defaultValue instanceof Object[]) {
+      return ((Object[]) defaultValue).clone();
+    }
+
+    return defaultValue;
+  }
+
+  /**
+   * Inject the given value if it can be done without involving Spring.
+   *
+   * @return {@code true} if the value was injected, {@code false} if it needs to be bound by the
+   *         caller.
+   */
+  boolean inject(Object aComponent, Object aValue) {
+    if (setter == null) {
+      return false;
+    }
+
+    Object value = convert(aValue);
+    if (value == null) {
+      return false;
+    }
+
+    try {
+      setter.invokeExact(aComponent, value);
+      return true;
+    } catch (ClassCastException e) {
+      return false;
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Object convert(Object aValue) {
+    Class<?> valueType = aValue.getClass();
+
+    if (!valueType.isArray()) {
+      if (fieldType.isInstance(aValue)) {
+        return aValue;
+      }
+
+      if (fieldType.isEnum() && aValue instanceof String) {
+        return toEnum((String) aValue);
+      }
+
+      return null;
+    }
+
+    // Arrays are copied so that the component never shares an array with the context
+    if (fieldType.isArray()) {
+      return copyArray(aValue, fieldType.getComponentType());
+    }
+
+    if (elementType != null && elementType.isAssignableFrom(valueType.getComponentType())) {
+      Collection<Object> collection;
+      if (fieldType == List.class || fieldType == Collection.class
+              || fieldType == ArrayList.class) {
+        collection = new ArrayList<>();
+      } else if (fieldType == Set.class || fieldType == LinkedHashSet.class) {
+        collection = new LinkedHashSet<>();
+      } else {
+        return null;
+      }
+
+      for (int i = 0; i < Array.getLength(aValue); i++) {
+        collection.add(Array.get(aValue, i));
+      }
+      return collection;
+    }
+
+    return null;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private Object toEnum(String aValue) {
+    try {
+      return Enum.valueOf((Class<? extends Enum>) fieldType, aValue.trim());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static Object copyArray(Object aArray, Class<?> aComponentType) {
+    Class<?> boxedComponentType = ClassUtils.resolvePrimitiveIfNecessary(aComponentType);
+    int length = Array.getLength(aArray);
+    Object copy = Array.newInstance(aComponentType, length);
+    for (int i = 0; i < length; i++) {
+      Object element = Array.get(aArray, i);
+      if (!boxedComponentType.isInstance(element)) {
+        // Includes null elements which cannot be unboxed
+        if (element != null || aComponentType.isPrimitive()) {
+          return null;
+        }
+      }
+      Array.set(copy, i, element);
+    }
+    return copy;
+  }
+
+  private static Class<?> getElementType(Field aField) {
+    if (!Collection.class.isAssignableFrom(aField.getType())) {
+      return null;
+    }
+
+    Type type = aField.getGenericType();
+    if (!(type instanceof ParameterizedType)) {
+      return Object.class;
+    }
+
+    Type arg = ((ParameterizedType) type).getActualTypeArguments()[0];
+    if (arg instanceof Class && !((Class<?>) arg).isPrimitive()) {
+      return (Class<?>) arg;
+    }
+
+    // Wildcards, type variables and parameterized element types are left to Spring
+    return null;
+  }
+
+  private static MethodHandle getSetter(Field aField) {
+    try {
+      aField.setAccessible(true);
+      return MethodHandles.lookup().unreflectSetter(aField)
+              .asType(methodType(void.class, Object.class, Object.class));
+    } catch (RuntimeException | IllegalAccessException e) {
+      // E.g. final fields or fields in modules which are not open to us
+      return null;
+    }
+  }
+}
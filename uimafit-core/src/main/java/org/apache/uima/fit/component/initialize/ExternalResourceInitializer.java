@@ -20,20 +20,18 @@ package org.apache.uima.fit.component.initialize;
 
 import static org.apache.uima.fit.factory.ExternalResourceFactory.PREFIX_SEPARATOR;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.uima.UimaContext;
 import org.apache.uima.UimaContextAdmin;
 import org.apache.uima.fit.component.ExternalResourceAware;
 import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.fit.descriptor.ExternalResourceLocator;
-import org.apache.uima.fit.internal.ReflectionUtil;
+import org.apache.uima.fit.internal.ConcurrentWeakIdentityMap;
 import org.apache.uima.fit.internal.ResourceList;
 import org.apache.uima.resource.ResourceAccessException;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -46,9 +44,8 @@ import org.springframework.beans.SimpleTypeConverter;
  */
 public final class ExternalResourceInitializer {
 
-  private static final Object INITIALIZED = new Object();
-
-  private static Map<Object, Object> initializedResources = new WeakHashMap<Object, Object>();
+  private static final ConcurrentWeakIdentityMap<Object, Initialization> initializedResources = //
+          new ConcurrentWeakIdentityMap<>();
 
   private ExternalResourceInitializer() {
     // No instances
@@ -69,52 +66,38 @@ public final class ExternalResourceInitializer {
    */
   public static <T> void initialize(T object, UimaContext context)
           throws ResourceInitializationException {
-    configure(context, object.getClass(), object.getClass(), object);
+    configure(context, object);
   }
 
   /**
-   * Helper method for recursively configuring super-classes.
+   * Helper method for configuring the object using the cached injectors of its class.
    * 
    * @param <T>
    *          the component type.
    * @param context
    *          the context containing the resource bindings.
-   * @param baseCls
-   *          the class on which configuration started.
-   * @param cls
-   *          the class currently being configured.
    * @param object
    *          the object being configured.
    * @throws ResourceInitializationException
    *           if required resources could not be bound.
    */
-  private static <T> void configure(UimaContext context, Class<?> baseCls, Class<?> cls, T object)
+  private static <T> void configure(UimaContext context, T object)
           throws ResourceInitializationException {
-    if (cls.getSuperclass() != null) {
-      configure(context, baseCls, cls.getSuperclass(), object);
-    } else {
-      // Try to initialize the external resources only once, not for each step of the
-      // class hierarchy of a component.
-      initializeNestedResources(context);
-    }
-
-    for (Field field : cls.getDeclaredFields()) {
-      if (!ReflectionUtil.isAnnotationPresent(field, ExternalResource.class)) {
-        continue;
-      }
+    // Try to initialize the external resources only once, not for each step of the
+    // class hierarchy of a component.
+    initializeNestedResources(context);
 
-      ExternalResource era = ReflectionUtil.getAnnotation(field, ExternalResource.class);
+    String prefix = null;
+    if (object instanceof ExternalResourceAware) {
+      prefix = ((ExternalResourceAware) object).getResourceName();
+    }
 
+    for (ExternalResourceInjector injector : ExternalResourceInjector
+            .forClass(object.getClass())) {
       // Get the resource key. If it is a nested resource, also get the prefix.
-      String key = era.key();
-      if (key.length() == 0) {
-        key = field.getName();
-      }
-      if (object instanceof ExternalResourceAware) {
-        String prefix = ((ExternalResourceAware) object).getResourceName();
-        if (prefix != null) {
-          key = prefix + PREFIX_SEPARATOR + key;
-        }
+      String key = injector.getKey();
+      if (prefix != null) {
+        key = prefix + PREFIX_SEPARATOR + key;
       }
 
       // Obtain the resource
@@ -124,43 +107,33 @@ public final class ExternalResourceInitializer {
       }
 
       // Sanity checks
-      if (value == null && era.mandatory()) {
+      if (value == null && injector.isMandatory()) {
         throw new ResourceInitializationException(new IllegalStateException(
-                "Mandatory resource [" + key + "] is not set on [" + baseCls + "]"));
+                "Mandatory resource [" + key + "] is not set on [" + object.getClass() + "]"));
       }
 
       // Now record the setting and optionally apply it to the given
       // instance.
       if (value != null) {
-        field.setAccessible(true);
-
-        try {
-          if (value instanceof ResourceList) {
-            // Value is a multi-valued resource
-            ResourceList resList = (ResourceList) value;
-
-            // We cannot do this in ResourceList because the resource doesn't have access to
-            // the UIMA context we use here. Resources are initialize with their own contexts
-            // by the UIMA framework!
-            List<Object> elements = new ArrayList<Object>();
-            for (int i = 0; i < resList.getSize(); i++) {
-              Object elementValue = getResourceObject(context, resList.getResourceName()
-                      + PREFIX_SEPARATOR + ResourceList.ELEMENT_KEY + "[" + i + "]");
-              elements.add(elementValue);
-            }
-
-            SimpleTypeConverter converter = new SimpleTypeConverter();
-            value = converter.convertIfNecessary(elements, field.getType());
+        if (value instanceof ResourceList) {
+          // Value is a multi-valued resource
+          ResourceList resList = (ResourceList) value;
+
+          // We cannot do this in ResourceList because the resource doesn't have access to
+          // the UIMA context we use here. Resources are initialize with their own contexts
+          // by the UIMA framework!
+          List<Object> elements = new ArrayList<Object>();
+          for (int i = 0; i < resList.getSize(); i++) {
+            Object elementValue = getResourceObject(context, resList.getResourceName()
+                    + PREFIX_SEPARATOR + ResourceList.ELEMENT_KEY + "[" + i + "]");
+            elements.add(elementValue);
           }
 
-          try {
-            field.set(object, value);
-          } catch (IllegalAccessException e) {
-            throw new ResourceInitializationException(e);
-          }
-        } finally {
-          field.setAccessible(false);
+          SimpleTypeConverter converter = new SimpleTypeConverter();
+          value = converter.convertIfNecessary(elements, injector.getType());
         }
+
+        injector.inject(object, value);
       }
     }
   }
@@ -187,18 +160,29 @@ public final class ExternalResourceInitializer {
     List<ExternalResourceAware> awareResources = new ArrayList<ExternalResourceAware>();
 
     // Initialize the resources - each resource must only be initialized once. We remember
-    // if a resource has already been initialized in a weak hash map, so we automatically
-    // forget about resources that are garbage collected.
+    // if a resource has already been initialized in a weak identity map, so we automatically
+    // forget about resources that are garbage collected. Threads only wait for each other if they
+    // need the same resource which is still being initialized.
     for (Object r : getResources(aContext)) {
-      synchronized (initializedResources) {
-        if (r instanceof ExternalResourceAware && !initializedResources.containsKey(r)) {
-          // Already mark the resource as initialized so we do not run into an
-          // endless recursive loop when initialize() is called again.
-          initializedResources.put(r, INITIALIZED);
-          initialize(r, aContext);
-          awareResources.add((ExternalResourceAware) r);
-        }
+      if (!(r instanceof ExternalResourceAware)) {
+        continue;
+      }
+
+      // Already mark the resource as initialized so we do not run into an
+      // endless recursive loop when initialize() is called again.
+      Initialization initialization = new Initialization();
+      Initialization existing = initializedResources.putIfAbsent(r, initialization);
+      if (existing != null) {
+        existing.await();
+        continue;
       }
+
+      try {
+        initialize(r, aContext);
+      } finally {
+        initialization.done();
+      }
+      awareResources.add((ExternalResourceAware) r);
     }
 
     // Notify the resources after everything has been configured
@@ -228,4 +212,32 @@ public final class ExternalResourceInitializer {
 
     return resMgr.getExternalResources();
   }
+
+  /**
+   * Tracks the initialization of a resource. Other threads wait until the initialization is done.
+   * The thread performing the initialization does not wait since it may come across the resource
+   * again while initializing nested resources.
+   */
+  private static final class Initialization {
+    private final Thread owner = Thread.currentThread();
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    void done() {
+      latch.countDown();
+    }
+
+    void await() throws ResourceInitializationException {
+      if (owner == Thread.currentThread()) {
+        return;
+      }
+
+      try {
+        latch.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ResourceInitializationException(e);
+      }
+    }
+  }
 }
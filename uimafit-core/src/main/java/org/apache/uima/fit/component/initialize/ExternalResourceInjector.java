@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component.initialize;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.uima.fit.descriptor.ExternalResource;
+import org.apache.uima.fit.internal.ReflectionUtil;
+import org.apache.uima.resource.ResourceInitializationException;
+
+/**
+ * Injects an external resource into a field annotated with {@link ExternalResource}. The injectors
+ * of a class are created once and cached. They are ordered from the top of the class hierarchy
+ * down to the class itself.
+ */
+final class ExternalResourceInjector {
+
+  private static final ClassValue<List<ExternalResourceInjector>> INJECTORS = //
+          new ClassValue<List<ExternalResourceInjector>>() {
+            @Override
+            protected List<ExternalResourceInjector> computeValue(Class<?> aClass) {
+              List<ExternalResourceInjector> injectors = new ArrayList<>();
+              if (aClass.getSuperclass() != null) {
+                injectors.addAll(get(aClass.getSuperclass()));
+              }
+
+              for (Field field : aClass.getDeclaredFields()) {
+                if (ReflectionUtil.isAnnotationPresent(field, ExternalResource.class)) {
+                  injectors.add(new ExternalResourceInjector(field));
+                }
+              }
+              return injectors;
+            }
+          };
+
+  private final Field field;
+
+  private final String key;
+
+  private final boolean mandatory;
+
+  private final MethodHandle setter;
+
+  private ExternalResourceInjector(Field aField) {
+    ExternalResource era = ReflectionUtil.getAnnotation(aField, ExternalResource.class);
+
+    field = aField;
+    key = era.key().length() == 0 ? aField.getName() : era.key();
+    mandatory = era.mandatory();
+
+    MethodHandle handle;
+    try {
+      aField.setAccessible(true);
+      handle = MethodHandles.lookup().unreflectSetter(aField)
+              .asType(methodType(void.class, Object.class, Object.class));
+    } catch (RuntimeException | IllegalAccessException e) {
+      handle = null;
+    }
+    setter = handle;
+  }
+
+  /**
+   * @return the injectors for all external resource fields of the given class and its
+   *         superclasses.
+   */
+  static List<ExternalResourceInjector> forClass(Class<?> aClass) {
+    return INJECTORS.get(aClass);
+  }
+
+  /**
+   * @return the resource key without any prefix.
+   */
+  String getKey() {
+    return key;
+  }
+
+  boolean isMandatory() {
+    return mandatory;
+  }
+
+  Class<?> getType() {
+    return field.getType();
+  }
+
+  void inject(Object aObject, Object aValue) throws ResourceInitializationException {
+    if (setter == null) {
+      try {
+        field.set(aObject, aValue);
+      } catch (IllegalAccessException e) {
+        throw new ResourceInitializationException(e);
+      }
+      return;
+    }
+
+    try {
+      setter.invokeExact(aObject, aValue);
+    } catch (ClassCastException e) {
+      // Same exception as reported by reflective access
+      throw new IllegalArgumentException("Cannot set field [" + field + "] to value of type ["
+              + aValue.getClass().getName() + "]", e);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new ResourceInitializationException(e);
+    }
+  }
+}
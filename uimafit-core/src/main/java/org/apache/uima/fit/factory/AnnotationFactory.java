@@ -18,6 +18,8 @@
  */
 package org.apache.uima.fit.factory;
 
+import java.util.List;
+
 import org.apache.uima.fit.util.JCasUtil;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
@@ -53,4 +55,25 @@ public final class AnnotationFactory {
     annotation.addToIndexes();
     return annotation;
   }
+
+  /**
+   * Create annotations for the given spans and add them to the indexes in sorted order. To also
+   * set feature values, use a {@link BulkAnnotationBuilder}.
+   * 
+   * @param <T>
+   *          the annotation type
+   * @param jCas
+   *          the JCas to create the annotations in
+   * @param begins
+   *          the begin offsets
+   * @param ends
+   *          the end offsets, one for each begin offset
+   * @param cls
+   *          the annotation class as generated by JCasGen
+   * @return the new annotations in the order of the given spans
+   */
+  public static <T extends Annotation> List<T> createAnnotations(JCas jCas, int[] begins,
+          int[] ends, Class<T> cls) {
+    return BulkAnnotationBuilder.of(jCas, cls).addAll(begins, ends).build();
+  }
 }
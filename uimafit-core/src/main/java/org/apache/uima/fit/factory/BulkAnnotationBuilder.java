@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.factory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.fit.internal.IntArraySort;
+import org.apache.uima.fit.util.FeatureAccessor;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+
+/**
+ * Creates many annotations of the same type at once. Spans are collected in primitive arrays and
+ * feature values are supplied as one array per feature, aligned with the order in which the spans
+ * were added. When {@link #build()} is called, the annotations are created in index order and then
+ * added to the indexes one by one in that order. This avoids the per-annotation overhead of
+ * {@link AnnotationFactory#createAnnotation} and, since each annotation sorts after the ones
+ * already added, keeps insertions into the sorted annotation index cheap. There is no bulk insert;
+ * every annotation is still added individually via {@link CAS#addFsToIndexes}.
+ * 
+ * <pre>
+ * List&lt;Token&gt; tokens = BulkAnnotationBuilder.of(jcas, Token.class) //
+ *         .addAll(begins, ends) //
+ *         .setFeature("pos", posTags) //
+ *         .build();
+ * </pre>
+ * 
+ * A builder is not thread-safe. It is reset by {@link #build()} and can then be reused.
+ * 
+ * @param <T>
+ *          the annotation type.
+ */
+public final class BulkAnnotationBuilder<T extends AnnotationFS> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final CAS cas;
+
+  private final Type type;
+
+  private final List<Column> columns = new ArrayList<>();
+
+  private int[] begins = new int[INITIAL_CAPACITY];
+
+  private int[] ends = new int[INITIAL_CAPACITY];
+
+  private int size;
+
+  private BulkAnnotationBuilder(CAS aCas, Type aType) {
+    cas = aCas;
+    type = aType;
+  }
+
+  /**
+   * @param <T>
+   *          the annotation type.
+   * @param aJCas
+   *          the JCas to create the annotations in.
+   * @param aType
+   *          the annotation class as generated by JCasGen.
+   * @return a new builder.
+   */
+  public static <T extends Annotation> BulkAnnotationBuilder<T> of(JCas aJCas, Class<T> aType) {
+    return new BulkAnnotationBuilder<>(aJCas.getCas(), JCasUtil.getAnnotationType(aJCas, aType));
+  }
+
+  /**
+   * @param <T>
+   *          the annotation type.
+   * @param aCas
+   *          the CAS to create the annotations in.
+   * @param aType
+   *          the annotation type.
+   * @return a new builder.
+   */
+  public static <T extends AnnotationFS> BulkAnnotationBuilder<T> of(CAS aCas, Type aType) {
+    if (!aCas.getTypeSystem().subsumes(aCas.getAnnotationType(), aType)) {
+      throw new IllegalArgumentException(
+              "Type [" + aType.getName() + "] is not an annotation type");
+    }
+    return new BulkAnnotationBuilder<>(aCas, aType);
+  }
+
+  /**
+   * Make room for the given total number of annotations to avoid growing the internal arrays while
+   * spans are added.
+   * 
+   * @param aCapacity
+   *          the expected number of annotations.
+   * @return the builder.
+   */
+  public BulkAnnotationBuilder<T> ensureCapacity(int aCapacity) {
+    if (aCapacity > begins.length) {
+      begins = Arrays.copyOf(begins, aCapacity);
+      ends = Arrays.copyOf(ends, aCapacity);
+    }
+    return this;
+  }
+
+  /**
+   * Add a span.
+   * 
+   * @param aBegin
+   *          the begin offset.
+   * @param aEnd
+   *          the end offset.
+   * @return the position of the span, which is also the position of its feature values and of
+   *         the annotation in the list returned by {@link #build()}.
+   */
+  public int add(int aBegin, int aEnd) {
+    if (size == begins.length) {
+      ensureCapacity(begins.length * 2);
+    }
+    begins[size] = aBegin;
+    ends[size] = aEnd;
+    return size++;
+  }
+
+  /**
+   * Add spans given as parallel arrays.
+   * 
+   * @param aBegins
+   *          the begin offsets.
+   * @param aEnds
+   *          the end offsets.
+   * @return the builder.
+   */
+  public BulkAnnotationBuilder<T> addAll(int[] aBegins, int[] aEnds) {
+    if (aBegins.length != aEnds.length) {
+      throw new IllegalArgumentException("Got [" + aBegins.length + "] begin offsets but ["
+              + aEnds.length + "] end offsets");
+    }
+
+    ensureCapacity(size + aBegins.length);
+    System.arraycopy(aBegins, 0, begins, size, aBegins.length);
+    System.arraycopy(aEnds, 0, ends, size, aEnds.length);
+    size += aBegins.length;
+    return this;
+  }
+
+  /**
+   * @return the number of spans added so far.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Set a primitive or string feature. Value {@code i} is assigned to the span at position
+   * {@code i}. When {@link #build()} is called, there must be exactly one value per span.
+   * 
+   * @param aFeature
+   *          the base name of the feature.
+   * @param aValues
+   *          the feature values.
+   * @return the builder.
+   */
+  public BulkAnnotationBuilder<T> setFeature(String aFeature, String[] aValues) {
+    FeatureAccessor accessor = FeatureAccessor.of(type, aFeature);
+    return addColumn(aFeature, aValues.length, (fs, i) -> accessor.setString(fs, aValues[i]));
+  }
+
+  /**
+   * @param aFeature
+   *          the base name of the feature.
+   * @param aValues
+   *          the feature values.
+   * @return the builder.
+   * @see #setFeature(String, String[])
+   */
+  public BulkAnnotationBuilder<T> setFeature(String aFeature, boolean[] aValues) {
+    FeatureAccessor accessor = FeatureAccessor.of(type, aFeature);
+    return addColumn(aFeature, aValues.length, (fs, i) -> accessor.setBoolean(fs, aValues[i]));
+  }
+
+  /**
+   * @param aFeature
+   *          the base name of the feature.
+   * @param aValues
+   *          the feature values.
+   * @return the builder.
+   * @see #setFeature(String, String[])
+   */
+  public BulkAnnotationBuilder<T> setFeature(String aFeature, int[] aValues) {
+    FeatureAccessor accessor = FeatureAccessor.of(type, aFeature);
+    return addColumn(aFeature, aValues.length, (fs, i) -> accessor.setInt(fs, aValues[i]));
+  }
+
+  /**
+   * @param aFeature
+   *          the base name of the feature.
+   * @param aValues
+   *          the feature values.
+   * @return the builder.
+   * @see #setFeature(String, String[])
+   */
+  public BulkAnnotationBuilder<T> setFeature(String aFeature, long[] aValues) {
+    FeatureAccessor accessor = FeatureAccessor.of(type, aFeature);
+    return addColumn(aFeature, aValues.length, (fs, i) -> accessor.setLong(fs, aValues[i]));
+  }
+
+  /**
+   * @param aFeature
+   *          the base name of the feature.
+   * @param aValues
+   *          the feature values.
+   * @return the builder.
+   * @see #setFeature(String, String[])
+   */
+  public BulkAnnotationBuilder<T> setFeature(String aFeature, float[] aValues) {
+    FeatureAccessor accessor = FeatureAccessor.of(type, aFeature);
+    return addColumn(aFeature, aValues.length, (fs, i) -> accessor.setFloat(fs, aValues[i]));
+  }
+
+  /**
+   * @param aFeature
+   *          the base name of the feature.
+   * @param aValues
+   *          the feature values.
+   * @return the builder.
+   * @see #setFeature(String, String[])
+   */
+  public BulkAnnotationBuilder<T> setFeature(String aFeature, double[] aValues) {
+    FeatureAccessor accessor = FeatureAccessor.of(type, aFeature);
+    return addColumn(aFeature, aValues.length, (fs, i) -> accessor.setDouble(fs, aValues[i]));
+  }
+
+  /**
+   * Set a feature referring to other feature structures.
+   * 
+   * @param aFeature
+   *          the base name of the feature.
+   * @param aValues
+   *          the feature values.
+   * @return the builder.
+   * @see #setFeature(String, String[])
+   */
+  public BulkAnnotationBuilder<T> setFeature(String aFeature, FeatureStructure[] aValues) {
+    FeatureAccessor accessor = FeatureAccessor.of(type, aFeature);
+    return addColumn(aFeature, aValues.length,
+            (fs, i) -> accessor.setFeatureStructure(fs, aValues[i]));
+  }
+
+  private BulkAnnotationBuilder<T> addColumn(String aFeature, int aLength, Setter aSetter) {
+    columns.add(new Column(aFeature, aLength, aSetter));
+    return this;
+  }
+
+  /**
+   * Create the annotations and add them to the indexes. The builder is reset afterwards.
+   * 
+   * @return the annotations in the order in which their spans were added.
+   * @throws IllegalStateException
+   *           if the number of values of a feature does not match the number of spans.
+   */
+  public List<T> build() {
+    for (Column column : columns) {
+      if (column.length != size) {
+        throw new IllegalStateException("Got [" + column.length + "] values for feature ["
+                + column.feature + "] but [" + size + "] spans");
+      }
+    }
+
+    int[] order = sortedOrder();
+
+    // Create the annotations in index order so that they can be appended to the index
+    AnnotationFS[] annotations = new AnnotationFS[size];
+    for (int k = 0; k < size; k++) {
+      int i = order != null ? order[k] : k;
+      AnnotationFS annotation = cas.createAnnotation(type, begins[i], ends[i]);
+      for (Column column : columns) {
+        column.setter.set(annotation, i);
+      }
+      annotations[i] = annotation;
+    }
+
+    // Only index the annotations once all their features have been set
+    for (int k = 0; k < size; k++) {
+      cas.addFsToIndexes(annotations[order != null ? order[k] : k]);
+    }
+
+    size = 0;
+    columns.clear();
+
+    @SuppressWarnings("unchecked")
+    List<T> result = (List<T>) Arrays.asList(annotations);
+    return result;
+  }
+
+  /**
+   * Get the positions of the spans in annotation index order, i.e. by ascending begin and
+   * descending end offset.
+   * 
+   * @return the sorted positions or {@code null} if the spans have been added in order.
+   */
+  private int[] sortedOrder() {
+    boolean sorted = true;
+    for (int i = 1; i < size && sorted; i++) {
+      sorted = compare(i - 1, i) <= 0;
+    }
+
+    if (sorted) {
+      return null;
+    }
+
+    return IntArraySort.sortedOrdinals(size, this::compare);
+  }
+
+  private int compare(int aLeft, int aRight) {
+    int c = Integer.compare(begins[aLeft], begins[aRight]);
+    return c != 0 ? c : Integer.compare(ends[aRight], ends[aLeft]);
+  }
+
+  @FunctionalInterface
+  private interface Setter {
+    void set(FeatureStructure aFS, int aIndex);
+  }
+
+  private static final class Column {
+    final String feature;
+
+    final int length;
+
+    final Setter setter;
+
+    Column(String aFeature, int aLength, Setter aSetter) {
+      feature = aFeature;
+      length = aLength;
+      setter = aSetter;
+    }
+  }
+}
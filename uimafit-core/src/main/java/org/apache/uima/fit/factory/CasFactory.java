@@ -26,8 +26,14 @@ import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.createTyp
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
 
 import org.apache.uima.cas.CAS;
+import org.apache.uima.fit.internal.ClassLoaderUtils;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceManager;
@@ -41,6 +47,15 @@ import org.apache.uima.util.CasIOUtils;
  * Convenience methods to create {@link CAS} objects.
  */
 public final class CasFactory {
+  private static final int MAX_CACHED_TEMPLATES = 32;
+
+  /**
+   * The templates of each class loader. Templates reference their class loader through the JCas
+   * classes and the resource manager, so they are only held softly to let the class loader be
+   * collected.
+   */
+  private static final Map<ClassLoader, SoftReference<Templates>> TEMPLATES = new WeakHashMap<>();
+
   private CasFactory() {
     // This class is not meant to be instantiated
   }
@@ -92,6 +107,9 @@ public final class CasFactory {
    * {@link TypeSystemDescriptionFactory#createTypeSystemDescription()}. Type priorities are
    * detected automatically using {@link TypePrioritiesFactory#createTypePriorities()}. Indexes are
    * detected automatically using {@link FsIndexFactory#createFsIndexCollection()}.
+   * <p>
+   * Each call builds a new type system. When creating many CASes, obtain a template via
+   * {@link #createCasTemplate()} instead.
    * 
    * @return a new CAS
    * @throws ResourceInitializationException
@@ -152,6 +170,122 @@ public final class CasFactory {
     return CasCreationUtils.createCas(typeSystemDescription, null, null);
   }
 
+  /**
+   * Get a {@link CasTemplate} for the automatically detected type system, type priorities and
+   * indexes. The type system is detected automatically using
+   * {@link TypeSystemDescriptionFactory#createTypeSystemDescription()}. Type priorities are
+   * detected automatically using {@link TypePrioritiesFactory#createTypePriorities()}. Indexes are
+   * detected automatically using {@link FsIndexFactory#createFsIndexCollection()}.
+   * <p>
+   * The template is cached per class loader, so repeated calls return the same template without
+   * repeating the auto-detection until the detected descriptions are reset, e.g. by
+   * {@link TypeSystemDescriptionFactory#forceTypeDescriptorsScan()}. Creating a CAS from the
+   * template is much cheaper than {@link #createCas()}.
+   * 
+   * @return a template
+   * @throws ResourceInitializationException
+   *           if the type system could not be created
+   */
+  public static CasTemplate createCasTemplate() throws ResourceInitializationException {
+    ClassLoader cl = ClassLoaderUtils.findClassloader();
+
+    // Taken before the detection, so that a concurrent reset causes a new detection on the next
+    // call rather than leaving an outdated template in place
+    TypeSystemDescription detectedTypeSystem = TypeSystemDescriptionFactory
+            .getDetectedTypeSystemDescription(cl);
+    TypePriorities detectedTypePriorities = TypePrioritiesFactory.getDetectedTypePriorities(cl);
+    FsIndexCollection detectedIndexes = FsIndexFactory.getDetectedFsIndexCollection(cl);
+
+    synchronized (TEMPLATES) {
+      Templates templates = getTemplates(cl);
+      if (templates.detected != null && detectedTypeSystem != null
+              && templates.detectedTypeSystem == detectedTypeSystem
+              && templates.detectedTypePriorities == detectedTypePriorities
+              && templates.detectedIndexes == detectedIndexes) {
+        return templates.detected;
+      }
+    }
+
+    CasTemplate template = createCasTemplate(createTypeSystemDescription(), createTypePriorities(),
+            createFsIndexCollection());
+
+    synchronized (TEMPLATES) {
+      Templates templates = getTemplates(cl);
+      templates.detected = template;
+      templates.detectedTypeSystem = detectedTypeSystem;
+      templates.detectedTypePriorities = detectedTypePriorities;
+      templates.detectedIndexes = detectedIndexes;
+    }
+
+    return template;
+  }
+
+  /**
+   * Get a {@link CasTemplate} for the given type system description. No auto-detection of type
+   * priorities or indexes is performed. Templates are cached by their descriptions.
+   * 
+   * @param typeSystemDescription
+   *          a type system description to initialize the CASes
+   * @return a template
+   * @throws ResourceInitializationException
+   *           if the type system could not be created
+   */
+  public static CasTemplate createCasTemplate(TypeSystemDescription typeSystemDescription)
+          throws ResourceInitializationException {
+    return createCasTemplate(typeSystemDescription, null, null);
+  }
+
+  /**
+   * Get a {@link CasTemplate} for the given descriptions. Templates are cached per class loader by
+   * their descriptions, so the descriptions must not be modified after calling this method.
+   * 
+   * @param typeSystemDescription
+   *          a type system description to initialize the CASes
+   * @param typePriorities
+   *          type priorities (may be {@code null})
+   * @param indexes
+   *          index definitions (may be {@code null})
+   * @return a template
+   * @throws ResourceInitializationException
+   *           if the type system could not be created
+   */
+  public static CasTemplate createCasTemplate(TypeSystemDescription typeSystemDescription,
+          TypePriorities typePriorities, FsIndexCollection indexes)
+          throws ResourceInitializationException {
+    ClassLoader cl = ClassLoaderUtils.findClassloader();
+    TemplateKey key = new TemplateKey(typeSystemDescription, typePriorities, indexes);
+    synchronized (TEMPLATES) {
+      CasTemplate template = getTemplates(cl).byDescription.get(key);
+      if (template != null) {
+        return template;
+      }
+    }
+
+    // Creating the template is expensive, so it is done without holding the lock. Copy the key
+    // first since creating the CAS may resolve imports in the descriptions.
+    TemplateKey copy = key.copy();
+    CasTemplate template = CasTemplate.create(typeSystemDescription, typePriorities, indexes);
+
+    synchronized (TEMPLATES) {
+      // If another thread created a template for the same descriptions meanwhile, use that one
+      CasTemplate existing = getTemplates(cl).byDescription.putIfAbsent(copy, template);
+      return existing != null ? existing : template;
+    }
+  }
+
+  /**
+   * Must be called while holding the lock on {@link #TEMPLATES}.
+   */
+  private static Templates getTemplates(ClassLoader aClassLoader) {
+    SoftReference<Templates> ref = TEMPLATES.get(aClassLoader);
+    Templates templates = ref != null ? ref.get() : null;
+    if (templates == null) {
+      templates = new Templates();
+      TEMPLATES.put(aClassLoader, new SoftReference<>(templates));
+    }
+    return templates;
+  }
+
   /**
    * This method creates a new CAS and loads the contents of an XMI or XCAS file into it.
    * 
@@ -173,4 +307,85 @@ public final class CasFactory {
     }
     return cas;
   }
+
+  /**
+   * The templates created for a single class loader.
+   */
+  private static final class Templates {
+    final Map<TemplateKey, CasTemplate> byDescription = new LinkedHashMap<TemplateKey, CasTemplate>(
+            16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<TemplateKey, CasTemplate> aEldest) {
+        return size() > MAX_CACHED_TEMPLATES;
+      }
+    };
+
+    /**
+     * The template for the auto-detected descriptions.
+     */
+    CasTemplate detected;
+
+    /**
+     * The detection results from which {@link #detected} was created. They are compared by
+     * identity because the factories replace them when detection is repeated.
+     */
+    TypeSystemDescription detectedTypeSystem;
+
+    TypePriorities detectedTypePriorities;
+
+    FsIndexCollection detectedIndexes;
+  }
+
+  private static final class TemplateKey {
+    private final TypeSystemDescription typeSystem;
+
+    private final TypePriorities typePriorities;
+
+    private final FsIndexCollection indexes;
+
+    private final int hash;
+
+    TemplateKey(TypeSystemDescription aTypeSystem, TypePriorities aTypePriorities,
+            FsIndexCollection aIndexes) {
+      typeSystem = aTypeSystem;
+      typePriorities = aTypePriorities;
+      indexes = aIndexes;
+      hash = Objects.hash(aTypeSystem, aTypePriorities, aIndexes);
+    }
+
+    private TemplateKey(TemplateKey aOther) {
+      typeSystem = aOther.typeSystem != null
+              ? (TypeSystemDescription) aOther.typeSystem.clone()
+              : null;
+      typePriorities = aOther.typePriorities != null
+              ? (TypePriorities) aOther.typePriorities.clone()
+              : null;
+      indexes = aOther.indexes != null ? (FsIndexCollection) aOther.indexes.clone() : null;
+      hash = aOther.hash;
+    }
+
+    TemplateKey copy() {
+      return new TemplateKey(this);
+    }
+
+    @Override
+    public boolean equals(Object aOther) {
+      if (!(aOther instanceof TemplateKey)) {
+        return false;
+      }
+
+      TemplateKey other = (TemplateKey) aOther;
+      return hash == other.hash
+              && Objects.equals(typeSystem, other.typeSystem)
+              && Objects.equals(typePriorities, other.typePriorities)
+              && Objects.equals(indexes, other.indexes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.factory;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.fit.internal.ResourceManagerFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.FsIndexCollection;
+import org.apache.uima.resource.metadata.FsIndexDescription;
+import org.apache.uima.resource.metadata.TypePriorities;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+/**
+ * Template for creating CASes which share a committed type system. Creating a CAS from a template
+ * skips merging the descriptions and building and committing a new type system, which is the most
+ * expensive part of creating a CAS. All CASes created from the same template share the same
+ * {@link TypeSystem} instance, so feature structures can be copied between them without type
+ * system mapping.
+ * <p>
+ * Templates are thread-safe. Use {@link CasFactory#createCasTemplate()} to obtain a template which
+ * is cached for the given descriptions.
+ */
+public final class CasTemplate {
+  private final TypeSystem typeSystem;
+
+  private final TypePriorities typePriorities;
+
+  private final FsIndexDescription[] fsIndexes;
+
+  private final ResourceManager resourceManager;
+
+  private CasTemplate(TypeSystem aTypeSystem, TypePriorities aTypePriorities,
+          FsIndexDescription[] aFsIndexes, ResourceManager aResourceManager) {
+    typeSystem = aTypeSystem;
+    typePriorities = aTypePriorities;
+    fsIndexes = aFsIndexes;
+    resourceManager = aResourceManager;
+  }
+
+  /**
+   * Create a new template. Consider using {@link CasFactory#createCasTemplate} instead which
+   * caches templates.
+   * 
+   * @param aTypeSystem
+   *          a type system description.
+   * @param aTypePriorities
+   *          type priorities (may be {@code null}).
+   * @param aFsIndexes
+   *          index definitions (may be {@code null}).
+   * @return the template.
+   * @throws ResourceInitializationException
+   *           if the type system could not be created.
+   */
+  public static CasTemplate create(TypeSystemDescription aTypeSystem,
+          TypePriorities aTypePriorities, FsIndexCollection aFsIndexes)
+          throws ResourceInitializationException {
+    ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
+    FsIndexDescription[] indexes = aFsIndexes != null ? aFsIndexes.getFsIndexes() : null;
+    CAS cas = CasCreationUtils.createCas(aTypeSystem, aTypePriorities, indexes, null, resMgr);
+    return new CasTemplate(cas.getTypeSystem(), aTypePriorities, indexes, resMgr);
+  }
+
+  /**
+   * @return the committed type system shared by all CASes created from this template.
+   */
+  public TypeSystem getTypeSystem() {
+    return typeSystem;
+  }
+
+  /**
+   * @return a new CAS.
+   * @throws ResourceInitializationException
+   *           if the CAS could not be created.
+   */
+  public CAS createCas() throws ResourceInitializationException {
+    return CasCreationUtils.createCas(typeSystem, typePriorities, fsIndexes, null,
+            resourceManager);
+  }
+
+  /**
+   * @return a new JCas.
+   * @throws ResourceInitializationException
+   *           if the CAS could not be created.
+   * @throws CASException
+   *           if the JCas could not be initialized.
+   */
+  public JCas createJCas() throws ResourceInitializationException, CASException {
+    return createCas().getJCas();
+  }
+
+  /**
+   * Create a pool of CASes based on this template. CASes are only created when they are first
+   * requested from the pool.
+   * 
+   * @param aSize
+   *          the maximum number of CASes in the pool.
+   * @return the pool.
+   */
+  public CasTemplatePool createPool(int aSize) {
+    return new CasTemplatePool(this, aSize);
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.factory;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASException;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+
+/**
+ * Bounded pool of CASes created from a {@link CasTemplate}. CASes are reset when they are released
+ * to the pool. Unlike creating a new CAS for every request, the pool reuses the CAS heap and index
+ * structures. Pools are thread-safe.
+ * 
+ * <pre>
+ * CasTemplatePool pool = CasFactory.createCasTemplate().createPool(8);
+ * JCas jcas = pool.getJCas();
+ * try {
+ *   ...
+ * } finally {
+ *   pool.release(jcas);
+ * }
+ * </pre>
+ */
+public final class CasTemplatePool {
+  private final CasTemplate template;
+
+  private final int size;
+
+  private final BlockingQueue<CAS> free = new LinkedBlockingQueue<>();
+
+  private final Set<CAS> all = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  CasTemplatePool(CasTemplate aTemplate, int aSize) {
+    if (aSize < 1) {
+      throw new IllegalArgumentException("Pool size must be at least 1");
+    }
+
+    template = aTemplate;
+    size = aSize;
+  }
+
+  /**
+   * Get a CAS from the pool, waiting until one is released if all CASes are in use.
+   * 
+   * @return a CAS.
+   * @throws ResourceInitializationException
+   *           if a new CAS could not be created.
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  public CAS getCas() throws ResourceInitializationException, InterruptedException {
+    CAS cas = free.poll();
+    if (cas == null) {
+      cas = create();
+    }
+    if (cas == null) {
+      cas = free.take();
+    }
+    return cas;
+  }
+
+  /**
+   * Get a CAS from the pool, waiting at most the given time until one is released if all CASes
+   * are in use.
+   * 
+   * @param aTimeoutMillis
+   *          the maximum time to wait in milliseconds.
+   * @return a CAS or {@code null} if no CAS became available in time.
+   * @throws ResourceInitializationException
+   *           if a new CAS could not be created.
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  public CAS getCas(long aTimeoutMillis)
+          throws ResourceInitializationException, InterruptedException {
+    CAS cas = free.poll();
+    if (cas == null) {
+      cas = create();
+    }
+    if (cas == null) {
+      cas = free.poll(aTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    return cas;
+  }
+
+  /**
+   * Get a JCas from the pool, waiting until one is released if all CASes are in use.
+   * 
+   * @return a JCas.
+   * @throws ResourceInitializationException
+   *           if a new CAS could not be created.
+   * @throws CASException
+   *           if the JCas could not be initialized.
+   * @throws InterruptedException
+   *           if interrupted while waiting.
+   */
+  public JCas getJCas()
+          throws ResourceInitializationException, CASException, InterruptedException {
+    return getCas().getJCas();
+  }
+
+  /**
+   * Reset the given CAS and return it to the pool.
+   * 
+   * @param aCas
+   *          a CAS obtained from this pool (or any of its views).
+   * @throws IllegalArgumentException
+   *           if the CAS does not belong to this pool.
+   * @throws IllegalStateException
+   *           if the CAS has already been released.
+   */
+  public void release(CAS aCas) {
+    CAS cas = ((CASImpl) aCas).getBaseCAS().getView(CAS.NAME_DEFAULT_SOFA);
+    synchronized (all) {
+      if (!all.contains(cas)) {
+        throw new IllegalArgumentException("CAS does not belong to this pool");
+      }
+
+      if (free.contains(cas)) {
+        throw new IllegalStateException("CAS has already been released");
+      }
+
+      cas.reset();
+      free.add(cas);
+    }
+  }
+
+  /**
+   * Reset the given JCas and return it to the pool.
+   * 
+   * @param aJCas
+   *          a JCas obtained from this pool (or any of its views).
+   * @throws IllegalArgumentException
+   *           if the CAS does not belong to this pool.
+   */
+  public void release(JCas aJCas) {
+    release(aJCas.getCas());
+  }
+
+  /**
+   * @return the maximum number of CASes in the pool.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return the number of CASes currently available without creating a new one.
+   */
+  public int getFreeCount() {
+    return free.size();
+  }
+
+  private CAS create() throws ResourceInitializationException {
+    synchronized (all) {
+      if (all.size() >= size) {
+        return null;
+      }
+
+      CAS cas = template.createCas().getView(CAS.NAME_DEFAULT_SOFA);
+      all.add(cas);
+      return cas;
+    }
+  }
+}
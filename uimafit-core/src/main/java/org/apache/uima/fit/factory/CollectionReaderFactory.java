@@ -18,6 +18,8 @@
  */
 package org.apache.uima.fit.factory;
 
+import static org.apache.uima.fit.component.ShardableCollectionReader.PARAM_SHARD_COUNT;
+import static org.apache.uima.fit.component.ShardableCollectionReader.PARAM_SHARD_INDEX;
 import static org.apache.uima.fit.factory.ConfigurationParameterFactory.createConfigurationData;
 import static org.apache.uima.fit.factory.ConfigurationParameterFactory.ensureParametersComeInPairs;
 import static org.apache.uima.fit.factory.ConfigurationParameterFactory.setParameters;
@@ -37,6 +39,7 @@ import org.apache.uima.Constants;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.collection.CollectionReader;
 import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.component.ShardableCollectionReader;
 import org.apache.uima.fit.factory.ConfigurationParameterFactory.ConfigurationData;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.resource.ExternalResourceDescription;
@@ -46,6 +49,7 @@ import org.apache.uima.resource.ResourceManager;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.resource.metadata.Capability;
 import org.apache.uima.resource.metadata.ConfigurationParameter;
+import org.apache.uima.resource.metadata.ConfigurationParameterDeclarations;
 import org.apache.uima.resource.metadata.FsIndexCollection;
 import org.apache.uima.resource.metadata.Import;
 import org.apache.uima.resource.metadata.ResourceMetaData;
@@ -446,6 +450,41 @@ public final class CollectionReaderFactory {
     return createReader(desc, configurationData);
   }
 
+  /**
+   * Create a copy of the description of a {@link ShardableCollectionReader} which is configured to
+   * read only the given shard of the input. The descriptions for the shards {@code 0} to
+   * {@code aShardCount - 1} can be used to read the input in parallel.
+   * 
+   * @param desc
+   *          a descriptor of a reader implementing {@link ShardableCollectionReader}.
+   * @param aShardIndex
+   *          the shard to read, starting at {@code 0}.
+   * @param aShardCount
+   *          the number of shards into which the input is split.
+   * @return a new description configured to read the given shard.
+   * @throws IllegalArgumentException
+   *           if the reader does not declare the shard parameters or if the shard index is not in
+   *           the range {@code [0, aShardCount)}.
+   */
+  public static CollectionReaderDescription createShardReaderDescription(
+          CollectionReaderDescription desc, int aShardIndex, int aShardCount) {
+    ShardableCollectionReader.checkShard(aShardIndex, aShardCount);
+
+    ConfigurationParameterDeclarations decls = desc.getCollectionReaderMetaData()
+            .getConfigurationParameterDeclarations();
+    if (decls.getConfigurationParameter(null, PARAM_SHARD_INDEX) == null
+            || decls.getConfigurationParameter(null, PARAM_SHARD_COUNT) == null) {
+      throw new IllegalArgumentException("Reader [" + desc.getImplementationName()
+              + "] does not declare the parameters [" + PARAM_SHARD_INDEX + "] and ["
+              + PARAM_SHARD_COUNT + "]");
+    }
+
+    CollectionReaderDescription descClone = (CollectionReaderDescription) desc.clone();
+    ResourceCreationSpecifierFactory.setConfigurationParameters(descClone, PARAM_SHARD_INDEX,
+            aShardIndex, PARAM_SHARD_COUNT, aShardCount);
+    return descClone;
+  }
+
   /**
    * A simple factory method for creating a CollectionReaderDescription with a given class, type
    * system description, and configuration data. The type system is detected automatically using
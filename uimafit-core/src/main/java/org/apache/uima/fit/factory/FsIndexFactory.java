@@ -35,6 +35,8 @@ import java.util.WeakHashMap;
 import org.apache.uima.fit.descriptor.FsIndex;
 import org.apache.uima.fit.descriptor.FsIndexKey;
 import org.apache.uima.fit.internal.ClassLoaderUtils;
+import org.apache.uima.fit.internal.MetaDataBundle;
+import org.apache.uima.fit.internal.MetaDataCache;
 import org.apache.uima.fit.internal.MetaDataType;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -280,7 +282,12 @@ public final class FsIndexFactory {
   /**
    * Creates a {@link FsIndexCollection} from all index descriptions that can be found via the
    * pattern specified in the system property {@code org.apache.uima.fit.fsindex.import_pattern} or
-   * via the {@code META-INF/org.apache.uima.fit/fsindexes.txt} files in the classpath.
+   * via the {@code META-INF/org.apache.uima.fit/fsindexes.txt} files in the classpath. Artifacts
+   * providing a pre-merged bundle generated by the uimaFIT Maven plugin contribute their bundled
+   * indexes instead of their manifest.
+   * <p>
+   * The merged indexes can be cached across JVM runs by setting the system property
+   * {@value MetaDataCache#PROP_CACHE_DIR} to a cache directory.
    *
    * @return the auto-scanned indexes.
    * @throws ResourceInitializationException
@@ -291,14 +298,19 @@ public final class FsIndexFactory {
     FsIndexCollection aggFsIdxCol = fsIndexCollectionsByClassloader.get(cl);
     if (aggFsIdxCol == null) {
       synchronized (CREATE_LOCK) {
-        ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
-        List<FsIndexDescription> fsIndexList = new ArrayList<>();
-
-        loadFsIndexCollectionsFromScannedLocations(fsIndexList, resMgr);
-        loadFsIndexCollectionsfromSPIs(fsIndexList);
-
-        aggFsIdxCol = createFsIndexCollection(
-                fsIndexList.toArray(new FsIndexDescription[fsIndexList.size()]));
+        aggFsIdxCol = MetaDataCache.load(MetaDataType.FS_INDEX, cl, FsIndexCollection.class);
+        if (aggFsIdxCol == null) {
+          ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
+          List<FsIndexDescription> fsIndexList = new ArrayList<>();
+
+          loadFsIndexCollectionsFromBundles(fsIndexList, cl);
+          loadFsIndexCollectionsFromScannedLocations(fsIndexList, resMgr);
+          loadFsIndexCollectionsfromSPIs(fsIndexList);
+
+          aggFsIdxCol = createFsIndexCollection(
+                  fsIndexList.toArray(new FsIndexDescription[fsIndexList.size()]));
+          MetaDataCache.store(MetaDataType.FS_INDEX, cl, aggFsIdxCol);
+        }
         fsIndexCollectionsByClassloader.put(cl, aggFsIdxCol);
       }
     }
@@ -306,6 +318,23 @@ public final class FsIndexFactory {
     return (FsIndexCollection) aggFsIdxCol.clone();
   }
 
+  /**
+   * @return the indexes detected by {@link #createFsIndexCollection()} for the given class loader
+   *         or {@code null} if detection has not happened yet or was reset. The instance is not
+   *         copied and must not be modified.
+   */
+  static FsIndexCollection getDetectedFsIndexCollection(ClassLoader aClassLoader) {
+    return fsIndexCollectionsByClassloader.get(aClassLoader);
+  }
+
+  static void loadFsIndexCollectionsFromBundles(List<FsIndexDescription> fsIndexList,
+          ClassLoader aClassLoader) throws ResourceInitializationException {
+    for (FsIndexCollection fsIdxCol : MetaDataBundle.load(MetaDataType.FS_INDEX, aClassLoader,
+            FsIndexCollection.class)) {
+      fsIndexList.addAll(asList(fsIdxCol.getFsIndexes()));
+    }
+  }
+
   static void loadFsIndexCollectionsFromScannedLocations(List<FsIndexDescription> fsIndexList,
           ResourceManager aResMgr) throws ResourceInitializationException {
     for (String location : scanIndexDescriptors()) {
@@ -382,12 +411,14 @@ public final class FsIndexFactory {
   /**
    * Force rescan of index descriptors. The next call to {@link #scanIndexDescriptors()} will rescan
    * all auto-import locations.
+   * Existing entries of the persistent meta data cache are ignored by the next detection.
    */
   public static void forceIndexDescriptorsScan() {
     synchronized (SCAN_LOCK) {
       fsIndexLocationsByClassloader.clear();
       fsIndexCollectionsByClassloader.clear();
       fsIndexCollections.clear();
+      MetaDataCache.invalidate(MetaDataType.FS_INDEX);
     }
   }
 }
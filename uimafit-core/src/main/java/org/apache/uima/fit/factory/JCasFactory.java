@@ -77,6 +77,9 @@ public final class JCasFactory {
    * {@link TypeSystemDescriptionFactory#createTypeSystemDescription()}. Type priorities are
    * detected automatically using {@link TypePrioritiesFactory#createTypePriorities()}. Indexes are
    * detected automatically using {@link FsIndexFactory#createFsIndexCollection()}.
+   * <p>
+   * Each call builds a new type system. When creating many CASes, obtain a template via
+   * {@link CasFactory#createCasTemplate()} instead.
    * 
    * @return a new JCas
    * @throws ResourceInitializationException
@@ -31,6 +31,8 @@ import java.util.ServiceLoader;
 import java.util.WeakHashMap;
 
 import org.apache.uima.fit.internal.ClassLoaderUtils;
+import org.apache.uima.fit.internal.MetaDataBundle;
+import org.apache.uima.fit.internal.MetaDataCache;
 import org.apache.uima.fit.internal.MetaDataType;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.jcas.cas.TOP;
@@ -116,7 +118,12 @@ public final class TypePrioritiesFactory {
    * Creates a {@link TypePriorities} from all type priorities descriptions that can be found via
    * the pattern specified in the system property
    * {@code org.apache.uima.fit.typepriorities.import_pattern} or via the
-   * {@code META-INF/org.apache.uima.fit/typepriorities.txt} files in the classpath.
+   * {@code META-INF/org.apache.uima.fit/typepriorities.txt} files in the classpath. Artifacts
+   * providing a pre-merged bundle generated by the uimaFIT Maven plugin contribute their bundled
+   * type priorities instead of their manifest.
+   * <p>
+   * The merged type priorities can be cached across JVM runs by setting the system property
+   * {@value MetaDataCache#PROP_CACHE_DIR} to a cache directory.
    *
    * @return the auto-scanned type priorities.
    * @throws ResourceInitializationException
@@ -127,13 +134,19 @@ public final class TypePrioritiesFactory {
     TypePriorities aggTypePriorities = typePrioritiesByClassloader.get(cl);
     if (aggTypePriorities == null) {
       synchronized (CREATE_LOCK) {
-        ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
-        List<TypePriorities> typePrioritiesList = new ArrayList<>();
+        aggTypePriorities = MetaDataCache.load(MetaDataType.TYPE_PRIORITIES, cl,
+                TypePriorities.class);
+        if (aggTypePriorities == null) {
+          ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
+          List<TypePriorities> typePrioritiesList = new ArrayList<>();
 
-        loadTypePrioritiesFromScannedLocations(typePrioritiesList, resMgr);
-        loadTypePrioritiesFromSPIs(typePrioritiesList);
+          loadTypePrioritiesFromBundles(typePrioritiesList, cl);
+          loadTypePrioritiesFromScannedLocations(typePrioritiesList, resMgr);
+          loadTypePrioritiesFromSPIs(typePrioritiesList);
 
-        aggTypePriorities = CasCreationUtils.mergeTypePriorities(typePrioritiesList, resMgr);
+          aggTypePriorities = CasCreationUtils.mergeTypePriorities(typePrioritiesList, resMgr);
+          MetaDataCache.store(MetaDataType.TYPE_PRIORITIES, cl, aggTypePriorities);
+        }
         typePrioritiesByClassloader.put(cl, aggTypePriorities);
       }
     }
@@ -141,6 +154,21 @@ public final class TypePrioritiesFactory {
     return (TypePriorities) aggTypePriorities.clone();
   }
 
+  /**
+   * @return the type priorities detected by {@link #createTypePriorities()} for the given class
+   *         loader or {@code null} if detection has not happened yet or was reset. The instance is
+   *         not copied and must not be modified.
+   */
+  static TypePriorities getDetectedTypePriorities(ClassLoader aClassLoader) {
+    return typePrioritiesByClassloader.get(aClassLoader);
+  }
+
+  static void loadTypePrioritiesFromBundles(List<TypePriorities> typePrioritiesList,
+          ClassLoader aClassLoader) throws ResourceInitializationException {
+    typePrioritiesList.addAll(
+            MetaDataBundle.load(MetaDataType.TYPE_PRIORITIES, aClassLoader, TypePriorities.class));
+  }
+
   static void loadTypePrioritiesFromScannedLocations(List<TypePriorities> typePrioritiesList,
           ResourceManager aResMgr) throws ResourceInitializationException {
     for (String location : scanTypePrioritiesDescriptors()) {
@@ -216,12 +244,14 @@ public final class TypePrioritiesFactory {
   /**
    * Force rescan of type priorities descriptors. The next call to
    * {@link #scanTypePrioritiesDescriptors()} will rescan all auto-import locations.
+   * Existing entries of the persistent meta data cache are ignored by the next detection.
    */
   public static void forceTypePrioritiesDescriptorsScan() {
     synchronized (SCAN_LOCK) {
       typePrioritesLocationsByClassloader.clear();
       typePrioritiesByClassloader.clear();
       typePriorities.clear();
+      MetaDataCache.invalidate(MetaDataType.TYPE_PRIORITIES);
     }
   }
 }
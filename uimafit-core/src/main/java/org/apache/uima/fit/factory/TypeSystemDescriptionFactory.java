@@ -31,6 +31,8 @@ import java.util.ServiceLoader;
 import java.util.WeakHashMap;
 
 import org.apache.uima.fit.internal.ClassLoaderUtils;
+import org.apache.uima.fit.internal.MetaDataBundle;
+import org.apache.uima.fit.internal.MetaDataCache;
 import org.apache.uima.fit.internal.MetaDataType;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.resource.ResourceInitializationException;
@@ -118,7 +120,11 @@ public final class TypeSystemDescriptionFactory {
   /**
    * Creates a {@link TypeSystemDescription} from all type descriptions that can be found via the
    * default import pattern or via the {@code META-INF/org.apache.uima.fit/types.txt} files in the
-   * classpath.
+   * classpath. Artifacts providing a pre-merged bundle generated by the uimaFIT Maven plugin
+   * contribute their bundled type system instead of their {@code types.txt} manifest.
+   * <p>
+   * The merged type system can be cached across JVM runs by setting the system property
+   * {@value MetaDataCache#PROP_CACHE_DIR} to a cache directory.
    *
    * @return the auto-scanned type system.
    * @throws ResourceInitializationException
@@ -131,20 +137,40 @@ public final class TypeSystemDescriptionFactory {
     TypeSystemDescription tsd = typeDescriptorByClassloader.get(cl);
     if (tsd == null) {
       synchronized (CREATE_LOCK) {
-        ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
-        List<TypeSystemDescription> tsdList = new ArrayList<>();
-
-        loadTypeSystemDescriptionsFromScannedLocations(tsdList, resMgr);
-        loadTypeSystemDescriptionsFromSPIs(tsdList);
-
-        LOG.trace("Merging type systems and resolving imports...");
-        tsd = mergeTypeSystems(tsdList, resMgr);
+        tsd = MetaDataCache.load(MetaDataType.TYPE_SYSTEM, cl, TypeSystemDescription.class);
+        if (tsd == null) {
+          ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
+          List<TypeSystemDescription> tsdList = new ArrayList<>();
+
+          loadTypeSystemDescriptionsFromBundles(tsdList, cl);
+          loadTypeSystemDescriptionsFromScannedLocations(tsdList, resMgr);
+          loadTypeSystemDescriptionsFromSPIs(tsdList);
+
+          LOG.trace("Merging type systems and resolving imports...");
+          tsd = mergeTypeSystems(tsdList, resMgr);
+          MetaDataCache.store(MetaDataType.TYPE_SYSTEM, cl, tsd);
+        }
         typeDescriptorByClassloader.put(cl, tsd);
       }
     }
     return (TypeSystemDescription) tsd.clone();
   }
 
+  /**
+   * @return the type system detected by {@link #createTypeSystemDescription()} for the given class
+   *         loader or {@code null} if detection has not happened yet or was reset. The instance is
+   *         not copied and must not be modified.
+   */
+  static TypeSystemDescription getDetectedTypeSystemDescription(ClassLoader aClassLoader) {
+    return typeDescriptorByClassloader.get(aClassLoader);
+  }
+
+  static void loadTypeSystemDescriptionsFromBundles(List<TypeSystemDescription> tsdList,
+          ClassLoader aClassLoader) throws ResourceInitializationException {
+    tsdList.addAll(MetaDataBundle.load(MetaDataType.TYPE_SYSTEM, aClassLoader,
+            TypeSystemDescription.class));
+  }
+
   static void loadTypeSystemDescriptionsFromScannedLocations(List<TypeSystemDescription> tsdList,
           ResourceManager aResMgr) throws ResourceInitializationException {
     for (String location : scanTypeDescriptors()) {
@@ -226,6 +252,7 @@ public final class TypeSystemDescriptionFactory {
   /**
    * Force rescan of type descriptors. The next call to {@link #scanTypeDescriptors()} will rescan
    * all auto-import locations.
+   * Existing entries of the persistent meta data cache are ignored by the next detection.
    */
   public static void forceTypeDescriptorsScan() {
 
@@ -233,6 +260,7 @@ public final class TypeSystemDescriptionFactory {
       typeDescriptorLocationsByClassloader.clear();
       typeDescriptorByClassloader.clear();
       typeDescriptors.clear();
+      MetaDataCache.invalidate(MetaDataType.TYPE_SYSTEM);
     }
   }
 }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * INTERNAL API - An input stream reading from a {@link ByteBuffer}, typically a memory-mapped
+ * file. The stream supports {@link #mark(int)} and {@link #reset()} without buffering, so it does
+ * not need to be wrapped in a {@link java.io.BufferedInputStream}.
+ */
+public final class ByteBufferInputStream extends InputStream {
+  private final ByteBuffer buffer;
+
+  private int mark;
+
+  /**
+   * @param aBuffer
+   *          the buffer to read from. Reading starts at the current position of the buffer and
+   *          ends at its limit. The buffer position is advanced as data is read.
+   */
+  public ByteBufferInputStream(ByteBuffer aBuffer) {
+    buffer = aBuffer;
+    mark = aBuffer.position();
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] aBytes, int aOffset, int aLength) {
+    if (aLength == 0) {
+      return 0;
+    }
+
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+
+    int n = Math.min(aLength, buffer.remaining());
+    buffer.get(aBytes, aOffset, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long aCount) {
+    if (aCount <= 0) {
+      return 0;
+    }
+
+    int n = (int) Math.min(aCount, buffer.remaining());
+    buffer.position(buffer.position() + n);
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+
+  @Override
+  public synchronized void mark(int aReadLimit) {
+    mark = buffer.position();
+  }
+
+  @Override
+  public synchronized void reset() {
+    buffer.position(mark);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * INTERNAL API - A thread-safe map which compares keys by identity and holds them weakly. Entries
+ * are removed once their key has been garbage collected. Unlike a synchronized
+ * {@link java.util.WeakHashMap}, concurrent readers and writers do not block each other.
+ *
+ * @param <K>
+ *          the key type.
+ * @param <V>
+ *          the value type.
+ */
+public final class ConcurrentWeakIdentityMap<K, V> {
+  private final ConcurrentMap<Object, V> map = new ConcurrentHashMap<>();
+
+  private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+  /**
+   * @param aKey
+   *          the key.
+   * @return the value associated with the key or {@code null} if there is none.
+   */
+  public V get(K aKey) {
+    expunge();
+    return map.get(new LookupKey(aKey));
+  }
+
+  /**
+   * Associate the value with the key unless the key already has a value.
+   *
+   * @param aKey
+   *          the key.
+   * @param aValue
+   *          the value.
+   * @return the previous value or {@code null} if the value has been associated with the key.
+   */
+  public V putIfAbsent(K aKey, V aValue) {
+    expunge();
+    return map.putIfAbsent(new WeakKey<>(aKey, queue), aValue);
+  }
+
+  /**
+   * @param aKey
+   *          the key.
+   * @return the removed value or {@code null} if the key had no value.
+   */
+  public V remove(K aKey) {
+    expunge();
+    return map.remove(new LookupKey(aKey));
+  }
+
+  /**
+   * Remove all entries.
+   */
+  public void clear() {
+    map.clear();
+    expunge();
+  }
+
+  /**
+   * @return the number of entries. Entries whose keys have been garbage collected but which have
+   *         not been removed yet are included.
+   */
+  public int size() {
+    expunge();
+    return map.size();
+  }
+
+  private void expunge() {
+    Reference<? extends K> ref;
+    while ((ref = queue.poll()) != null) {
+      map.remove(ref);
+    }
+  }
+
+  private static final class WeakKey<K> extends WeakReference<K> {
+    private final int hash;
+
+    WeakKey(K aKey, ReferenceQueue<K> aQueue) {
+      super(aKey, aQueue);
+      hash = System.identityHashCode(aKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object aOther) {
+      if (this == aOther) {
+        return true;
+      }
+
+      Object referent = get();
+      if (referent == null) {
+        // Cleared keys are only equal to themselves so they can still be expunged
+        return false;
+      }
+
+      if (aOther instanceof WeakKey) {
+        return referent == ((WeakKey<?>) aOther).get();
+      }
+
+      if (aOther instanceof LookupKey) {
+        return referent == ((LookupKey) aOther).key;
+      }
+
+      return false;
+    }
+  }
+
+  /**
+   * Strong key used only for lookups so that no reference needs to be allocated and enqueued.
+   */
+  private static final class LookupKey {
+    private final Object key;
+
+    LookupKey(Object aKey) {
+      key = aKey;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(key);
+    }
+
+    @Override
+    public boolean equals(Object aOther) {
+      if (aOther instanceof LookupKey) {
+        return key == ((LookupKey) aOther).key;
+      }
+
+      if (aOther instanceof WeakKey) {
+        return key == ((WeakKey<?>) aOther).get();
+      }
+
+      return false;
+    }
+  }
+}
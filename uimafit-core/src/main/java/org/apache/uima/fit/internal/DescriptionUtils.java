@@ -27,6 +27,8 @@ import org.apache.uima.resource.ExternalResourceDescription;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceManager;
 import org.apache.uima.resource.ResourceSpecifier;
+import org.apache.uima.resource.metadata.MetaDataObject;
+import org.apache.uima.resource.metadata.OperationalProperties;
 import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
 import org.apache.uima.resource.metadata.ResourceManagerConfiguration;
 import org.apache.uima.util.CasCreationUtils;
@@ -116,4 +118,30 @@ public final class DescriptionUtils {
     resMgrCfg.setExternalResources(
             resources.values().toArray(new ExternalResourceDescription[resources.size()]));
   }
+
+  /**
+   * Checks whether the given engine may be instantiated more than once. For aggregates, this
+   * requires that all (inline) delegates allow multiple deployment as well.
+   *
+   * @param aDesc
+   *          an AE description
+   * @return whether the engine may be instantiated more than once.
+   */
+  public static boolean isMultipleDeploymentAllowed(AnalysisEngineDescription aDesc) {
+    OperationalProperties props = aDesc.getAnalysisEngineMetaData().getOperationalProperties();
+    if (props != null && !props.isMultipleDeploymentAllowed()) {
+      return false;
+    }
+
+    if (!aDesc.isPrimitive()) {
+      for (MetaDataObject mdo : aDesc.getDelegateAnalysisEngineSpecifiersWithImports().values()) {
+        if (mdo instanceof AnalysisEngineDescription
+                && !isMultipleDeploymentAllowed((AnalysisEngineDescription) mdo)) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * INTERNAL API - Sorting of {@code int} arrays by a custom comparator without boxing, typically
+ * of ordinals pointing into other arrays.
+ */
+public final class IntArraySort {
+  private IntArraySort() {
+    // No instances
+  }
+
+  /**
+   * @param aSize
+   *          the number of ordinals.
+   * @param aComparator
+   *          compares two ordinals.
+   * @return the ordinals {@code 0..aSize-1} in sorted order.
+   */
+  public static int[] sortedOrdinals(int aSize, IntBinaryOperator aComparator) {
+    int[] ordinals = new int[aSize];
+    for (int i = 0; i < aSize; i++) {
+      ordinals[i] = i;
+    }
+    sort(ordinals, aComparator);
+    return ordinals;
+  }
+
+  /**
+   * Stable merge sort. Already sorted runs are detected, so sorting an already sorted array takes
+   * linear time.
+   *
+   * @param aValues
+   *          the values to sort in place.
+   * @param aComparator
+   *          compares two values.
+   */
+  public static void sort(int[] aValues, IntBinaryOperator aComparator) {
+    mergeSort(aValues, new int[aValues.length], 0, aValues.length, aComparator);
+  }
+
+  private static void mergeSort(int[] aValues, int[] aBuffer, int aFrom, int aTo,
+          IntBinaryOperator aComparator) {
+    if (aTo - aFrom < 2) {
+      return;
+    }
+
+    int mid = (aFrom + aTo) >>> 1;
+    mergeSort(aValues, aBuffer, aFrom, mid, aComparator);
+    mergeSort(aValues, aBuffer, mid, aTo, aComparator);
+
+    if (aComparator.applyAsInt(aValues[mid - 1], aValues[mid]) <= 0) {
+      return;
+    }
+
+    System.arraycopy(aValues, aFrom, aBuffer, aFrom, aTo - aFrom);
+    int left = aFrom;
+    int right = mid;
+    for (int k = aFrom; k < aTo; k++) {
+      if (right >= aTo
+              || (left < mid && aComparator.applyAsInt(aBuffer[left], aBuffer[right]) <= 0)) {
+        aValues[k] = aBuffer[left++];
+      } else {
+        aValues[k] = aBuffer[right++];
+      }
+    }
+  }
+}
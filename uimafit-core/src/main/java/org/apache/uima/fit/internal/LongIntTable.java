@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+/**
+ * INTERNAL API - An open-addressing hash table mapping primitive {@code long} keys to non-negative
+ * {@code int} values, e.g. packed offsets or feature structure IDs to ordinals. Neither keys nor
+ * values are boxed. The capacity is fixed when the table is created and keeps the load factor at
+ * or below 0.5 for the expected number of keys.
+ */
+public final class LongIntTable {
+  private final long[] keys;
+
+  // Value plus one - zero marks an empty slot
+  private final int[] values;
+
+  private final int mask;
+
+  /**
+   * @param aExpectedSize
+   *          the maximum number of keys which will be put into the table.
+   */
+  public LongIntTable(int aExpectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, aExpectedSize) * 2 - 1) << 1;
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  private static int hash(long aKey) {
+    long h = aKey * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /**
+   * Associate the value with the key, replacing any previous value.
+   *
+   * @param aKey
+   *          the key.
+   * @param aValue
+   *          the value. Must not be negative.
+   */
+  public void put(long aKey, int aValue) {
+    int slot = hash(aKey) & mask;
+    while (values[slot] != 0 && keys[slot] != aKey) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = aKey;
+    values[slot] = aValue + 1;
+  }
+
+  /**
+   * @param aKey
+   *          the key.
+   * @return the value associated with the key or {@code -1} if there is none.
+   */
+  public int get(long aKey) {
+    int slot = hash(aKey) & mask;
+    while (values[slot] != 0) {
+      if (keys[slot] == aKey) {
+        return values[slot] - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.list;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.MetaDataObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * INTERNAL API - Access to pre-merged meta data bundles generated at build time by the
+ * {@code bundle-metadata} goal of the uimaFIT Maven plugin.
+ * <p>
+ * An artifact providing a bundle contains the index file {@value #BUNDLE_INDEX}. Each line of the
+ * index maps a {@link MetaDataType} to a bundle file located in the same folder as the index. A
+ * bundle file is an XML descriptor containing the type systems, indexes or type priorities of the
+ * artifact with all imports already resolved and merged into a single description. The descriptor
+ * manifests (e.g. {@code types.txt}) located next to a bundle index are not scanned anymore.
+ * <p>
+ * If a bundle cannot be loaded, a warning is logged and the manifests next to it are scanned
+ * instead. The detection methods of the factories load the bundles before scanning the manifests.
+ *
+ * This API is experimental and is very likely to be removed or changed in future versions.
+ */
+public final class MetaDataBundle {
+  private static final Logger LOG = LoggerFactory.getLogger(MetaDataBundle.class);
+
+  /**
+   * Location of the bundle index within an artifact.
+   */
+  public static final String BUNDLE_INDEX = "META-INF/org.apache.uima.fit/bundle.txt";
+
+  /**
+   * URLs of bundles which could not be loaded. The manifests next to them are scanned instead.
+   */
+  private static final Set<String> BROKEN_BUNDLES = ConcurrentHashMap.newKeySet();
+
+  private MetaDataBundle() {
+    // No instances
+  }
+
+  /**
+   * Get the name of the bundle file for the given type of meta data. The file is located in the
+   * same folder as the {@link #BUNDLE_INDEX bundle index}.
+   *
+   * @param aType
+   *          the type of metadata.
+   * @return the bundle file name.
+   */
+  public static String getBundleName(MetaDataType aType) {
+    switch (aType) {
+      case FS_INDEX:
+        return "fsindexes-bundle.xml";
+      case TYPE_SYSTEM:
+        return "types-bundle.xml";
+      case TYPE_PRIORITIES:
+        return "typepriorities-bundle.xml";
+      default:
+        throw new IllegalArgumentException("Unsupported meta data type [" + aType + "]");
+    }
+  }
+
+  /**
+   * Load the bundled meta data of the given type from all artifacts providing a bundle. Bundles
+   * which cannot be loaded are skipped with a warning and are no longer reported by
+   * {@link #getBundledLocations}, so the manifests of their artifacts are scanned instead.
+   *
+   * @param <T>
+   *          the meta data type.
+   * @param aType
+   *          the type of metadata.
+   * @param aClassLoader
+   *          the classloader used to locate the bundles.
+   * @param aClass
+   *          the meta data class.
+   * @return the bundled meta data, one entry per artifact.
+   * @throws ResourceInitializationException
+   *           if the bundle indexes could not be read.
+   */
+  public static <T extends MetaDataObject> List<T> load(MetaDataType aType,
+          ClassLoader aClassLoader, Class<T> aClass) throws ResourceInitializationException {
+    List<T> result = new ArrayList<>();
+    for (URL bundle : getBundles(aType, aClassLoader)) {
+      try {
+        result.add(MetaDataUtil.readXml(bundle, aClass));
+        LOG.debug("Loaded bundled {} at [{}]", aType, bundle);
+      } catch (IOException e) {
+        LOG.warn("Unable to load bundled {} at [{}] - scanning the manifests of the artifact "
+                + "instead", aType, bundle, e);
+        BROKEN_BUNDLES.add(bundle.toString());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the folders of all artifacts providing a bundle for the given type of meta data. Bundles
+   * which {@link #load could not be loaded} are not included.
+   *
+   * @param aType
+   *          the type of metadata.
+   * @param aClassLoader
+   *          the classloader used to locate the bundles.
+   * @return the URLs of the folders containing the bundle index, each ending in a slash.
+   * @throws ResourceInitializationException
+   *           if the bundle indexes could not be read.
+   */
+  public static Set<String> getBundledLocations(MetaDataType aType, ClassLoader aClassLoader)
+          throws ResourceInitializationException {
+    List<URL> bundles = getBundles(aType, aClassLoader);
+    if (bundles.isEmpty()) {
+      return emptySet();
+    }
+
+    Set<String> locations = new HashSet<>();
+    for (URL bundle : bundles) {
+      String url = bundle.toString();
+      if (BROKEN_BUNDLES.contains(url)) {
+        continue;
+      }
+      locations.add(url.substring(0, url.lastIndexOf('/') + 1));
+    }
+    return locations;
+  }
+
+  private static List<URL> getBundles(MetaDataType aType, ClassLoader aClassLoader)
+          throws ResourceInitializationException {
+    List<URL> bundles = new ArrayList<>();
+    if (aClassLoader == null) {
+      return bundles;
+    }
+
+    try {
+      for (URL index : list(aClassLoader.getResources(BUNDLE_INDEX))) {
+        Properties entries = new Properties();
+        try (InputStream is = index.openStream()) {
+          entries.load(is);
+        }
+
+        String name = entries.getProperty(aType.name());
+        if (name != null) {
+          bundles.add(new URL(index, name.trim()));
+        }
+      }
+    } catch (IOException e) {
+      throw new ResourceInitializationException(e);
+    }
+    return bundles;
+  }
+}
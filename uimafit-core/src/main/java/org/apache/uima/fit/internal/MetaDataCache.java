@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.resource.metadata.MetaDataObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * INTERNAL API - Persistent cache for the type systems, type priorities and index collections
+ * which are assembled by scanning the classpath.
+ * <p>
+ * The cache is disabled by default. It is enabled by setting the system property
+ * {@value #PROP_CACHE_DIR} to a directory in which the cache files are stored. The cache key is a
+ * fingerprint of the UIMA version, the import pattern system properties and the URLs, sizes and
+ * modification times of all classpath entries. Only entries of {@link URLClassLoader}s in the
+ * classloader hierarchy and of the {@code java.class.path} system property are considered. For
+ * directories on the classpath, all files they contain are considered. The classpath part of the
+ * fingerprint is calculated only once per classloader, so changes to the classpath made while the
+ * classloader is in use are not noticed unless the cache is {@link #invalidate invalidated}.
+ * Cache entries are stored as compressed Java serialization of the merged meta data.
+ * <p>
+ * Any problem reading or writing the cache is logged and treated like a cache miss.
+ *
+ * This API is experimental and is very likely to be removed or changed in future versions.
+ */
+public final class MetaDataCache {
+  private static final Logger LOG = LoggerFactory.getLogger(MetaDataCache.class);
+
+  /**
+   * System property specifying the directory of the persistent meta data cache. If not set, the
+   * cache is disabled.
+   */
+  public static final String PROP_CACHE_DIR = "org.apache.uima.fit.metadata.cache_dir";
+
+  private static final String FORMAT_VERSION = "1";
+
+  /**
+   * Fingerprints of the classpath entries visible to a classloader. Walking the classpath
+   * directories can be expensive, so it is done only once per classloader.
+   */
+  private static final ConcurrentWeakIdentityMap<ClassLoader, String> CLASSPATH_FINGERPRINTS =
+          new ConcurrentWeakIdentityMap<>();
+
+  /**
+   * Meta data types whose existing entries are ignored until the meta data has been collected and
+   * stored again.
+   */
+  private static final Set<MetaDataType> INVALIDATED = ConcurrentHashMap.newKeySet();
+
+  private MetaDataCache() {
+    // No instances
+  }
+
+  /**
+   * @return whether the persistent cache has been enabled.
+   */
+  public static boolean isEnabled() {
+    return System.getProperty(PROP_CACHE_DIR) != null;
+  }
+
+  /**
+   * Invalidates the cache entries of the given type. The classpath fingerprints are calculated
+   * anew and existing entries of the given type are ignored until the meta data has been collected
+   * again by scanning the classpath and {@link #store stored}.
+   *
+   * @param aType
+   *          the kind of meta data.
+   */
+  public static void invalidate(MetaDataType aType) {
+    CLASSPATH_FINGERPRINTS.clear();
+    INVALIDATED.add(aType);
+  }
+
+  /**
+   * Loads the meta data of the given type from the persistent cache.
+   *
+   * @param <T>
+   *          the meta data type.
+   * @param aType
+   *          the kind of meta data.
+   * @param aClassLoader
+   *          the classloader for which the meta data was collected.
+   * @param aClass
+   *          the meta data class.
+   * @return the cached meta data or {@code null} if the cache is disabled or no matching entry
+   *         exists or the entries of the type have been invalidated.
+   */
+  public static <T extends MetaDataObject> T load(MetaDataType aType, ClassLoader aClassLoader,
+          Class<T> aClass) {
+    if (!isEnabled()) {
+      return null;
+    }
+
+    if (INVALIDATED.contains(aType)) {
+      LOG.debug("Ignoring invalidated {} cache entries", aType);
+      return null;
+    }
+
+    Path file = getCacheFile(aType, aClassLoader);
+    if (file == null || !Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try {
+      T result = MetaDataUtil.deserialize(Files.newInputStream(file), aClassLoader, aClass);
+      LOG.debug("Loaded {} from cache [{}]", aType, file);
+      return result;
+    } catch (Exception e) {
+      LOG.warn("Unable to load {} from cache [{}] - ignoring cache entry", aType, file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores the meta data of the given type in the persistent cache.
+   *
+   * @param aType
+   *          the kind of meta data.
+   * @param aClassLoader
+   *          the classloader for which the meta data was collected.
+   * @param aMetaData
+   *          the meta data to store.
+   */
+  public static void store(MetaDataType aType, ClassLoader aClassLoader,
+          MetaDataObject aMetaData) {
+    if (!isEnabled()) {
+      return;
+    }
+
+    Path file = getCacheFile(aType, aClassLoader);
+    if (file == null) {
+      return;
+    }
+
+    Path tmp = null;
+    try {
+      Files.createDirectories(file.getParent());
+      // Write to a temporary file first so concurrent readers never see a partial entry
+      tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      MetaDataUtil.serialize(aMetaData, Files.newOutputStream(tmp));
+
+      try {
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      INVALIDATED.remove(aType);
+      LOG.debug("Stored {} in cache [{}]", aType, file);
+    } catch (IOException e) {
+      LOG.warn("Unable to store {} in cache [{}]", aType, file, e);
+    } finally {
+      // After a successful move, the temporary file is already gone
+      if (tmp != null) {
+        try {
+          Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+          LOG.warn("Unable to delete temporary cache file [{}]", tmp, e);
+        }
+      }
+    }
+  }
+
+  private static Path getCacheFile(MetaDataType aType, ClassLoader aClassLoader) {
+    try {
+      return new File(System.getProperty(PROP_CACHE_DIR))
+              .toPath()
+              .resolve(aType.name().toLowerCase() + "-" + fingerprint(aType, aClassLoader)
+                      + ".ser.gz");
+    } catch (IOException | NoSuchAlgorithmException e) {
+      LOG.warn("Unable to calculate classpath fingerprint - not using cache", e);
+      return null;
+    }
+  }
+
+  static String fingerprint(MetaDataType aType, ClassLoader aClassLoader)
+          throws IOException, NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    update(digest, FORMAT_VERSION);
+    update(digest, UIMAFramework.getVersionString());
+    update(digest, aType.name());
+
+    for (String property : MetaDataUtil.getImportProperties(aType)) {
+      update(digest, property + "=" + System.getProperty(property, ""));
+    }
+
+    update(digest, getClasspathFingerprint(aClassLoader));
+
+    return toHex(digest.digest());
+  }
+
+  private static String getClasspathFingerprint(ClassLoader aClassLoader)
+          throws IOException, NoSuchAlgorithmException {
+    if (aClassLoader == null) {
+      return calculateClasspathFingerprint(null);
+    }
+
+    String fingerprint = CLASSPATH_FINGERPRINTS.get(aClassLoader);
+    if (fingerprint == null) {
+      fingerprint = calculateClasspathFingerprint(aClassLoader);
+      String existing = CLASSPATH_FINGERPRINTS.putIfAbsent(aClassLoader, fingerprint);
+      if (existing != null) {
+        fingerprint = existing;
+      }
+    }
+    return fingerprint;
+  }
+
+  private static String calculateClasspathFingerprint(ClassLoader aClassLoader)
+          throws IOException, NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    for (String entry : getClasspathEntries(aClassLoader)) {
+      update(digest, entry);
+      File file = toFile(entry);
+      if (file == null || !file.exists()) {
+        continue;
+      }
+
+      if (file.isDirectory()) {
+        try (Stream<Path> files = Files.walk(file.toPath())) {
+          for (Path p : (Iterable<Path>) files::iterator) {
+            BasicFileAttributes attr = Files.readAttributes(p, BasicFileAttributes.class);
+            if (attr.isRegularFile()) {
+              update(digest, p + ":" + attr.size() + ":" + attr.lastModifiedTime().toMillis());
+            }
+          }
+        }
+      } else {
+        update(digest, file.length() + ":" + file.lastModified());
+      }
+    }
+
+    return toHex(digest.digest());
+  }
+
+  private static String toHex(byte[] aBytes) {
+    StringBuilder sb = new StringBuilder();
+    for (byte b : aBytes) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  private static Set<String> getClasspathEntries(ClassLoader aClassLoader) {
+    Set<String> entries = new LinkedHashSet<>();
+    for (ClassLoader cl = aClassLoader; cl != null; cl = cl.getParent()) {
+      if (cl instanceof URLClassLoader) {
+        for (URL url : ((URLClassLoader) cl).getURLs()) {
+          entries.add(url.toString());
+        }
+      }
+    }
+
+    String classpath = System.getProperty("java.class.path", "");
+    for (String entry : classpath.split(File.pathSeparator)) {
+      if (!entry.isEmpty()) {
+        entries.add(new File(entry).getAbsoluteFile().toURI().toString());
+      }
+    }
+
+    return entries;
+  }
+
+  private static File toFile(String aUrl) {
+    if (!aUrl.startsWith("file:")) {
+      return null;
+    }
+
+    try {
+      return new File(new URL(aUrl).toURI());
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static void update(MessageDigest aDigest, String aValue) {
+    aDigest.update(aValue.getBytes(UTF_8));
+    aDigest.update((byte) 0);
+  }
+}
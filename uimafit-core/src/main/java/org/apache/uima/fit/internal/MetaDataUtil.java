@@ -18,8 +18,18 @@
  */
 package org.apache.uima.fit.internal;
 
+import static java.util.Collections.list;
+import static org.apache.uima.UIMAFramework.getXMLParser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -27,12 +37,18 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.MetaDataObject;
+import org.apache.uima.util.InvalidXMLException;
+import org.apache.uima.util.XMLInputSource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.xml.sax.SAXException;
 
 /**
  * INTERNAL API - Utility methods to locate and access uimaFIT meta data.
@@ -61,17 +77,24 @@ public final class MetaDataUtil {
       patterns.addAll(Arrays.asList(System.getProperty(property, "").split(";")));
     }
 
-    // Scan manifest
-    for (String mfUrl : resolve(getManifestLocations(aType))) {
-      InputStream is = null;
+    // Scan manifest - manifests of artifacts which provide a pre-merged bundle are skipped. The
+    // manifests have a fixed name, so they are looked up directly instead of matching a pattern.
+    ClassLoader cl = ClassLoaderUtils.findClassloader();
+    Set<String> bundled = MetaDataBundle.getBundledLocations(aType, cl);
+    for (String manifest : getManifestResources(aType)) {
       try {
-        is = new URL(mfUrl).openStream();
-        List<? extends String> lines = IOUtils.readLines(is);
-        patterns.addAll(lines);
+        for (URL mfUrl : list(cl.getResources(manifest))) {
+          String url = mfUrl.toString();
+          if (bundled.contains(url.substring(0, url.lastIndexOf('/') + 1))) {
+            continue;
+          }
+
+          try (InputStream is = mfUrl.openStream()) {
+            patterns.addAll(IOUtils.readLines(is));
+          }
+        }
       } catch (IOException e) {
         throw new ResourceInitializationException(e);
-      } finally {
-        IOUtils.closeQuietly(is);
       }
     }
 
@@ -131,6 +154,24 @@ public final class MetaDataUtil {
     return locations.toArray(new String[locations.size()]);
   }
 
+  /**
+   * Get the manifest resources for the specified type. Unlike the
+   * {@link #getManifestLocations(MetaDataType) manifest locations}, these are plain resource
+   * names which can be looked up directly via {@link ClassLoader#getResources(String)}.
+   *
+   * @param aType
+   *          the type of metadata to scan for
+   * @return the manifest resource names for this kind of metadata
+   */
+  public static String[] getManifestResources(MetaDataType aType) {
+    String[] locations = getManifestLocations(aType);
+    String[] resources = new String[locations.length];
+    for (int i = 0; i < locations.length; i++) {
+      resources[i] = locations[i].substring(locations[i].indexOf(':') + 1);
+    }
+    return resources;
+  }
+
   /**
    * Get system properties indicating which locations to scan for descriptions of the given type. A
    * list of locations may be given separated by ";".
@@ -171,4 +212,120 @@ public final class MetaDataUtil {
     String[] locations2 = LegacySupport.getInstance().scanTypeDescriptors(aType);
     return (String[]) ArrayUtils.addAll(locations1, locations2);
   }
+
+  /**
+   * Write meta data as a UIMA XML descriptor.
+   *
+   * @param aMetaData
+   *          the meta data to write.
+   * @param aOutputStream
+   *          the stream to write to. The stream is closed when done.
+   * @throws IOException
+   *           if the meta data could not be written.
+   */
+  public static void writeXml(MetaDataObject aMetaData, OutputStream aOutputStream)
+          throws IOException {
+    try (OutputStream os = new BufferedOutputStream(aOutputStream)) {
+      aMetaData.toXML(os);
+    } catch (SAXException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Read meta data written by {@link #writeXml(MetaDataObject, OutputStream)}.
+   *
+   * @param <T>
+   *          the meta data type.
+   * @param aUrl
+   *          the location of the XML descriptor.
+   * @param aClass
+   *          the meta data class.
+   * @return the meta data.
+   * @throws IOException
+   *           if the meta data could not be read.
+   */
+  public static <T extends MetaDataObject> T readXml(URL aUrl, Class<T> aClass)
+          throws IOException {
+    try {
+      return aClass.cast(getXMLParser().parse(new XMLInputSource(aUrl)));
+    } catch (InvalidXMLException | ClassCastException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Write meta data as compressed Java serialization.
+   *
+   * @param aMetaData
+   *          the meta data to write.
+   * @param aOutputStream
+   *          the stream to write to. The stream is closed when done.
+   * @throws IOException
+   *           if the meta data could not be written.
+   */
+  public static void serialize(MetaDataObject aMetaData, OutputStream aOutputStream)
+          throws IOException {
+    try (OutputStream os = aOutputStream;
+            ObjectOutputStream oos = new ObjectOutputStream(
+                    new GZIPOutputStream(new BufferedOutputStream(os)))) {
+      oos.writeObject(aMetaData);
+    }
+  }
+
+  /**
+   * Read meta data written by {@link #serialize(MetaDataObject, OutputStream)}. Only classes from
+   * the {@code java} and {@code org.apache.uima} packages are accepted in the stream.
+   *
+   * @param <T>
+   *          the meta data type.
+   * @param aInputStream
+   *          the stream to read from. The stream is closed when done.
+   * @param aClassLoader
+   *          the classloader used to resolve classes.
+   * @param aClass
+   *          the meta data class.
+   * @return the meta data.
+   * @throws IOException
+   *           if the meta data could not be read.
+   */
+  public static <T extends MetaDataObject> T deserialize(InputStream aInputStream,
+          ClassLoader aClassLoader, Class<T> aClass) throws IOException {
+    try (InputStream is = aInputStream;
+            ObjectInputStream ois = new ObjectInputStream(
+                    new GZIPInputStream(new BufferedInputStream(is))) {
+              @Override
+              protected Class<?> resolveClass(ObjectStreamClass aDesc)
+                      throws IOException, ClassNotFoundException {
+                try {
+                  return Class.forName(aDesc.getName(), false, aClassLoader);
+                } catch (ClassNotFoundException e) {
+                  return super.resolveClass(aDesc);
+                }
+              }
+            }) {
+      ois.setObjectInputFilter(MetaDataUtil::filter);
+      return aClass.cast(ois.readObject());
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static ObjectInputFilter.Status filter(ObjectInputFilter.FilterInfo aInfo) {
+    Class<?> clazz = aInfo.serialClass();
+    if (clazz == null) {
+      return ObjectInputFilter.Status.UNDECIDED;
+    }
+
+    while (clazz.isArray()) {
+      clazz = clazz.getComponentType();
+    }
+
+    if (clazz.isPrimitive() || clazz.getName().startsWith("java.")
+            || clazz.getName().startsWith("org.apache.uima.")) {
+      return ObjectInputFilter.Status.ALLOWED;
+    }
+
+    return ObjectInputFilter.Status.REJECTED;
+  }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of a single primitive component instrumented by a {@link PipelineInstrumentation}.
+ * All replicas of a component, e.g. in a multi-threaded pipeline, share the same metrics. All
+ * values can be read from any thread while the pipeline is running.
+ */
+public final class ComponentMetrics implements ComponentMetricsMBean {
+  private final String name;
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  private final LongAdder failures = new LongAdder();
+
+  private final LongAdder featureStructures = new LongAdder();
+
+  private final LongAdder allocatedBytes = new LongAdder();
+
+  ComponentMetrics(String aName) {
+    name = aName;
+  }
+
+  void processed(long aNanos, int aFeatureStructures, long aAllocatedBytes) {
+    latency.record(aNanos);
+    featureStructures.add(aFeatureStructures);
+    allocatedBytes.add(aAllocatedBytes);
+  }
+
+  void failed(long aNanos) {
+    latency.record(aNanos);
+    failures.increment();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the latency of the component processing a CAS.
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  @Override
+  public long getCasCount() {
+    return latency.getCount();
+  }
+
+  @Override
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  @Override
+  public long getFeatureStructuresCreated() {
+    return featureStructures.sum();
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  @Override
+  public double getMeanLatencyNanos() {
+    return latency.getMean();
+  }
+
+  @Override
+  public long getMedianLatencyNanos() {
+    return latency.getPercentile(50);
+  }
+
+  @Override
+  public long getP99LatencyNanos() {
+    return latency.getPercentile(99);
+  }
+
+  @Override
+  public long getMaxLatencyNanos() {
+    return latency.getMax();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %s failures=%d fs=%d allocated=%dkB", name, latency,
+            getFailureCount(), getFeatureStructuresCreated(), getAllocatedBytes() / 1024);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+/**
+ * JMX view of the {@link ComponentMetrics} of an instrumented component.
+ * 
+ * @see PipelineInstrumentation#registerMBeans()
+ */
+public interface ComponentMetricsMBean {
+  /**
+   * @return the name of the component.
+   */
+  String getName();
+
+  /**
+   * @return the number of CASes processed, including failed ones.
+   */
+  long getCasCount();
+
+  /**
+   * @return the number of CASes the component failed to process.
+   */
+  long getFailureCount();
+
+  /**
+   * @return the number of feature structures created by the component.
+   */
+  long getFeatureStructuresCreated();
+
+  /**
+   * @return the number of bytes allocated by the component or {@code 0} if allocations are not
+   *         tracked.
+   */
+  long getAllocatedBytes();
+
+  /**
+   * @return the mean processing latency in nanoseconds.
+   */
+  double getMeanLatencyNanos();
+
+  /**
+   * @return an upper bound of the median processing latency in nanoseconds.
+   */
+  long getMedianLatencyNanos();
+
+  /**
+   * @return an upper bound of the 99th percentile of the processing latency in nanoseconds.
+   */
+  long getP99LatencyNanos();
+
+  /**
+   * @return the maximum processing latency in nanoseconds.
+   */
+  long getMaxLatencyNanos();
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+/**
+ * Receives a notification each time an instrumented component has processed a CAS. Listeners are
+ * called on the processing thread, so they should return quickly.
+ * 
+ * @see PipelineInstrumentation#addListener(InstrumentationListener)
+ */
+public interface InstrumentationListener {
+  /**
+   * Called after a component has successfully processed a CAS.
+   * 
+   * @param aComponent
+   *          the metrics of the component, already including this call.
+   * @param aNanos
+   *          the processing time in nanoseconds.
+   * @param aFeatureStructures
+   *          the number of feature structures created in the CAS.
+   * @param aAllocatedBytes
+   *          the number of bytes allocated on the processing thread or {@code 0} if allocations
+   *          are not tracked.
+   */
+  void processed(ComponentMetrics aComponent, long aNanos, int aFeatureStructures,
+          long aAllocatedBytes);
+
+  /**
+   * Called after a component has failed to process a CAS.
+   * 
+   * @param aComponent
+   *          the metrics of the component, already including this call.
+   * @param aNanos
+   *          the processing time in nanoseconds until the failure.
+   * @param aException
+   *          the failure.
+   */
+  default void failed(ComponentMetrics aComponent, long aNanos, Exception aException) {
+    // Nothing by default
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import static org.apache.uima.fit.pipeline.PipelineInstrumentation.PARAM_COMPONENT_NAME;
+import static org.apache.uima.fit.pipeline.PipelineInstrumentation.PARAM_DELEGATE_CLASS;
+import static org.apache.uima.fit.pipeline.PipelineInstrumentation.PARAM_INSTRUMENTATION_ID;
+
+import javax.management.JMException;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_component.AnalysisComponent;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.ResultSpecification;
+import org.apache.uima.cas.AbstractCas;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.fit.internal.ClassLoaderUtils;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceConfigurationException;
+import org.apache.uima.resource.ResourceInitializationException;
+
+/**
+ * Wraps a primitive analysis component and reports its processing metrics to a
+ * {@link PipelineInstrumentation}. This class is set as the implementation of instrumented
+ * descriptions by {@link PipelineInstrumentation#instrument} and is not meant to be used directly.
+ */
+public final class InstrumentedAnalysisComponent implements AnalysisComponent {
+  private AnalysisComponent delegate;
+
+  private PipelineInstrumentation instrumentation;
+
+  private ComponentMetrics metrics;
+
+  /**
+   * A result specification set before the delegate has been created.
+   */
+  private ResultSpecification resultSpec;
+
+  @Override
+  public void initialize(UimaContext aContext) throws ResourceInitializationException {
+    String delegateClass = (String) aContext.getConfigParameterValue(PARAM_DELEGATE_CLASS);
+    try {
+      delegate = (AnalysisComponent) Class
+              .forName(delegateClass, true, ClassLoaderUtils.findClassloader(aContext))
+              .getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new ResourceInitializationException(e);
+    }
+
+    // If the instrumentation has already been closed, the component runs without instrumentation
+    instrumentation = PipelineInstrumentation
+            .lookup((String) aContext.getConfigParameterValue(PARAM_INSTRUMENTATION_ID));
+    if (instrumentation != null) {
+      try {
+        metrics = instrumentation.getOrCreateComponentMetrics(
+                (String) aContext.getConfigParameterValue(PARAM_COMPONENT_NAME));
+      } catch (JMException e) {
+        throw new ResourceInitializationException(e);
+      }
+    }
+
+    delegate.initialize(aContext);
+
+    if (resultSpec != null) {
+      delegate.setResultSpecification(resultSpec);
+      resultSpec = null;
+    }
+  }
+
+  @Override
+  public void process(AbstractCas aCas) throws AnalysisEngineProcessException {
+    if (metrics == null) {
+      delegate.process(aCas);
+      return;
+    }
+
+    CASImpl cas = getCasImpl(aCas);
+    int lastFsId = cas != null ? cas.getLastUsedFsId() : 0;
+    long allocated = instrumentation.getAllocatedBytes();
+    long start = System.nanoTime();
+    try {
+      delegate.process(aCas);
+    } catch (AnalysisEngineProcessException | RuntimeException e) {
+      instrumentation.failed(metrics, System.nanoTime() - start, e);
+      throw e;
+    }
+    long nanos = System.nanoTime() - start;
+
+    int featureStructures = cas != null ? cas.getLastUsedFsId() - lastFsId : 0;
+    long allocatedBytes = allocated >= 0 ? instrumentation.getAllocatedBytes() - allocated : 0;
+    instrumentation.processed(metrics, nanos, featureStructures, allocatedBytes);
+  }
+
+  private static CASImpl getCasImpl(AbstractCas aCas) {
+    if (aCas instanceof JCas) {
+      return ((JCas) aCas).getCasImpl();
+    }
+
+    if (aCas instanceof CASImpl) {
+      return (CASImpl) aCas;
+    }
+
+    return null;
+  }
+
+  @Override
+  public void reconfigure() throws ResourceConfigurationException, ResourceInitializationException {
+    delegate.reconfigure();
+  }
+
+  @Override
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
+    delegate.batchProcessComplete();
+  }
+
+  @Override
+  public void collectionProcessComplete() throws AnalysisEngineProcessException {
+    delegate.collectionProcessComplete();
+  }
+
+  @Override
+  public void destroy() {
+    if (delegate != null) {
+      delegate.destroy();
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws AnalysisEngineProcessException {
+    return delegate.hasNext();
+  }
+
+  @Override
+  public AbstractCas next() throws AnalysisEngineProcessException {
+    return delegate.next();
+  }
+
+  @Override
+  public Class<? extends AbstractCas> getRequiredCasInterface() {
+    return delegate.getRequiredCasInterface();
+  }
+
+  @Override
+  public int getCasInstancesRequired() {
+    return delegate.getCasInstancesRequired();
+  }
+
+  @Override
+  public void setResultSpecification(ResultSpecification aResultSpec) {
+    if (delegate != null) {
+      delegate.setResultSpecification(aResultSpec);
+    } else {
+      resultSpec = aResultSpec;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency histogram with exponentially growing buckets. Bucket {@code i} counts
+ * latencies between {@code 2^(i-1)} and {@code 2^i - 1} nanoseconds. Percentiles are therefore
+ * approximations which are at most a factor of two larger than the actual value.
+ */
+public final class LatencyHistogram {
+  private static final int BUCKETS = Long.SIZE + 1;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder total = new LongAdder();
+
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Record a latency.
+   *
+   * @param aNanos
+   *          the latency in nanoseconds.
+   */
+  public void record(long aNanos) {
+    long nanos = Math.max(0, aNanos);
+    buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nanos));
+    count.increment();
+    total.add(nanos);
+    max.accumulate(nanos);
+  }
+
+  /**
+   * @return the number of recorded latencies.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return the mean latency in nanoseconds or {@code 0} if nothing has been recorded.
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) total.sum() / n;
+  }
+
+  /**
+   * @return the maximum latency in nanoseconds.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Get an upper bound for the given percentile.
+   *
+   * @param aPercentile
+   *          the percentile between {@code 0} and {@code 100}.
+   * @return the upper bound of the bucket containing the percentile in nanoseconds or {@code 0} if
+   *         nothing has been recorded.
+   */
+  public long getPercentile(double aPercentile) {
+    if (aPercentile < 0 || aPercentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+
+    long[] snapshot = new long[BUCKETS];
+    long n = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = buckets.get(i);
+      n += snapshot[i];
+    }
+
+    if (n == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(n * aPercentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        long upperBound = i >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+        return Math.min(upperBound, getMax());
+      }
+    }
+
+    return getMax();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms", getCount(),
+            getMean() / 1_000_000.0, getPercentile(50) / 1_000_000.0,
+            getPercentile(99) / 1_000_000.0, getMax() / 1_000_000.0);
+  }
+}
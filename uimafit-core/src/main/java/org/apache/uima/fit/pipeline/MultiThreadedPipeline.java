@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import static java.util.Arrays.asList;
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.internal.DescriptionUtils;
+import org.apache.uima.fit.internal.ResourceManagerFactory;
+import org.apache.uima.fit.util.LifeCycleUtil;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.util.CasPool;
+
+/**
+ * Runs a reader and a sequence of analysis engines using multiple threads. The reader runs on the
+ * calling thread and fills CASes obtained from a {@link CasPool}. The longest prefix of engines
+ * which allow multiple deployment is replicated once per thread. The remaining engines (typically
+ * starting with the first consumer) form a tail which runs as a single instance on its own thread,
+ * either in the order in which the replicas finish their CASes or in the order in which the reader
+ * produced them.
+ */
+final class MultiThreadedPipeline {
+
+  private static final Job POISON = new Job(-1, null);
+
+  private static final long CAS_WAIT_MILLIS = 100;
+
+  private final int threads;
+
+  private final int casPoolSize;
+
+  private final boolean ordered;
+
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  MultiThreadedPipeline(int aThreads, int aCasPoolSize, boolean aOrdered) {
+    if (aThreads < 1) {
+      throw new IllegalArgumentException("Number of threads must be at least 1");
+    }
+
+    if (aCasPoolSize < 1) {
+      throw new IllegalArgumentException("CAS pool size must be at least 1");
+    }
+
+    threads = aThreads;
+    casPoolSize = aCasPoolSize;
+    ordered = aOrdered;
+  }
+
+  void run(final CollectionReaderDescription aReaderDesc,
+          final AnalysisEngineDescription... aDescs) throws IOException,
+          ResourceInitializationException, AnalysisEngineProcessException, CollectionException {
+    int split = 0;
+    while (split < aDescs.length && DescriptionUtils.isMultipleDeploymentAllowed(aDescs[split])) {
+      split++;
+    }
+
+    List<AnalysisEngineDescription> head = asList(aDescs).subList(0, split);
+    List<AnalysisEngineDescription> tail = asList(aDescs).subList(split, aDescs.length);
+
+    ResourceManager resMgr = null;
+    CollectionReader reader = null;
+    // If not even the first engine may be replicated, everything runs in the tail
+    AnalysisEngine[] replicas = new AnalysisEngine[split > 0 ? threads : 1];
+    AnalysisEngine tailEngine = null;
+    ExecutorService executor = null;
+    try {
+      resMgr = ResourceManagerFactory.newResourceManager();
+
+      reader = UIMAFramework.produceCollectionReader(aReaderDesc, resMgr, null);
+
+      AnalysisEngineDescription headDesc = createEngineDescription(
+              head.toArray(new AnalysisEngineDescription[head.size()]));
+      for (int i = 0; i < replicas.length; i++) {
+        replicas[i] = UIMAFramework.produceAnalysisEngine(headDesc, resMgr, null);
+      }
+
+      List<ProcessingResourceMetaData> metaData = new ArrayList<>();
+      metaData.add(reader.getProcessingResourceMetaData());
+      metaData.add(replicas[0].getAnalysisEngineMetaData());
+
+      if (!tail.isEmpty()) {
+        tailEngine = UIMAFramework.produceAnalysisEngine(
+                createEngineDescription(tail.toArray(new AnalysisEngineDescription[tail.size()])),
+                resMgr, null);
+        metaData.add(tailEngine.getAnalysisEngineMetaData());
+      }
+
+      CasPool casPool = new CasPool(casPoolSize, metaData, resMgr);
+      CAS first = casPool.getCas(0);
+      try {
+        reader.typeSystemInit(first.getTypeSystem());
+      } finally {
+        casPool.releaseCas(first);
+      }
+
+      AtomicInteger threadCounter = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(replicas.length + 1, r -> {
+        Thread t = new Thread(r, "uimafit-pipeline-" + threadCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+
+      BlockingQueue<Job> workQueue = new LinkedBlockingQueue<>();
+      BlockingQueue<Job> tailQueue = tailEngine != null ? new LinkedBlockingQueue<>() : null;
+
+      List<Future<?>> workers = new ArrayList<>();
+      for (AnalysisEngine replica : replicas) {
+        workers.add(executor.submit(() -> work(replica, workQueue, tailQueue, casPool)));
+      }
+
+      Future<?> tailWorker = null;
+      if (tailEngine != null) {
+        AnalysisEngine engine = tailEngine;
+        tailWorker = executor.submit(() -> finish(engine, tailQueue, casPool));
+      }
+
+      try {
+        long seq = 0;
+        while (failure.get() == null && reader.hasNext()) {
+          CAS cas = takeCas(casPool);
+          if (cas == null) {
+            break;
+          }
+
+          try {
+            reader.getNext(cas);
+          } catch (Throwable e) {
+            casPool.releaseCas(cas);
+            throw e;
+          }
+          workQueue.add(new Job(seq, cas));
+          seq++;
+        }
+      } finally {
+        for (int i = 0; i < workers.size(); i++) {
+          workQueue.add(POISON);
+        }
+        await(workers);
+
+        if (tailWorker != null) {
+          tailQueue.add(POISON);
+          await(asList(tailWorker));
+        }
+      }
+
+      rethrowFailure();
+
+      // Signal end of processing
+      LifeCycleUtil.collectionProcessComplete(replicas);
+      if (tailEngine != null) {
+        tailEngine.collectionProcessComplete();
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+
+      // Destroy
+      LifeCycleUtil.close(reader);
+      LifeCycleUtil.destroy(reader);
+      LifeCycleUtil.destroy(replicas);
+      LifeCycleUtil.destroy(tailEngine);
+      LifeCycleUtil.destroy(resMgr);
+    }
+  }
+
+  private Void work(AnalysisEngine aEngine, BlockingQueue<Job> aInput, BlockingQueue<Job> aOutput,
+          CasPool aCasPool) throws InterruptedException {
+    while (true) {
+      Job job = aInput.take();
+      if (job == POISON) {
+        return null;
+      }
+
+      // Once a failure has been recorded, CASes are only passed on without processing them so that
+      // the reader is not blocked waiting for the pool and the tail does not wait for a gap. Errors
+      // are recorded as well - if they ended the worker, the CAS would never be returned.
+      try {
+        if (failure.get() == null) {
+          aEngine.process(job.cas);
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        if (aOutput != null) {
+          aOutput.add(job);
+        } else {
+          aCasPool.releaseCas(job.cas);
+        }
+      }
+    }
+  }
+
+  private Void finish(AnalysisEngine aEngine, BlockingQueue<Job> aInput, CasPool aCasPool)
+          throws InterruptedException {
+    PriorityQueue<Job> pending = new PriorityQueue<>((a, b) -> Long.compare(a.seq, b.seq));
+    long next = 0;
+    while (true) {
+      Job job = aInput.take();
+      if (job == POISON) {
+        return null;
+      }
+
+      if (!ordered) {
+        process(aEngine, job, aCasPool);
+        continue;
+      }
+
+      pending.add(job);
+      while (!pending.isEmpty() && pending.peek().seq == next) {
+        process(aEngine, pending.poll(), aCasPool);
+        next++;
+      }
+    }
+  }
+
+  private void process(AnalysisEngine aEngine, Job aJob, CasPool aCasPool) {
+    try {
+      if (failure.get() == null) {
+        aEngine.process(aJob.cas);
+      }
+    } catch (Throwable e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      aCasPool.releaseCas(aJob.cas);
+    }
+  }
+
+  /**
+   * Waits for a free CAS. Stops waiting once a failure has been recorded, so the reader cannot be
+   * blocked forever by a CAS that is never returned to the pool.
+   *
+   * @return a CAS or {@code null} if a failure has been recorded.
+   */
+  private CAS takeCas(CasPool aCasPool) {
+    while (failure.get() == null) {
+      CAS cas = aCasPool.getCas(CAS_WAIT_MILLIS);
+      if (cas != null) {
+        return cas;
+      }
+    }
+    return null;
+  }
+
+  private void await(List<Future<?>> aFutures) throws AnalysisEngineProcessException {
+    for (Future<?> future : aFutures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AnalysisEngineProcessException(e);
+      } catch (ExecutionException e) {
+        failure.compareAndSet(null, e.getCause() != null ? e.getCause() : e);
+      }
+    }
+  }
+
+  private void rethrowFailure() throws IOException, AnalysisEngineProcessException,
+          CollectionException {
+    Throwable e = failure.get();
+    if (e == null) {
+      return;
+    }
+
+    if (e instanceof AnalysisEngineProcessException) {
+      throw (AnalysisEngineProcessException) e;
+    }
+
+    if (e instanceof CollectionException) {
+      throw (CollectionException) e;
+    }
+
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    }
+
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+
+    throw new AnalysisEngineProcessException(e);
+  }
+
+  private static class Job {
+    final long seq;
+
+    final CAS cas;
+
+    Job(long aSeq, CAS aCas) {
+      seq = aSeq;
+      cas = aCas;
+    }
+  }
+}
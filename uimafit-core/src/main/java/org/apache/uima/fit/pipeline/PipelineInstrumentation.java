@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import static org.apache.uima.fit.factory.ResourceCreationSpecifierFactory.setConfigurationParameters;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.uima.Constants;
+import org.apache.uima.analysis_component.AnalysisComponent;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.internal.ClassLoaderUtils;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceSpecifier;
+import org.apache.uima.util.InvalidXMLException;
+
+/**
+ * Records per-component processing metrics of a pipeline. {@link #instrument} wraps each primitive
+ * delegate of an analysis engine description such that the time each component spends processing
+ * a CAS, the number of feature structures it creates and the number of bytes it allocates are
+ * recorded in its {@link ComponentMetrics}. Since instrumentation works on the description, the
+ * instrumented description can be run with {@link SimplePipeline}, {@link JCasIterable}, a CPE or
+ * any other runner.
+ * 
+ * <pre>
+ * try (PipelineInstrumentation instrumentation = new PipelineInstrumentation()) {
+ *   instrumentation.registerMBeans();
+ *   SimplePipeline.runPipeline(reader, instrumentation.instrument(engineDesc));
+ *   instrumentation.getComponentMetrics().forEach(System.out::println);
+ * }
+ * </pre>
+ * 
+ * The overhead per component and CAS is a few clock and counter reads, so instrumentation can
+ * remain enabled in production. Allocation tracking relies on the per-thread allocation counters of
+ * the JVM and can be disabled via {@link #setAllocationTracking(boolean)}.
+ */
+public class PipelineInstrumentation implements AutoCloseable {
+  static final String PARAM_INSTRUMENTATION_ID = "__UIMAFIT_INSTRUMENTATION_ID__";
+
+  static final String PARAM_COMPONENT_NAME = "__UIMAFIT_INSTRUMENTATION_COMPONENT__";
+
+  static final String PARAM_DELEGATE_CLASS = "__UIMAFIT_INSTRUMENTATION_DELEGATE__";
+
+  /**
+   * The domain of the MBeans registered by {@link #registerMBeans()}.
+   */
+  public static final String MBEAN_DOMAIN = "org.apache.uima.fit";
+
+  private static final Map<String, WeakReference<PipelineInstrumentation>> INSTANCES = //
+          new ConcurrentHashMap<>();
+
+  private final String id = UUID.randomUUID().toString();
+
+  private final Map<String, ComponentMetrics> components = new LinkedHashMap<>();
+
+  private final List<InstrumentationListener> listeners = new CopyOnWriteArrayList<>();
+
+  private final List<ObjectName> mbeans = new ArrayList<>();
+
+  private MBeanServer mbeanServer;
+
+  private volatile boolean allocationTracking = true;
+
+  public PipelineInstrumentation() {
+    INSTANCES.values().removeIf(ref -> ref.get() == null);
+    INSTANCES.put(id, new WeakReference<>(this));
+  }
+
+  /**
+   * Create an instrumented copy of the given description. Each primitive delegate implemented in
+   * Java is wrapped, other delegates are left unchanged. Components are named after their delegate
+   * keys, nested keys being separated by {@code /}. A primitive description is named after its
+   * meta data name.
+   * 
+   * @param aDesc
+   *          an analysis engine description.
+   * @return the instrumented description.
+   * @throws ResourceInitializationException
+   *           if a delegate import could not be resolved.
+   */
+  public AnalysisEngineDescription instrument(AnalysisEngineDescription aDesc)
+          throws ResourceInitializationException {
+    AnalysisEngineDescription desc = (AnalysisEngineDescription) aDesc.clone();
+    try {
+      instrument(desc, null);
+    } catch (InvalidXMLException e) {
+      throw new ResourceInitializationException(e);
+    }
+    return desc;
+  }
+
+  private void instrument(AnalysisEngineDescription aDesc, String aName)
+          throws InvalidXMLException {
+    if (aDesc.isPrimitive()) {
+      String name = aName != null ? aName : aDesc.getAnalysisEngineMetaData().getName();
+      if (name == null) {
+        name = aDesc.getAnnotatorImplementationName();
+      }
+
+      if (!Constants.JAVA_FRAMEWORK_NAME.equals(aDesc.getFrameworkImplementation())) {
+        return;
+      }
+
+      String implementation = aDesc.getAnnotatorImplementationName();
+      if (!InstrumentedAnalysisComponent.class.getName().equals(implementation)) {
+        if (!isAnalysisComponent(implementation)) {
+          return;
+        }
+
+        aDesc.setAnnotatorImplementationName(InstrumentedAnalysisComponent.class.getName());
+        setConfigurationParameters(aDesc, PARAM_DELEGATE_CLASS, implementation);
+      }
+
+      // Re-instrumenting an instrumented description redirects it to this instrumentation
+      setConfigurationParameters(aDesc, PARAM_COMPONENT_NAME, name, PARAM_INSTRUMENTATION_ID,
+              id);
+      return;
+    }
+
+    Map<String, ResourceSpecifier> delegates = new LinkedHashMap<>(
+            aDesc.getDelegateAnalysisEngineSpecifiers());
+    for (Entry<String, ResourceSpecifier> e : delegates.entrySet()) {
+      if (e.getValue() instanceof AnalysisEngineDescription) {
+        AnalysisEngineDescription delegate = (AnalysisEngineDescription) e.getValue();
+        instrument(delegate, aName != null ? aName + "/" + e.getKey() : e.getKey());
+        // Replaces the import if the delegate was imported
+        aDesc.getDelegateAnalysisEngineSpecifiersWithImports().put(e.getKey(), delegate);
+      }
+    }
+  }
+
+  private static boolean isAnalysisComponent(String aClassName) {
+    try {
+      Class<?> cls = Class.forName(aClassName, false, ClassLoaderUtils.findClassloader());
+      return AnalysisComponent.class.isAssignableFrom(cls);
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @param aListener
+   *          a listener to notify each time an instrumented component has processed a CAS.
+   */
+  public void addListener(InstrumentationListener aListener) {
+    listeners.add(aListener);
+  }
+
+  /**
+   * @param aListener
+   *          a listener to remove.
+   */
+  public void removeListener(InstrumentationListener aListener) {
+    listeners.remove(aListener);
+  }
+
+  /**
+   * Whether to record the bytes allocated by each component (the default). This is only supported
+   * on JVMs providing per-thread allocation counters.
+   * 
+   * @param aAllocationTracking
+   *          whether to track allocations.
+   */
+  public void setAllocationTracking(boolean aAllocationTracking) {
+    allocationTracking = aAllocationTracking;
+  }
+
+  /**
+   * @return the metrics of all components which have been initialized so far, in the order of
+   *         their initialization.
+   */
+  public synchronized List<ComponentMetrics> getComponentMetrics() {
+    return new ArrayList<>(components.values());
+  }
+
+  /**
+   * @param aName
+   *          a component name.
+   * @return the metrics of the given component or {@code null} if no such component has been
+   *         initialized.
+   */
+  public synchronized ComponentMetrics getComponentMetrics(String aName) {
+    return components.get(aName);
+  }
+
+  /**
+   * Register the metrics of each component with the platform MBean server. Components which are
+   * initialized later are registered as well.
+   * 
+   * @throws JMException
+   *           if an MBean could not be registered.
+   */
+  public void registerMBeans() throws JMException {
+    registerMBeans(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * Register the metrics of each component with the given MBean server. Components which are
+   * initialized later are registered as well. The MBeans are named
+   * {@code org.apache.uima.fit:type=ComponentMetrics,instrumentation=<id>,name=<component>}.
+   * 
+   * @param aServer
+   *          the MBean server.
+   * @throws JMException
+   *           if an MBean could not be registered.
+   */
+  public synchronized void registerMBeans(MBeanServer aServer) throws JMException {
+    if (mbeanServer != null) {
+      throw new IllegalStateException("MBeans have already been registered");
+    }
+
+    mbeanServer = aServer;
+    for (ComponentMetrics metrics : components.values()) {
+      registerMBean(metrics);
+    }
+  }
+
+  private void registerMBean(ComponentMetrics aMetrics) throws JMException {
+    ObjectName name = new ObjectName(MBEAN_DOMAIN + ":type=ComponentMetrics,instrumentation="
+            + id + ",name=" + ObjectName.quote(aMetrics.getName()));
+    mbeanServer.registerMBean(aMetrics, name);
+    mbeans.add(name);
+  }
+
+  /**
+   * Unregister all MBeans. Components which are initialized afterwards are no longer instrumented.
+   */
+  @Override
+  public synchronized void close() throws JMException {
+    INSTANCES.remove(id);
+
+    try {
+      for (ObjectName name : mbeans) {
+        try {
+          mbeanServer.unregisterMBean(name);
+        } catch (InstanceNotFoundException e) {
+          // Already unregistered
+        }
+      }
+    } finally {
+      mbeans.clear();
+      mbeanServer = null;
+    }
+  }
+
+  synchronized ComponentMetrics getOrCreateComponentMetrics(String aName) throws JMException {
+    ComponentMetrics metrics = components.get(aName);
+    if (metrics == null) {
+      metrics = new ComponentMetrics(aName);
+      components.put(aName, metrics);
+      if (mbeanServer != null) {
+        registerMBean(metrics);
+      }
+    }
+    return metrics;
+  }
+
+  void processed(ComponentMetrics aMetrics, long aNanos, int aFeatureStructures,
+          long aAllocatedBytes) {
+    aMetrics.processed(aNanos, aFeatureStructures, aAllocatedBytes);
+    for (InstrumentationListener listener : listeners) {
+      listener.processed(aMetrics, aNanos, aFeatureStructures, aAllocatedBytes);
+    }
+  }
+
+  void failed(ComponentMetrics aMetrics, long aNanos, Exception aException) {
+    aMetrics.failed(aNanos);
+    for (InstrumentationListener listener : listeners) {
+      listener.failed(aMetrics, aNanos, aException);
+    }
+  }
+
+  /**
+   * @return the number of bytes allocated so far by the current thread or {@code -1} if
+   *         allocations are not tracked.
+   */
+  long getAllocatedBytes() {
+    if (!allocationTracking || ThreadAllocation.BEAN == null) {
+      return -1;
+    }
+    return ThreadAllocation.BEAN.getCurrentThreadAllocatedBytes();
+  }
+
+  static PipelineInstrumentation lookup(String aId) {
+    WeakReference<PipelineInstrumentation> ref = INSTANCES.get(aId);
+    return ref != null ? ref.get() : null;
+  }
+
+  /**
+   * Holder for the allocation counters which are not available on every JVM.
+   */
+  private static final class ThreadAllocation {
+    static final com.sun.management.ThreadMXBean BEAN = init();
+
+    private static com.sun.management.ThreadMXBean init() {
+      try {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+          com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+          if (sunBean.isThreadAllocatedMemorySupported()
+                  && sunBean.isThreadAllocatedMemoryEnabled()) {
+            return sunBean;
+          }
+        }
+      } catch (LinkageError e) {
+        // Not available on this JVM
+      }
+      return null;
+    }
+  }
+}
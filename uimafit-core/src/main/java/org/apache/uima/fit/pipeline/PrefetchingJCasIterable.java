@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.internal.ResourceManagerFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+
+/**
+ * <p>
+ * A variant of {@link JCasIterable} which reads and processes upcoming documents in the background
+ * while the caller works on the current one. This lets reader I/O and annotator processing overlap
+ * with whatever the caller does with each document. See {@link PrefetchingJCasIterator} for
+ * details.
+ * </p>
+ * <p>
+ * <b>NOTE:</b>If any exception is generated while using the iterator generated by
+ * {@link #iterator()}, an unchecked {@link IllegalStateException} is thrown!
+ * </p>
+ * <p>
+ * External resources can be shared between the reader and the analysis engines.
+ * </p>
+ */
+public class PrefetchingJCasIterable implements Iterable<JCas> {
+
+  private final ResourceManager resMgr;
+
+  private final int lookahead;
+
+  private final CollectionReaderDescription reader;
+
+  private final AnalysisEngineDescription[] engines;
+
+  /**
+   * Iterate over the documents loaded by the collection reader, running the analysis engines on
+   * each one before yielding them.
+   * 
+   * @param aLookahead
+   *          The number of documents which are read and processed ahead of the caller.
+   * @param aReader
+   *          The collection reader for loading documents.
+   * @param aEngines
+   *          The analysis engines for processing documents.
+   */
+  public PrefetchingJCasIterable(final int aLookahead, final CollectionReaderDescription aReader,
+          final AnalysisEngineDescription... aEngines) {
+    this(null, aLookahead, aReader, aEngines);
+  }
+
+  /**
+   * Iterate over the documents loaded by the collection reader, running the analysis engines on
+   * each one before yielding them.
+   * 
+   * @param aResMgr
+   *          The {@link ResourceManager} used to create the components and the CASes. If this
+   *          parameter is {@code null} then {@link ResourceManagerFactory#newResourceManager()}
+   *          will be used to obtain a resource manager. If a new resource manager was internally
+   *          created, it is destroyed at the end of the pipeline.
+   * @param aLookahead
+   *          The number of documents which are read and processed ahead of the caller.
+   * @param aReader
+   *          The collection reader for loading documents.
+   * @param aEngines
+   *          The analysis engines for processing documents.
+   */
+  public PrefetchingJCasIterable(final ResourceManager aResMgr, final int aLookahead,
+          final CollectionReaderDescription aReader, final AnalysisEngineDescription... aEngines) {
+    if (aLookahead < 1) {
+      throw new IllegalArgumentException("Lookahead must be at least 1");
+    }
+
+    resMgr = aResMgr;
+    lookahead = aLookahead;
+    reader = aReader;
+    engines = aEngines;
+  }
+
+  @Override
+  public PrefetchingJCasIterator iterator() {
+    try {
+      return new PrefetchingJCasIterator(resMgr, lookahead, reader, engines);
+    } catch (ResourceInitializationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
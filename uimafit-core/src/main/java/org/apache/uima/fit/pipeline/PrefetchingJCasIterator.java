@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import static org.apache.uima.UIMAFramework.produceAnalysisEngine;
+import static org.apache.uima.UIMAFramework.produceCollectionReader;
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.internal.ResourceManagerFactory.newResourceManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.internal.ResourceManagerFactory;
+import org.apache.uima.fit.util.LifeCycleUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.util.CasPool;
+
+/**
+ * Iterator over the documents of a collection which reads and processes upcoming documents in the
+ * background while the caller works on the current one. Up to {@code lookahead} documents are
+ * prepared in advance, each in its own CAS from a small {@link CasPool}. The JCas returned by
+ * {@link #next()} remains valid until the following call to {@link #next()}, at which point it is
+ * returned to the pool.
+ * <p>
+ * The reader and the analysis engines are only ever invoked from the background thread, so they do
+ * not need to be thread-safe. Components receive a collectionProcessComplete call when all
+ * documents have been read and all components are destroyed at the end of the iteration or when an
+ * error occurs. If the iteration is abandoned early, {@link #destroy()} must be called to stop the
+ * background thread and release the components.
+ */
+public class PrefetchingJCasIterator implements Iterator<JCas> {
+
+  private static final long POLL_INTERVAL = 100;
+
+  private static final Object END = new Object();
+
+  private final CollectionReader collectionReader;
+
+  private final AnalysisEngine[] analysisEngines;
+
+  private final ResourceManager resMgr;
+
+  private final boolean resourceManagerCreatedInternally;
+
+  private final CasPool casPool;
+
+  private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+  private final Thread producer;
+
+  private volatile boolean cancelled = false;
+
+  private CAS current;
+
+  private Object pending;
+
+  private boolean destroyed = false;
+
+  /**
+   * Iterate over the documents loaded by the given reader, running the analysis engines on each one
+   * before yielding them.
+   * 
+   * @param aResMgr
+   *          The {@link ResourceManager} used to create the components and the CASes. If this
+   *          parameter is {@code null} then {@link ResourceManagerFactory#newResourceManager()}
+   *          will be used to obtain a resource manager. If a new resource manager was internally
+   *          created, it is destroyed at the end of the pipeline.
+   * @param aLookahead
+   *          The number of documents which are read and processed ahead of the caller.
+   * @param aReader
+   *          The CollectionReader for loading documents.
+   * @param aEngines
+   *          The AnalysisEngines for processing documents.
+   * @throws ResourceInitializationException
+   *           if a failure occurs during initialization of the components
+   */
+  public PrefetchingJCasIterator(final ResourceManager aResMgr, final int aLookahead,
+          final CollectionReaderDescription aReader, final AnalysisEngineDescription... aEngines)
+          throws ResourceInitializationException {
+    if (aLookahead < 1) {
+      throw new IllegalArgumentException("Lookahead must be at least 1");
+    }
+
+    if (aResMgr == null) {
+      resMgr = newResourceManager();
+      resourceManagerCreatedInternally = true;
+    } else {
+      resMgr = aResMgr;
+      resourceManagerCreatedInternally = false;
+    }
+
+    boolean error = true;
+    CollectionReader reader = null;
+    AnalysisEngine[] engines = new AnalysisEngine[0];
+    try {
+      reader = produceCollectionReader(aReader, resMgr, null);
+      engines = new AnalysisEngine[] {
+          produceAnalysisEngine(createEngineDescription(aEngines), resMgr, null) };
+
+      List<ProcessingResourceMetaData> metaData = new ArrayList<>();
+      metaData.add(reader.getProcessingResourceMetaData());
+      for (AnalysisEngine ae : engines) {
+        metaData.add(ae.getProcessingResourceMetaData());
+      }
+
+      // One CAS for the caller plus one for each document prepared in advance
+      casPool = new CasPool(aLookahead + 1, metaData, resMgr);
+      CAS first = casPool.getCas(0);
+      try {
+        reader.typeSystemInit(first.getTypeSystem());
+      } finally {
+        casPool.releaseCas(first);
+      }
+      error = false;
+    } finally {
+      if (error) {
+        LifeCycleUtil.destroy(reader);
+        LifeCycleUtil.destroy(engines);
+        if (resourceManagerCreatedInternally) {
+          LifeCycleUtil.destroy(resMgr);
+        }
+      }
+    }
+
+    collectionReader = reader;
+    analysisEngines = engines;
+
+    producer = new Thread(this::produce, "uimafit-prefetch");
+    producer.setDaemon(true);
+    producer.start();
+  }
+
+  private void produce() {
+    try {
+      while (!cancelled && collectionReader.hasNext()) {
+        CAS cas = null;
+        while (cas == null) {
+          if (cancelled) {
+            return;
+          }
+          cas = casPool.getCas(POLL_INTERVAL);
+        }
+
+        try {
+          collectionReader.getNext(cas);
+          for (AnalysisEngine engine : analysisEngines) {
+            engine.process(cas);
+          }
+        } catch (Exception e) {
+          casPool.releaseCas(cas);
+          throw e;
+        }
+
+        queue.add(cas);
+      }
+
+      if (!cancelled) {
+        LifeCycleUtil.collectionProcessComplete(analysisEngines);
+      }
+      queue.add(END);
+    } catch (Throwable e) {
+      queue.add(new Failure(e));
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (destroyed) {
+      return false;
+    }
+
+    if (pending == null) {
+      try {
+        pending = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        destroy();
+        throw new IllegalStateException(e);
+      }
+    }
+
+    if (pending instanceof Failure) {
+      destroy();
+      throw new IllegalStateException(((Failure) pending).cause);
+    }
+
+    if (pending == END) {
+      destroy();
+      return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public JCas next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    if (current != null) {
+      casPool.releaseCas(current);
+    }
+
+    current = (CAS) pending;
+    pending = null;
+
+    try {
+      return current.getJCas();
+    } catch (CASException e) {
+      destroy();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Stop reading ahead, close and destroy all components. This is called automatically at the end
+   * of the iteration or if an error occurs.
+   */
+  public void destroy() {
+    if (destroyed) {
+      return;
+    }
+
+    destroyed = true;
+    cancelled = true;
+
+    boolean interrupted = false;
+    while (producer.isAlive()) {
+      try {
+        producer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+
+    // Return all CASes which have not been consumed to the pool
+    for (Object item : queue) {
+      if (item instanceof CAS) {
+        casPool.releaseCas((CAS) item);
+      }
+    }
+    queue.clear();
+
+    if (pending instanceof CAS) {
+      casPool.releaseCas((CAS) pending);
+    }
+
+    LifeCycleUtil.close(collectionReader);
+    LifeCycleUtil.destroy(collectionReader);
+    LifeCycleUtil.destroy(analysisEngines);
+    if (resourceManagerCreatedInternally) {
+      LifeCycleUtil.destroy(resMgr);
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class Failure {
+    final Throwable cause;
+
+    Failure(Throwable aCause) {
+      cause = aCause;
+    }
+  }
+}
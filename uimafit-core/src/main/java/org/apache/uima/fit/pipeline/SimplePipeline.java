@@ -204,6 +204,89 @@ public final class SimplePipeline {
     }
   }
 
+  /**
+   * <p>
+   * Run the CollectionReader and AnalysisEngines as a multi-threaded pipeline. CASes are taken from
+   * a pool holding twice as many CASes as there are threads. Documents may reach engines which do
+   * not allow multiple deployment in a different order than the one in which they were read. See
+   * {@link #runPipeline(int, int, boolean, CollectionReaderDescription, AnalysisEngineDescription...)}
+   * for details.
+   * </p>
+   *
+   * @param aThreads
+   *          the number of threads to use for the engines which allow multiple deployment.
+   * @param readerDesc
+   *          The CollectionReader that loads the documents into the CAS.
+   * @param descs
+   *          AnalysisEngineDescriptions that process the CAS, in order.
+   * @throws IOException
+   *           if there is an I/O problem in the reader
+   * @throws ResourceInitializationException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws CollectionException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws AnalysisEngineProcessException
+   *           if there is a problem initializing or running the pipeline.
+   */
+  public static void runPipeline(final int aThreads, final CollectionReaderDescription readerDesc,
+          final AnalysisEngineDescription... descs) throws IOException,
+          ResourceInitializationException, AnalysisEngineProcessException, CollectionException {
+    runPipeline(aThreads, aThreads * 2, false, readerDesc, descs);
+  }
+
+  /**
+   * <p>
+   * Run the CollectionReader and AnalysisEngines as a multi-threaded pipeline. The reader runs on
+   * the calling thread and fills CASes taken from a {@link org.apache.uima.util.CasPool CasPool} of
+   * the given size. Starting from the first engine, all engines that allow multiple deployment (cf.
+   * {@link org.apache.uima.fit.descriptor.OperationalProperties#multipleDeploymentAllowed()}) are
+   * instantiated once per thread and process the CASes concurrently. The remaining engines,
+   * typically starting with the first consumer, are instantiated only once and process the CASes on
+   * a single thread. If {@code aOrdered} is set, these receive the CASes in the order in which they
+   * were produced by the reader. Otherwise, they receive them as soon as the replicated engines are
+   * done with them.
+   * </p>
+   * <p>
+   * After processing all CASes provided by the reader, the method calls
+   * {@link AnalysisEngine#collectionProcessComplete() collectionProcessComplete()} on the engines,
+   * {@link CollectionReader#close() close()} on the reader and {@link Resource#destroy() destroy()}
+   * on the reader and all engines. If an engine fails, no further documents are read and the first
+   * error (including {@link Error}s) is re-thrown after all threads have stopped.
+   * </p>
+   * <p>
+   * External resources can be shared between the reader and the analysis engines. Note that shared
+   * resources are also shared between the engine instances of the different threads, so they must
+   * be thread-safe.
+   * </p>
+   *
+   * @param aThreads
+   *          the number of threads to use for the engines which allow multiple deployment.
+   * @param aCasPoolSize
+   *          the number of CASes which may be in flight at the same time. Should be at least the
+   *          number of threads.
+   * @param aOrdered
+   *          whether engines which do not allow multiple deployment should see the documents in
+   *          the order in which they were read.
+   * @param readerDesc
+   *          The CollectionReader that loads the documents into the CAS.
+   * @param descs
+   *          AnalysisEngineDescriptions that process the CAS, in order.
+   * @throws IOException
+   *           if there is an I/O problem in the reader
+   * @throws ResourceInitializationException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws CollectionException
+   *           if there is a problem initializing or running the pipeline.
+   * @throws AnalysisEngineProcessException
+   *           if there is a problem initializing or running the pipeline.
+   */
+  public static void runPipeline(final int aThreads, final int aCasPoolSize,
+          final boolean aOrdered, final CollectionReaderDescription readerDesc,
+          final AnalysisEngineDescription... descs) throws IOException,
+          ResourceInitializationException, AnalysisEngineProcessException, CollectionException {
+    new MultiThreadedPipeline(aThreads, aCasPoolSize, aOrdered).run(readerDesc, descs);
+  }
+
   /**
    * <p>
    * Provides a simple way to run a pipeline for a given collection reader and sequence of analysis
@@ -423,4 +506,29 @@ public final class SimplePipeline {
           AnalysisEngineDescription... aEngines) {
     return new JCasIterable(aReader, aEngines);
   }
+
+  /**
+   * <p>
+   * Iterate through the {@link JCas JCases} processed by the pipeline, allowing to access each one
+   * after it has been processed. The given number of documents is read and processed in the
+   * background while the caller works on the current one. Each {@link JCas} remains valid only
+   * until the next one is requested.
+   * </p>
+   * <p>
+   * External resources can be shared between the reader and the analysis engines.
+   * </p>
+   * 
+   * @param aLookahead
+   *          the number of documents read and processed ahead of the caller.
+   * @param aReader
+   *          the collection reader.
+   * @param aEngines
+   *          the analysis engines.
+   * @return an {@link Iterable}&lt;{@link JCas}&gt; which can be used in an extended for-loop.
+   * @see PrefetchingJCasIterator
+   */
+  public static PrefetchingJCasIterable iteratePipeline(final int aLookahead,
+          final CollectionReaderDescription aReader, AnalysisEngineDescription... aEngines) {
+    return new PrefetchingJCasIterable(aLookahead, aReader, aEngines);
+  }
 }
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.util.NoSuchElementException;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.jcas.JCas;
+
+/**
+ * A reusable cursor over the annotations of a type. The cursor holds a single {@link FSIterator}
+ * which is repositioned for every selection, so iterating over many selections does not allocate
+ * any lists or iterators. The selections have the same boundary semantics as
+ * {@link CasUtil#selectCovered(CAS, Type, int, int)},
+ * {@link CasUtil#selectCovering(CAS, Type, int, int)} and
+ * {@link CasUtil#selectOverlapping(CAS, Type, int, int)}.
+ * <p>
+ * A selection is consumed by calling {@link #next()} until it returns {@code false}. The offsets
+ * of the current annotation are available as primitives:
+ *
+ * <pre>
+ * AnnotationCursor&lt;Token&gt; tokens = AnnotationCursor.create(jcas, Token.class);
+ * for (Sentence s : select(jcas, Sentence.class)) {
+ *   tokens.covered(s.getBegin(), s.getEnd());
+ *   while (tokens.next()) {
+ *     int length = tokens.getEnd() - tokens.getBegin();
+ *     ...
+ *   }
+ * }
+ * </pre>
+ *
+ * The covered selection seeks relative to the current position of the cursor, so its cost depends
+ * on the distance to the previous selection rather than on the size of the index. When the windows
+ * are visited in document order, a {@link CoveredCursor} avoids moving backwards entirely. The
+ * annotation index of the type must not be modified while the cursor is in use. A cursor is not
+ * thread-safe.
+ *
+ * @param <T>
+ *          annotation type.
+ */
+public final class AnnotationCursor<T extends AnnotationFS> {
+
+  private final FSIterator<AnnotationFS> it;
+
+  private Mode mode = Mode.NONE;
+
+  private int selBegin;
+
+  private int selEnd;
+
+  private AnnotationFS current;
+
+  private int currentBegin;
+
+  private int currentEnd;
+
+  private AnnotationCursor(CAS aCas, Type aType) {
+    CasUtil.requireAnnotationType(aCas, aType);
+    it = aCas.getAnnotationIndex(aType).iterator();
+  }
+
+  /**
+   * Select all annotations.
+   *
+   * @return the cursor itself.
+   */
+  public AnnotationCursor<T> all() {
+    it.moveToFirst();
+    return select(Mode.ALL, 0, 0);
+  }
+
+  /**
+   * Select the annotations within the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @return the cursor itself.
+   * @see CasUtil#selectCovered(CAS, Type, int, int)
+   */
+  public AnnotationCursor<T> covered(int aBegin, int aEnd) {
+    // Move back over annotations starting at or after the begin offset ...
+    if (!it.isValid()) {
+      it.moveToLast();
+    }
+    while (it.isValid() && it.get().getBegin() >= aBegin) {
+      it.moveToPrevious();
+    }
+    if (!it.isValid()) {
+      it.moveToFirst();
+    }
+
+    // ... and forward to the first one starting at or after the begin offset
+    while (it.isValid() && it.get().getBegin() < aBegin) {
+      it.moveToNext();
+    }
+
+    return select(Mode.COVERED, aBegin, aEnd);
+  }
+
+  /**
+   * Select the annotations covering the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @return the cursor itself.
+   * @see CasUtil#selectCovering(CAS, Type, int, int)
+   */
+  public AnnotationCursor<T> covering(int aBegin, int aEnd) {
+    it.moveToFirst();
+    return select(Mode.COVERING, aBegin, aEnd);
+  }
+
+  /**
+   * Select the annotations overlapping the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @return the cursor itself.
+   * @see CasUtil#selectOverlapping(CAS, Type, int, int)
+   */
+  public AnnotationCursor<T> overlapping(int aBegin, int aEnd) {
+    it.moveToFirst();
+    return select(Mode.OVERLAPPING, aBegin, aEnd);
+  }
+
+  private AnnotationCursor<T> select(Mode aMode, int aBegin, int aEnd) {
+    mode = aMode;
+    selBegin = aBegin;
+    selEnd = aEnd;
+    current = null;
+    return this;
+  }
+
+  /**
+   * Move to the next annotation of the current selection.
+   *
+   * @return whether there is such an annotation.
+   */
+  public boolean next() {
+    while (mode != Mode.NONE && it.isValid()) {
+      AnnotationFS a = it.get();
+      int begin = a.getBegin();
+      int end = a.getEnd();
+
+      boolean match;
+      switch (mode) {
+        case COVERED:
+          if (begin > selEnd) {
+            mode = Mode.NONE;
+            continue;
+          }
+          match = end <= selEnd;
+          break;
+        case COVERING:
+          // The index is sorted by begin, so no further annotation can cover the span
+          if (begin > selBegin) {
+            mode = Mode.NONE;
+            continue;
+          }
+          match = end >= selEnd;
+          break;
+        case OVERLAPPING:
+          if (selBegin != begin && begin >= selEnd) {
+            mode = Mode.NONE;
+            continue;
+          }
+          match = selBegin == begin || end > selBegin;
+          break;
+        default:
+          match = true;
+          break;
+      }
+
+      it.moveToNext();
+      if (match) {
+        current = a;
+        currentBegin = begin;
+        currentEnd = end;
+        return true;
+      }
+    }
+
+    mode = Mode.NONE;
+    current = null;
+    return false;
+  }
+
+  /**
+   * @return the current annotation.
+   * @throws NoSuchElementException
+   *           if {@link #next()} has not been called or returned {@code false}.
+   */
+  @SuppressWarnings("unchecked")
+  public T get() {
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+    return (T) current;
+  }
+
+  /**
+   * @return the begin offset of the current annotation.
+   * @throws NoSuchElementException
+   *           if {@link #next()} has not been called or returned {@code false}.
+   */
+  public int getBegin() {
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+    return currentBegin;
+  }
+
+  /**
+   * @return the end offset of the current annotation.
+   * @throws NoSuchElementException
+   *           if {@link #next()} has not been called or returned {@code false}.
+   */
+  public int getEnd() {
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+    return currentEnd;
+  }
+
+  /**
+   * Factory method to create a cursor instead of using the constructor. This makes used of Java's
+   * type inference capabilities and results in less verbose code.
+   *
+   * @param <A>
+   *          annotation type.
+   * @param aJcas
+   *          the working JCas.
+   * @param aType
+   *          the annotation type.
+   * @return the cursor.
+   */
+  public static <A extends AnnotationFS> AnnotationCursor<A> create(JCas aJcas, Class<A> aType) {
+    return new AnnotationCursor<>(aJcas.getCas(), JCasUtil.getType(aJcas, aType));
+  }
+
+  /**
+   * Factory method to create a cursor instead of using the constructor.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aType
+   *          the annotation type.
+   * @return the cursor.
+   */
+  public static AnnotationCursor<AnnotationFS> create(CAS aCas, Type aType) {
+    return new AnnotationCursor<>(aCas, aType);
+  }
+
+  /**
+   * The kind of the current selection.
+   */
+  private enum Mode {
+    /** No selection or the selection has been consumed. */
+    NONE,
+    ALL,
+    COVERED,
+    COVERING,
+    OVERLAPPING
+  }
+}
@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.fit.component.ShardableCollectionReader;
+import org.apache.uima.fit.internal.ByteBufferInputStream;
+import org.apache.uima.util.CasIOUtils;
+import org.apache.uima.util.CasLoadMode;
+
+/**
+ * Random access to a CAS archive. A CAS archive is a single file containing many CASes serialized
+ * back to back, preceded by the type system they share and followed by an index of the offsets at
+ * which the CASes are stored. Archives are written by
+ * {@link org.apache.uima.fit.component.CasArchiveWriter} and can be read sequentially using
+ * {@link org.apache.uima.fit.component.CasArchiveReader}.
+ * <p>
+ * The CAS records are memory-mapped in chunks of up to 2 GB, each of which is mapped when a CAS
+ * in it is read for the first time, so opening an archive only loads the index and the type
+ * system, regardless of the size of the archive.
+ * <p>
+ * The archive layout is:
+ * 
+ * <pre>
+ * header:  MAGIC, int version, int typeSystemLength, byte[] typeSystem
+ * records: byte[] cas ...
+ * index:   int count, (long offset, int length, UTF id) ...
+ * trailer: long indexOffset, MAGIC
+ * </pre>
+ * 
+ * IDs are stored using {@link java.io.DataOutput#writeUTF(String) modified UTF-8} and are
+ * therefore limited to 65535 bytes in that encoding.
+ */
+public class CasArchive implements Closeable {
+
+  /**
+   * Marks the beginning and the end of an archive.
+   */
+  public static final byte[] MAGIC = { 'U', 'I', 'M', 'A', 'F', 'I', 'T', 'A' };
+
+  /**
+   * The archive layout version.
+   */
+  public static final int VERSION = 1;
+
+  private static final int TRAILER_SIZE = Long.BYTES + MAGIC.length;
+
+  private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+  private final File file;
+
+  private final FileChannel channel;
+
+  private final TypeSystemImpl typeSystem;
+
+  private final long[] offsets;
+
+  private final int[] lengths;
+
+  private final String[] ids;
+
+  /**
+   * The chunk containing each CAS.
+   */
+  private final int[] chunkOfCas;
+
+  /**
+   * The offset in the file at which each chunk starts.
+   */
+  private final long[] chunkOffsets;
+
+  /**
+   * The size of each chunk.
+   */
+  private final long[] chunkSizes;
+
+  private final MappedByteBuffer[] chunks;
+
+  private Map<String, Integer> ordinals;
+
+  private CasArchive(File aFile) throws IOException {
+    file = aFile;
+    channel = FileChannel.open(aFile.toPath(), StandardOpenOption.READ);
+
+    boolean error = true;
+    try {
+      long size = channel.size();
+      if (size < MAGIC.length + Integer.BYTES * 2 + TRAILER_SIZE) {
+        throw new IOException("[" + aFile + "] is not a CAS archive");
+      }
+
+      // Trailer
+      ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+      readFully(trailer, size - TRAILER_SIZE);
+      long indexOffset = trailer.getLong();
+      checkMagic(trailer);
+
+      // Header
+      DataInputStream header = new DataInputStream(
+              new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+      byte[] magic = new byte[MAGIC.length];
+      header.readFully(magic);
+      checkMagic(ByteBuffer.wrap(magic));
+      int version = header.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported CAS archive version [" + version + "] in [" + aFile
+                + "]");
+      }
+      byte[] ts = new byte[header.readInt()];
+      header.readFully(ts);
+      typeSystem = ts.length > 0
+              ? CasIOUtils.readCasManager(new ByteArrayInputStream(ts)).getTypeSystem()
+              : null;
+
+      // Index
+      DataInputStream index = new DataInputStream(
+              new BufferedInputStream(Channels.newInputStream(channel.position(indexOffset))));
+      int count = index.readInt();
+      offsets = new long[count];
+      lengths = new int[count];
+      ids = new String[count];
+      for (int i = 0; i < count; i++) {
+        offsets[i] = index.readLong();
+        lengths[i] = index.readInt();
+        ids[i] = index.readUTF();
+      }
+
+      // Group consecutive CASes into chunks which can be mapped at once
+      chunkOfCas = new int[count];
+      long[] chunkStarts = new long[count];
+      long[] chunkEnds = new long[count];
+      int chunkCount = 0;
+      for (int i = 0; i < count; i++) {
+        long end = offsets[i] + lengths[i];
+        if (chunkCount == 0 || end - chunkStarts[chunkCount - 1] > MAX_CHUNK_SIZE) {
+          chunkStarts[chunkCount] = offsets[i];
+          chunkCount++;
+        }
+        chunkEnds[chunkCount - 1] = end;
+        chunkOfCas[i] = chunkCount - 1;
+      }
+      chunkOffsets = Arrays.copyOf(chunkStarts, chunkCount);
+      chunkSizes = new long[chunkCount];
+      for (int i = 0; i < chunkCount; i++) {
+        chunkSizes[i] = chunkEnds[i] - chunkStarts[i];
+      }
+      chunks = new MappedByteBuffer[chunkCount];
+
+      error = false;
+    } finally {
+      if (error) {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * Open an archive.
+   * 
+   * @param aFile
+   *          the archive file.
+   * @return the archive.
+   * @throws IOException
+   *           if the file cannot be read or is not a CAS archive.
+   */
+  public static CasArchive open(File aFile) throws IOException {
+    return new CasArchive(aFile);
+  }
+
+  /**
+   * @return the archive file.
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @return the number of CASes in the archive.
+   */
+  public int size() {
+    return offsets.length;
+  }
+
+  /**
+   * @param aOrdinal
+   *          the position of the CAS in the archive.
+   * @return the ID under which the CAS was stored.
+   */
+  public String getId(int aOrdinal) {
+    return ids[aOrdinal];
+  }
+
+  /**
+   * @param aId
+   *          a document ID.
+   * @return the position of the CAS with the given ID or {@code -1} if there is no such CAS. If
+   *         several CASes have the same ID, the first one is returned.
+   */
+  public synchronized int indexOf(String aId) {
+    if (ordinals == null) {
+      ordinals = new HashMap<>(ids.length * 2);
+      for (int i = ids.length - 1; i >= 0; i--) {
+        ordinals.put(ids[i], i);
+      }
+    }
+
+    Integer ordinal = ordinals.get(aId);
+    return ordinal != null ? ordinal : -1;
+  }
+
+  /**
+   * Load the CAS at the given position into the given CAS.
+   * 
+   * @param aOrdinal
+   *          the position of the CAS in the archive.
+   * @param aCas
+   *          the CAS to load the data into. It is not reset before loading.
+   * @throws IOException
+   *           if the data cannot be read.
+   */
+  public void read(int aOrdinal, CAS aCas) throws IOException {
+    int chunk = chunkOfCas[aOrdinal];
+    int start = (int) (offsets[aOrdinal] - chunkOffsets[chunk]);
+
+    // Each read gets its own view of the chunk, so CASes can be read concurrently
+    ByteBuffer data = getChunk(chunk).duplicate();
+    data.position(start);
+    data.limit(start + lengths[aOrdinal]);
+
+    CasIOUtils.load(new ByteBufferInputStream(data), null, aCas, CasLoadMode.DEFAULT, typeSystem);
+  }
+
+  /**
+   * Load the CAS with the given ID into the given CAS.
+   * 
+   * @param aId
+   *          a document ID.
+   * @param aCas
+   *          the CAS to load the data into. It is not reset before loading.
+   * @throws IOException
+   *           if the data cannot be read.
+   * @throws IllegalArgumentException
+   *           if there is no CAS with the given ID.
+   */
+  public void read(String aId, CAS aCas) throws IOException {
+    int ordinal = indexOf(aId);
+    if (ordinal < 0) {
+      throw new IllegalArgumentException("No CAS with ID [" + aId + "] in [" + file + "]");
+    }
+    read(ordinal, aCas);
+  }
+
+  /**
+   * Divide the archive into contiguous ranges of (almost) equal size, e.g. to let several readers
+   * process an archive in parallel.
+   * 
+   * @param aShard
+   *          the index of the range, starting at {@code 0}.
+   * @param aShards
+   *          the number of ranges.
+   * @return the first and the last (exclusive) position of the range.
+   */
+  public int[] getRange(int aShard, int aShards) {
+    return ShardableCollectionReader.getShardRange(size(), aShard, aShards);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private synchronized MappedByteBuffer getChunk(int aChunk) throws IOException {
+    if (chunks[aChunk] == null) {
+      chunks[aChunk] = channel.map(READ_ONLY, chunkOffsets[aChunk], chunkSizes[aChunk]);
+    }
+    return chunks[aChunk];
+  }
+
+  private void readFully(ByteBuffer aBuffer, long aPosition) throws IOException {
+    long position = aPosition;
+    while (aBuffer.hasRemaining()) {
+      int n = channel.read(aBuffer, position);
+      if (n < 0) {
+        throw new IOException("Unexpected end of [" + file + "]");
+      }
+      position += n;
+    }
+    aBuffer.flip();
+  }
+
+  private void checkMagic(ByteBuffer aBuffer) throws IOException {
+    byte[] magic = new byte[MAGIC.length];
+    aBuffer.get(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException("[" + file + "] is not a CAS archive");
+    }
+  }
+}
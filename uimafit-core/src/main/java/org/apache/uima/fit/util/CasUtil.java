@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.apache.uima.cas.ArrayFS;
 import org.apache.uima.cas.CAS;
@@ -148,6 +149,10 @@ public final class CasUtil {
    * @return the CAS type.
    */
   public static Type getType(TypeSystem aTypeSystem, String aTypename) {
+    return TypeCache.get(aTypeSystem).getType(aTypeSystem, aTypename);
+  }
+
+  static Type resolveType(TypeSystem aTypeSystem, String aTypename) {
     String typeName = aTypename;
     if (typeName.startsWith(UIMA_BUILTIN_JCAS_PREFIX)) {
       typeName = "uima." + typeName.substring(UIMA_BUILTIN_JCAS_PREFIX.length());
@@ -180,9 +185,7 @@ public final class CasUtil {
    * @return the CAS type.
    */
   public static Type getAnnotationType(CAS aCas, Class<?> aJCasClass) {
-    final Type type = getType(aCas, aJCasClass);
-    requireAnnotationType(aCas, type);
-    return type;
+    return getAnnotationType(aCas, aJCasClass.getName());
   }
 
   /**
@@ -195,8 +198,13 @@ public final class CasUtil {
    * @return the CAS type.
    */
   public static Type getAnnotationType(CAS aCas, String aTypeName) {
-    Type type = getType(aCas, aTypeName);
-    requireAnnotationType(aCas, type);
+    TypeSystem ts = aCas.getTypeSystem();
+    TypeCache.Entry entry = TypeCache.get(ts).lookup(ts, aTypeName);
+    Type type = entry.get();
+    if (!entry.annotation) {
+      throw new IllegalArgumentException(
+              "Type [" + type.getName() + "] is not an annotation type");
+    }
     return type;
   }
 
@@ -288,6 +296,28 @@ public final class CasUtil {
     return cas.getAnnotationIndex(type).select().asList();
   }
 
+  /**
+   * Calls the given action for all annotations of the given type in index order, without
+   * collecting them into a list. The index of the given type must not be modified by the action.
+   * 
+   * @param cas
+   *          the CAS hosting the type system.
+   * @param type
+   *          the type.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static void forEach(final CAS cas, final Type type,
+          Consumer<? super AnnotationFS> aAction) {
+    requireAnnotationType(cas, type);
+    FSIterator<AnnotationFS> it = cas.getAnnotationIndex(type).iterator();
+    while (it.isValid()) {
+      aAction.accept(it.get());
+      it.moveToNext();
+    }
+  }
+
   /**
    * Get all annotations of the given type at the specified offsets.
    * 
@@ -300,33 +330,15 @@ public final class CasUtil {
    * @param aEnd
    *          the end offset.
    * @return the annotations at the specified offsets.
+   * @see SpanIndex for repeated exact-offset lookups against the same CAS
    */
   public static List<AnnotationFS> selectAt(final CAS aCas, final Type aType, int aBegin,
           int aEnd) {
     List<AnnotationFS> list = new ArrayList<AnnotationFS>();
 
-    // withSnapshotIterators() not needed here since we copy the FSes to a list anyway
-    FSIterator<AnnotationFS> it = aCas.getAnnotationIndex(aType).iterator();
-
-    // Skip annotations whose start is before the start parameter.
-    while (it.isValid() && (it.get()).getBegin() < aBegin) {
-      it.moveToNext();
-    }
-
-    // Skip annotations whose end is after the end parameter.
-    while (it.isValid() && (it.get()).getEnd() > aEnd) {
-      it.moveToNext();
-    }
-
-    while (it.isValid()) {
-      AnnotationFS a = it.get();
-      // If the offsets do not match the specified offets, we're done
-      if (a.getBegin() != aBegin || a.getEnd() != aEnd) {
-        break;
-      }
-      it.moveToNext();
-      list.add(a);
-    }
+    // Seeks to the span using a temporary bound which, unlike a probe created with
+    // CAS.createAnnotation(), is not allocated as a feature structure in the CAS.
+    aCas.getAnnotationIndex(aType).select().at(aBegin, aEnd).forEach(list::add);
 
     return list;
   }
@@ -534,12 +546,31 @@ public final class CasUtil {
    */
   public static List<AnnotationFS> selectCovered(CAS cas, Type type,
           AnnotationFS coveringAnnotation) {
+    List<AnnotationFS> list = new ArrayList<AnnotationFS>();
+    forEachCovered(cas, type, coveringAnnotation, list::add);
+    return unmodifiableList(list);
+  }
+
+  /**
+   * Calls the given action for the annotations that
+   * {@link #selectCovered(CAS, Type, AnnotationFS)} would return, without collecting them into a
+   * list. The index of the given type must not be modified by the action.
+   * 
+   * @param cas
+   *          a CAS.
+   * @param type
+   *          a UIMA type.
+   * @param coveringAnnotation
+   *          the covering annotation.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static void forEachCovered(CAS cas, Type type, AnnotationFS coveringAnnotation,
+          Consumer<? super AnnotationFS> aAction) {
     int begin = coveringAnnotation.getBegin();
     int end = coveringAnnotation.getEnd();
 
-    List<AnnotationFS> list = new ArrayList<AnnotationFS>();
-
-    // withSnapshotIterators() not needed here since we copy the FSes to a list anyway
     FSIterator<AnnotationFS> it = cas.getAnnotationIndex(type).iterator();
 
     // Try to seek the insertion point.
@@ -549,7 +580,7 @@ public final class CasUtil {
     if (!it.isValid()) {
       it.moveToLast();
       if (!it.isValid()) {
-        return list;
+        return;
       }
     }
 
@@ -595,11 +626,9 @@ public final class CasUtil {
               + coveringAnnotation.getBegin() + ".." + coveringAnnotation.getEnd() + "]";
 
       if (!a.equals(coveringAnnotation)) {
-        list.add(a);
+        aAction.accept(a);
       }
     }
-
-    return unmodifiableList(list);
   }
 
   /**
@@ -631,10 +660,30 @@ public final class CasUtil {
    * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
    */
   public static List<AnnotationFS> selectCovered(CAS cas, Type type, int begin, int end) {
-
     List<AnnotationFS> list = new ArrayList<AnnotationFS>();
+    forEachCovered(cas, type, begin, end, list::add);
+    return list;
+  }
 
-    // withSnapshotIterators() not needed here since we copy the FSes to a list anyway
+  /**
+   * Calls the given action for the annotations that
+   * {@link #selectCovered(CAS, Type, int, int)} would return, without collecting them into a list.
+   * The index of the given type must not be modified by the action.
+   * 
+   * @param cas
+   *          a CAS.
+   * @param type
+   *          a UIMA type.
+   * @param begin
+   *          begin offset.
+   * @param end
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static void forEachCovered(CAS cas, Type type, int begin, int end,
+          Consumer<? super AnnotationFS> aAction) {
     FSIterator<AnnotationFS> it = cas.getAnnotationIndex(type).iterator();
 
     // Skip annotations whose start is before the start parameter.
@@ -659,10 +708,8 @@ public final class CasUtil {
 
       assert (a.getEnd() <= end) : "Illegal end " + a.getEnd() + " in [" + begin + ".." + end + "]";
 
-      list.add(a);
+      aAction.accept(a);
     }
-
-    return list;
   }
 
   /**
@@ -744,26 +791,50 @@ public final class CasUtil {
    * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
    */
   public static List<AnnotationFS> selectCovering(CAS cas, Type type, int begin, int end) {
-
     List<AnnotationFS> list = new ArrayList<AnnotationFS>();
+    forEachCovering(cas, type, begin, end, list::add);
+    return list;
+  }
 
-    // withSnapshotIterators() not needed here since we copy the FSes to a list anyway
+  /**
+   * Calls the given action for the annotations that
+   * {@link #selectCovering(CAS, Type, int, int)} would return, without collecting them into a
+   * list. The index of the given type must not be modified by the action.
+   * 
+   * @param cas
+   *          a CAS.
+   * @param type
+   *          a UIMA type.
+   * @param begin
+   *          begin offset.
+   * @param end
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static void forEachCovering(CAS cas, Type type, int begin, int end,
+          Consumer<? super AnnotationFS> aAction) {
     FSIterator<AnnotationFS> iter = type == null ? cas.getAnnotationIndex().iterator()
             : cas.getAnnotationIndex(type).iterator();
 
     while (iter.hasNext()) {
       AnnotationFS a = iter.next();
-      if ((a.getBegin() <= begin) && (a.getEnd() >= end)) {
-        list.add(a);
+      // The index is sorted by begin, so no further annotation can cover the span
+      if (a.getBegin() > begin) {
+        break;
+      }
+      if (a.getEnd() >= end) {
+        aAction.accept(a);
       }
     }
-    return list;
   }
 
   /**
    * Create an index for quickly lookup up the annotations covering a particular annotation. This is
    * preferable to using {@link #selectCovering(CAS, Type, int, int)} because the overhead of
    * scanning the CAS occurs only when the index is build. Subsequent lookups to the index are fast.
+   * If the map is not required, consider using a {@link CoverageIndex} directly.
    * <p>
    * The method only returns properly covering annotations, that is annotations where the begin/end
    * offsets are equal to the begin/end of the given annotation or where given 'covered' annotation
@@ -771,7 +842,7 @@ public final class CasUtil {
    * annotations are not returned.
    * <p>
    * When querying for the annotations covering a given annotation, the given annotation itself is
-   * never returned, even if it is of the queried type.
+   * never returned, even if it is of the queried type. The lists in the map are unmodifiable.
    * 
    * @param cas
    *          a CAS.
@@ -797,14 +868,13 @@ public final class CasUtil {
         }
       }
     };
-    for (AnnotationFS s : select(cas, coveringType)) {
-      for (AnnotationFS u : selectCovered(cas, type, s)) {
-        List<AnnotationFS> c = index.get(u);
-        if (c == EMPTY_LIST) {
-          c = new ArrayList<AnnotationFS>();
-          index.put(u, c);
-        }
-        c.add(s);
+    CoverageIndex<AnnotationFS, AnnotationFS> coverage = CoverageIndex.create(cas, coveringType,
+            type);
+    for (AnnotationFS u : select(cas, type)) {
+      // Unmodifiable views sharing the arrays of the coverage index
+      List<AnnotationFS> c = coverage.getCovering(u);
+      if (!c.isEmpty()) {
+        index.put(u, c);
       }
     }
     return unmodifiableMap(index);
@@ -982,9 +1052,32 @@ public final class CasUtil {
    */
   public static List<AnnotationFS> selectOverlapping(CAS aCas, Type aType, int aSelBegin,
           int aSelEnd) {
+    List<AnnotationFS> annotations = new ArrayList<>();
+    forEachOverlapping(aCas, aType, aSelBegin, aSelEnd, annotations::add);
+    return annotations;
+  }
+
+  /**
+   * Calls the given action for the annotations that
+   * {@link #selectOverlapping(CAS, Type, int, int)} would return, without collecting them into a
+   * list. The index of the given type must not be modified by the action.
+   * 
+   * @param aCas
+   *          a CAS.
+   * @param aType
+   *          a UIMA type.
+   * @param aSelBegin
+   *          begin offset.
+   * @param aSelEnd
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static void forEachOverlapping(CAS aCas, Type aType, int aSelBegin, int aSelEnd,
+          Consumer<? super AnnotationFS> aAction) {
     requireAnnotationType(aCas, aType);
 
-    List<AnnotationFS> annotations = new ArrayList<>();
     for (AnnotationFS t : aCas.getAnnotationIndex(aType)) {
       int begin = t.getBegin();
       int end = t.getEnd();
@@ -999,15 +1092,14 @@ public final class CasUtil {
         continue;
       }
 
-      annotations.add(t);
+      aAction.accept(t);
     }
-
-    return annotations;
   }
 
   /**
    * This method exists simply as a convenience method for unit testing. It is not very efficient
-   * and should not, in general be used outside the context of unit testing.
+   * and should not, in general be used outside the context of unit testing. For repeated access by
+   * position, use an {@link OrdinalIndex} instead.
    * 
    * @param cas
    *          a CAS containing the annotation.
@@ -1185,7 +1277,7 @@ public final class CasUtil {
         itr.moveToNext();
       }
 
-      for (int i = 0; i < (aPosition - 1) && itr.isValid(); ++i, itr.moveToPrevious()) {
+      for (int i = 0; i < (aPosition - 1) && itr.isValid(); ++i, itr.moveToNext()) {
         // Seeking
       }
 
@@ -1447,7 +1539,8 @@ public final class CasUtil {
   }
 
   public static boolean isAnnotationType(CAS aCas, Type aType) {
-    return aCas.getTypeSystem().subsumes(aCas.getAnnotationType(), aType);
+    TypeSystem ts = aCas.getTypeSystem();
+    return TypeCache.get(ts).isAnnotationType(ts, aType);
   }
 
   public static void requireAnnotationType(CAS aCas, Type aType) {
@@ -19,14 +19,7 @@
 
 package org.apache.uima.fit.util;
 
-import static org.apache.uima.fit.util.CasUtil.select;
-import static org.apache.uima.fit.util.CasUtil.selectCovered;
-
 import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.Map;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.text.AnnotationFS;
@@ -35,7 +28,16 @@ import org.apache.uima.jcas.JCas;
 /**
  * Create a fast way of repeatedly checking whether instances of one type are contained within the
  * boundaries on another type.
- * 
+ * <p>
+ * The index is backed by a {@link CoverageIndex} which is built in a single pass over the two
+ * annotation indexes and stores the containment relation in both directions in primitive arrays.
+ * <p>
+ * Since the relation is always available in both directions, {@link #containedIn} and
+ * {@link #containing} return results regardless of the {@link Type} the index was created with.
+ * In earlier versions, an index created with {@link Type#DIRECT} returned nothing from
+ * {@link #containing} and an index created with {@link Type#REVERSE} returned nothing from
+ * {@link #containedIn}. Lookups for annotations that are not in the index return an empty
+ * collection.
  * 
  * @param <S>
  *          covering type.
@@ -43,57 +45,54 @@ import org.apache.uima.jcas.JCas;
  *          covered type.
  */
 public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
+  /**
+   * Indexing strategy. Since the index is always built in both directions at virtually no extra
+   * cost, this no longer has any effect.
+   * 
+   * @deprecated The index is always built in both directions. Use the methods that do not take an
+   *             indexing strategy.
+   */
+  @Deprecated
   public static enum Type {
     DIRECT, REVERSE, BOTH
   }
 
-  private final Map<AnnotationFS, Collection<AnnotationFS>> data = new LinkedHashMap<AnnotationFS, Collection<AnnotationFS>>();
+  private final CoverageIndex<AnnotationFS, AnnotationFS> index;
 
-  private final Map<AnnotationFS, Collection<AnnotationFS>> dataRev = new LinkedHashMap<AnnotationFS, Collection<AnnotationFS>>();
+  /**
+   * Create a new index on the given CAS using the specified two types. Lookups can be made in both
+   * directions.
+   * 
+   * @param cas
+   *          the working CAS.
+   * @param aSuper
+   *          the covering type.
+   * @param aUnder
+   *          the covered type.
+   */
+  protected ContainmentIndex(CAS cas, org.apache.uima.cas.Type aSuper,
+          org.apache.uima.cas.Type aUnder) {
+    index = CoverageIndex.create(cas, aSuper, aUnder);
+  }
 
   /**
-   * Create a new index on the given JCas using the specified two types. The last argument indicates
-   * in which directions lookups to the index will be made.
+   * Create a new index on the given CAS using the specified two types.
    * 
    * @param cas
-   *          the working JCas.
+   *          the working CAS.
    * @param aSuper
    *          the covering type.
    * @param aUnder
    *          the covered type.
    * @param aType
-   *          the indexing strategy.
+   *          the indexing strategy. Ignored, lookups can always be made in both directions.
+   * @deprecated Use {@link #ContainmentIndex(CAS, org.apache.uima.cas.Type,
+   *             org.apache.uima.cas.Type)} instead.
    */
+  @Deprecated
   protected ContainmentIndex(CAS cas, org.apache.uima.cas.Type aSuper,
           org.apache.uima.cas.Type aUnder, Type aType) {
-    Collection<AnnotationFS> over = select(cas, aSuper);
-    for (AnnotationFS s : over) {
-      Collection<AnnotationFS> under = selectCovered(cas, aUnder, s);
-      for (AnnotationFS u : under) {
-        switch (aType) {
-          case DIRECT: {
-            put(data, s, u);
-            break;
-          }
-          case REVERSE:
-            put(dataRev, u, s);
-            break;
-          case BOTH:
-            put(data, s, u);
-            put(dataRev, u, s);
-            break;
-        }
-      }
-    }
-  }
-
-  private <X, Y> void put(Map<X, Collection<Y>> map, X key, Y value) {
-    Collection<Y> c = map.get(key);
-    if (c == null) {
-      c = new LinkedList<Y>();
-      map.put(key, c);
-    }
-    c.add(value);
+    this(cas, aSuper, aUnder);
   }
 
   /**
@@ -102,16 +101,12 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
    * 
    * @param aSuper
    *          a covering type instance.
-   * @return a collection of covered type instances.
+   * @return a collection of covered type instances. Empty if the covering instance is not in the
+   *         index.
    */
-  @SuppressWarnings("unchecked")
+  @SuppressWarnings({ "unchecked", "rawtypes" })
   public Collection<U> containedIn(S aSuper) {
-    @SuppressWarnings("rawtypes")
-    Collection c = data.get(aSuper);
-    if (c == null) {
-      return Collections.emptySet();
-    }
-    return c;
+    return (Collection) index.getCovered(aSuper);
   }
 
   /**
@@ -120,16 +115,12 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
    * 
    * @param aUnder
    *          a covered type instance.
-   * @return a collection of covering type instances.
+   * @return a collection of covering type instances. Empty if the covered instance is not in the
+   *         index.
    */
-  @SuppressWarnings("unchecked")
+  @SuppressWarnings({ "unchecked", "rawtypes" })
   public Collection<S> containing(U aUnder) {
-    @SuppressWarnings("rawtypes")
-    Collection c = dataRev.get(aUnder);
-    if (c == null) {
-      return Collections.emptySet();
-    }
-    return c;
+    return (Collection) index.getCovering(aUnder);
   }
 
   /**
@@ -142,7 +133,7 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
    * @return whether the covered instance is contained in the covering instance.
    */
   public boolean isContainedIn(S aSuper, U aUnder) {
-    return containedIn(aSuper).contains(aUnder);
+    return index.isCovered(aSuper, aUnder);
   }
 
   /**
@@ -153,8 +144,7 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
    * @return whether the covered instance is contained in any instance of the covering type.
    */
   public boolean isContainedInAny(U aUnder) {
-    Collection<S> containers = containing(aUnder);
-    return containers != null && !containers.isEmpty();
+    return !containing(aUnder).isEmpty();
   }
 
   /**
@@ -171,33 +161,74 @@ public class ContainmentIndex<S extends AnnotationFS, U extends AnnotationFS> {
    *          the covering type.
    * @param aUnder
    *          the covered type.
-   * @param aType
-   *          the indexing strategy.
    * @return the index instance.
    */
   @SuppressWarnings("unchecked")
   public static <A extends AnnotationFS, B extends AnnotationFS> ContainmentIndex<A, B> create(
-          JCas aJcas, Class<A> aSuper, Class<B> aUnder, Type aType) {
+          JCas aJcas, Class<A> aSuper, Class<B> aUnder) {
     return (ContainmentIndex<A, B>) create(aJcas.getCas(), JCasUtil.getType(aJcas, aSuper),
-            JCasUtil.getType(aJcas, aUnder), aType);
+            JCasUtil.getType(aJcas, aUnder));
   }
 
   /**
    * Factory method to create an index instead of using the constructor. This makes used of Java's
    * type inference capabilities and results in less verbose code.
    * 
-   * @param cas
+   * @param <A>
+   *          covering type.
+   * @param <B>
+   *          covered type.
+   * @param aJcas
    *          the working JCas.
    * @param aSuper
    *          the covering type.
    * @param aUnder
    *          the covered type.
    * @param aType
-   *          the indexing strategy.
+   *          the indexing strategy. Ignored, lookups can always be made in both directions.
+   * @return the index instance.
+   * @deprecated Use {@link #create(JCas, Class, Class)} instead.
+   */
+  @Deprecated
+  public static <A extends AnnotationFS, B extends AnnotationFS> ContainmentIndex<A, B> create(
+          JCas aJcas, Class<A> aSuper, Class<B> aUnder, Type aType) {
+    return create(aJcas, aSuper, aUnder);
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor.
+   * 
+   * @param cas
+   *          the working CAS.
+   * @param aSuper
+   *          the covering type.
+   * @param aUnder
+   *          the covered type.
+   * @return the index instance.
+   */
+  public static ContainmentIndex<AnnotationFS, AnnotationFS> create(CAS cas,
+          org.apache.uima.cas.Type aSuper, org.apache.uima.cas.Type aUnder) {
+    return new ContainmentIndex<AnnotationFS, AnnotationFS>(cas, aSuper, aUnder);
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor.
+   * 
+   * @param cas
+   *          the working CAS.
+   * @param aSuper
+   *          the covering type.
+   * @param aUnder
+   *          the covered type.
+   * @param aType
+   *          the indexing strategy. Ignored, lookups can always be made in both directions.
    * @return the index instance.
+   * @deprecated Use {@link #create(CAS, org.apache.uima.cas.Type, org.apache.uima.cas.Type)}
+   *             instead.
    */
+  @Deprecated
   public static ContainmentIndex<AnnotationFS, AnnotationFS> create(CAS cas,
           org.apache.uima.cas.Type aSuper, org.apache.uima.cas.Type aUnder, Type aType) {
-    return new ContainmentIndex<AnnotationFS, AnnotationFS>(cas, aSuper, aUnder, aType);
+    return create(cas, aSuper, aUnder);
   }
 }
@@ -0,0 +1,469 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.cas.text.AnnotationIndex;
+import org.apache.uima.jcas.JCas;
+
+/**
+ * An immutable index over the coverage relation between the annotations of a covering type and a
+ * covered type. The index is built in a single sweep over the two annotation indexes and stores
+ * the begin/end offsets of the annotations in primitive arrays. The coverage relation is stored in
+ * both directions as compressed adjacency arrays (a start offset per annotation into a shared
+ * array of annotation ordinals).
+ * <p>
+ * Lookups by annotation or by offsets do not allocate any memory except for the lightweight list
+ * views returned by {@link #getCovered(AnnotationFS)} and {@link #getCovering(AnnotationFS)}. The
+ * {@code forEach} methods do not allocate at all.
+ * <p>
+ * The semantics of the lookups are the same as the ones of
+ * {@link CasUtil#selectCovered(CAS, Type, AnnotationFS)},
+ * {@link CasUtil#selectCovering(CAS, Type, int, int)} and
+ * {@link CasUtil#selectOverlapping(CAS, Type, int, int)}. All results are returned in the order of
+ * the UIMA annotation index. The index does not reflect changes made to the CAS after it has been
+ * created.
+ *
+ * @param <C>
+ *          covering type.
+ * @param <E>
+ *          covered type.
+ */
+public final class CoverageIndex<C extends AnnotationFS, E extends AnnotationFS> {
+
+  private final AnnotationFS[] covering;
+
+  private final int[] coveringBegins;
+
+  private final int[] coveringEnds;
+
+  private final int[] coveringMaxEnds;
+
+  private final AnnotationFS[] covered;
+
+  private final int[] coveredBegins;
+
+  private final int[] coveredEnds;
+
+  private final int[] coveredMaxEnds;
+
+  // For each covering annotation the start of its covered annotations in coveredOrdinals
+  private final int[] coveredStarts;
+
+  private final int[] coveredOrdinals;
+
+  // For each covered annotation the start of its covering annotations in coveringOrdinals
+  private final int[] coveringStarts;
+
+  private final int[] coveringOrdinals;
+
+  private CoverageIndex(CAS aCas, Type aCoveringType, Type aCoveredType) {
+    CasUtil.requireAnnotationType(aCas, aCoveringType);
+    CasUtil.requireAnnotationType(aCas, aCoveredType);
+
+    covering = toArray(aCas.getAnnotationIndex(aCoveringType));
+    coveringBegins = new int[covering.length];
+    coveringEnds = new int[covering.length];
+    coveringMaxEnds = new int[covering.length];
+    fillOffsets(covering, coveringBegins, coveringEnds, coveringMaxEnds);
+
+    covered = toArray(aCas.getAnnotationIndex(aCoveredType));
+    coveredBegins = new int[covered.length];
+    coveredEnds = new int[covered.length];
+    coveredMaxEnds = new int[covered.length];
+    fillOffsets(covered, coveredBegins, coveredEnds, coveredMaxEnds);
+
+    // Sweep over both indexes. Since the covering annotations are sorted by begin, the first
+    // covered annotation which may be covered by the current covering annotation only moves ahead.
+    coveredStarts = new int[covering.length + 1];
+    int[] edges = new int[Math.max(16, covered.length)];
+    int edgeCount = 0;
+    int first = 0;
+    for (int c = 0; c < covering.length; c++) {
+      int begin = coveringBegins[c];
+      int end = coveringEnds[c];
+      while (first < covered.length && coveredBegins[first] < begin) {
+        first++;
+      }
+
+      coveredStarts[c] = edgeCount;
+      for (int e = first; e < covered.length && coveredBegins[e] <= end; e++) {
+        if (coveredEnds[e] <= end && covered[e] != covering[c]) {
+          if (edgeCount == edges.length) {
+            edges = Arrays.copyOf(edges, edges.length * 2);
+          }
+          edges[edgeCount] = e;
+          edgeCount++;
+        }
+      }
+    }
+    coveredStarts[covering.length] = edgeCount;
+    coveredOrdinals = Arrays.copyOf(edges, edgeCount);
+
+    // Transpose the relation using a counting sort. Iterating over the covering annotations in
+    // index order keeps the covering annotations of each covered annotation in index order.
+    coveringStarts = new int[covered.length + 1];
+    for (int i = 0; i < edgeCount; i++) {
+      coveringStarts[coveredOrdinals[i] + 1]++;
+    }
+    for (int e = 0; e < covered.length; e++) {
+      coveringStarts[e + 1] += coveringStarts[e];
+    }
+    coveringOrdinals = new int[edgeCount];
+    int[] fill = Arrays.copyOf(coveringStarts, covered.length);
+    for (int c = 0; c < covering.length; c++) {
+      for (int i = coveredStarts[c]; i < coveredStarts[c + 1]; i++) {
+        int e = coveredOrdinals[i];
+        coveringOrdinals[fill[e]] = c;
+        fill[e]++;
+      }
+    }
+  }
+
+  private static AnnotationFS[] toArray(AnnotationIndex<AnnotationFS> aIndex) {
+    AnnotationFS[] result = new AnnotationFS[aIndex.size()];
+    int i = 0;
+    for (AnnotationFS a : aIndex) {
+      result[i] = a;
+      i++;
+    }
+    return result;
+  }
+
+  private static void fillOffsets(AnnotationFS[] aAnnotations, int[] aBegins, int[] aEnds,
+          int[] aMaxEnds) {
+    int maxEnd = Integer.MIN_VALUE;
+    for (int i = 0; i < aAnnotations.length; i++) {
+      aBegins[i] = aAnnotations[i].getBegin();
+      aEnds[i] = aAnnotations[i].getEnd();
+      maxEnd = Math.max(maxEnd, aEnds[i]);
+      aMaxEnds[i] = maxEnd;
+    }
+  }
+
+  /**
+   * @return the number of indexed covering annotations.
+   */
+  public int getCoveringSize() {
+    return covering.length;
+  }
+
+  /**
+   * @return the number of indexed covered annotations.
+   */
+  public int getCoveredSize() {
+    return covered.length;
+  }
+
+  /**
+   * Get all instances of the covered type within the boundaries of the given covering annotation.
+   * The covering annotation itself is never returned.
+   *
+   * @param aCovering
+   *          a covering annotation.
+   * @return an unmodifiable view on the covered annotations. Empty if the given annotation is not
+   *         part of the index.
+   */
+  public List<E> getCovered(C aCovering) {
+    int c = ordinal(covering, coveringBegins, coveringEnds, aCovering);
+    if (c < 0) {
+      return Collections.emptyList();
+    }
+    return new OrdinalList<>(covered, coveredOrdinals, coveredStarts[c], coveredStarts[c + 1]);
+  }
+
+  /**
+   * Get all instances of the covering type which cover the given covered annotation. The covered
+   * annotation itself is never returned.
+   *
+   * @param aCovered
+   *          a covered annotation.
+   * @return an unmodifiable view on the covering annotations. Empty if the given annotation is not
+   *         part of the index.
+   */
+  public List<C> getCovering(E aCovered) {
+    int e = ordinal(covered, coveredBegins, coveredEnds, aCovered);
+    if (e < 0) {
+      return Collections.emptyList();
+    }
+    return new OrdinalList<>(covering, coveringOrdinals, coveringStarts[e],
+            coveringStarts[e + 1]);
+  }
+
+  /**
+   * Checks if the given covered annotation lies within the boundaries of the given covering
+   * annotation.
+   *
+   * @param aCovering
+   *          a covering annotation.
+   * @param aCovered
+   *          a covered annotation.
+   * @return whether the covered annotation is covered by the covering annotation.
+   */
+  public boolean isCovered(C aCovering, E aCovered) {
+    int c = ordinal(covering, coveringBegins, coveringEnds, aCovering);
+    int e = ordinal(covered, coveredBegins, coveredEnds, aCovered);
+    if (c < 0 || e < 0) {
+      return false;
+    }
+
+    // The covered ordinals of a covering annotation are sorted
+    return Arrays.binarySearch(coveredOrdinals, coveredStarts[c], coveredStarts[c + 1], e) >= 0;
+  }
+
+  /**
+   * Calls the given action for all instances of the covered type within the boundaries of the given
+   * covering annotation. The covering annotation itself is skipped.
+   *
+   * @param aCovering
+   *          a covering annotation.
+   * @param aAction
+   *          the action to perform.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachCovered(C aCovering, Consumer<? super E> aAction) {
+    int c = ordinal(covering, coveringBegins, coveringEnds, aCovering);
+    if (c < 0) {
+      return;
+    }
+    for (int i = coveredStarts[c]; i < coveredStarts[c + 1]; i++) {
+      aAction.accept((E) covered[coveredOrdinals[i]]);
+    }
+  }
+
+  /**
+   * Calls the given action for all instances of the covering type which cover the given covered
+   * annotation. The covered annotation itself is skipped.
+   *
+   * @param aCovered
+   *          a covered annotation.
+   * @param aAction
+   *          the action to perform.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachCovering(E aCovered, Consumer<? super C> aAction) {
+    int e = ordinal(covered, coveredBegins, coveredEnds, aCovered);
+    if (e < 0) {
+      return;
+    }
+    for (int i = coveringStarts[e]; i < coveringStarts[e + 1]; i++) {
+      aAction.accept((C) covering[coveringOrdinals[i]]);
+    }
+  }
+
+  /**
+   * Calls the given action for all instances of the covered type within the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachCovered(int aBegin, int aEnd, Consumer<? super E> aAction) {
+    for (int e = lowerBound(coveredBegins, aBegin); e < covered.length
+            && coveredBegins[e] <= aEnd; e++) {
+      if (coveredEnds[e] <= aEnd) {
+        aAction.accept((E) covered[e]);
+      }
+    }
+  }
+
+  /**
+   * Calls the given action for all instances of the covering type which cover the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachCovering(int aBegin, int aEnd, Consumer<? super C> aAction) {
+    // Annotations before the first one whose running maximum end reaches aEnd cannot cover the
+    // span and neither can annotations starting after aBegin.
+    int from = lowerBound(coveringMaxEnds, aEnd);
+    int to = lowerBound(coveringBegins, aBegin + 1);
+    for (int c = from; c < to; c++) {
+      if (coveringEnds[c] >= aEnd) {
+        aAction.accept((C) covering[c]);
+      }
+    }
+  }
+
+  /**
+   * Calls the given action for all instances of the covered type which overlap the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @see CasUtil#selectOverlapping(CAS, Type, int, int)
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachOverlapping(int aBegin, int aEnd, Consumer<? super E> aAction) {
+    // Zero-width annotations at the selection begin overlap even if they end at aBegin
+    int from = Math.min(lowerBound(coveredMaxEnds, aBegin + 1), lowerBound(coveredBegins, aBegin));
+    int to = lowerBound(coveredBegins, Math.max(aEnd, aBegin + 1));
+    for (int e = from; e < to; e++) {
+      int begin = coveredBegins[e];
+      if (begin == aBegin || (begin < aEnd && coveredEnds[e] > aBegin)) {
+        aAction.accept((E) covered[e]);
+      }
+    }
+  }
+
+  /**
+   * Finds the position of the given annotation by a binary search over the offsets followed by an
+   * identity check over the annotations having the same offsets.
+   */
+  private static int ordinal(AnnotationFS[] aAnnotations, int[] aBegins, int[] aEnds,
+          AnnotationFS aAnnotation) {
+    if (aAnnotation == null) {
+      return -1;
+    }
+
+    int begin = aAnnotation.getBegin();
+    int end = aAnnotation.getEnd();
+
+    // Find the first annotation with the given begin and end (index order is begin ascending, end
+    // descending)
+    int lo = 0;
+    int hi = aAnnotations.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (aBegins[mid] < begin || (aBegins[mid] == begin && aEnds[mid] > end)) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+
+    for (int i = lo; i < aAnnotations.length && aBegins[i] == begin && aEnds[i] == end; i++) {
+      if (aAnnotations[i] == aAnnotation) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * @return the first position in the sorted array holding a value greater or equal to the given
+   *         one.
+   */
+  private static int lowerBound(int[] aSorted, int aValue) {
+    int lo = 0;
+    int hi = aSorted.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (aSorted[mid] < aValue) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor. This makes used of Java's
+   * type inference capabilities and results in less verbose code.
+   *
+   * @param <A>
+   *          covering type.
+   * @param <B>
+   *          covered type.
+   * @param aJcas
+   *          the working JCas.
+   * @param aCovering
+   *          the covering type.
+   * @param aCovered
+   *          the covered type.
+   * @return the index instance.
+   */
+  public static <A extends AnnotationFS, B extends AnnotationFS> CoverageIndex<A, B> create(
+          JCas aJcas, Class<A> aCovering, Class<B> aCovered) {
+    return new CoverageIndex<>(aJcas.getCas(), JCasUtil.getType(aJcas, aCovering),
+            JCasUtil.getType(aJcas, aCovered));
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor. This makes used of Java's
+   * type inference capabilities and results in less verbose code.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aCovering
+   *          the covering type.
+   * @param aCovered
+   *          the covered type.
+   * @return the index instance.
+   */
+  public static CoverageIndex<AnnotationFS, AnnotationFS> create(CAS aCas, Type aCovering,
+          Type aCovered) {
+    return new CoverageIndex<>(aCas, aCovering, aCovered);
+  }
+
+  private static final class OrdinalList<T> extends AbstractList<T> implements RandomAccess {
+    private final AnnotationFS[] annotations;
+
+    private final int[] ordinals;
+
+    private final int from;
+
+    private final int to;
+
+    private OrdinalList(AnnotationFS[] aAnnotations, int[] aOrdinals, int aFrom, int aTo) {
+      annotations = aAnnotations;
+      ordinals = aOrdinals;
+      from = aFrom;
+      to = aTo;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int aIndex) {
+      if (aIndex < 0 || aIndex >= to - from) {
+        throw new IndexOutOfBoundsException(
+                "Index: " + aIndex + ", Size: " + (to - from));
+      }
+      return (T) annotations[ordinals[from + aIndex]];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+}
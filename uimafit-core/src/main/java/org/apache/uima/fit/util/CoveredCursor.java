@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.jcas.JCas;
+
+/**
+ * A cursor selecting the annotations of a type covered by a sequence of windows, e.g. the tokens
+ * of each sentence of a document. The windows must be passed in order of non-decreasing begin
+ * offsets. The cursor then never re-seeks the annotation index: a single {@link FSIterator} only
+ * moves forward and the annotations it has passed but which may still be covered by the current
+ * or a later window are kept in a buffer. A full pass over {@code m} windows and {@code n}
+ * annotations costs {@code O(n + m)} plus the annotations visited within each window, instead of
+ * one seek and backtracking step per window as in {@link CasUtil#selectCovered}.
+ * <p>
+ * The selections have the same semantics as {@link CasUtil#selectCovered(CAS, Type, int, int)}
+ * and {@link CasUtil#selectCovered(CAS, Type, AnnotationFS)} respectively:
+ *
+ * <pre>
+ * CoveredCursor&lt;Token&gt; tokens = CoveredCursor.create(jcas, Token.class);
+ * for (Sentence s : select(jcas, Sentence.class)) {
+ *   tokens.moveTo(s);
+ *   while (tokens.next()) {
+ *     Token t = tokens.get();
+ *     ...
+ *   }
+ * }
+ * </pre>
+ *
+ * The annotation index of the type must not be modified while the cursor is in use. A cursor is
+ * not thread-safe.
+ *
+ * @param <T>
+ *          annotation type.
+ */
+public final class CoveredCursor<T extends AnnotationFS> {
+
+  private final FSIterator<AnnotationFS> it;
+
+  // Annotations taken from the iterator which may still be covered by a window
+  private AnnotationFS[] buffer = new AnnotationFS[16];
+
+  private int[] begins = new int[16];
+
+  private int[] ends = new int[16];
+
+  private int count;
+
+  // First buffered annotation starting at or after the begin of the current window
+  private int head;
+
+  private int pos;
+
+  private int windowBegin = Integer.MIN_VALUE;
+
+  private int windowEnd = Integer.MIN_VALUE;
+
+  private AnnotationFS window;
+
+  private AnnotationFS current;
+
+  private CoveredCursor(CAS aCas, Type aType) {
+    CasUtil.requireAnnotationType(aCas, aType);
+    it = aCas.getAnnotationIndex(aType).iterator();
+  }
+
+  /**
+   * Select the annotations within the given window. The window itself is never selected.
+   *
+   * @param aWindow
+   *          the window annotation.
+   * @return the cursor itself.
+   * @throws IllegalArgumentException
+   *           if the window starts before the previous window.
+   * @see CasUtil#selectCovered(CAS, Type, AnnotationFS)
+   */
+  public CoveredCursor<T> moveTo(AnnotationFS aWindow) {
+    moveTo(aWindow.getBegin(), aWindow.getEnd());
+    window = aWindow;
+    return this;
+  }
+
+  /**
+   * Select the annotations within the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @return the cursor itself.
+   * @throws IllegalArgumentException
+   *           if the span starts before the previous span.
+   * @see CasUtil#selectCovered(CAS, Type, int, int)
+   */
+  public CoveredCursor<T> moveTo(int aBegin, int aEnd) {
+    if (aBegin < windowBegin) {
+      throw new IllegalArgumentException("Window [" + aBegin + ".." + aEnd
+              + "] starts before the previous window [" + windowBegin + ".." + windowEnd + "]");
+    }
+
+    while ((head < count || fill()) && begins[head] < aBegin) {
+      head++;
+    }
+
+    // Drop the annotations before the head once they take up half of the buffer
+    if (head > buffer.length / 2) {
+      int remaining = count - head;
+      System.arraycopy(buffer, head, buffer, 0, remaining);
+      System.arraycopy(begins, head, begins, 0, remaining);
+      System.arraycopy(ends, head, ends, 0, remaining);
+      Arrays.fill(buffer, remaining, count, null);
+      count = remaining;
+      head = 0;
+    }
+
+    windowBegin = aBegin;
+    windowEnd = aEnd;
+    window = null;
+    pos = head;
+    current = null;
+    return this;
+  }
+
+  /**
+   * Move to the next annotation within the current window.
+   *
+   * @return whether there is such an annotation.
+   */
+  public boolean next() {
+    while ((pos < count || fill()) && begins[pos] <= windowEnd) {
+      AnnotationFS a = buffer[pos];
+      int end = ends[pos];
+      pos++;
+      if (end <= windowEnd && a != window) {
+        current = a;
+        return true;
+      }
+    }
+
+    current = null;
+    return false;
+  }
+
+  /**
+   * Calls the given action for all annotations within the given span.
+   *
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @throws IllegalArgumentException
+   *           if the span starts before the previous span.
+   */
+  public void forEach(int aBegin, int aEnd, Consumer<? super T> aAction) {
+    moveTo(aBegin, aEnd);
+    while (next()) {
+      aAction.accept(get());
+    }
+  }
+
+  /**
+   * Calls the given action for all annotations within the given window.
+   *
+   * @param aWindow
+   *          the window annotation.
+   * @param aAction
+   *          the action to perform.
+   * @throws IllegalArgumentException
+   *           if the window starts before the previous window.
+   */
+  public void forEach(AnnotationFS aWindow, Consumer<? super T> aAction) {
+    moveTo(aWindow);
+    while (next()) {
+      aAction.accept(get());
+    }
+  }
+
+  /**
+   * @return the current annotation.
+   * @throws NoSuchElementException
+   *           if {@link #next()} has not been called or returned {@code false}.
+   */
+  @SuppressWarnings("unchecked")
+  public T get() {
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+    return (T) current;
+  }
+
+  /**
+   * Takes the next annotation from the iterator into the buffer.
+   *
+   * @return whether there was another annotation.
+   */
+  private boolean fill() {
+    if (!it.isValid()) {
+      return false;
+    }
+
+    if (count == buffer.length) {
+      buffer = Arrays.copyOf(buffer, count * 2);
+      begins = Arrays.copyOf(begins, count * 2);
+      ends = Arrays.copyOf(ends, count * 2);
+    }
+
+    AnnotationFS a = it.get();
+    buffer[count] = a;
+    begins[count] = a.getBegin();
+    ends[count] = a.getEnd();
+    count++;
+    it.moveToNext();
+    return true;
+  }
+
+  /**
+   * Factory method to create a cursor instead of using the constructor. This makes used of Java's
+   * type inference capabilities and results in less verbose code.
+   *
+   * @param <A>
+   *          annotation type.
+   * @param aJcas
+   *          the working JCas.
+   * @param aType
+   *          the annotation type.
+   * @return the cursor.
+   */
+  public static <A extends AnnotationFS> CoveredCursor<A> create(JCas aJcas, Class<A> aType) {
+    return new CoveredCursor<>(aJcas.getCas(), JCasUtil.getType(aJcas, aType));
+  }
+
+  /**
+   * Factory method to create a cursor instead of using the constructor.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aType
+   *          the annotation type.
+   * @return the cursor.
+   */
+  public static CoveredCursor<AnnotationFS> create(CAS aCas, Type aType) {
+    return new CoveredCursor<>(aCas, aType);
+  }
+}
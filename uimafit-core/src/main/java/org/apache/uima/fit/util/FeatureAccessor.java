@@ -0,0 +1,579 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static java.util.Arrays.asList;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.BooleanArrayFS;
+import org.apache.uima.cas.ByteArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.DoubleArrayFS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.FloatArrayFS;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.LongArrayFS;
+import org.apache.uima.cas.ShortArrayFS;
+import org.apache.uima.cas.StringArrayFS;
+import org.apache.uima.cas.Type;
+
+/**
+ * Pre-compiled access to a single feature of a type. The feature is resolved once when the
+ * accessor is created and the range-specific getter and setter are chosen up front, so that reading
+ * and writing the feature costs no more than a call to the respective {@link FeatureStructure}
+ * method. This makes generic code that works with feature names almost as fast as code using the
+ * JCas getters and setters.
+ * <p>
+ * An accessor is bound to the type system of the type it was created for. Create one accessor per
+ * type system and feature, e.g. in {@code typeSystemInit} or when processing the first CAS, and
+ * reuse it for all feature structures of that type and its subtypes.
+ * <p>
+ * Array-valued features can be read without copying via the typed array accessors such as
+ * {@link #getIntArray(FeatureStructure)} which return the array feature structure itself.
+ * 
+ * <pre>
+ * FeatureAccessor pos = FeatureAccessor.of(tokenType, "pos");
+ * for (AnnotationFS token : select(cas, tokenType)) {
+ *   String value = pos.getString(token);
+ * }
+ * </pre>
+ */
+public final class FeatureAccessor {
+
+  /**
+   * The kinds of values a feature can hold, as determined by its range.
+   */
+  public enum RangeKind {
+    BOOLEAN, BYTE, SHORT, INTEGER, LONG, FLOAT, DOUBLE,
+    /** Strings and string subtypes. */
+    STRING,
+    /** Primitive and feature structure arrays. */
+    ARRAY,
+    /** The built-in list types. */
+    LIST,
+    /** Any other feature structure. */
+    FEATURE_STRUCTURE;
+
+    private static final Set<String> LIST_TYPES = new HashSet<>(asList(CAS.TYPE_NAME_LIST_BASE,
+            CAS.TYPE_NAME_FS_LIST, CAS.TYPE_NAME_EMPTY_FS_LIST, CAS.TYPE_NAME_NON_EMPTY_FS_LIST,
+            CAS.TYPE_NAME_FLOAT_LIST, CAS.TYPE_NAME_EMPTY_FLOAT_LIST,
+            CAS.TYPE_NAME_NON_EMPTY_FLOAT_LIST, CAS.TYPE_NAME_INTEGER_LIST,
+            CAS.TYPE_NAME_EMPTY_INTEGER_LIST, CAS.TYPE_NAME_NON_EMPTY_INTEGER_LIST,
+            CAS.TYPE_NAME_STRING_LIST, CAS.TYPE_NAME_EMPTY_STRING_LIST,
+            CAS.TYPE_NAME_NON_EMPTY_STRING_LIST));
+
+    /**
+     * @return whether values of this kind are stored in the feature itself (including strings).
+     */
+    public boolean isPrimitive() {
+      return ordinal() <= STRING.ordinal();
+    }
+
+    /**
+     * @param aRange
+     *          the range of a feature.
+     * @return the kind of values the feature holds.
+     */
+    public static RangeKind of(Type aRange) {
+      if (aRange.isPrimitive()) {
+        switch (aRange.getName()) {
+          case CAS.TYPE_NAME_BOOLEAN:
+            return BOOLEAN;
+          case CAS.TYPE_NAME_BYTE:
+            return BYTE;
+          case CAS.TYPE_NAME_SHORT:
+            return SHORT;
+          case CAS.TYPE_NAME_INTEGER:
+            return INTEGER;
+          case CAS.TYPE_NAME_LONG:
+            return LONG;
+          case CAS.TYPE_NAME_FLOAT:
+            return FLOAT;
+          case CAS.TYPE_NAME_DOUBLE:
+            return DOUBLE;
+          default:
+            return STRING;
+        }
+      }
+
+      if (aRange.isArray()) {
+        return ARRAY;
+      }
+
+      return LIST_TYPES.contains(aRange.getName()) ? LIST : FEATURE_STRUCTURE;
+    }
+  }
+
+  private final Type type;
+
+  private final Feature feature;
+
+  private final RangeKind kind;
+
+  private final Function<FeatureStructure, Object> getter;
+
+  private final BiConsumer<FeatureStructure, Object> setter;
+
+  private FeatureAccessor(Type aType, Feature aFeature) {
+    type = aType;
+    feature = aFeature;
+    kind = RangeKind.of(aFeature.getRange());
+
+    switch (kind) {
+      case BOOLEAN:
+        getter = fs -> fs.getBooleanValue(aFeature);
+        setter = (fs, v) -> fs.setBooleanValue(aFeature, (Boolean) v);
+        break;
+      case BYTE:
+        getter = fs -> fs.getByteValue(aFeature);
+        setter = (fs, v) -> fs.setByteValue(aFeature, ((Number) v).byteValue());
+        break;
+      case SHORT:
+        getter = fs -> fs.getShortValue(aFeature);
+        setter = (fs, v) -> fs.setShortValue(aFeature, ((Number) v).shortValue());
+        break;
+      case INTEGER:
+        getter = fs -> fs.getIntValue(aFeature);
+        setter = (fs, v) -> fs.setIntValue(aFeature, ((Number) v).intValue());
+        break;
+      case LONG:
+        getter = fs -> fs.getLongValue(aFeature);
+        setter = (fs, v) -> fs.setLongValue(aFeature, ((Number) v).longValue());
+        break;
+      case FLOAT:
+        getter = fs -> fs.getFloatValue(aFeature);
+        setter = (fs, v) -> fs.setFloatValue(aFeature, ((Number) v).floatValue());
+        break;
+      case DOUBLE:
+        getter = fs -> fs.getDoubleValue(aFeature);
+        setter = (fs, v) -> fs.setDoubleValue(aFeature, ((Number) v).doubleValue());
+        break;
+      case STRING:
+        getter = fs -> fs.getStringValue(aFeature);
+        setter = (fs, v) -> fs.setStringValue(aFeature, (String) v);
+        break;
+      default:
+        getter = fs -> fs.getFeatureValue(aFeature);
+        setter = (fs, v) -> fs.setFeatureValue(aFeature, (FeatureStructure) v);
+        break;
+    }
+  }
+
+  /**
+   * Create an accessor for the given feature of the given type.
+   * 
+   * @param aType
+   *          the type declaring or inheriting the feature.
+   * @param aFeature
+   *          the base name of the feature.
+   * @return the accessor.
+   * @throws IllegalArgumentException
+   *           if the type has no such feature.
+   */
+  public static FeatureAccessor of(Type aType, String aFeature) {
+    Feature feat = aType.getFeatureByBaseName(aFeature);
+
+    if (feat == null) {
+      throw new IllegalArgumentException(
+              "Type [" + aType + "] has no feature with name [" + aFeature + "]");
+    }
+
+    return new FeatureAccessor(aType, feat);
+  }
+
+  /**
+   * Create an accessor for the given feature of the given type.
+   * 
+   * @param aCas
+   *          the CAS whose type system contains the type.
+   * @param aTypeName
+   *          the fully qualified type name.
+   * @param aFeature
+   *          the base name of the feature.
+   * @return the accessor.
+   * @throws IllegalArgumentException
+   *           if the type does not exist or has no such feature.
+   */
+  public static FeatureAccessor of(CAS aCas, String aTypeName, String aFeature) {
+    return of(CasUtil.getType(aCas, aTypeName), aFeature);
+  }
+
+  /**
+   * Create an accessor for the given feature.
+   * 
+   * @param aFeature
+   *          the feature.
+   * @return the accessor.
+   */
+  public static FeatureAccessor of(Feature aFeature) {
+    return new FeatureAccessor(aFeature.getDomain(), aFeature);
+  }
+
+  /**
+   * @return the type for which the accessor was created.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the feature accessed.
+   */
+  public Feature getFeature() {
+    return feature;
+  }
+
+  /**
+   * @return the kind of values the feature holds.
+   */
+  public RangeKind getRangeKind() {
+    return kind;
+  }
+
+  /**
+   * @return whether the feature has a primitive range (including strings).
+   */
+  public boolean isPrimitive() {
+    return kind.isPrimitive();
+  }
+
+  /**
+   * Get the feature value. Primitive values are boxed.
+   * 
+   * @param aFS
+   *          the feature structure.
+   * @return the value.
+   */
+  public Object get(FeatureStructure aFS) {
+    return getter.apply(aFS);
+  }
+
+  /**
+   * Get the feature value coerced into the given class as by
+   * {@link FSUtil#getFeature(FeatureStructure, Feature, Class)}. Values which already are
+   * instances of the requested class (other than {@link Object}) are returned as they are. Only
+   * array and list values requested as Java arrays or collections are copied.
+   * 
+   * @param <T>
+   *          the value type.
+   * @param aFS
+   *          the feature structure.
+   * @param aClazz
+   *          the value type.
+   * @return the value.
+   */
+  public <T> T get(FeatureStructure aFS, Class<T> aClazz) {
+    if (kind.isPrimitive()) {
+      return aClazz.cast(getter.apply(aFS));
+    }
+
+    FeatureStructure value = aFS.getFeatureValue(feature);
+    if (value == null) {
+      return null;
+    }
+
+    if (!Object.class.equals(aClazz) && aClazz.isInstance(value)) {
+      return aClazz.cast(value);
+    }
+
+    return FSUtil.getFeature(aFS, feature, aClazz);
+  }
+
+  /**
+   * Set the feature value. Primitive values are unboxed; numbers are converted to the range of the
+   * feature.
+   * 
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the value.
+   */
+  public void set(FeatureStructure aFS, Object aValue) {
+    setter.accept(aFS, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the boolean feature.
+   */
+  public boolean getBoolean(FeatureStructure aFS) {
+    return aFS.getBooleanValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the boolean feature.
+   */
+  public void setBoolean(FeatureStructure aFS, boolean aValue) {
+    aFS.setBooleanValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the byte feature.
+   */
+  public byte getByte(FeatureStructure aFS) {
+    return aFS.getByteValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the byte feature.
+   */
+  public void setByte(FeatureStructure aFS, byte aValue) {
+    aFS.setByteValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the short feature.
+   */
+  public short getShort(FeatureStructure aFS) {
+    return aFS.getShortValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the short feature.
+   */
+  public void setShort(FeatureStructure aFS, short aValue) {
+    aFS.setShortValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the integer feature.
+   */
+  public int getInt(FeatureStructure aFS) {
+    return aFS.getIntValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the integer feature.
+   */
+  public void setInt(FeatureStructure aFS, int aValue) {
+    aFS.setIntValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the long feature.
+   */
+  public long getLong(FeatureStructure aFS) {
+    return aFS.getLongValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the long feature.
+   */
+  public void setLong(FeatureStructure aFS, long aValue) {
+    aFS.setLongValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the float feature.
+   */
+  public float getFloat(FeatureStructure aFS) {
+    return aFS.getFloatValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the float feature.
+   */
+  public void setFloat(FeatureStructure aFS, float aValue) {
+    aFS.setFloatValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the double feature.
+   */
+  public double getDouble(FeatureStructure aFS) {
+    return aFS.getDoubleValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the double feature.
+   */
+  public void setDouble(FeatureStructure aFS, double aValue) {
+    aFS.setDoubleValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the value of the string feature.
+   */
+  public String getString(FeatureStructure aFS) {
+    return aFS.getStringValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new value of the string feature.
+   */
+  public void setString(FeatureStructure aFS, String aValue) {
+    aFS.setStringValue(feature, aValue);
+  }
+
+  /**
+   * @param <T>
+   *          the value type.
+   * @param aFS
+   *          the feature structure.
+   * @return the feature structure value without copying it.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends FeatureStructure> T getFeatureStructure(FeatureStructure aFS) {
+    return (T) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @param aValue
+   *          the new feature structure value.
+   */
+  public void setFeatureStructure(FeatureStructure aFS, FeatureStructure aValue) {
+    aFS.setFeatureValue(feature, aValue);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public BooleanArrayFS getBooleanArray(FeatureStructure aFS) {
+    return (BooleanArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public ByteArrayFS getByteArray(FeatureStructure aFS) {
+    return (ByteArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public ShortArrayFS getShortArray(FeatureStructure aFS) {
+    return (ShortArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public IntArrayFS getIntArray(FeatureStructure aFS) {
+    return (IntArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public LongArrayFS getLongArray(FeatureStructure aFS) {
+    return (LongArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public FloatArrayFS getFloatArray(FeatureStructure aFS) {
+    return (FloatArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public DoubleArrayFS getDoubleArray(FeatureStructure aFS) {
+    return (DoubleArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  public StringArrayFS getStringArray(FeatureStructure aFS) {
+    return (StringArrayFS) aFS.getFeatureValue(feature);
+  }
+
+  /**
+   * @param <T>
+   *          the element type.
+   * @param aFS
+   *          the feature structure.
+   * @return the array value without copying it. Changes to the array are visible in the CAS.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends FeatureStructure> ArrayFS<T> getArray(FeatureStructure aFS) {
+    return (ArrayFS<T>) aFS.getFeatureValue(feature);
+  }
+
+  @Override
+  public String toString() {
+    return "FeatureAccessor [" + feature.getName() + "]";
+  }
+}
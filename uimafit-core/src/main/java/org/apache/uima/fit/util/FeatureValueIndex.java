@@ -0,0 +1,656 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.fit.factory.FsIndexFactory;
+import org.apache.uima.fit.internal.IntArraySort;
+import org.apache.uima.fit.internal.LongIntTable;
+import org.apache.uima.fit.util.FeatureAccessor.RangeKind;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.resource.metadata.FsIndexCollection;
+import org.apache.uima.resource.metadata.FsIndexDescription;
+import org.apache.uima.resource.metadata.FsIndexKeyDescription;
+
+/**
+ * An immutable secondary index over the feature structures of a type by the values of one or more
+ * primitive or string features (the key features). It answers lookups like "all tokens whose
+ * {@code lemma} is X" without scanning all feature structures and reading the feature of each.
+ * <p>
+ * The feature structures are sorted by the value of the first key feature. Equality and range
+ * queries on this feature are answered by a binary search, and for integral and boolean features
+ * by a primitive {@code long}-keyed hash table. Equality queries over several key features use a
+ * hash map of the combined values.
+ * <p>
+ * Query values are converted to the range of the feature: numbers via {@link Number#longValue()},
+ * {@link Number#floatValue()} or {@link Number#doubleValue()}, booleans as {@code 1} and
+ * {@code 0}. Thus, the {@code double} query value {@code 0.1} matches the {@code float} feature
+ * value {@code 0.1f}. The reverse does not hold: the {@code float} query value {@code 0.1f} is not
+ * equal to the {@code double} feature value {@code 0.1}.
+ * <p>
+ * Feature structures with the same key values are returned in the order in which
+ * {@code CAS.select(type)} returns them, i.e. in annotation index order for annotation types.
+ * Range queries return them ordered by ascending value. String values are compared
+ * lexicographically, {@code null} sorting before all other values. The index does not reflect
+ * changes made to the CAS after it has been created.
+ *
+ * <pre>
+ * FeatureValueIndex&lt;Token&gt; byLemma = FeatureValueIndex.create(jcas, Token.class, "lemma");
+ * List&lt;Token&gt; tokens = byLemma.select("be");
+ * </pre>
+ *
+ * @param <T>
+ *          feature structure type.
+ */
+public final class FeatureValueIndex<T extends FeatureStructure> {
+
+  private final FeatureAccessor[] accessors;
+
+  private final FeatureStructure[] fses;
+
+  // Ordinals sorted by the value of the first key feature, ties broken by ordinal
+  private final int[] sorted;
+
+  // Value of the first key feature per sorted position - only the one matching the range is set
+  private final long[] longKeys;
+
+  private final double[] doubleKeys;
+
+  private final String[] stringKeys;
+
+  // Integral first key feature: first sorted position of each distinct value followed by the
+  // number of feature structures
+  private final int[] runStarts;
+
+  // Integral first key feature: distinct value to its position in runStarts
+  private final LongIntTable runs;
+
+  // Combined values of all key features to ordinals if there is more than one key feature
+  private final Map<List<Object>, int[]> combined;
+
+  private FeatureValueIndex(CAS aCas, Type aType, String... aFeatures) {
+    if (aFeatures.length == 0) {
+      throw new IllegalArgumentException("At least one key feature is required");
+    }
+
+    accessors = new FeatureAccessor[aFeatures.length];
+    for (int i = 0; i < aFeatures.length; i++) {
+      accessors[i] = FeatureAccessor.of(aType, aFeatures[i]);
+      if (!accessors[i].isPrimitive()) {
+        throw new IllegalArgumentException("Feature [" + accessors[i].getFeature().getName()
+                + "] is not a primitive or string feature");
+      }
+    }
+
+    List<FeatureStructure> all = new ArrayList<>();
+    for (TOP fs : aCas.<TOP> select(aType)) {
+      all.add(fs);
+    }
+    fses = all.toArray(new FeatureStructure[all.size()]);
+    int n = fses.length;
+
+    FeatureAccessor first = accessors[0];
+    if (isIntegral(first.getRangeKind())) {
+      long[] values = new long[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = longValue(first, fses[i]);
+      }
+      sorted = IntArraySort.sortedOrdinals(n, (a, b) -> Long.compare(values[a], values[b]));
+      longKeys = new long[n];
+      for (int p = 0; p < n; p++) {
+        longKeys[p] = values[sorted[p]];
+      }
+      doubleKeys = null;
+      stringKeys = null;
+
+      runStarts = new int[n + 1];
+      runs = new LongIntTable(n);
+      int runCount = 0;
+      int p = 0;
+      while (p < n) {
+        int q = p + 1;
+        while (q < n && longKeys[q] == longKeys[p]) {
+          q++;
+        }
+
+        runs.put(longKeys[p], runCount);
+        runStarts[runCount] = p;
+        runCount++;
+
+        p = q;
+      }
+      runStarts[runCount] = n;
+    } else if (isFloatingPoint(first.getRangeKind())) {
+      double[] values = new double[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = doubleValue(first, fses[i]);
+      }
+      sorted = IntArraySort.sortedOrdinals(n, (a, b) -> Double.compare(values[a], values[b]));
+      longKeys = null;
+      doubleKeys = new double[n];
+      for (int p = 0; p < n; p++) {
+        doubleKeys[p] = values[sorted[p]];
+      }
+      stringKeys = null;
+      runStarts = null;
+      runs = null;
+    } else {
+      String[] values = new String[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = first.getString(fses[i]);
+      }
+      sorted = IntArraySort.sortedOrdinals(n, (a, b) -> compare(values[a], values[b]));
+      longKeys = null;
+      doubleKeys = null;
+      stringKeys = new String[n];
+      for (int p = 0; p < n; p++) {
+        stringKeys[p] = values[sorted[p]];
+      }
+      runStarts = null;
+      runs = null;
+    }
+
+    if (accessors.length > 1) {
+      Map<List<Object>, int[]> map = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        Object[] values = new Object[accessors.length];
+        for (int f = 0; f < accessors.length; f++) {
+          values[f] = value(fses[i], f);
+        }
+        List<Object> key = Arrays.asList(values);
+
+        // The first element holds the number of ordinals
+        int[] ordinals = map.get(key);
+        if (ordinals == null) {
+          ordinals = new int[2];
+        } else if (ordinals[0] + 1 == ordinals.length) {
+          ordinals = Arrays.copyOf(ordinals, ordinals.length * 2);
+        }
+        ordinals[ordinals[0] + 1] = i;
+        ordinals[0]++;
+        map.put(key, ordinals);
+      }
+      combined = map;
+    } else {
+      combined = null;
+    }
+  }
+
+  private static boolean isIntegral(RangeKind aKind) {
+    switch (aKind) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isFloatingPoint(RangeKind aKind) {
+    return aKind == RangeKind.FLOAT || aKind == RangeKind.DOUBLE;
+  }
+
+  private static long longValue(FeatureAccessor aAccessor, FeatureStructure aFS) {
+    switch (aAccessor.getRangeKind()) {
+      case BOOLEAN:
+        return aAccessor.getBoolean(aFS) ? 1 : 0;
+      case BYTE:
+        return aAccessor.getByte(aFS);
+      case SHORT:
+        return aAccessor.getShort(aFS);
+      case INTEGER:
+        return aAccessor.getInt(aFS);
+      default:
+        return aAccessor.getLong(aFS);
+    }
+  }
+
+  private static double doubleValue(FeatureAccessor aAccessor, FeatureStructure aFS) {
+    if (aAccessor.getRangeKind() == RangeKind.FLOAT) {
+      return aAccessor.getFloat(aFS);
+    }
+    return aAccessor.getDouble(aFS);
+  }
+
+  /**
+   * @return the value of the given key feature of the feature structure as {@link Long},
+   *         {@link Double} or {@link String}.
+   */
+  private Object value(FeatureStructure aFS, int aFeature) {
+    FeatureAccessor accessor = accessors[aFeature];
+    if (isIntegral(accessor.getRangeKind())) {
+      return longValue(accessor, aFS);
+    }
+    if (isFloatingPoint(accessor.getRangeKind())) {
+      return doubleValue(accessor, aFS);
+    }
+    return accessor.getString(aFS);
+  }
+
+  /**
+   * Converts a query value to the representation used by {@link #value(FeatureStructure, int)}.
+   */
+  private Object key(Object aValue, int aFeature) {
+    RangeKind kind = accessors[aFeature].getRangeKind();
+    if (isIntegral(kind)) {
+      if (aValue instanceof Boolean) {
+        return ((Boolean) aValue) ? 1L : 0L;
+      }
+      if (aValue instanceof Number) {
+        return ((Number) aValue).longValue();
+      }
+    } else if (kind == RangeKind.FLOAT) {
+      if (aValue instanceof Number) {
+        // Round to the precision of the feature values
+        return (double) ((Number) aValue).floatValue();
+      }
+    } else if (kind == RangeKind.DOUBLE) {
+      if (aValue instanceof Number) {
+        return ((Number) aValue).doubleValue();
+      }
+    } else if (aValue == null || aValue instanceof String) {
+      return aValue;
+    }
+
+    throw new IllegalArgumentException("Value [" + aValue
+            + "] does not match the range of feature [" + accessors[aFeature].getFeature().getName()
+            + "]");
+  }
+
+  private static int compare(String aValue1, String aValue2) {
+    if (aValue1 == null) {
+      return aValue2 == null ? 0 : -1;
+    }
+    return aValue2 == null ? 1 : aValue1.compareTo(aValue2);
+  }
+
+  /**
+   * Compares the first key feature value at the given sorted position with the given key.
+   */
+  private int compareAt(int aPosition, Object aKey) {
+    if (longKeys != null) {
+      return Long.compare(longKeys[aPosition], (Long) aKey);
+    }
+    if (doubleKeys != null) {
+      return Double.compare(doubleKeys[aPosition], (Double) aKey);
+    }
+    return compare(stringKeys[aPosition], (String) aKey);
+  }
+
+  /**
+   * @return the first sorted position whose value is greater than (or equal to, unless
+   *         {@code aUpper} is set) the given key.
+   */
+  private int bound(Object aKey, boolean aUpper) {
+    int lo = 0;
+    int hi = sorted.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      int cmp = compareAt(mid, aKey);
+      if (cmp < 0 || (aUpper && cmp == 0)) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private void requireIntegral() {
+    if (runs == null) {
+      throw new IllegalArgumentException("Feature [" + accessors[0].getFeature().getName()
+              + "] is not an integral or boolean feature");
+    }
+  }
+
+  /**
+   * @return the number of indexed feature structures.
+   */
+  public int size() {
+    return fses.length;
+  }
+
+  /**
+   * Get the feature structures whose key features have the given values.
+   *
+   * @param aValues
+   *          one value per key feature in the order in which the key features were specified.
+   * @return an unmodifiable view on the matching feature structures.
+   * @throws IllegalArgumentException
+   *           if the number of values does not match the number of key features or if a value
+   *           does not match the range of its feature.
+   */
+  public List<T> select(Object... aValues) {
+    if (aValues.length != accessors.length) {
+      throw new IllegalArgumentException("Expected " + accessors.length + " values but got "
+              + aValues.length);
+    }
+
+    if (accessors.length == 1) {
+      Object key = key(aValues[0], 0);
+      if (runs != null) {
+        return select((long) (Long) key);
+      }
+      return new SortedList(bound(key, false), bound(key, true));
+    }
+
+    Object[] keys = new Object[aValues.length];
+    for (int f = 0; f < aValues.length; f++) {
+      keys[f] = key(aValues[f], f);
+    }
+    int[] ordinals = combined.get(Arrays.asList(keys));
+    if (ordinals == null) {
+      return Collections.emptyList();
+    }
+    return new OrdinalList(ordinals);
+  }
+
+  /**
+   * Get the feature structures whose first key feature has the given value. The feature must be an
+   * integral or boolean feature.
+   *
+   * @param aValue
+   *          the feature value.
+   * @return an unmodifiable view on the matching feature structures.
+   * @throws IllegalArgumentException
+   *           if the first key feature is not an integral or boolean feature.
+   */
+  public List<T> select(long aValue) {
+    requireIntegral();
+
+    int run = runs.get(aValue);
+    if (run < 0) {
+      return Collections.emptyList();
+    }
+    return new SortedList(runStarts[run], runStarts[run + 1]);
+  }
+
+  /**
+   * Get the feature structures whose first key feature has any of the given values.
+   *
+   * @param aValues
+   *          the feature values.
+   * @return an unmodifiable view on the matching feature structures grouped by value in the order
+   *         of the given values.
+   * @throws IllegalArgumentException
+   *           if a value does not match the range of the first key feature.
+   */
+  public List<T> selectIn(Collection<?> aValues) {
+    // First sorted position of the matches of each value and the number of matches before them
+    int[] froms = new int[aValues.size()];
+    int[] offsets = new int[aValues.size() + 1];
+    int i = 0;
+    for (Object value : aValues) {
+      Object key = key(value, 0);
+      int from;
+      int to;
+      if (runs != null) {
+        int run = runs.get((Long) key);
+        from = run < 0 ? 0 : runStarts[run];
+        to = run < 0 ? 0 : runStarts[run + 1];
+      } else {
+        from = bound(key, false);
+        to = bound(key, true);
+      }
+      froms[i] = from;
+      offsets[i + 1] = offsets[i] + to - from;
+      i++;
+    }
+
+    if (offsets[i] == 0) {
+      return Collections.emptyList();
+    }
+    return new ConcatenatedList(froms, offsets);
+  }
+
+  /**
+   * Get the feature structures whose first key feature has a value in the given range.
+   *
+   * @param aFrom
+   *          the lower bound (inclusive) or {@code null} for no lower bound.
+   * @param aTo
+   *          the upper bound (inclusive) or {@code null} for no upper bound.
+   * @return an unmodifiable view on the matching feature structures ordered by value.
+   */
+  public List<T> selectRange(Object aFrom, Object aTo) {
+    int from = aFrom != null ? bound(key(aFrom, 0), false) : 0;
+    int to = aTo != null ? bound(key(aTo, 0), true) : sorted.length;
+    if (from >= to) {
+      return Collections.emptyList();
+    }
+    return new SortedList(from, to);
+  }
+
+  /**
+   * Get the feature structures whose first key feature has a value in the given range. The
+   * feature must be an integral or boolean feature.
+   *
+   * @param aFrom
+   *          the lower bound (inclusive).
+   * @param aTo
+   *          the upper bound (inclusive).
+   * @return an unmodifiable view on the matching feature structures ordered by value.
+   * @throws IllegalArgumentException
+   *           if the first key feature is not an integral or boolean feature.
+   */
+  public List<T> selectRange(long aFrom, long aTo) {
+    requireIntegral();
+    return selectRange((Long) aFrom, (Long) aTo);
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor. This makes used of Java's
+   * type inference capabilities and results in less verbose code.
+   *
+   * @param <A>
+   *          feature structure type.
+   * @param aJcas
+   *          the working JCas.
+   * @param aType
+   *          the indexed type.
+   * @param aFeatures
+   *          the base names of the key features.
+   * @return the index instance.
+   * @throws IllegalArgumentException
+   *           if a feature does not exist or is not a primitive or string feature.
+   */
+  public static <A extends TOP> FeatureValueIndex<A> create(JCas aJcas, Class<A> aType,
+          String... aFeatures) {
+    return new FeatureValueIndex<>(aJcas.getCas(), JCasUtil.getType(aJcas, aType), aFeatures);
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aType
+   *          the indexed type.
+   * @param aFeatures
+   *          the base names of the key features.
+   * @return the index instance.
+   * @throws IllegalArgumentException
+   *           if a feature does not exist or is not a primitive or string feature.
+   */
+  public static FeatureValueIndex<FeatureStructure> create(CAS aCas, Type aType,
+          String... aFeatures) {
+    return new FeatureValueIndex<>(aCas, aType, aFeatures);
+  }
+
+  /**
+   * Create an index over the type and the feature keys of the given index description. Only the
+   * names of the key features are used: type priority keys are skipped, and neither the index kind
+   * nor the key comparators are taken into account, so range queries always return feature
+   * structures ordered by ascending value.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aDescription
+   *          the index description.
+   * @return the index instance.
+   * @throws IllegalArgumentException
+   *           if the description has no feature keys or a key feature is not a primitive or
+   *           string feature.
+   */
+  public static FeatureValueIndex<FeatureStructure> create(CAS aCas,
+          FsIndexDescription aDescription) {
+    List<String> features = new ArrayList<>();
+    if (aDescription.getKeys() != null) {
+      for (FsIndexKeyDescription key : aDescription.getKeys()) {
+        if (!key.isTypePriority()) {
+          features.add(key.getFeatureName());
+        }
+      }
+    }
+
+    return new FeatureValueIndex<>(aCas, CasUtil.getType(aCas, aDescription.getTypeName()),
+            features.toArray(new String[features.size()]));
+  }
+
+  /**
+   * Create an index over the type and the feature keys of the index with the given label which is
+   * declared on the given component class using {@link org.apache.uima.fit.descriptor.FsIndex}.
+   * Only the names of the key features are used, see {@link #create(CAS, FsIndexDescription)}.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aComponentClass
+   *          the component class declaring the index.
+   * @param aLabel
+   *          the index label.
+   * @return the index instance.
+   * @throws IllegalArgumentException
+   *           if the component does not declare an index with the given label.
+   * @see FsIndexFactory#createFsIndexCollection(Class)
+   */
+  public static FeatureValueIndex<FeatureStructure> create(CAS aCas, Class<?> aComponentClass,
+          String aLabel) {
+    FsIndexCollection indexes = FsIndexFactory.createFsIndexCollection(aComponentClass);
+    for (FsIndexDescription index : indexes.getFsIndexes()) {
+      if (aLabel.equals(index.getLabel())) {
+        return create(aCas, index);
+      }
+    }
+
+    throw new IllegalArgumentException("Class [" + aComponentClass.getName()
+            + "] does not declare an index with label [" + aLabel + "]");
+  }
+
+  private final class SortedList extends AbstractList<T> implements RandomAccess {
+    private final int from;
+
+    private final int to;
+
+    private SortedList(int aFrom, int aTo) {
+      from = aFrom;
+      to = aTo;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int aIndex) {
+      if (aIndex < 0 || aIndex >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + aIndex + ", Size: " + (to - from));
+      }
+      return (T) fses[sorted[from + aIndex]];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  private final class OrdinalList extends AbstractList<T> implements RandomAccess {
+    // The first element holds the number of ordinals
+    private final int[] ordinals;
+
+    private OrdinalList(int[] aOrdinals) {
+      ordinals = aOrdinals;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int aIndex) {
+      if (aIndex < 0 || aIndex >= ordinals[0]) {
+        throw new IndexOutOfBoundsException("Index: " + aIndex + ", Size: " + ordinals[0]);
+      }
+      return (T) fses[ordinals[aIndex + 1]];
+    }
+
+    @Override
+    public int size() {
+      return ordinals[0];
+    }
+  }
+
+  private final class ConcatenatedList extends AbstractList<T> implements RandomAccess {
+    private final int[] froms;
+
+    // Number of feature structures before each range - the last element holds the total
+    private final int[] offsets;
+
+    private ConcatenatedList(int[] aFroms, int[] aOffsets) {
+      froms = aFroms;
+      offsets = aOffsets;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int aIndex) {
+      if (aIndex < 0 || aIndex >= size()) {
+        throw new IndexOutOfBoundsException("Index: " + aIndex + ", Size: " + size());
+      }
+
+      // Last range starting at or before the index - empty ranges start where the next one does
+      int lo = 0;
+      int hi = froms.length - 1;
+      while (lo < hi) {
+        int mid = (lo + hi + 1) >>> 1;
+        if (offsets[mid] <= aIndex) {
+          lo = mid;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return (T) fses[sorted[froms[lo] + aIndex - offsets[lo]]];
+    }
+
+    @Override
+    public int size() {
+      return offsets[offsets.length - 1];
+    }
+  }
+}
@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASException;
@@ -191,6 +192,25 @@ public final class JCasUtil {
     return cast(CasUtil.selectFS(jCas.getCas(), getType(jCas, type)));
   }
 
+  /**
+   * Calls the given action for all annotations of the given type in index order, without
+   * collecting them into a list. The index of the given type must not be modified by the action.
+   * 
+   * @param <T>
+   *          the JCas type.
+   * @param jCas
+   *          a JCas containing the annotations.
+   * @param type
+   *          a UIMA type.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static <T extends Annotation> void forEach(final JCas jCas, final Class<T> type,
+          Consumer<? super T> aAction) {
+    CasUtil.forEach(jCas.getCas(), getType(jCas, type), cast(aAction));
+  }
+
   /**
    * Get all annotations of the given type at the specified offsets.
    * 
@@ -386,6 +406,53 @@ public final class JCasUtil {
     return cast(CasUtil.selectCovered(jCas.getCas(), getType(jCas, type), begin, end));
   }
 
+  /**
+   * Calls the given action for the annotations that
+   * {@link #selectCovered(JCas, Class, AnnotationFS)} would return, without collecting them into a
+   * list. The index of the given type must not be modified by the action.
+   * 
+   * @param <T>
+   *          the JCas type.
+   * @param jCas
+   *          a JCas containing the annotation.
+   * @param type
+   *          a UIMA type.
+   * @param coveringAnnotation
+   *          the covering annotation.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static <T extends Annotation> void forEachCovered(JCas jCas, final Class<T> type,
+          AnnotationFS coveringAnnotation, Consumer<? super T> aAction) {
+    CasUtil.forEachCovered(jCas.getCas(), getType(jCas, type), coveringAnnotation,
+            cast(aAction));
+  }
+
+  /**
+   * Calls the given action for the annotations that {@link #selectCovered(JCas, Class, int, int)}
+   * would return, without collecting them into a list. The index of the given type must not be
+   * modified by the action.
+   * 
+   * @param <T>
+   *          the JCas type.
+   * @param jCas
+   *          a JCas containing the annotation.
+   * @param type
+   *          a UIMA type.
+   * @param begin
+   *          begin offset.
+   * @param end
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static <T extends Annotation> void forEachCovered(JCas jCas, final Class<T> type,
+          int begin, int end, Consumer<? super T> aAction) {
+    CasUtil.forEachCovered(jCas.getCas(), getType(jCas, type), begin, end, cast(aAction));
+  }
+
   /**
    * Get a list of annotations of the given annotation type constraint by a certain annotation.
    * Iterates over all annotations to find the covering annotations.
@@ -476,6 +543,30 @@ public final class JCasUtil {
     return cast(CasUtil.selectCovering(jCas.getCas(), getType(jCas, type), begin, end));
   }
 
+  /**
+   * Calls the given action for the annotations that {@link #selectCovering(JCas, Class, int, int)}
+   * would return, without collecting them into a list. The index of the given type must not be
+   * modified by the action.
+   * 
+   * @param <T>
+   *          the JCas type.
+   * @param jCas
+   *          a CAS.
+   * @param type
+   *          a UIMA type.
+   * @param begin
+   *          begin offset.
+   * @param end
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static <T extends Annotation> void forEachCovering(JCas jCas, Class<T> type, int begin,
+          int end, Consumer<? super T> aAction) {
+    CasUtil.forEachCovering(jCas.getCas(), getType(jCas, type), begin, end, cast(aAction));
+  }
+
   /**
    * Create an index for quickly lookup up the annotations covering a particular annotation. This is
    * preferable to using {@link #selectCovering(JCas, Class, int, int)} because the overhead of
@@ -597,6 +688,31 @@ public final class JCasUtil {
     return cast(CasUtil.selectOverlapping(aJCas.getCas(), getType(aJCas, aType), aBegin, aEnd));
   }
 
+  /**
+   * Calls the given action for the annotations that
+   * {@link #selectOverlapping(JCas, Class, int, int)} would return, without collecting them into a
+   * list. The index of the given type must not be modified by the action.
+   * 
+   * @param <T>
+   *          the JCas type.
+   * @param aJCas
+   *          a CAS.
+   * @param aType
+   *          a UIMA type.
+   * @param aBegin
+   *          begin offset.
+   * @param aEnd
+   *          end offset.
+   * @param aAction
+   *          the action to perform.
+   * @see <a href="package-summary.html#SortOrder">Order of selected feature structures</a>
+   */
+  public static <T extends Annotation> void forEachOverlapping(JCas aJCas, Class<T> aType,
+          int aBegin, int aEnd, Consumer<? super T> aAction) {
+    CasUtil.forEachOverlapping(aJCas.getCas(), getType(aJCas, aType), aBegin, aEnd,
+            cast(aAction));
+  }
+
   /**
    * Check if the given annotation contains any annotation of the given type.
    * 
@@ -885,4 +1001,9 @@ public final class JCasUtil {
   private static <K, V> Map<K, V> cast(Map aCollection) {
     return (Map<K, V>) aCollection;
   }
+
+  @SuppressWarnings({ "cast", "unchecked", "rawtypes" })
+  private static Consumer<AnnotationFS> cast(Consumer aAction) {
+    return (Consumer<AnnotationFS>) aAction;
+  }
 }
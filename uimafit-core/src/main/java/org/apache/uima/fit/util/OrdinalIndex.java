@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.fit.internal.LongIntTable;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.TOP;
+
+/**
+ * An immutable random-access view on the annotation index of a type. The annotations are copied
+ * into an array in index order and a primitive hash table maps the feature structure IDs of the
+ * annotations back to their ordinals. Access by ordinal, the ordinal of an annotation and access
+ * to the k-th neighbour of an indexed annotation all run in constant time. Relative selection
+ * from an anchor additionally skips the annotations overlapping the anchor and, if the anchor is
+ * not part of the index, locates it by binary search (see
+ * {@link #selectSingleRelative(AnnotationFS, int)}). This makes the index a replacement for
+ * repeated calls to {@link CasUtil#selectByIndex(CAS, Type, int)} and
+ * {@link CasUtil#selectSingleRelative(CAS, Type, AnnotationFS, int)}:
+ *
+ * <pre>
+ * OrdinalIndex&lt;Token&gt; tokens = OrdinalIndex.create(jcas, Token.class);
+ * for (Token anchor : anchors) {
+ *   Token third = tokens.selectSingleRelative(anchor, 3);
+ * }
+ * </pre>
+ *
+ * The index is a snapshot owned by the caller. It does not reflect changes made to the CAS after
+ * it has been created, so it must be created anew after annotations of its type have been added or
+ * removed or after the CAS has been reset.
+ *
+ * @param <T>
+ *          annotation type.
+ */
+public final class OrdinalIndex<T extends AnnotationFS> {
+
+  private final CAS cas;
+
+  private final Type type;
+
+  private final AnnotationFS[] annotations;
+
+  private final int[] begins;
+
+  private final int[] ends;
+
+  // Feature structure IDs to ordinals
+  private final LongIntTable ordinals;
+
+  private OrdinalIndex(CAS aCas, Type aType) {
+    CasUtil.requireAnnotationType(aCas, aType);
+
+    cas = aCas;
+    type = aType;
+    annotations = new AnnotationFS[aCas.getAnnotationIndex(aType).size()];
+    begins = new int[annotations.length];
+    ends = new int[annotations.length];
+    ordinals = new LongIntTable(annotations.length);
+
+    int n = 0;
+    for (AnnotationFS a : aCas.getAnnotationIndex(aType)) {
+      annotations[n] = a;
+      begins[n] = a.getBegin();
+      ends[n] = a.getEnd();
+      ordinals.put(((TOP) a)._id(), n);
+      n++;
+    }
+  }
+
+  /**
+   * @return the CAS view this index was created from.
+   */
+  public CAS getCas() {
+    return cas;
+  }
+
+  /**
+   * @return the indexed type.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the number of indexed annotations.
+   */
+  public int size() {
+    return annotations.length;
+  }
+
+  /**
+   * @param aOrdinal
+   *          the position of the annotation in the index.
+   * @return the annotation at the given position.
+   * @throws IndexOutOfBoundsException
+   *           if the position is outside the index.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int aOrdinal) {
+    return (T) annotations[aOrdinal];
+  }
+
+  /**
+   * @param aAnnotation
+   *          an annotation.
+   * @return the position of the annotation in the index or {@code -1} if it is not part of the
+   *         index.
+   */
+  public int ordinal(AnnotationFS aAnnotation) {
+    if (aAnnotation == null) {
+      return -1;
+    }
+
+    int ordinal = ordinals.get(((TOP) aAnnotation)._id());
+    // IDs are only unique within a CAS
+    return ordinal >= 0 && annotations[ordinal] == aAnnotation ? ordinal : -1;
+  }
+
+  /**
+   * Get the annotation at the given distance from the given annotation in index order.
+   *
+   * @param aAnnotation
+   *          an indexed annotation.
+   * @param aDistance
+   *          the distance. Negative values address preceding annotations.
+   * @return the addressed annotation or {@code null} if the given annotation is not part of the
+   *         index or the distance points beyond the index bounds.
+   */
+  @SuppressWarnings("unchecked")
+  public T getNeighbour(AnnotationFS aAnnotation, int aDistance) {
+    int ordinal = ordinal(aAnnotation);
+    if (ordinal < 0) {
+      return null;
+    }
+
+    long target = (long) ordinal + aDistance;
+    return target >= 0 && target < annotations.length ? (T) annotations[(int) target] : null;
+  }
+
+  /**
+   * @return an unmodifiable list view on the indexed annotations.
+   */
+  public List<T> asList() {
+    return new ListView();
+  }
+
+  /**
+   * Get an annotation preceding or following the given anchor annotation. Same as
+   * {@link CasUtil#selectSingleRelative(CAS, Type, AnnotationFS, int)}, but without iterating over
+   * the annotations between the anchor and the result. If the anchor is part of this index, the
+   * time is proportional to the number of annotations overlapping the anchor, i.e. constant for
+   * non-overlapping annotations such as tokens. Otherwise, the anchor is located by a binary
+   * search, taking {@code O(log n)} time plus the time for the overlapping annotations.
+   *
+   * @param aAnchor
+   *          anchor annotation. It does not need to be part of this index.
+   * @param aPosition
+   *          relative position to access. A negative value selects a preceding annotation while a
+   *          positive number selects a following annotation.
+   * @return the addressed annotation.
+   * @throws IndexOutOfBoundsException
+   *           if the relative position points beyond the index bounds.
+   * @throws IllegalArgumentException
+   *           if the relative position is {@code 0} and the anchor type does not subsume the
+   *           indexed type.
+   */
+  @SuppressWarnings("unchecked")
+  public T selectSingleRelative(AnnotationFS aAnchor, int aPosition) {
+    if (aPosition == 0) {
+      if (cas.getTypeSystem().subsumes(aAnchor.getType(), type)) {
+        return (T) aAnchor;
+      }
+      throw new IllegalArgumentException(
+              "Relative position cannot be 0 if the type of the anchor annotator does not subsume "
+                      + "the selected type.");
+    }
+
+    int p = ordinal(aAnchor);
+    boolean indexed = p >= 0;
+    if (indexed) {
+      // Like insertionPoint, start at the first annotation with the same offsets
+      while (p > 0 && begins[p - 1] == begins[p] && ends[p - 1] == ends[p]) {
+        p--;
+      }
+    } else {
+      p = insertionPoint(aAnchor);
+    }
+
+    long target;
+    if (aPosition < 0) {
+      p = Math.min(p, annotations.length - 1);
+
+      // make sure we're past the beginning of the reference annotation
+      while (p >= 0 && ends[p] > aAnchor.getBegin()) {
+        p--;
+      }
+
+      target = (long) p + aPosition + 1;
+    } else {
+      // make sure we're past the end of the reference annotation - the index is sorted by begin
+      if (indexed) {
+        while (p < annotations.length && begins[p] < aAnchor.getEnd()) {
+          p++;
+        }
+      } else {
+        p = Math.max(p, lowerBoundBegin(aAnchor.getEnd()));
+      }
+
+      target = (long) p + aPosition - 1;
+    }
+
+    if (target < 0 || target >= annotations.length) {
+      throw new IndexOutOfBoundsException("Reached end of index while seeking.");
+    }
+
+    return (T) annotations[(int) target];
+  }
+
+  /**
+   * Seeks the first annotation which starts at or after the given offset.
+   */
+  private int lowerBoundBegin(int aBegin) {
+    int lo = 0;
+    int hi = begins.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (begins[mid] < aBegin) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Seeks the first annotation which is not sorted before the given annotation, ignoring type
+   * priorities. Like {@link org.apache.uima.cas.FSIterator#moveTo}, this is the first one of
+   * several annotations with the same offsets.
+   */
+  private int insertionPoint(AnnotationFS aAnnotation) {
+    int begin = aAnnotation.getBegin();
+    int end = aAnnotation.getEnd();
+    int lo = 0;
+    int hi = begins.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (begins[mid] < begin || (begins[mid] == begin && ends[mid] > end)) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor. This makes used of Java's
+   * type inference capabilities and results in less verbose code.
+   *
+   * @param <A>
+   *          annotation type.
+   * @param aJcas
+   *          the working JCas.
+   * @param aType
+   *          the annotation type.
+   * @return the index instance.
+   */
+  public static <A extends AnnotationFS> OrdinalIndex<A> create(JCas aJcas, Class<A> aType) {
+    return new OrdinalIndex<>(aJcas.getCas(), JCasUtil.getType(aJcas, aType));
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aType
+   *          the annotation type.
+   * @return the index instance.
+   */
+  public static OrdinalIndex<AnnotationFS> create(CAS aCas, Type aType) {
+    return new OrdinalIndex<>(aCas, aType);
+  }
+
+  private final class ListView extends AbstractList<T> implements RandomAccess {
+    @Override
+    public T get(int aIndex) {
+      return OrdinalIndex.this.get(aIndex);
+    }
+
+    @Override
+    public int size() {
+      return annotations.length;
+    }
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.fit.internal.LongIntTable;
+import org.apache.uima.jcas.JCas;
+
+/**
+ * An immutable index over the annotations of a type by their exact offsets. The annotations are
+ * stored in the order of the UIMA annotation index. Since annotations having the same offsets are
+ * adjacent in this order, the index maps each distinct {@code (begin, end)} pair to the first
+ * ordinal and number of annotations at that span. The map is an open-addressing hash table keyed
+ * by the offsets packed into a primitive {@code long}.
+ * <p>
+ * Lookups run in constant time and do not allocate any memory except for the lightweight list view
+ * returned by {@link #selectAt(int, int)}. This makes the index preferable over
+ * {@link CasUtil#selectAt(CAS, Type, int, int)} when many exact-offset lookups are performed
+ * against the same CAS, e.g. when aligning annotations. The index does not reflect changes made to
+ * the CAS after it has been created.
+ *
+ * @param <T>
+ *          annotation type.
+ */
+public final class SpanIndex<T extends AnnotationFS> {
+
+  private final Type type;
+
+  private final AnnotationFS[] annotations;
+
+  // First ordinal of each distinct span followed by the number of annotations - unused entries
+  // at the end remain zero
+  private final int[] spanStarts;
+
+  // Packed offsets of each distinct span to its position in spanStarts
+  private final LongIntTable spans;
+
+  private SpanIndex(CAS aCas, Type aType) {
+    CasUtil.requireAnnotationType(aCas, aType);
+
+    type = aType;
+    annotations = new AnnotationFS[aCas.getAnnotationIndex(aType).size()];
+    int n = 0;
+    for (AnnotationFS a : aCas.getAnnotationIndex(aType)) {
+      annotations[n] = a;
+      n++;
+    }
+
+    spanStarts = new int[annotations.length + 1];
+    spans = new LongIntTable(annotations.length);
+
+    int spanCount = 0;
+    int i = 0;
+    while (i < annotations.length) {
+      int begin = annotations[i].getBegin();
+      int end = annotations[i].getEnd();
+      int j = i + 1;
+      while (j < annotations.length && annotations[j].getBegin() == begin
+              && annotations[j].getEnd() == end) {
+        j++;
+      }
+
+      spans.put(key(begin, end), spanCount);
+      spanStarts[spanCount] = i;
+      spanCount++;
+
+      i = j;
+    }
+    spanStarts[spanCount] = annotations.length;
+  }
+
+  private static long key(int aBegin, int aEnd) {
+    return ((long) aBegin << 32) | (aEnd & 0xFFFFFFFFL);
+  }
+
+  /**
+   * @return the distinct span at the given offsets or {@code -1} if there are no annotations at
+   *         the span.
+   */
+  private int span(int aBegin, int aEnd) {
+    return spans.get(key(aBegin, aEnd));
+  }
+
+  private int spanSize(int aSpan) {
+    return spanStarts[aSpan + 1] - spanStarts[aSpan];
+  }
+
+  /**
+   * @return the number of indexed annotations.
+   */
+  public int size() {
+    return annotations.length;
+  }
+
+  /**
+   * @param aBegin
+   *          the begin offset.
+   * @param aEnd
+   *          the end offset.
+   * @return the number of annotations at the specified offsets.
+   */
+  public int count(int aBegin, int aEnd) {
+    int span = span(aBegin, aEnd);
+    return span < 0 ? 0 : spanSize(span);
+  }
+
+  /**
+   * @param aBegin
+   *          the begin offset.
+   * @param aEnd
+   *          the end offset.
+   * @return whether there is at least one annotation at the specified offsets.
+   */
+  public boolean contains(int aBegin, int aEnd) {
+    return span(aBegin, aEnd) >= 0;
+  }
+
+  /**
+   * Get all annotations at the specified offsets.
+   *
+   * @param aBegin
+   *          the begin offset.
+   * @param aEnd
+   *          the end offset.
+   * @return an unmodifiable view on the annotations at the specified offsets in index order.
+   * @see CasUtil#selectAt(CAS, Type, int, int)
+   */
+  public List<T> selectAt(int aBegin, int aEnd) {
+    int span = span(aBegin, aEnd);
+    if (span < 0) {
+      return Collections.emptyList();
+    }
+    return new RangeList<>(annotations, spanStarts[span], spanSize(span));
+  }
+
+  /**
+   * Get the single annotation at the specified offsets.
+   *
+   * @param aBegin
+   *          the begin offset.
+   * @param aEnd
+   *          the end offset.
+   * @return the single annotation at the specified offsets.
+   * @throws IllegalArgumentException
+   *           if there is not exactly one annotation at the specified offsets.
+   * @see CasUtil#selectSingleAt(CAS, Type, int, int)
+   */
+  @SuppressWarnings("unchecked")
+  public T selectSingleAt(int aBegin, int aEnd) {
+    int span = span(aBegin, aEnd);
+
+    if (span < 0) {
+      throw new IllegalArgumentException("CAS does not contain any [" + type.getName() + "] at ["
+              + aBegin + "," + aEnd + "]");
+    }
+
+    if (spanSize(span) > 1) {
+      throw new IllegalArgumentException("CAS contains more than one [" + type.getName() + "] at ["
+              + aBegin + "," + aEnd + "]");
+    }
+
+    return (T) annotations[spanStarts[span]];
+  }
+
+  /**
+   * Calls the given action for all annotations at the specified offsets.
+   *
+   * @param aBegin
+   *          the begin offset.
+   * @param aEnd
+   *          the end offset.
+   * @param aAction
+   *          the action to perform.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachAt(int aBegin, int aEnd, Consumer<? super T> aAction) {
+    int span = span(aBegin, aEnd);
+    if (span < 0) {
+      return;
+    }
+    for (int i = spanStarts[span]; i < spanStarts[span + 1]; i++) {
+      aAction.accept((T) annotations[i]);
+    }
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor. This makes used of Java's
+   * type inference capabilities and results in less verbose code.
+   *
+   * @param <A>
+   *          annotation type.
+   * @param aJcas
+   *          the working JCas.
+   * @param aType
+   *          the annotation type.
+   * @return the index instance.
+   */
+  public static <A extends AnnotationFS> SpanIndex<A> create(JCas aJcas, Class<A> aType) {
+    return new SpanIndex<>(aJcas.getCas(), JCasUtil.getType(aJcas, aType));
+  }
+
+  /**
+   * Factory method to create an index instead of using the constructor.
+   *
+   * @param aCas
+   *          the working CAS.
+   * @param aType
+   *          the annotation type.
+   * @return the index instance.
+   */
+  public static SpanIndex<AnnotationFS> create(CAS aCas, Type aType) {
+    return new SpanIndex<>(aCas, aType);
+  }
+
+  private static final class RangeList<T> extends AbstractList<T> implements RandomAccess {
+    private final AnnotationFS[] annotations;
+
+    private final int from;
+
+    private final int size;
+
+    private RangeList(AnnotationFS[] aAnnotations, int aFrom, int aSize) {
+      annotations = aAnnotations;
+      from = aFrom;
+      size = aSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int aIndex) {
+      if (aIndex < 0 || aIndex >= size) {
+        throw new IndexOutOfBoundsException("Index: " + aIndex + ", Size: " + size);
+      }
+      return (T) annotations[from + aIndex];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.fit.internal.ConcurrentWeakIdentityMap;
+
+/**
+ * Per-{@link TypeSystem} memo of type lookups used by {@link CasUtil} and {@link JCasUtil}.
+ * Resolving a type from a JCas class name requires rewriting the name and a hash lookup in the type
+ * system and most selection methods additionally check that the type is an annotation type. Both
+ * results are cached here by the requested name.
+ * <p>
+ * Type systems are held weakly. Since a {@link Type} strongly references its type system, the
+ * cached types are held weakly as well - they stay reachable through the type system for as long
+ * as it is in use.
+ */
+final class TypeCache {
+  private static final ConcurrentWeakIdentityMap<TypeSystem, TypeCache> CACHES = //
+          new ConcurrentWeakIdentityMap<>();
+
+  /**
+   * Most type-intensive code works on a single type system at a time, so the last cache used is
+   * kept at hand to avoid the map lookup.
+   */
+  private static volatile TypeCache last;
+
+  private final WeakReference<TypeSystem> typeSystem;
+
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private TypeCache(TypeSystem aTypeSystem) {
+    typeSystem = new WeakReference<>(aTypeSystem);
+  }
+
+  static TypeCache get(TypeSystem aTypeSystem) {
+    TypeCache cache = last;
+    if (cache != null && cache.typeSystem.get() == aTypeSystem) {
+      return cache;
+    }
+
+    cache = CACHES.get(aTypeSystem);
+    if (cache == null) {
+      cache = new TypeCache(aTypeSystem);
+      TypeCache existing = CACHES.putIfAbsent(aTypeSystem, cache);
+      if (existing != null) {
+        cache = existing;
+      }
+    }
+
+    last = cache;
+    return cache;
+  }
+
+  /**
+   * @param aTypeSystem
+   *          the type system this cache belongs to.
+   * @param aTypename
+   *          a type name or JCas class name.
+   * @return the resolved type.
+   * @throws IllegalArgumentException
+   *           if the type is not declared in the type system.
+   */
+  Type getType(TypeSystem aTypeSystem, String aTypename) {
+    return lookup(aTypeSystem, aTypename).get();
+  }
+
+  /**
+   * @param aTypeSystem
+   *          the type system this cache belongs to.
+   * @param aTypename
+   *          a type name or JCas class name.
+   * @return the cache entry for the resolved type.
+   * @throws IllegalArgumentException
+   *           if the type is not declared in the type system.
+   */
+  Entry lookup(TypeSystem aTypeSystem, String aTypename) {
+    Entry entry = entries.get(aTypename);
+    if (entry == null || entry.get() == null) {
+      Type type = CasUtil.resolveType(aTypeSystem, aTypename);
+      entry = entry(aTypeSystem, type);
+      entries.put(aTypename, entry);
+    }
+    return entry;
+  }
+
+  boolean isAnnotationType(TypeSystem aTypeSystem, Type aType) {
+    Entry entry = entries.get(aType.getName());
+    if (entry != null && entry.get() == aType) {
+      return entry.annotation;
+    }
+
+    // Do not cache types which have not been obtained from this type system
+    if (aTypeSystem.getType(aType.getName()) != aType) {
+      return aTypeSystem.subsumes(aTypeSystem.getType(CAS.TYPE_NAME_ANNOTATION), aType);
+    }
+
+    return entry(aTypeSystem, aType).annotation;
+  }
+
+  private Entry entry(TypeSystem aTypeSystem, Type aType) {
+    // Also register the entry under the actual type name, such that isAnnotationType() finds it
+    // no matter whether the type was looked up via its JCas class or its name.
+    Entry entry = entries.get(aType.getName());
+    if (entry == null || entry.get() != aType) {
+      Type annotationType = aTypeSystem.getType(CAS.TYPE_NAME_ANNOTATION);
+      entry = new Entry(aType,
+              annotationType != null && aTypeSystem.subsumes(annotationType, aType));
+      entries.put(aType.getName(), entry);
+    }
+    return entry;
+  }
+
+  static final class Entry extends WeakReference<Type> {
+    final boolean annotation;
+
+    private Entry(Type aType, boolean aAnnotation) {
+      super(aType);
+      annotation = aAnnotation;
+    }
+  }
+}
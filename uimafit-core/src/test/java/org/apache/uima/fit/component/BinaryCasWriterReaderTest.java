@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReader;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReaderDescription;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createShardReaderDescription;
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.jcas.JCas;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryCasWriterReaderTest {
+
+  @Test
+  public void thatCasesCanBeWrittenAndReadBack(@TempDir Path folder) throws Exception {
+    AnalysisEngine writer = createEngine(BinaryCasWriter.class, //
+            BinaryCasWriter.PARAM_TARGET_LOCATION, folder.toFile(), //
+            BinaryCasWriter.PARAM_WRITER_THREADS, 2);
+
+    writeDocuments(writer, 10);
+
+    CollectionReader reader = createReader(BinaryCasReader.class, //
+            BinaryCasReader.PARAM_SOURCE_LOCATION, folder.toFile());
+
+    assertThat(readDocuments(reader)).containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8",
+            "9");
+  }
+
+  @Test
+  public void thatTypeSystemCanBeShared(@TempDir Path folder) throws Exception {
+    File typeSystemFile = folder.resolve("typesystem.bin").toFile();
+    File target = folder.resolve("cases").toFile();
+
+    AnalysisEngine writer = createEngine(BinaryCasWriter.class, //
+            BinaryCasWriter.PARAM_TARGET_LOCATION, target, //
+            BinaryCasWriter.PARAM_TYPE_SYSTEM_FILE, typeSystemFile, //
+            BinaryCasWriter.PARAM_WRITER_THREADS, 0);
+
+    writeDocuments(writer, 3);
+
+    assertThat(typeSystemFile).exists();
+    assertThat(target.listFiles()).hasSize(3);
+
+    CollectionReader reader = createReader(BinaryCasReader.class, //
+            BinaryCasReader.PARAM_SOURCE_LOCATION, target, //
+            BinaryCasReader.PARAM_TYPE_SYSTEM_FILE, typeSystemFile, //
+            BinaryCasReader.PARAM_MAPPING_THRESHOLD, 0);
+
+    assertThat(readDocuments(reader)).containsExactly("0", "1", "2");
+  }
+
+  @Test
+  public void thatSmallFilesAreStreamed(@TempDir Path folder) throws Exception {
+    AnalysisEngine writer = createEngine(BinaryCasWriter.class, //
+            BinaryCasWriter.PARAM_TARGET_LOCATION, folder.toFile());
+
+    writeDocuments(writer, 3);
+
+    CollectionReader reader = createReader(BinaryCasReader.class, //
+            BinaryCasReader.PARAM_SOURCE_LOCATION, folder.toFile(), //
+            BinaryCasReader.PARAM_MAPPING_THRESHOLD, Integer.MAX_VALUE);
+
+    assertThat(readDocuments(reader)).containsExactly("0", "1", "2");
+  }
+
+  @Test
+  public void thatFilesTooLargeForMappingAreStreamed() {
+    assertThat(BinaryCasReader.isMapped(0, 0)).isTrue();
+    assertThat(BinaryCasReader.isMapped(99, 100)).isFalse();
+    assertThat(BinaryCasReader.isMapped(Integer.MAX_VALUE, 100)).isTrue();
+    assertThat(BinaryCasReader.isMapped(Integer.MAX_VALUE + 1L, 100)).isFalse();
+    assertThat(BinaryCasReader.isMapped(Integer.MAX_VALUE + 1L, 0)).isFalse();
+  }
+
+  @Test
+  public void thatShardsAreDisjointAndComplete(@TempDir Path folder) throws Exception {
+    AnalysisEngine writer = createEngine(BinaryCasWriter.class, //
+            BinaryCasWriter.PARAM_TARGET_LOCATION, folder.toFile());
+
+    writeDocuments(writer, 10);
+
+    CollectionReaderDescription desc = createReaderDescription(BinaryCasReader.class, //
+            BinaryCasReader.PARAM_SOURCE_LOCATION, folder.toFile());
+
+    List<String> texts = new ArrayList<>();
+    for (int shard = 0; shard < 3; shard++) {
+      texts.addAll(readDocuments(createReader(createShardReaderDescription(desc, shard, 3))));
+    }
+
+    assertThat(texts).containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+  }
+
+  private static void writeDocuments(AnalysisEngine aWriter, int aCount) throws Exception {
+    JCas jcas = JCasFactory.createJCas();
+    for (int i = 0; i < aCount; i++) {
+      jcas.reset();
+      jcas.setDocumentText(Integer.toString(i));
+      new Token(jcas, 0, 1).addToIndexes();
+      aWriter.process(jcas);
+    }
+    aWriter.collectionProcessComplete();
+    aWriter.destroy();
+  }
+
+  private static List<String> readDocuments(CollectionReader aReader) throws Exception {
+    List<String> texts = new ArrayList<>();
+    JCas jcas = JCasFactory.createJCas();
+    while (aReader.hasNext()) {
+      jcas.reset();
+      aReader.getNext(jcas.getCas());
+      assertThat(select(jcas, Token.class)).hasSize(1);
+      texts.add(jcas.getDocumentText());
+    }
+    aReader.destroy();
+    return texts;
+  }
+}
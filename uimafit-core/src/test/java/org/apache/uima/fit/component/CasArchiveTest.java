@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReader;
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.fit.util.CasArchive;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CasArchiveTest {
+
+  @Test
+  public void thatCasesCanBeAccessedRandomly(@TempDir Path folder) throws Exception {
+    File archiveFile = folder.resolve("archive.bin").toFile();
+    writeArchive(archiveFile, 10);
+
+    JCas jcas = JCasFactory.createJCas();
+    try (CasArchive archive = CasArchive.open(archiveFile)) {
+      assertThat(archive.size()).isEqualTo(10);
+      assertThat(archive.getId(3)).isEqualTo("3");
+      assertThat(archive.indexOf("7")).isEqualTo(7);
+      assertThat(archive.indexOf("unknown")).isEqualTo(-1);
+
+      archive.read(7, jcas.getCas());
+      assertThat(jcas.getDocumentText()).isEqualTo("Document 7");
+      assertThat(select(jcas, Token.class)).hasSize(1);
+
+      jcas.reset();
+      archive.read("2", jcas.getCas());
+      assertThat(jcas.getDocumentText()).isEqualTo("Document 2");
+    }
+  }
+
+  @Test
+  public void thatShardsCoverAllCases(@TempDir Path folder) throws Exception {
+    File archiveFile = folder.resolve("archive.bin").toFile();
+    writeArchive(archiveFile, 10);
+
+    List<String> texts = new ArrayList<>();
+    for (int shard = 0; shard < 3; shard++) {
+      CollectionReader reader = createReader(CasArchiveReader.class, //
+              CasArchiveReader.PARAM_SOURCE_FILE, archiveFile, //
+              CasArchiveReader.PARAM_SHARD_INDEX, shard, //
+              CasArchiveReader.PARAM_SHARD_COUNT, 3);
+
+      JCas jcas = JCasFactory.createJCas();
+      while (reader.hasNext()) {
+        jcas.reset();
+        reader.getNext(jcas.getCas());
+        texts.add(jcas.getDocumentText());
+      }
+      assertThat(reader.getProgress()[0].getCompleted())
+              .isEqualTo(reader.getProgress()[0].getTotal());
+      reader.close();
+      reader.destroy();
+    }
+
+    assertThat(texts).hasSize(10).doesNotHaveDuplicates();
+    assertThat(texts.get(0)).isEqualTo("Document 0");
+    assertThat(texts.get(9)).isEqualTo("Document 9");
+  }
+
+  @Test
+  public void thatDocumentIdFeatureIsUsed(@TempDir Path folder) throws Exception {
+    File archiveFile = folder.resolve("archive.bin").toFile();
+    AnalysisEngine writer = createEngine(CasArchiveWriter.class, //
+            CasArchiveWriter.PARAM_TARGET_FILE, archiveFile, //
+            CasArchiveWriter.PARAM_DOCUMENT_ID_FEATURE, "uima.tcas.DocumentAnnotation:language");
+
+    JCas jcas = JCasFactory.createJCas();
+    for (String id : new String[] { "a", "b" }) {
+      jcas.reset();
+      jcas.setDocumentText("Document " + id);
+      jcas.setDocumentLanguage(id);
+      writer.process(jcas);
+    }
+    writer.collectionProcessComplete();
+    writer.destroy();
+
+    try (CasArchive archive = CasArchive.open(archiveFile)) {
+      assertThat(archive.getId(0)).isEqualTo("a");
+      assertThat(archive.indexOf("b")).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void thatUnknownDocumentIdFeatureIsRejected(@TempDir Path folder) throws Exception {
+    AnalysisEngine writer = createEngine(CasArchiveWriter.class, //
+            CasArchiveWriter.PARAM_TARGET_FILE, folder.resolve("archive.bin").toFile(), //
+            CasArchiveWriter.PARAM_DOCUMENT_ID_FEATURE, "uima.tcas.DocumentAnnotation:unknown");
+
+    JCas jcas = JCasFactory.createText("Document");
+    assertThatExceptionOfType(AnalysisEngineProcessException.class) //
+            .isThrownBy(() -> writer.process(jcas)) //
+            .withRootCauseInstanceOf(IllegalArgumentException.class);
+    writer.destroy();
+  }
+
+  @Test
+  public void thatOverlongDocumentIdIsRejected(@TempDir Path folder) throws Exception {
+    AnalysisEngine writer = createEngine(CasArchiveWriter.class, //
+            CasArchiveWriter.PARAM_TARGET_FILE, folder.resolve("archive.bin").toFile(), //
+            CasArchiveWriter.PARAM_DOCUMENT_ID_FEATURE, "uima.tcas.DocumentAnnotation:language");
+
+    JCas jcas = JCasFactory.createText("Document");
+    // Non-ASCII characters take two bytes in modified UTF-8
+    jcas.setDocumentLanguage("\u00e4".repeat(32768));
+    assertThatExceptionOfType(AnalysisEngineProcessException.class) //
+            .isThrownBy(() -> writer.process(jcas)) //
+            .withRootCauseInstanceOf(IllegalArgumentException.class);
+    writer.destroy();
+  }
+
+  @Test
+  public void thatTypeSystemChangeIsRejected(@TempDir Path folder) throws Exception {
+    AnalysisEngine writer = createEngine(CasArchiveWriter.class, //
+            CasArchiveWriter.PARAM_TARGET_FILE, folder.resolve("archive.bin").toFile());
+    writer.process(JCasFactory.createText("Document"));
+
+    TypeSystemDescription tsd = TypeSystemDescriptionFactory.createTypeSystemDescription();
+    tsd.addType("test.OtherType", "", CAS.TYPE_NAME_ANNOTATION);
+    JCas other = JCasFactory.createJCas(tsd);
+    other.setDocumentText("Document");
+    assertThatExceptionOfType(AnalysisEngineProcessException.class) //
+            .isThrownBy(() -> writer.process(other));
+    writer.destroy();
+  }
+
+  @Test
+  public void thatExistingArchiveIsReplaced(@TempDir Path folder) throws Exception {
+    File archiveFile = folder.resolve("archive.bin").toFile();
+    writeArchive(archiveFile, 10);
+    writeArchive(archiveFile, 3);
+
+    try (CasArchive archive = CasArchive.open(archiveFile)) {
+      assertThat(archive.size()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  public void thatEmptyArchiveCanBeRead(@TempDir Path folder) throws Exception {
+    File archiveFile = folder.resolve("archive.bin").toFile();
+    writeArchive(archiveFile, 0);
+
+    try (CasArchive archive = CasArchive.open(archiveFile)) {
+      assertThat(archive.size()).isZero();
+    }
+  }
+
+  private static void writeArchive(File aFile, int aCount) throws Exception {
+    AnalysisEngine writer = createEngine(CasArchiveWriter.class, //
+            CasArchiveWriter.PARAM_TARGET_FILE, aFile);
+
+    JCas jcas = JCasFactory.createJCas();
+    for (int i = 0; i < aCount; i++) {
+      jcas.reset();
+      jcas.setDocumentText("Document " + i);
+      new Token(jcas, 0, 8).addToIndexes();
+      writer.process(jcas);
+    }
+    writer.collectionProcessComplete();
+    writer.destroy();
+  }
+}
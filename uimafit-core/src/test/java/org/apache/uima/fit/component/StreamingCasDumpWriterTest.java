@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component;
+
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.pipeline.SimplePipeline.runPipeline;
+import static org.apache.uima.fit.util.FSUtil.setFeature;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StreamingCasDumpWriterTest {
+
+  @Test
+  public void test(@TempDir Path folder) throws Exception {
+    File outputFile = folder.resolve("dump-output.txt").toFile();
+
+    JCas jcas = JCasFactory.createText("Hello world", "en");
+    new Sentence(jcas, 0, 11).addToIndexes();
+    Token hello = new Token(jcas, 0, 5);
+    hello.setPos("UH");
+    hello.addToIndexes();
+    Token world = new Token(jcas, 6, 11);
+    world.setPos("NN");
+    world.addToIndexes();
+
+    runPipeline(jcas, createEngineDescription(StreamingCasDumpWriter.class, //
+            StreamingCasDumpWriter.PARAM_OUTPUT_FILE, outputFile.getPath(), //
+            StreamingCasDumpWriter.PARAM_TYPE_PATTERNS, new String[] { "-|.*Sentence", "+|.*" },
+            StreamingCasDumpWriter.PARAM_FEATURE_PATTERNS,
+            new String[] { "+|.*", "-|.*:stem", "-|.*:sofa" }));
+
+    String actual = readFileToString(outputFile, "UTF-8");
+
+    assertThat(actual) //
+            .contains("======== CAS 0 begin") //
+            .contains("   language: \"en\"\n") //
+            .contains("CAS-Text:\nHello world\n") //
+            .contains("[Hello]\nToken:") //
+            .contains("   begin: 0\n   end: 5\n   pos: \"UH\"\n") //
+            .contains("[world]\nToken:") //
+            .contains("   begin: 6\n   end: 11\n   pos: \"NN\"\n") //
+            .doesNotContain("Sentence") //
+            .doesNotContain("stem") //
+            .doesNotContain("sofa:");
+  }
+
+  @Test
+  public void thatArraysAndReferencesAreWritten(@TempDir Path folder) throws Exception {
+    File outputFile = folder.resolve("dump-output.txt").toFile();
+
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory()
+            .createTypeSystemDescription();
+    TypeDescription td = tsd.addType("test.Holder", "", CAS.TYPE_NAME_ANNOTATION);
+    td.addFeature("ints", "", CAS.TYPE_NAME_INTEGER_ARRAY);
+    td.addFeature("strings", "", CAS.TYPE_NAME_STRING_ARRAY);
+    td.addFeature("refs", "", CAS.TYPE_NAME_FS_ARRAY);
+    td.addFeature("link", "", CAS.TYPE_NAME_ANNOTATION);
+    td.addFeature("empty", "", CAS.TYPE_NAME_ANNOTATION);
+
+    CAS cas = CasCreationUtils.createCas(tsd, null, null);
+    cas.setDocumentText("Hello world");
+    Type type = cas.getTypeSystem().getType("test.Holder");
+
+    AnnotationFS other = cas.createAnnotation(type, 6, 11);
+    cas.addFsToIndexes(other);
+
+    AnnotationFS holder = cas.createAnnotation(type, 0, 5);
+    setFeature(holder, "ints", 1, 2, 3);
+    setFeature(holder, "strings", "a", null);
+    setFeature(holder, "refs", other, null);
+    setFeature(holder, "link", other);
+    cas.addFsToIndexes(holder);
+
+    runPipeline(cas, createEngineDescription(StreamingCasDumpWriter.class, //
+            StreamingCasDumpWriter.PARAM_OUTPUT_FILE, outputFile.getPath(), //
+            StreamingCasDumpWriter.PARAM_FEATURE_PATTERNS,
+            new String[] { "+|.*", "-|.*:sofa" }));
+
+    String actual = readFileToString(outputFile, "UTF-8");
+    String otherRef = "Holder:" + ((TOP) other)._id();
+
+    assertThat(actual) //
+            .contains("[Hello]\nHolder:" + ((TOP) holder)._id() + "\n") //
+            .contains("   ints: [1, 2, 3]\n") //
+            .contains("   strings: [\"a\", <null>]\n") //
+            .contains("   refs: [" + otherRef + ", <null>]\n") //
+            .contains("   link: " + otherRef + "\n") //
+            .contains("   empty: <null>\n");
+  }
+
+  @Test
+  public void thatAllViewsAreWritten(@TempDir Path folder) throws Exception {
+    File outputFile = folder.resolve("dump-output.txt").toFile();
+
+    JCas jcas = JCasFactory.createText("Hello world", "en");
+    new Token(jcas, 0, 5).addToIndexes();
+    JCas second = jcas.createView("second");
+    second.setDocumentText("Second text");
+    second.setDocumentLanguage("de");
+    new Token(second, 7, 11).addToIndexes();
+
+    runPipeline(jcas, createEngineDescription(StreamingCasDumpWriter.class, //
+            StreamingCasDumpWriter.PARAM_OUTPUT_FILE, outputFile.getPath(), //
+            // The document annotation is written even if its type is excluded
+            StreamingCasDumpWriter.PARAM_TYPE_PATTERNS,
+            new String[] { "-|uima.tcas.DocumentAnnotation", "+|.*" }));
+
+    String actual = readFileToString(outputFile, "UTF-8");
+
+    assertThat(actual) //
+            .containsSubsequence( //
+                    "-------- View _InitialView begin", //
+                    "   language: \"en\"\n", //
+                    "CAS-Text:\nHello world\n", //
+                    "[Hello]\nToken:", //
+                    "-------- View _InitialView end", //
+                    "-------- View second begin", //
+                    "   language: \"de\"\n", //
+                    "CAS-Text:\nSecond text\n", //
+                    "[text]\nToken:", //
+                    "-------- View second end");
+  }
+}
@@ -44,6 +44,7 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -96,6 +97,22 @@ public class ConfigurationParameterInitializerTest extends ComponentTestBase {
     assertThat(target.doubleValue).isEqualTo(1.234d);
   }
 
+  public static class DefaultArrayInjection {
+    private @ConfigurationParameter(defaultValue = { "a", "b" }) String[] values;
+  }
+
+  @Test
+  public void thatDefaultArraysAreNotSharedBetweenInstances() throws Exception {
+    DefaultArrayInjection target1 = new DefaultArrayInjection();
+    DefaultArrayInjection target2 = new DefaultArrayInjection();
+
+    initialize(target1, new HashMap<String, Object>());
+    initialize(target2, new HashMap<String, Object>());
+    target1.values[0] = "changed";
+
+    assertThat(target2.values).containsExactly("a", "b");
+  }
+
   public static class PrimitiveArraysInjection {
     private @ConfigurationParameter int[] intValues;
 
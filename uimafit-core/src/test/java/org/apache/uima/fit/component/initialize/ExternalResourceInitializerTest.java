@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.component.initialize;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.uima.UIMAFramework.getLogger;
+import static org.apache.uima.UIMAFramework.newConfigurationManager;
+import static org.apache.uima.UIMAFramework.newUimaContext;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.fit.component.ExternalResourceAware;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.impl.ResourceManager_impl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class ExternalResourceInitializerTest {
+  private static final int THREADS = 4;
+
+  @Test
+  @Timeout(60)
+  public void thatNestedResourceIsInitializedOnceWhileOtherThreadsWait() throws Exception {
+    BlockingResource resource = new BlockingResource();
+    UimaContext context = newUimaContext(getLogger(), new FixedResourceManager(resource),
+            newConfigurationManager());
+
+    AtomicBoolean released = new AtomicBoolean();
+    CountDownLatch started = new CountDownLatch(THREADS);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          started.countDown();
+          ExternalResourceInitializer.initialize(new Object(), context);
+          return released.get();
+        }));
+      }
+
+      // One thread initializes the resource and is blocked doing so. Give the other threads some
+      // time to reach the resource as well - they must not return before it has been initialized.
+      assertThat(resource.entered.await(30, SECONDS)).isTrue();
+      assertThat(started.await(30, SECONDS)).isTrue();
+      Thread.sleep(200);
+      assertThat(futures).noneMatch(Future::isDone);
+
+      released.set(true);
+      resource.release.countDown();
+
+      for (Future<Boolean> future : futures) {
+        assertThat(future.get(30, SECONDS)) //
+                .as("initialize() returned only after the resource was initialized") //
+                .isTrue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(resource.initializations).hasValue(1);
+    assertThat(resource.notifications).hasValue(1);
+  }
+
+  /**
+   * Resource which blocks while it is being initialized until it is released.
+   */
+  private static class BlockingResource implements ExternalResourceAware {
+    final CountDownLatch entered = new CountDownLatch(1);
+
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final AtomicInteger initializations = new AtomicInteger();
+
+    final AtomicInteger notifications = new AtomicInteger();
+
+    @Override
+    public String getResourceName() {
+      // Called only by the thread initializing the resource
+      initializations.incrementAndGet();
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return null;
+    }
+
+    @Override
+    public void afterResourcesInitialized() throws ResourceInitializationException {
+      notifications.incrementAndGet();
+    }
+  }
+
+  /**
+   * Resource manager providing a fixed set of external resources.
+   */
+  private static class FixedResourceManager extends ResourceManager_impl {
+    private final List<Object> resources = new ArrayList<>();
+
+    FixedResourceManager(Object... aResources) {
+      for (Object resource : aResources) {
+        resources.add(resource);
+      }
+    }
+
+    @Override
+    public List<Object> getExternalResources() {
+      return resources;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.factory;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+
+import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.type.Token;
+import org.junit.jupiter.api.Test;
+
+public class BulkAnnotationBuilderTest extends ComponentTestBase {
+
+  @Test
+  public void thatUnsortedSpansAreIndexedInOrder() {
+    jCas.setDocumentText("Bulk creation of tokens");
+
+    BulkAnnotationBuilder<Token> builder = BulkAnnotationBuilder.of(jCas, Token.class);
+    builder.add(17, 23);
+    builder.add(0, 4);
+    builder.add(14, 16);
+    builder.add(5, 13);
+    builder.add(0, 13);
+    List<Token> tokens = builder //
+            .setFeature("pos", new String[] { "NNS", "NN", "IN", "NN", "NP" }) //
+            .build();
+
+    assertThat(tokens) //
+            .extracting(Token::getCoveredText, Token::getPos) //
+            .containsExactly( //
+                    tuple("tokens", "NNS"), //
+                    tuple("Bulk", "NN"), //
+                    tuple("of", "IN"), //
+                    tuple("creation", "NN"), //
+                    tuple("Bulk creation", "NP"));
+
+    assertThat(select(jCas, Token.class)) //
+            .extracting(Token::getCoveredText) //
+            .containsExactly("Bulk creation", "Bulk", "creation", "of", "tokens");
+    assertThat(builder.size()).isZero();
+  }
+
+  @Test
+  public void thatParallelArraysCanBeUsed() {
+    jCas.setDocumentText("a b c");
+
+    List<Token> tokens = AnnotationFactory.createAnnotations(jCas, new int[] { 0, 2, 4 },
+            new int[] { 1, 3, 5 }, Token.class);
+
+    assertThat(tokens).extracting(Token::getCoveredText).containsExactly("a", "b", "c");
+    assertThat(select(jCas, Token.class)).containsExactlyElementsOf(tokens);
+  }
+
+  @Test
+  public void thatEqualSpansKeepTheirOrder() {
+    jCas.setDocumentText("a b");
+
+    List<Token> tokens = BulkAnnotationBuilder.of(jCas, Token.class) //
+            .addAll(new int[] { 2, 0, 0 }, new int[] { 3, 1, 1 }) //
+            .setFeature("stem", new String[] { "b", "first", "second" }) //
+            .build();
+
+    assertThat(tokens).extracting(Token::getStem).containsExactly("b", "first", "second");
+    assertThat(select(jCas, Token.class)) //
+            .extracting(Token::getStem) //
+            .containsExactly("first", "second", "b");
+  }
+
+  @Test
+  public void thatMissingFeatureValuesAreRejected() {
+    jCas.setDocumentText("a b");
+
+    BulkAnnotationBuilder<Token> builder = BulkAnnotationBuilder.of(jCas, Token.class) //
+            .addAll(new int[] { 0, 2 }, new int[] { 1, 3 }) //
+            .setFeature("pos", new String[] { "DT" });
+
+    assertThatIllegalStateException().isThrownBy(builder::build);
+    assertThat(select(jCas, Token.class)).isEmpty();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.factory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+public class CasTemplateTest {
+
+  @Test
+  public void thatTemplatesAreCached() throws Exception {
+    CasTemplate template = CasFactory.createCasTemplate();
+
+    assertThat(CasFactory.createCasTemplate()).isSameAs(template);
+  }
+
+  @Test
+  public void thatDetectionIsSkippedOnCacheHit() throws Exception {
+    CasTemplate template = CasFactory.createCasTemplate();
+
+    try (MockedStatic<TypeSystemDescriptionFactory> factory = mockStatic(
+            TypeSystemDescriptionFactory.class, CALLS_REAL_METHODS)) {
+      assertThat(CasFactory.createCasTemplate()).isSameAs(template);
+      factory.verify(TypeSystemDescriptionFactory::createTypeSystemDescription, never());
+
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+      CasFactory.createCasTemplate();
+      factory.verify(TypeSystemDescriptionFactory::createTypeSystemDescription, times(1));
+    }
+  }
+
+  @Test
+  public void thatConcurrentCallersGetTheSameTemplate() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<CasTemplate>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> {
+          TypeSystemDescription tsd = TypeSystemDescriptionFactory.createTypeSystemDescription();
+          tsd.addType("test.ConcurrentType", "", CAS.TYPE_NAME_ANNOTATION);
+          return CasFactory.createCasTemplate(tsd);
+        }));
+      }
+
+      CasTemplate template = futures.get(0).get();
+      for (Future<CasTemplate> future : futures) {
+        assertThat(future.get()).isSameAs(template);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void thatCasesShareTheTypeSystem() throws Exception {
+    CasTemplate template = CasFactory.createCasTemplate();
+
+    JCas jcas1 = template.createJCas();
+    JCas jcas2 = template.createJCas();
+
+    assertThat(jcas1).isNotSameAs(jcas2);
+    assertThat(jcas1.getTypeSystem()).isSameAs(template.getTypeSystem());
+    assertThat(jcas2.getTypeSystem()).isSameAs(template.getTypeSystem());
+    assertThat(jcas1.getTypeSystem().getType(Token.class.getName())).isNotNull();
+
+    jcas1.setDocumentText("text");
+    new Token(jcas1, 0, 4).addToIndexes();
+    assertThat(JCasUtil.select(jcas1, Token.class)).hasSize(1);
+    assertThat(JCasUtil.select(jcas2, Token.class)).isEmpty();
+  }
+
+  @Test
+  public void thatPoolReusesAndResetsCases() throws Exception {
+    CasTemplatePool pool = CasFactory.createCasTemplate().createPool(2);
+
+    JCas jcas1 = pool.getJCas();
+    JCas jcas2 = pool.getJCas();
+    assertThat(jcas1).isNotSameAs(jcas2);
+    assertThat(pool.getCas(10)).isNull();
+
+    jcas1.setDocumentText("text");
+    new Token(jcas1, 0, 4).addToIndexes();
+    pool.release(jcas1);
+    assertThat(pool.getFreeCount()).isEqualTo(1);
+
+    JCas jcas3 = pool.getJCas();
+    assertThat(jcas3).isSameAs(jcas1);
+    assertThat(jcas3.getDocumentText()).isNull();
+    assertThat(JCasUtil.select(jcas3, Token.class)).isEmpty();
+  }
+
+  @Test
+  public void thatViewCanBeReleased() throws Exception {
+    CasTemplatePool pool = CasFactory.createCasTemplate().createPool(1);
+
+    CAS cas = pool.getCas();
+    CAS view = cas.createView("other");
+    pool.release(view);
+
+    assertThat(pool.getCas()).isSameAs(cas);
+  }
+
+  @Test
+  public void thatForeignOrDuplicateReleaseIsRejected() throws Exception {
+    CasTemplate template = CasFactory.createCasTemplate();
+    CasTemplatePool pool = template.createPool(1);
+
+    assertThatIllegalArgumentException().isThrownBy(() -> pool.release(template.createCas()));
+
+    CAS cas = pool.getCas();
+    pool.release(cas);
+    assertThatIllegalStateException().isThrownBy(() -> pool.release(cas));
+  }
+}
@@ -21,9 +21,11 @@ package org.apache.uima.fit.factory;
 import static org.apache.uima.fit.factory.CollectionReaderFactory.createReader;
 import static org.apache.uima.fit.factory.CollectionReaderFactory.createReaderDescription;
 import static org.apache.uima.fit.factory.CollectionReaderFactory.createReaderFromPath;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createShardReaderDescription;
 import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.createTypeSystemDescription;
 import static org.apache.uima.resource.metadata.FsIndexDescription.KIND_SORTED;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -37,6 +39,7 @@ import org.apache.uima.collection.CollectionReader;
 import org.apache.uima.collection.CollectionReaderDescription;
 import org.apache.uima.collection.CollectionReader_ImplBase;
 import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.component.BinaryCasReader;
 import org.apache.uima.fit.descriptor.ResourceMetaData;
 import org.apache.uima.fit.factory.spi.FsIndexCollectionProviderForTesting;
 import org.apache.uima.fit.factory.spi.TypePrioritiesProviderForTesting;
@@ -152,6 +155,22 @@ public class CollectionReaderFactoryTest extends ComponentTestBase {
                             KIND_SORTED));
   }
 
+  @Test
+  public void thatShardDescriptionRequiresShardParameters() throws Exception {
+    CollectionReaderDescription desc = createReaderDescription(TestCR.class);
+
+    assertThatIllegalArgumentException() //
+            .isThrownBy(() -> createShardReaderDescription(desc, 0, 2));
+  }
+
+  @Test
+  public void thatShardDescriptionRejectsInvalidShard() throws Exception {
+    CollectionReaderDescription desc = createReaderDescription(BinaryCasReader.class);
+
+    assertThatIllegalArgumentException() //
+            .isThrownBy(() -> createShardReaderDescription(desc, 2, 2));
+  }
+
   @Test
   public void testResourceMetaData() throws Exception {
     CollectionReaderDescription desc = CollectionReaderFactory
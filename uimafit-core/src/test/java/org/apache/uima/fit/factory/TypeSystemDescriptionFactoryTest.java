@@ -18,23 +18,46 @@
  */
 package org.apache.uima.fit.factory;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.createTypeSystemDescription;
+import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.loadTypeSystemDescriptionsFromBundles;
 import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.loadTypeSystemDescriptionsFromSPIs;
 import static org.apache.uima.fit.factory.TypeSystemDescriptionFactory.loadTypeSystemDescriptionsFromScannedLocations;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.uima.cas.CAS;
 import org.apache.uima.fit.factory.spi.TypeSystemDescriptionProviderForTesting;
+import org.apache.uima.fit.internal.MetaDataBundle;
+import org.apache.uima.fit.internal.MetaDataCache;
+import org.apache.uima.fit.internal.MetaDataType;
+import org.apache.uima.fit.internal.MetaDataUtil;
 import org.apache.uima.fit.internal.ResourceManagerFactory;
 import org.apache.uima.fit.type.AnalyzedText;
 import org.apache.uima.fit.type.Sentence;
 import org.apache.uima.fit.type.Token;
 import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.TypeDescription;
 import org.apache.uima.resource.metadata.TypeSystemDescription;
 import org.apache.uima.util.CasCreationUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
 
 public class TypeSystemDescriptionFactoryTest {
   @Test
@@ -54,6 +77,58 @@ public class TypeSystemDescriptionFactoryTest {
     assertNotNull(tsd.getType(TypeSystemDescriptionProviderForTesting.TEST_TYPE_A));
   }
 
+  @Test
+  public void testPersistentCache(@TempDir File aCacheDir) throws Exception {
+    System.setProperty(MetaDataCache.PROP_CACHE_DIR, aCacheDir.getPath());
+    Thread thread = Thread.currentThread();
+    ClassLoader contextClassLoader = thread.getContextClassLoader();
+    try (MockedStatic<MetaDataBundle> bundle = mockStatic(MetaDataBundle.class,
+            CALLS_REAL_METHODS);
+            URLClassLoader cl = new URLClassLoader(new URL[0], getClass().getClassLoader())) {
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+      TypeSystemDescription scanned = createTypeSystemDescription();
+      assertThat(aCacheDir.listFiles()).hasSize(1);
+      bundle.verify(() -> MetaDataBundle.load(eq(MetaDataType.TYPE_SYSTEM), any(),
+              eq(TypeSystemDescription.class)), times(1));
+
+      // A classloader with the same classpath gets the cached type system without a scan
+      thread.setContextClassLoader(cl);
+      TypeSystemDescription cached = createTypeSystemDescription();
+      bundle.verify(() -> MetaDataBundle.load(eq(MetaDataType.TYPE_SYSTEM), any(),
+              eq(TypeSystemDescription.class)), times(1));
+      assertThat(cached.getTypes()) //
+              .extracting(TypeDescription::getName) //
+              .containsExactlyElementsOf(asList(scanned.getTypes()).stream() //
+                      .map(TypeDescription::getName) //
+                      .collect(toList()));
+    } finally {
+      thread.setContextClassLoader(contextClassLoader);
+      System.clearProperty(MetaDataCache.PROP_CACHE_DIR);
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+    }
+  }
+
+  @Test
+  public void testForcedScanBypassesPersistentCache(@TempDir File aCacheDir) throws Exception {
+    System.setProperty(MetaDataCache.PROP_CACHE_DIR, aCacheDir.getPath());
+    try (MockedStatic<MetaDataBundle> bundle = mockStatic(MetaDataBundle.class,
+            CALLS_REAL_METHODS)) {
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+      createTypeSystemDescription();
+      assertThat(aCacheDir.listFiles()).hasSize(1);
+
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+      TypeSystemDescription rescanned = createTypeSystemDescription();
+      bundle.verify(() -> MetaDataBundle.load(eq(MetaDataType.TYPE_SYSTEM), any(),
+              eq(TypeSystemDescription.class)), times(2));
+      assertNotNull(rescanned.getType(Token.class.getName()));
+      assertThat(aCacheDir.listFiles()).hasSize(1);
+    } finally {
+      System.clearProperty(MetaDataCache.PROP_CACHE_DIR);
+      TypeSystemDescriptionFactory.forceTypeDescriptorsScan();
+    }
+  }
+
   @Test
   public void testLoadingFromScannedLocations() throws Exception {
     ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
@@ -67,6 +142,86 @@ public class TypeSystemDescriptionFactoryTest {
     assertNotNull(tsd.getType(AnalyzedText.class.getName()));
   }
 
+  @Test
+  public void testLoadingFromBundles(@TempDir File aArtifactDir) throws Exception {
+    TypeSystemDescription bundled = TypeSystemDescriptionFactory.createTypeSystemDescription();
+    bundled.addType("test.BundledType", "", CAS.TYPE_NAME_ANNOTATION);
+
+    File index = new File(aArtifactDir, MetaDataBundle.BUNDLE_INDEX);
+    index.getParentFile().mkdirs();
+    String name = MetaDataBundle.getBundleName(MetaDataType.TYPE_SYSTEM);
+    MetaDataUtil.writeXml(bundled, new FileOutputStream(new File(index.getParentFile(), name)));
+    Files.write(index.toPath(), (MetaDataType.TYPE_SYSTEM.name() + "=" + name).getBytes(UTF_8));
+
+    try (URLClassLoader cl = new URLClassLoader(new URL[] { aArtifactDir.toURI().toURL() },
+            getClass().getClassLoader())) {
+      List<TypeSystemDescription> tsds = new ArrayList<>();
+      loadTypeSystemDescriptionsFromBundles(tsds, cl);
+      TypeSystemDescription tsd = CasCreationUtils.mergeTypeSystems(tsds);
+
+      assertNotNull(tsd.getType("test.BundledType"));
+      assertThat(MetaDataBundle.getBundledLocations(MetaDataType.TYPE_SYSTEM, cl))
+              .containsExactly(index.getParentFile().toURI().toString());
+    }
+  }
+
+  @Test
+  public void testBrokenBundlesFallBackToManifests(@TempDir File aArtifactDir) throws Exception {
+    String manifest = MetaDataUtil.getManifestResources(MetaDataType.TYPE_SYSTEM)[0];
+    File manifestFile = new File(aArtifactDir, manifest);
+    manifestFile.getParentFile().mkdirs();
+    Files.write(manifestFile.toPath(), "classpath*:broken/*.xml".getBytes(UTF_8));
+    String name = MetaDataBundle.getBundleName(MetaDataType.TYPE_SYSTEM);
+    Files.write(new File(manifestFile.getParentFile(), name).toPath(),
+            "<typeSystemDescription".getBytes(UTF_8));
+    Files.write(new File(aArtifactDir, MetaDataBundle.BUNDLE_INDEX).toPath(),
+            (MetaDataType.TYPE_SYSTEM.name() + "=" + name).getBytes(UTF_8));
+
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader cl = new URLClassLoader(new URL[] { aArtifactDir.toURI().toURL() },
+            getClass().getClassLoader())) {
+      Thread.currentThread().setContextClassLoader(cl);
+
+      List<TypeSystemDescription> tsds = new ArrayList<>();
+      loadTypeSystemDescriptionsFromBundles(tsds, cl);
+
+      assertThat(tsds).isEmpty();
+      assertThat(MetaDataBundle.getBundledLocations(MetaDataType.TYPE_SYSTEM, cl)).isEmpty();
+      assertThat(MetaDataUtil.scanImportsAndManifests(MetaDataType.TYPE_SYSTEM))
+              .contains("classpath*:broken/*.xml");
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  @Test
+  public void testManifestsOfBundledArtifactsAreSkipped(@TempDir File aBundledDir,
+          @TempDir File aPlainDir) throws Exception {
+    String manifest = MetaDataUtil.getManifestResources(MetaDataType.TYPE_SYSTEM)[0];
+    File bundledManifest = new File(aBundledDir, manifest);
+    bundledManifest.getParentFile().mkdirs();
+    Files.write(bundledManifest.toPath(), "classpath*:bundled/*.xml".getBytes(UTF_8));
+    Files.write(new File(aBundledDir, MetaDataBundle.BUNDLE_INDEX).toPath(),
+            (MetaDataType.TYPE_SYSTEM.name() + "=types-bundle.xml").getBytes(UTF_8));
+
+    File plainManifest = new File(aPlainDir, manifest);
+    plainManifest.getParentFile().mkdirs();
+    Files.write(plainManifest.toPath(), "classpath*:plain/*.xml".getBytes(UTF_8));
+
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader cl = new URLClassLoader(
+            new URL[] { aBundledDir.toURI().toURL(), aPlainDir.toURI().toURL() },
+            getClass().getClassLoader())) {
+      Thread.currentThread().setContextClassLoader(cl);
+
+      assertThat(MetaDataUtil.scanImportsAndManifests(MetaDataType.TYPE_SYSTEM))
+              .contains("classpath*:plain/*.xml") //
+              .doesNotContain("classpath*:bundled/*.xml");
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
   @Test
   public void testLoadingFromSPIs() throws Exception {
     List<TypeSystemDescription> tsds = new ArrayList<>();
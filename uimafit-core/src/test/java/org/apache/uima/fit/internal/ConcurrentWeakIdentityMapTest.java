@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentWeakIdentityMapTest {
+  @Test
+  public void thatKeysAreComparedByIdentity() {
+    ConcurrentWeakIdentityMap<String, String> map = new ConcurrentWeakIdentityMap<>();
+    String key1 = new String("key");
+    String key2 = new String("key");
+
+    assertThat(map.putIfAbsent(key1, "value1")).isNull();
+    assertThat(map.putIfAbsent(key2, "value2")).isNull();
+    assertThat(map.putIfAbsent(key1, "value3")).isEqualTo("value1");
+
+    assertThat(map.get(key1)).isEqualTo("value1");
+    assertThat(map.get(key2)).isEqualTo("value2");
+    assertThat(map.get("key")).isNull();
+    assertThat(map.size()).isEqualTo(2);
+
+    assertThat(map.remove(key1)).isEqualTo("value1");
+    assertThat(map.get(key1)).isNull();
+    assertThat(map.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void thatEntriesAreReleasedWhenKeysAreCollected() throws Exception {
+    ConcurrentWeakIdentityMap<Object, String> map = new ConcurrentWeakIdentityMap<>();
+    Object retained = new Object();
+    map.putIfAbsent(retained, "retained");
+    WeakReference<Object> collected = addCollectableKey(map);
+
+    assertThat(map.size()).isEqualTo(2);
+
+    for (int i = 0; i < 100 && (collected.get() != null || map.size() > 1); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertThat(collected.get()).isNull();
+    assertThat(map.size()).isEqualTo(1);
+    assertThat(map.get(retained)).isEqualTo("retained");
+  }
+
+  private static WeakReference<Object> addCollectableKey(
+          ConcurrentWeakIdentityMap<Object, String> aMap) {
+    Object key = new Object();
+    aMap.putIfAbsent(key, "collected");
+    return new WeakReference<>(key);
+  }
+}
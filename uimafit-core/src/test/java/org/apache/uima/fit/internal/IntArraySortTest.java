@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class IntArraySortTest {
+  @Test
+  public void thatSortIsStable() {
+    Random rnd = new Random();
+    int[] values = rnd.ints(1000, 0, 20).toArray();
+
+    int[] actual = IntArraySort.sortedOrdinals(values.length,
+            (a, b) -> Integer.compare(values[a], values[b]));
+
+    // Stream.sorted is stable for ordered streams
+    assertThat(actual).containsExactly(IntStream.range(0, values.length).boxed()
+            .sorted(Comparator.comparingInt(i -> values[i])).mapToInt(Integer::intValue)
+            .toArray());
+  }
+
+  @Test
+  public void thatSortedAndEmptyArraysAreKept() {
+    int[] sorted = { 1, 2, 2, 5 };
+    IntArraySort.sort(sorted, Integer::compare);
+    assertThat(sorted).containsExactly(1, 2, 2, 5);
+
+    int[] empty = {};
+    IntArraySort.sort(empty, Integer::compare);
+    assertThat(empty).isEmpty();
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LongIntTableTest {
+  @Test
+  public void thatLookupsMatchHashMap() {
+    Random rnd = new Random();
+    LongIntTable table = new LongIntTable(500);
+    Map<Long, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 500; i++) {
+      long key = rnd.nextInt(200) + (rnd.nextBoolean() ? Long.MIN_VALUE : 0);
+      table.put(key, i);
+      expected.put(key, i);
+    }
+
+    for (long key = -10; key < 210; key++) {
+      assertThat(table.get(key)).isEqualTo(expected.getOrDefault(key, -1));
+      assertThat(table.get(key + Long.MIN_VALUE))
+              .isEqualTo(expected.getOrDefault(key + Long.MIN_VALUE, -1));
+    }
+  }
+
+  @Test
+  public void thatZeroKeysAndValuesAreSupported() {
+    LongIntTable table = new LongIntTable(0);
+    assertThat(table.get(0)).isEqualTo(-1);
+
+    table.put(0, 0);
+    assertThat(table.get(0)).isZero();
+  }
+}
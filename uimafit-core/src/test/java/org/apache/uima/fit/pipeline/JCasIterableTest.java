@@ -31,7 +31,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
@@ -123,6 +125,36 @@ public class JCasIterableTest {
     verify(resMgr, times(1)).destroy();
   }
 
+  @Test
+  public void thatPrefetchingIteratorYieldsAllDocumentsInOrder() throws Exception {
+    List<String> texts = new ArrayList<>();
+    for (JCas jcas : new PrefetchingJCasIterable(2, createReaderDescription(ThreeDocsReader.class),
+            createEngineDescription(GetTextAE.class))) {
+      texts.add(jcas.getDocumentText());
+    }
+
+    assertThat(texts).containsExactly("Document 1", "Document 2", "Document 3");
+    assertThat(GetTextAE.complete).isTrue();
+    assertThat(GetTextAE.destroyed).isTrue();
+    assertThat(ThreeDocsReader.destroyed).isTrue();
+  }
+
+  @Test
+  public void thatAbandonedPrefetchingIteratorCanBeDestroyed() throws Exception {
+    PrefetchingJCasIterator i = new PrefetchingJCasIterable(1,
+            createReaderDescription(ThreeDocsReader.class),
+            createEngineDescription(GetTextAE.class)).iterator();
+
+    assertThat(i.next().getDocumentText()).isEqualTo("Document 1");
+
+    i.destroy();
+
+    assertThat(i.hasNext()).isFalse();
+    assertThat(GetTextAE.complete).isFalse();
+    assertThat(GetTextAE.destroyed).isTrue();
+    assertThat(ThreeDocsReader.destroyed).isTrue();
+  }
+
   private static void consume(Iterable<?> aIterable) {
     Iterator<?> i = aIterable.iterator();
     while (i.hasNext()) {
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.pipeline;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngine;
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.factory.UimaContextFactory.createUimaContext;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.ResultSpecification;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.NoOpAnnotator;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.factory.AggregateBuilder;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.jcas.JCas;
+import org.junit.jupiter.api.Test;
+
+public class PipelineInstrumentationTest {
+
+  @Test
+  public void thatEachDelegateIsMeasured() throws Exception {
+    try (PipelineInstrumentation instrumentation = new PipelineInstrumentation()) {
+      List<String> processed = new ArrayList<>();
+      instrumentation.addListener((component, nanos, fs, bytes) -> processed
+              .add(component.getName() + ":" + fs));
+
+      AnalysisEngine engine = createEngine(instrumentation.instrument(createAggregate()));
+      process(engine, 5);
+
+      assertThat(instrumentation.getComponentMetrics()) //
+              .extracting(ComponentMetrics::getName) //
+              .containsExactly("tokenizer", "noop");
+
+      ComponentMetrics tokenizer = instrumentation.getComponentMetrics("tokenizer");
+      assertThat(tokenizer.getCasCount()).isEqualTo(5);
+      assertThat(tokenizer.getFailureCount()).isZero();
+      assertThat(tokenizer.getFeatureStructuresCreated()).isEqualTo(15);
+      assertThat(tokenizer.getAllocatedBytes()).isNotNegative();
+      assertThat(instrumentation.getComponentMetrics("noop").getFeatureStructuresCreated())
+              .isZero();
+      assertThat(processed).hasSize(10).contains("tokenizer:3", "noop:0");
+    }
+  }
+
+  @Test
+  public void thatFailuresAreCounted() throws Exception {
+    try (PipelineInstrumentation instrumentation = new PipelineInstrumentation()) {
+      List<Exception> failures = new ArrayList<>();
+      instrumentation.addListener(new InstrumentationListener() {
+        @Override
+        public void processed(ComponentMetrics aComponent, long aNanos, int aFeatureStructures,
+                long aAllocatedBytes) {
+          // Not interested
+        }
+
+        @Override
+        public void failed(ComponentMetrics aComponent, long aNanos, Exception aException) {
+          failures.add(aException);
+        }
+      });
+
+      AnalysisEngine engine = createEngine(
+              instrumentation.instrument(createEngineDescription(FailingAnnotator.class)));
+
+      assertThatExceptionOfType(AnalysisEngineProcessException.class) //
+              .isThrownBy(() -> process(engine, 1));
+
+      ComponentMetrics metrics = instrumentation.getComponentMetrics().get(0);
+      assertThat(metrics.getCasCount()).isEqualTo(1);
+      assertThat(metrics.getFailureCount()).isEqualTo(1);
+      assertThat(failures).hasSize(1);
+    }
+  }
+
+  @Test
+  public void thatMetricsAreExposedViaJmx() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName query = new ObjectName(
+            PipelineInstrumentation.MBEAN_DOMAIN + ":type=ComponentMetrics,name=\"tokenizer\",*");
+
+    try (PipelineInstrumentation instrumentation = new PipelineInstrumentation()) {
+      instrumentation.registerMBeans();
+
+      AnalysisEngine engine = createEngine(instrumentation.instrument(createAggregate()));
+      process(engine, 2);
+
+      Set<ObjectName> names = server.queryNames(query, null);
+      assertThat(names).hasSize(1);
+      assertThat(server.getAttribute(names.iterator().next(), "CasCount")).isEqualTo(2L);
+    }
+
+    assertThat(server.queryNames(query, null)).isEmpty();
+  }
+
+  @Test
+  public void thatOriginalDescriptionIsUnchanged() throws Exception {
+    AnalysisEngineDescription desc = createAggregate();
+
+    try (PipelineInstrumentation instrumentation = new PipelineInstrumentation()) {
+      AnalysisEngineDescription instrumented = instrumentation.instrument(desc);
+
+      assertThat(getImplementation(instrumented, "tokenizer"))
+              .isEqualTo(InstrumentedAnalysisComponent.class.getName());
+    }
+
+    assertThat(getImplementation(desc, "tokenizer")).isEqualTo(Tokenizer.class.getName());
+  }
+
+  @Test
+  public void thatEarlyResultSpecificationIsForwarded() throws Exception {
+    ResultSpecification resultSpec = UIMAFramework.getResourceSpecifierFactory()
+            .createResultSpecification();
+
+    InstrumentedAnalysisComponent component = new InstrumentedAnalysisComponent();
+    component.setResultSpecification(resultSpec);
+    component.initialize(createUimaContext( //
+            PipelineInstrumentation.PARAM_DELEGATE_CLASS, ResultSpecRecorder.class.getName(), //
+            PipelineInstrumentation.PARAM_INSTRUMENTATION_ID, "unknown", //
+            PipelineInstrumentation.PARAM_COMPONENT_NAME, "recorder"));
+    try {
+      assertThat(ResultSpecRecorder.resultSpec).isSameAs(resultSpec);
+    } finally {
+      component.destroy();
+      ResultSpecRecorder.resultSpec = null;
+    }
+  }
+
+  private static String getImplementation(AnalysisEngineDescription aDesc, String aKey)
+          throws Exception {
+    return ((AnalysisEngineDescription) aDesc.getDelegateAnalysisEngineSpecifiers().get(aKey))
+            .getAnnotatorImplementationName();
+  }
+
+  private static AnalysisEngineDescription createAggregate() throws Exception {
+    AggregateBuilder builder = new AggregateBuilder();
+    builder.add("tokenizer", createEngineDescription(Tokenizer.class, Tokenizer.PARAM_TOKENS, 3));
+    builder.add("noop", createEngineDescription(NoOpAnnotator.class));
+    return builder.createAggregateDescription();
+  }
+
+  private static void process(AnalysisEngine aEngine, int aDocuments) throws Exception {
+    try {
+      JCas jcas = aEngine.newJCas();
+      for (int i = 0; i < aDocuments; i++) {
+        jcas.reset();
+        jcas.setDocumentText("text");
+        aEngine.process(jcas);
+      }
+    } finally {
+      aEngine.destroy();
+    }
+  }
+
+  public static class Tokenizer extends JCasAnnotator_ImplBase {
+    public static final String PARAM_TOKENS = "tokens";
+    @ConfigurationParameter(name = PARAM_TOKENS)
+    private int tokens;
+
+    @Override
+    public void process(JCas aJCas) throws AnalysisEngineProcessException {
+      for (int i = 0; i < tokens; i++) {
+        new Token(aJCas, 0, 1).addToIndexes();
+      }
+    }
+  }
+
+  public static class ResultSpecRecorder extends JCasAnnotator_ImplBase {
+    static volatile ResultSpecification resultSpec;
+
+    @Override
+    public void setResultSpecification(ResultSpecification aResultSpec) {
+      super.setResultSpecification(aResultSpec);
+      resultSpec = aResultSpec;
+    }
+
+    @Override
+    public void process(JCas aJCas) throws AnalysisEngineProcessException {
+      // Nothing to do
+    }
+  }
+
+  public static class FailingAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas aJCas) throws AnalysisEngineProcessException {
+      throw new AnalysisEngineProcessException(new IllegalStateException("Failing on purpose"));
+    }
+  }
+}
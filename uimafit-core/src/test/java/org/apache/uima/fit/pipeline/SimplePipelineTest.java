@@ -24,6 +24,7 @@ import static org.apache.uima.fit.factory.CollectionReaderFactory.createReader;
 import static org.apache.uima.fit.factory.CollectionReaderFactory.createReaderDescription;
 import static org.apache.uima.fit.factory.ExternalResourceFactory.createResourceDescription;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -35,6 +36,7 @@ import org.apache.uima.cas.TypeSystem;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
 import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.component.JCasConsumer_ImplBase;
 import org.apache.uima.fit.component.Resource_ImplBase;
 import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.fit.type.Sentence;
@@ -44,6 +46,7 @@ import org.apache.uima.resource.ExternalResourceDescription;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.util.Progress;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 /**
  */
@@ -123,6 +126,75 @@ public class SimplePipelineTest {
   public static final class DummySharedResource extends Resource_ImplBase {
   }
 
+  public static class NumberReader extends JCasCollectionReader_ImplBase {
+
+    public static boolean CLOSED = false;
+
+    private int current = 0;
+
+    @Override
+    public void initialize(UimaContext context) throws ResourceInitializationException {
+      super.initialize(context);
+      CLOSED = false;
+    }
+
+    @Override
+    public Progress[] getProgress() {
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException, CollectionException {
+      return current < 100;
+    }
+
+    @Override
+    public void getNext(JCas jCas) throws IOException, CollectionException {
+      jCas.setDocumentText(String.valueOf(current));
+      current++;
+    }
+
+    @Override
+    public void close() throws IOException {
+      CLOSED = true;
+    }
+  }
+
+  public static class FailingAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
+      if ("50".equals(jCas.getDocumentText())) {
+        throw new Error("Failure on document 50");
+      }
+    }
+  }
+
+  public static class FailingConsumer extends JCasConsumer_ImplBase {
+    @Override
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
+      if ("50".equals(jCas.getDocumentText())) {
+        throw new Error("Failure on document 50");
+      }
+    }
+  }
+
+  public static class OrderRecorder extends JCasConsumer_ImplBase {
+
+    public static List<String> TEXTS = new ArrayList<String>();
+
+    @Override
+    public void initialize(UimaContext context) throws ResourceInitializationException {
+      super.initialize(context);
+      TEXTS = new ArrayList<String>();
+    }
+
+    @Override
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
+      assertThat(JCasUtil.select(jCas, Sentence.class)).hasSize(1);
+      TEXTS.add(jCas.getDocumentText());
+    }
+  }
+
   @Test
   public void testWithInstances() throws Exception {
     SimplePipeline.runPipeline(createReader(Reader.class), createEngine(Annotator.class),
@@ -137,6 +209,67 @@ public class SimplePipelineTest {
     assertThat(Writer.SENTENCES).containsExactly(SENTENCE_TEXT);
   }
 
+  @Test
+  public void testMultiThreadedUnordered() throws Exception {
+    SimplePipeline.runPipeline(4, createReaderDescription(NumberReader.class),
+            createEngineDescription(Annotator.class), createEngineDescription(OrderRecorder.class));
+
+    assertThat(OrderRecorder.TEXTS) //
+            .hasSize(100) //
+            .containsExactlyInAnyOrderElementsOf(expectedNumbers(100));
+  }
+
+  @Test
+  public void testMultiThreadedOrdered() throws Exception {
+    SimplePipeline.runPipeline(4, 3, true, createReaderDescription(NumberReader.class),
+            createEngineDescription(Annotator.class), createEngineDescription(OrderRecorder.class));
+
+    assertThat(OrderRecorder.TEXTS).containsExactlyElementsOf(expectedNumbers(100));
+    assertThat(NumberReader.CLOSED).isTrue();
+  }
+
+  @Test
+  @Timeout(60)
+  public void testMultiThreadedErrorInReplicatedEngine() throws Exception {
+    Throwable thrown = catchThrowable(() -> SimplePipeline.runPipeline(4, 4, false,
+            createReaderDescription(NumberReader.class),
+            createEngineDescription(FailingAnnotator.class)));
+
+    assertThat(rootCause(thrown)) //
+            .isInstanceOf(Error.class) //
+            .hasMessage("Failure on document 50");
+    assertThat(NumberReader.CLOSED).isTrue();
+  }
+
+  @Test
+  @Timeout(60)
+  public void testMultiThreadedErrorInTail() throws Exception {
+    Throwable thrown = catchThrowable(() -> SimplePipeline.runPipeline(4, 4, true,
+            createReaderDescription(NumberReader.class), createEngineDescription(Annotator.class),
+            createEngineDescription(FailingConsumer.class)));
+
+    assertThat(rootCause(thrown)) //
+            .isInstanceOf(Error.class) //
+            .hasMessage("Failure on document 50");
+  }
+
+  private static Throwable rootCause(Throwable aThrowable) {
+    assertThat(aThrowable).isNotNull();
+    Throwable cause = aThrowable;
+    while (cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  private static List<String> expectedNumbers(int aCount) {
+    List<String> numbers = new ArrayList<String>();
+    for (int i = 0; i < aCount; i++) {
+      numbers.add(String.valueOf(i));
+    }
+    return numbers;
+  }
+
   @Test
   public void testResourceSharing() throws Exception {
     Reader.resource = null;
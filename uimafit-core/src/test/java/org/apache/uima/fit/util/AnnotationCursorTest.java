@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.apache.uima.fit.util.JCasUtil.selectCovered;
+import static org.apache.uima.fit.util.JCasUtil.selectCovering;
+import static org.apache.uima.fit.util.JCasUtil.selectOverlapping;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link AnnotationCursor} and the {@code forEach} methods of {@link JCasUtil}.
+ */
+public class AnnotationCursorTest extends ComponentTestBase {
+  @Test
+  public void thatCursorProvidesOffsets() throws Exception {
+    tokenBuilder.buildTokens(jCas, "one two three");
+
+    AnnotationCursor<Token> cursor = AnnotationCursor.create(jCas, Token.class);
+
+    assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(cursor::get);
+
+    cursor.covered(4, 13);
+    assertThat(cursor.next()).isTrue();
+    assertThat(cursor.get().getCoveredText()).isEqualTo("two");
+    assertThat(cursor.getBegin()).isEqualTo(4);
+    assertThat(cursor.getEnd()).isEqualTo(7);
+    assertThat(cursor.next()).isTrue();
+    assertThat(cursor.get().getCoveredText()).isEqualTo("three");
+    assertThat(cursor.next()).isFalse();
+    assertThat(cursor.next()).isFalse();
+
+    assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(cursor::getBegin);
+  }
+
+  @Test
+  public void thatCoveringStopsAtFirstAnnotationStartingAfterSpan() throws Exception {
+    jCas.setDocumentText("aaaa bbbb cccc dddd");
+    Token outer = addToken(0, 10);
+    Token wider = addToken(2, 6);
+    Token same = addToken(2, 4);
+    Token zeroWidth = addToken(2, 2);
+    // Covers the end, but starts after the begin of the span
+    addToken(3, 19);
+    addToken(5, 5);
+    addToken(10, 14);
+
+    assertThat(selectCovering(jCas, Token.class, 2, 4)) //
+            .containsExactly(outer, wider, same);
+    assertThat(selectCovering(jCas, Token.class, 2, 2)) //
+            .containsExactly(outer, wider, same, zeroWidth);
+
+    List<Token> visited = new ArrayList<>();
+    JCasUtil.forEachCovering(jCas, Token.class, 2, 4, visited::add);
+    assertThat(visited).containsExactly(outer, wider, same);
+
+    AnnotationCursor<Token> cursor = AnnotationCursor.create(jCas, Token.class);
+    assertThat(collect(cursor.covering(2, 4))).containsExactly(outer, wider, same);
+  }
+
+  @Test
+  public void thatSelectionsMatchListSelectionsOnRandomData() throws Exception {
+    Random rnd = new Random();
+
+    for (int i = 0; i < 10; i++) {
+      jCas.reset();
+      for (int n = 0; n < 10 * i; n++) {
+        int begin = rnd.nextInt(100);
+        new Token(jCas, begin, begin + rnd.nextInt(30)).addToIndexes();
+        begin = rnd.nextInt(100);
+        new Sentence(jCas, begin, begin + rnd.nextInt(30)).addToIndexes();
+      }
+
+      AnnotationCursor<Token> cursor = AnnotationCursor.create(jCas, Token.class);
+
+      assertThat(collect(cursor.all())).containsExactlyElementsOf(select(jCas, Token.class));
+      List<Token> visited = new ArrayList<>();
+      JCasUtil.forEach(jCas, Token.class, visited::add);
+      assertThat(visited).containsExactlyElementsOf(select(jCas, Token.class));
+
+      for (Sentence s : select(jCas, Sentence.class)) {
+        int begin = s.getBegin();
+        int end = s.getEnd();
+        String desc = "[" + begin + ".." + end + "]";
+
+        List<Token> covered = selectCovered(jCas, Token.class, begin, end);
+        assertThat(collect(cursor.covered(begin, end))).as("Covered by " + desc)
+                .containsExactlyElementsOf(covered);
+        visited.clear();
+        JCasUtil.forEachCovered(jCas, Token.class, begin, end, visited::add);
+        assertThat(visited).as("Covered by " + desc).containsExactlyElementsOf(covered);
+        visited.clear();
+        JCasUtil.forEachCovered(jCas, Token.class, s, visited::add);
+        assertThat(visited).as("Covered by " + desc)
+                .containsExactlyElementsOf(selectCovered(Token.class, s));
+
+        List<Token> covering = selectCovering(jCas, Token.class, begin, end);
+        assertThat(collect(cursor.covering(begin, end))).as("Covering " + desc)
+                .containsExactlyElementsOf(covering);
+        visited.clear();
+        JCasUtil.forEachCovering(jCas, Token.class, begin, end, visited::add);
+        assertThat(visited).as("Covering " + desc).containsExactlyElementsOf(covering);
+
+        List<Token> overlapping = selectOverlapping(jCas, Token.class, begin, end);
+        assertThat(collect(cursor.overlapping(begin, end))).as("Overlapping " + desc)
+                .containsExactlyElementsOf(overlapping);
+        visited.clear();
+        JCasUtil.forEachOverlapping(jCas, Token.class, begin, end, visited::add);
+        assertThat(visited).as("Overlapping " + desc).containsExactlyElementsOf(overlapping);
+      }
+    }
+  }
+
+  private static <T extends Token> List<T> collect(AnnotationCursor<T> aCursor) {
+    List<T> result = new ArrayList<>();
+    while (aCursor.next()) {
+      result.add(aCursor.get());
+    }
+    return result;
+  }
+
+  private Token addToken(int aBegin, int aEnd) {
+    Token token = new Token(jCas, aBegin, aEnd);
+    token.addToIndexes();
+    return token;
+  }
+}
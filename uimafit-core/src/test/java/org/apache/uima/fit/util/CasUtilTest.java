@@ -50,6 +50,7 @@ import static org.apache.uima.fit.util.CasUtil.selectPreceding;
 import static org.apache.uima.fit.util.CasUtil.toText;
 import static org.apache.uima.fit.util.SelectionAssert.assertSelection;
 import static org.apache.uima.fit.util.SelectionAssert.assertSelectionIsEqualOnRandomData;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -72,6 +73,7 @@ import org.apache.uima.fit.type.Token;
 import org.apache.uima.fit.util.SelectionAssert.TestCase;
 import org.apache.uima.jcas.cas.TOP;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
 import org.apache.uima.util.CasCreationUtils;
 import org.junit.jupiter.api.Test;
 
@@ -127,6 +129,32 @@ public class CasUtilTest extends ComponentTestBase {
             .isThrownBy(() -> getAnnotationType(cas, TOP.class));
   }
 
+  @Test
+  public void thatTypesAreResolvedAgainstTheirOwnTypeSystem() throws Exception {
+    TypeSystemDescription tsd = createTypeSystemDescription();
+    tsd.addType("test.Extra", "", CAS.TYPE_NAME_TOP);
+    CAS cas1 = jCas.getCas();
+    CAS cas2 = CasCreationUtils.createCas(tsd, null, null);
+
+    // Look up repeatedly and alternating between the type systems to exercise the cache
+    for (int i = 0; i < 3; i++) {
+      assertThat(getType(cas1, Token.class))
+              .isSameAs(cas1.getTypeSystem().getType(Token.class.getName()));
+      assertThat(getAnnotationType(cas2, Token.class))
+              .isSameAs(cas2.getTypeSystem().getType(Token.class.getName()));
+      assertThat(getType(cas2, "test.Extra"))
+              .isSameAs(cas2.getTypeSystem().getType("test.Extra"));
+      assertThat(CasUtil.isAnnotationType(cas2, getType(cas2, Token.class))).isTrue();
+      assertThat(CasUtil.isAnnotationType(cas2, getType(cas2, "test.Extra"))).isFalse();
+    }
+
+    assertThat(getType(cas1, Token.class)).isNotSameAs(getType(cas2, Token.class));
+    assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> getType(cas1, "test.Extra"));
+    assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> getAnnotationType(cas2, "test.Extra"));
+  }
+
   @Test
   public void testSelectByIndex() {
     String text = "Rot wood cheeses dew?";
@@ -318,6 +346,22 @@ public class CasUtilTest extends ComponentTestBase {
             (cas, type, context) -> selectAt(cas, type, context.getBegin(), context.getEnd()));
   }
 
+  @Test
+  public void thatSelectAtDoesNotCreateFeatureStructures() throws Exception {
+    tokenBuilder.buildTokens(jCas, "Rot wood cheeses dew?");
+
+    CAS cas = jCas.getCas();
+    Type type = JCasUtil.getType(jCas, Token.class);
+    int lastUsedFsId = jCas.getCasImpl().getLastUsedFsId();
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(selectAt(cas, type, 4, 8)).extracting(AnnotationFS::getCoveredText)
+              .containsExactly("wood");
+    }
+
+    assertThat(jCas.getCasImpl().getLastUsedFsId()).isEqualTo(lastUsedFsId);
+  }
+
   @SafeVarargs
   public static <T> List<T> union(List<T>... aLists) {
     List<T> all = new ArrayList<>();
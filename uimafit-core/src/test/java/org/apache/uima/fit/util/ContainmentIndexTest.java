@@ -24,6 +24,7 @@ import static org.apache.uima.fit.util.JCasUtil.select;
 import static org.apache.uima.fit.util.JCasUtil.selectCovered;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -40,6 +41,7 @@ import org.junit.jupiter.api.Test;
  * 
  */
 public class ContainmentIndexTest extends ComponentTestBase {
+  @SuppressWarnings("deprecation")
   @Test
   public void test() throws Exception {
     String text = "Will you come home today ? \n No , tomorrow !";
@@ -66,4 +68,39 @@ public class ContainmentIndexTest extends ComponentTestBase {
     idx = ContainmentIndex.create(jCas, Sentence.class, Token.class, Type.BOTH);
     assertFalse(idx.isContainedInAny(tokens.get(0)));
   }
+
+  @SuppressWarnings("deprecation")
+  @Test
+  public void thatIndexingStrategyIsIgnored() throws Exception {
+    tokenBuilder.buildTokens(jCas, "Will you come home today ? \n No , tomorrow !");
+
+    Sentence sentence = select(jCas, Sentence.class).iterator().next();
+    Token token = select(jCas, Token.class).iterator().next();
+
+    for (Type type : Type.values()) {
+      ContainmentIndex<Sentence, Token> idx = ContainmentIndex.create(jCas, Sentence.class,
+              Token.class, type);
+
+      assertEquals(selectCovered(Token.class, sentence), idx.containedIn(sentence));
+      assertEquals(asList(sentence), idx.containing(token));
+      assertTrue(idx.isContainedInAny(token));
+    }
+  }
+
+  @Test
+  public void thatLookupsOfUnindexedAnnotationsReturnEmptyCollections() throws Exception {
+    tokenBuilder.buildTokens(jCas, "Will you come home today ?");
+
+    ContainmentIndex<Sentence, Token> idx = ContainmentIndex.create(jCas, Sentence.class,
+            Token.class);
+
+    Sentence sentence = new Sentence(jCas, 0, 4);
+    Token token = new Token(jCas, 0, 4);
+
+    assertNotNull(idx.containedIn(sentence));
+    assertTrue(idx.containedIn(sentence).isEmpty());
+    assertNotNull(idx.containing(token));
+    assertTrue(idx.containing(token).isEmpty());
+    assertFalse(idx.isContainedInAny(token));
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.apache.uima.fit.util.JCasUtil.selectCovered;
+import static org.apache.uima.fit.util.JCasUtil.selectCovering;
+import static org.apache.uima.fit.util.JCasUtil.selectOverlapping;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link CoverageIndex}.
+ */
+public class CoverageIndexTest extends ComponentTestBase {
+  @Test
+  public void thatLookupsMatchSelections() throws Exception {
+    String text = "Will you come home today ? \n No , tomorrow !";
+    tokenBuilder.buildTokens(jCas, text);
+
+    List<Sentence> sentences = new ArrayList<Sentence>(select(jCas, Sentence.class));
+    List<Token> tokens = new ArrayList<Token>(select(jCas, Token.class));
+
+    CoverageIndex<Sentence, Token> idx = CoverageIndex.create(jCas, Sentence.class, Token.class);
+
+    assertThat(idx.getCoveringSize()).isEqualTo(sentences.size());
+    assertThat(idx.getCoveredSize()).isEqualTo(tokens.size());
+
+    assertThat(idx.getCovered(sentences.get(0)))
+            .containsExactlyElementsOf(selectCovered(Token.class, sentences.get(0)));
+    assertThat(idx.getCovering(tokens.get(0))).containsExactly(sentences.get(0));
+    assertThat(idx.getCovering(tokens.get(tokens.size() - 1))).containsExactly(sentences.get(1));
+
+    assertThat(idx.isCovered(sentences.get(0), tokens.get(0))).isTrue();
+    assertThat(idx.isCovered(sentences.get(0), tokens.get(tokens.size() - 1))).isFalse();
+  }
+
+  @Test
+  public void thatLookupsMatchSelectionsOnRandomData() throws Exception {
+    Random rnd = new Random();
+
+    for (int i = 0; i < 10; i++) {
+      jCas.reset();
+      for (int n = 0; n < 10 * i; n++) {
+        int begin = rnd.nextInt(100);
+        new Token(jCas, begin, begin + rnd.nextInt(30)).addToIndexes();
+        begin = rnd.nextInt(100);
+        new Sentence(jCas, begin, begin + rnd.nextInt(30)).addToIndexes();
+      }
+
+      CoverageIndex<Sentence, Token> idx = CoverageIndex.create(jCas, Sentence.class,
+              Token.class);
+
+      for (Sentence s : select(jCas, Sentence.class)) {
+        assertThat(idx.getCovered(s)).as("Covered by [" + s.getBegin() + ".." + s.getEnd() + "]")
+                .containsExactlyElementsOf(selectCovered(Token.class, s));
+
+        List<Token> actual = new ArrayList<>();
+        idx.forEachCovered(s.getBegin(), s.getEnd(), actual::add);
+        assertThat(actual).as("Covered by span [" + s.getBegin() + ".." + s.getEnd() + "]")
+                .containsExactlyElementsOf(
+                        selectCovered(jCas, Token.class, s.getBegin(), s.getEnd()));
+
+        actual.clear();
+        idx.forEachOverlapping(s.getBegin(), s.getEnd(), actual::add);
+        assertThat(actual).as("Overlapping [" + s.getBegin() + ".." + s.getEnd() + "]")
+                .containsExactlyElementsOf(
+                        selectOverlapping(jCas, Token.class, s.getBegin(), s.getEnd()));
+      }
+
+      for (Token t : select(jCas, Token.class)) {
+        assertThat(idx.getCovering(t)).as("Covering [" + t.getBegin() + ".." + t.getEnd() + "]")
+                .containsExactlyElementsOf(selectCovering(Sentence.class, t));
+
+        List<Sentence> actual = new ArrayList<>();
+        idx.forEachCovering(t.getBegin(), t.getEnd(), actual::add);
+        assertThat(actual).as("Covering span [" + t.getBegin() + ".." + t.getEnd() + "]")
+                .containsExactlyElementsOf(
+                        selectCovering(jCas, Sentence.class, t.getBegin(), t.getEnd()));
+      }
+    }
+  }
+}
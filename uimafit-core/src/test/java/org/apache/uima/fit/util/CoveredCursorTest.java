@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.apache.uima.fit.util.JCasUtil.selectCovered;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link CoveredCursor}.
+ */
+public class CoveredCursorTest extends ComponentTestBase {
+  @Test
+  public void thatTokensOfSentencesAreSelected() throws Exception {
+    tokenBuilder.buildTokens(jCas, "Will you come home today ? \n No , tomorrow !");
+
+    CoveredCursor<Token> cursor = CoveredCursor.create(jCas, Token.class);
+
+    for (Sentence s : select(jCas, Sentence.class)) {
+      List<Token> tokens = new ArrayList<>();
+      cursor.forEach(s, tokens::add);
+      assertThat(tokens).containsExactlyElementsOf(selectCovered(Token.class, s));
+    }
+  }
+
+  @Test
+  public void thatWindowsMustNotMoveBackwards() throws Exception {
+    tokenBuilder.buildTokens(jCas, "one two three");
+
+    CoveredCursor<Token> cursor = CoveredCursor.create(jCas, Token.class);
+    cursor.moveTo(4, 13);
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> cursor.moveTo(0, 3));
+  }
+
+  @Test
+  public void thatSelectionsMatchSelectCoveredOnRandomData() throws Exception {
+    Random rnd = new Random();
+
+    for (int i = 0; i < 10; i++) {
+      jCas.reset();
+      for (int n = 0; n < 10 * i; n++) {
+        int begin = rnd.nextInt(100);
+        new Annotation(jCas, begin, begin + rnd.nextInt(30)).addToIndexes();
+        begin = rnd.nextInt(100);
+        new Sentence(jCas, begin, begin + rnd.nextInt(30)).addToIndexes();
+      }
+
+      // Annotation subsumes Sentence, so the windows are also candidates of the selection
+      CoveredCursor<Annotation> byAnnotation = CoveredCursor.create(jCas, Annotation.class);
+      CoveredCursor<Annotation> byOffsets = CoveredCursor.create(jCas, Annotation.class);
+      for (Sentence s : select(jCas, Sentence.class)) {
+        String desc = "Covered by [" + s.getBegin() + ".." + s.getEnd() + "]";
+
+        assertThat(collect(byAnnotation.moveTo(s))).as(desc)
+                .containsExactlyElementsOf(selectCovered(Annotation.class, s));
+        assertThat(collect(byOffsets.moveTo(s.getBegin(), s.getEnd()))).as(desc)
+                .containsExactlyElementsOf(
+                        selectCovered(jCas, Annotation.class, s.getBegin(), s.getEnd()));
+      }
+    }
+  }
+
+  private static <T extends Annotation> List<T> collect(CoveredCursor<T> aCursor) {
+    List<T> result = new ArrayList<>();
+    while (aCursor.next()) {
+      result.add(aCursor.get());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static org.apache.uima.fit.util.FSUtil.setFeature;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.fit.util.FeatureAccessor.RangeKind;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FeatureAccessorTest {
+  private CAS cas;
+
+  private Type type;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory()
+            .createTypeSystemDescription();
+
+    TypeDescription td = tsd.addType("MyType", "", CAS.TYPE_NAME_TOP);
+    td.addFeature("IntValue", "", CAS.TYPE_NAME_INTEGER);
+    td.addFeature("DoubleValue", "", CAS.TYPE_NAME_DOUBLE);
+    td.addFeature("StringValue", "", CAS.TYPE_NAME_STRING);
+    td.addFeature("IntArrayValue", "", CAS.TYPE_NAME_INTEGER_ARRAY);
+    td.addFeature("IntListValue", "", CAS.TYPE_NAME_INTEGER_LIST);
+    td.addFeature("TopValue", "", CAS.TYPE_NAME_TOP);
+
+    cas = CasCreationUtils.createCas(tsd, null, null);
+    type = cas.getTypeSystem().getType("MyType");
+  }
+
+  @Test
+  public void thatPrimitiveFeaturesCanBeAccessed() {
+    FeatureStructure fs = cas.createFS(type);
+
+    FeatureAccessor intValue = FeatureAccessor.of(type, "IntValue");
+    intValue.setInt(fs, 42);
+    assertThat(intValue.getInt(fs)).isEqualTo(42);
+    assertThat(intValue.get(fs)).isEqualTo(42);
+
+    FeatureAccessor doubleValue = FeatureAccessor.of(cas, "MyType", "DoubleValue");
+    doubleValue.set(fs, 1);
+    assertThat(doubleValue.getDouble(fs)).isEqualTo(1.0d);
+    assertThat(doubleValue.get(fs)).isEqualTo(1.0d);
+
+    FeatureAccessor stringValue = FeatureAccessor.of(type, "StringValue");
+    stringValue.set(fs, "test");
+    assertThat(stringValue.getString(fs)).isEqualTo("test");
+    assertThat(stringValue.get(fs, String.class)).isEqualTo("test");
+  }
+
+  @Test
+  public void thatReferenceFeaturesCanBeAccessed() {
+    FeatureStructure fs = cas.createFS(type);
+    FeatureStructure other = cas.createFS(type);
+
+    FeatureAccessor topValue = FeatureAccessor.of(type, "TopValue");
+    topValue.set(fs, other);
+    assertThat((FeatureStructure) topValue.getFeatureStructure(fs)).isSameAs(other);
+    assertThat(topValue.get(fs)).isSameAs(other);
+  }
+
+  @Test
+  public void thatArrayIsNotCopied() {
+    FeatureStructure fs = cas.createFS(type);
+    setFeature(fs, "IntArrayValue", 1, 2, 3);
+
+    FeatureAccessor intArrayValue = FeatureAccessor.of(type, "IntArrayValue");
+    IntArrayFS array = intArrayValue.getIntArray(fs);
+    array.set(0, 10);
+
+    assertThat(intArrayValue.getIntArray(fs)).isSameAs(array);
+    assertThat(intArrayValue.get(fs, IntArrayFS.class)).isSameAs(array);
+    assertThat(intArrayValue.get(fs, int[].class)).containsExactly(10, 2, 3);
+  }
+
+  @Test
+  public void thatRangeKindIsDetermined() {
+    assertThat(FeatureAccessor.of(type, "IntValue").getRangeKind()).isEqualTo(RangeKind.INTEGER);
+    assertThat(FeatureAccessor.of(type, "DoubleValue").getRangeKind()).isEqualTo(RangeKind.DOUBLE);
+    assertThat(FeatureAccessor.of(type, "StringValue").getRangeKind()).isEqualTo(RangeKind.STRING);
+    assertThat(FeatureAccessor.of(type, "IntArrayValue").getRangeKind())
+            .isEqualTo(RangeKind.ARRAY);
+    assertThat(FeatureAccessor.of(type, "IntListValue").getRangeKind()).isEqualTo(RangeKind.LIST);
+    assertThat(FeatureAccessor.of(type, "TopValue").getRangeKind())
+            .isEqualTo(RangeKind.FEATURE_STRUCTURE);
+
+    assertThat(FeatureAccessor.of(type, "StringValue").isPrimitive()).isTrue();
+    assertThat(FeatureAccessor.of(type, "IntArrayValue").isPrimitive()).isFalse();
+  }
+
+  @Test
+  public void thatUnknownFeatureIsRejected() {
+    assertThatExceptionOfType(IllegalArgumentException.class) //
+            .isThrownBy(() -> FeatureAccessor.of(type, "NoSuchFeature"));
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.descriptor.FsIndex;
+import org.apache.uima.fit.descriptor.FsIndexKey;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link FeatureValueIndex}.
+ */
+public class FeatureValueIndexTest extends ComponentTestBase {
+  private static final String[] POS = { "NN", "VB", "DT", null };
+
+  @Test
+  public void thatStringLookupsMatchScan() throws Exception {
+    createTokens();
+
+    FeatureValueIndex<Token> idx = FeatureValueIndex.create(jCas, Token.class, "pos");
+
+    assertThat(idx.size()).isEqualTo(select(jCas, Token.class).size());
+    for (String pos : POS) {
+      assertThat(idx.select(pos)).as("pos = " + pos).containsExactlyElementsOf(
+              select(jCas, Token.class).stream()
+                      .filter(t -> Objects.equals(t.getPos(), pos))
+                      .collect(toList()));
+    }
+    assertThat(idx.select("JJ")).isEmpty();
+
+    assertThat(idx.selectIn(asList("VB", "NN"))).extracting(Token::getPos)
+            .containsOnly("VB", "NN").startsWith("VB").endsWith("NN")
+            .hasSize(idx.select("VB").size() + idx.select("NN").size());
+
+    assertThat(idx.selectRange("DT", "NN")).extracting(Token::getPos)
+            .isSorted().containsOnly("DT", "NN");
+    assertThat(idx.selectRange(null, null)).hasSize(idx.size());
+
+    assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> idx.select(1L));
+    assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> idx.select(1));
+  }
+
+  @Test
+  public void thatIntegralLookupsMatchScan() throws Exception {
+    createTokens();
+
+    FeatureValueIndex<Token> idx = FeatureValueIndex.create(jCas, Token.class, "begin");
+
+    for (int begin = 0; begin < 60; begin++) {
+      int b = begin;
+      List<Token> expected = select(jCas, Token.class).stream().filter(t -> t.getBegin() == b)
+              .collect(toList());
+      assertThat(idx.select(begin)).as("begin = " + begin).containsExactlyElementsOf(expected);
+      assertThat(idx.select((Object) begin)).as("begin = " + begin)
+              .containsExactlyElementsOf(expected);
+    }
+
+    List<Token> expected = new ArrayList<>();
+    expected.addAll(idx.select(7));
+    expected.addAll(idx.select(3));
+    expected.addAll(idx.select(12));
+    assertThat(idx.selectIn(asList(7, 99, 3, 12L))).containsExactlyElementsOf(expected);
+    assertThat(idx.selectIn(asList(99, -1))).isEmpty();
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> idx.selectIn(asList(3)).remove(0));
+
+    assertThat(idx.selectRange(10, 20)).extracting(Token::getBegin)
+            .containsExactlyElementsOf(select(jCas, Token.class).stream()
+                    .map(Token::getBegin).filter(b -> b >= 10 && b <= 20).collect(toList()));
+  }
+
+  @Test
+  public void thatFloatQueriesAreRoundedToFeaturePrecision() throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory()
+            .createTypeSystemDescription();
+    TypeDescription td = tsd.addType("test.Scored", "", CAS.TYPE_NAME_ANNOTATION);
+    td.addFeature("score", "", CAS.TYPE_NAME_FLOAT);
+    td.addFeature("weight", "", CAS.TYPE_NAME_DOUBLE);
+
+    CAS cas = CasCreationUtils.createCas(tsd, null, null);
+    Type type = cas.getTypeSystem().getType("test.Scored");
+    AnnotationFS scored = cas.createAnnotation(type, 0, 0);
+    scored.setFloatValue(type.getFeatureByBaseName("score"), 0.1f);
+    scored.setDoubleValue(type.getFeatureByBaseName("weight"), 0.1);
+    cas.addFsToIndexes(scored);
+
+    FeatureValueIndex<FeatureStructure> byScore = FeatureValueIndex.create(cas, type, "score");
+    assertThat(byScore.select(0.1f)).containsExactly(scored);
+    assertThat(byScore.select(0.1)).containsExactly(scored);
+    assertThat(byScore.selectIn(asList(0.2, 0.1))).containsExactly(scored);
+    assertThat(byScore.selectRange(0.1, 0.1)).containsExactly(scored);
+
+    FeatureValueIndex<FeatureStructure> byWeight = FeatureValueIndex.create(cas, type, "weight");
+    assertThat(byWeight.select(0.1)).containsExactly(scored);
+    assertThat(byWeight.select(0.1f)).isEmpty();
+  }
+
+  @Test
+  public void thatCombinedLookupsMatchScan() throws Exception {
+    createTokens();
+
+    FeatureValueIndex<Token> idx = FeatureValueIndex.create(jCas, Token.class, "pos", "begin");
+
+    for (Token t : select(jCas, Token.class)) {
+      assertThat(idx.select(t.getPos(), t.getBegin())).contains(t)
+              .allMatch(o -> Objects.equals(o.getPos(), t.getPos()))
+              .allMatch(o -> o.getBegin() == t.getBegin());
+    }
+    assertThat(idx.select("JJ", 0)).isEmpty();
+
+    assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> idx.select("NN"));
+    assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> idx.select("NN", "x"));
+  }
+
+  @Test
+  public void thatIndexCanBeCreatedFromDeclaration() throws Exception {
+    createTokens();
+
+    FeatureValueIndex<FeatureStructure> idx = FeatureValueIndex.create(jCas.getCas(),
+            IndexedComponent.class, "byPos");
+
+    assertThat(idx.select("NN")).containsExactlyElementsOf(
+            FeatureValueIndex.create(jCas, Token.class, "pos").select("NN"));
+
+    assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(
+            () -> FeatureValueIndex.create(jCas.getCas(), IndexedComponent.class, "unknown"));
+  }
+
+  private void createTokens() {
+    Random rnd = new Random();
+    for (int n = 0; n < 200; n++) {
+      int begin = rnd.nextInt(50);
+      Token t = new Token(jCas, begin, begin + rnd.nextInt(5));
+      t.setPos(POS[rnd.nextInt(POS.length)]);
+      t.addToIndexes();
+    }
+  }
+
+  @FsIndex(label = "byPos", type = Token.class, kind = FsIndex.KIND_SORTED, keys = {
+      @FsIndexKey(featureName = "pos") })
+  public static class IndexedComponent extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas aJCas) {
+      // Nothing to do
+    }
+  }
+}
@@ -598,6 +598,19 @@ public class JCasUtilTest extends ComponentTestBase {
     assertEquals(token.get(2).getCoveredText(), following.getCoveredText());
   }
 
+  @Test
+  public void testSelectSingleRelativeMoreThanOneAway() {
+    String text = "one two three four five";
+    tokenBuilder.buildTokens(jCas, text);
+    List<Token> token = new ArrayList<Token>(select(jCas, Token.class));
+
+    assertThat(selectSingleRelative(jCas, Token.class, token.get(0), 2)).isSameAs(token.get(2));
+    assertThat(selectSingleRelative(jCas, Token.class, token.get(1), 3)).isSameAs(token.get(4));
+    assertThat(selectSingleRelative(jCas, Token.class, token.get(4), -3)).isSameAs(token.get(1));
+    assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> selectSingleRelative(jCas, Token.class, token.get(2), 3));
+  }
+
   @Test
   public void testSingleRelativePreceedingDifferentType() {
     String text = "one two three";
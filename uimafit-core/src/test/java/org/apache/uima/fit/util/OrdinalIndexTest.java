@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.apache.uima.fit.util.JCasUtil.selectByIndex;
+import static org.apache.uima.fit.util.JCasUtil.selectSingleRelative;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.type.Sentence;
+import org.apache.uima.fit.type.Token;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link OrdinalIndex}.
+ */
+public class OrdinalIndexTest extends ComponentTestBase {
+  @Test
+  public void thatOrdinalsMatchIndexOrder() throws Exception {
+    tokenBuilder.buildTokens(jCas, "Will you come home today ? \n No , tomorrow !");
+    List<Token> tokens = new ArrayList<>(select(jCas, Token.class));
+
+    OrdinalIndex<Token> idx = OrdinalIndex.create(jCas, Token.class);
+
+    assertThat(idx.size()).isEqualTo(tokens.size());
+    assertThat(idx.asList()).containsExactlyElementsOf(tokens);
+    for (int i = 0; i < tokens.size(); i++) {
+      assertThat(idx.get(i)).isSameAs(tokens.get(i));
+      assertThat(idx.ordinal(tokens.get(i))).isEqualTo(i);
+    }
+
+    assertThat(idx.getNeighbour(tokens.get(1), 3)).isSameAs(tokens.get(4));
+    assertThat(idx.getNeighbour(tokens.get(1), -1)).isSameAs(tokens.get(0));
+    assertThat(idx.getNeighbour(tokens.get(1), -2)).isNull();
+    assertThat(idx.getNeighbour(tokens.get(1), tokens.size())).isNull();
+    assertThat(idx.ordinal(new Token(jCas, 0, 4))).isEqualTo(-1);
+    assertThat(idx.ordinal(select(jCas, Sentence.class).iterator().next())).isEqualTo(-1);
+  }
+
+  @Test
+  public void thatSelectionsMatchCasUtil() throws Exception {
+    Random rnd = new Random();
+
+    for (int i = 0; i < 10; i++) {
+      jCas.reset();
+      for (int n = 0; n < 10 * i; n++) {
+        int begin = rnd.nextInt(100);
+        new Token(jCas, begin, begin + rnd.nextInt(10)).addToIndexes();
+      }
+
+      OrdinalIndex<Token> idx = OrdinalIndex.create(jCas, Token.class);
+      int size = idx.size();
+      for (int n = 0; n < size; n++) {
+        assertThat(idx.get(n)).isSameAs(selectByIndex(jCas, Token.class, n));
+      }
+
+      List<Token> anchors = new ArrayList<>(select(jCas, Token.class));
+      // Anchors which are not part of the index
+      for (int n = 0; n < 20; n++) {
+        int begin = rnd.nextInt(100);
+        anchors.add(new Token(jCas, begin, begin + rnd.nextInt(10)));
+      }
+
+      for (Token t : anchors) {
+        for (int p = -3; p <= 3; p++) {
+          int position = p;
+          assertThat(relative(() -> idx.selectSingleRelative(t, position))).isEqualTo(
+                  relative(() -> selectSingleRelative(jCas, Token.class, t, position)));
+        }
+      }
+    }
+  }
+
+  private static Object relative(Supplier<Token> aSelection) {
+    try {
+      return aSelection.get();
+    } catch (IndexOutOfBoundsException e) {
+      return e.getClass();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.util;
+
+import static org.apache.uima.fit.util.JCasUtil.select;
+import static org.apache.uima.fit.util.JCasUtil.selectAt;
+import static org.apache.uima.fit.util.JCasUtil.selectSingleAt;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.fit.ComponentTestBase;
+import org.apache.uima.fit.type.Token;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link SpanIndex}.
+ */
+public class SpanIndexTest extends ComponentTestBase {
+  @Test
+  public void thatLookupsMatchSelections() throws Exception {
+    String text = "Will you come home today ? \n No , tomorrow !";
+    tokenBuilder.buildTokens(jCas, text);
+    Token duplicate = new Token(jCas, 0, 4);
+    duplicate.addToIndexes();
+
+    SpanIndex<Token> idx = SpanIndex.create(jCas, Token.class);
+
+    assertThat(idx.size()).isEqualTo(select(jCas, Token.class).size());
+    assertThat(idx.selectAt(0, 4)).hasSize(2).contains(duplicate)
+            .containsExactlyElementsOf(selectAt(jCas, Token.class, 0, 4));
+    assertThat(idx.count(0, 4)).isEqualTo(2);
+    assertThat(idx.selectSingleAt(5, 8)).isSameAs(selectSingleAt(jCas, Token.class, 5, 8));
+    assertThat(idx.contains(0, 8)).isFalse();
+    assertThat(idx.selectAt(0, 8)).isEmpty();
+
+    assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> idx.selectSingleAt(0, 4));
+    assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> idx.selectSingleAt(0, 8));
+
+    List<Token> visited = new ArrayList<>();
+    idx.forEachAt(0, 4, visited::add);
+    assertThat(visited).containsExactlyElementsOf(idx.selectAt(0, 4));
+  }
+
+  @Test
+  public void thatLookupsMatchSelectionsOnRandomData() throws Exception {
+    Random rnd = new Random();
+
+    for (int i = 0; i < 10; i++) {
+      jCas.reset();
+      for (int n = 0; n < 10 * i; n++) {
+        int begin = rnd.nextInt(50);
+        new Token(jCas, begin, begin + rnd.nextInt(5)).addToIndexes();
+        begin = rnd.nextInt(50);
+        new Annotation(jCas, begin, begin + rnd.nextInt(5)).addToIndexes();
+      }
+
+      SpanIndex<Annotation> idx = SpanIndex.create(jCas, Annotation.class);
+
+      for (int begin = 0; begin < 55; begin++) {
+        for (int end = begin; end < 60; end++) {
+          assertThat(idx.selectAt(begin, end)).as("At [" + begin + ".." + end + "]")
+                  .containsExactlyElementsOf(selectAt(jCas, Annotation.class, begin, end));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,598 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.cpe;
+
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createShardReaderDescription;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.fit.component.ShardableCollectionReader;
+import org.apache.uima.fit.cpe.PipelineMetrics.StageMetrics;
+import org.apache.uima.fit.internal.DescriptionUtils;
+import org.apache.uima.fit.internal.ResourceManagerFactory;
+import org.apache.uima.fit.util.LifeCycleUtil;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.util.CasPool;
+
+/**
+ * Multi-threaded pipeline which runs a collection reader and a sequence of analysis engine stages
+ * without going through a CPE descriptor. Each stage is served by a configurable number of threads,
+ * each with its own replica of the stage's analysis engine, and reads CASes from a bounded queue.
+ * The reader obtains its CASes from a {@link CasPool} which bounds the number of documents in
+ * flight. A full queue or an empty pool blocks the upstream stage, so a slow stage throttles the
+ * reader instead of letting work pile up.
+ * <p>
+ * Processing can be observed while it is running via {@link #getMetrics()} or periodically via
+ * {@link #setMetricsListener(Consumer, long)}.
+ * <p>
+ * If the reader is a bottleneck and implements {@link ShardableCollectionReader}, it can be run on
+ * several threads as well via {@link #setReader(CollectionReaderDescription, int)}.
+ *
+ * <pre>
+ * ParallelPipeline pipeline = new ParallelPipeline();
+ * pipeline.setReader(readerDesc);
+ * pipeline.addStage(tokenizerDesc, 4);
+ * pipeline.addStage(writerDesc, 1);
+ * pipeline.run();
+ * </pre>
+ */
+public class ParallelPipeline {
+
+  private static final Job POISON = new Job(null);
+
+  private static final long CAS_WAIT_MILLIS = 100;
+
+  private final List<Stage> stages = new ArrayList<>();
+
+  private CollectionReaderDescription readerDesc;
+
+  private int readerThreads = 1;
+
+  private int casPoolSize = 0;
+
+  private boolean failFast = true;
+
+  private Consumer<PipelineMetrics> metricsListener;
+
+  private long metricsInterval;
+
+  private volatile PipelineMetrics metrics = new PipelineMetrics();
+
+  /**
+   * Set the reader which produces the documents. The reader runs on the thread calling
+   * {@link #run()}.
+   *
+   * @param aReaderDesc
+   *          the reader description.
+   */
+  public void setReader(CollectionReaderDescription aReaderDesc) {
+    setReader(aReaderDesc, 1);
+  }
+
+  /**
+   * Set the reader which produces the documents. If more than one thread is used, the input is
+   * split into one shard per thread and each thread runs its own reader instance configured to
+   * read its shard. The first reader runs on the thread calling {@link #run()}.
+   *
+   * @param aReaderDesc
+   *          the reader description.
+   * @param aThreads
+   *          the number of threads. If larger than one, the reader must be a
+   *          {@link ShardableCollectionReader}.
+   */
+  public void setReader(CollectionReaderDescription aReaderDesc, int aThreads) {
+    if (aThreads < 1) {
+      throw new IllegalArgumentException("Number of threads must be at least 1");
+    }
+
+    if (aThreads > 1) {
+      // Fails if the reader does not declare the shard parameters
+      createShardReaderDescription(aReaderDesc, 0, aThreads);
+    }
+
+    readerDesc = aReaderDesc;
+    readerThreads = aThreads;
+  }
+
+  /**
+   * Add a stage served by a single thread.
+   *
+   * @param aDesc
+   *          the analysis engine description.
+   */
+  public void addStage(AnalysisEngineDescription aDesc) {
+    addStage(aDesc, 1);
+  }
+
+  /**
+   * Add a stage. The queue of the stage can hold twice as many CASes as there are threads.
+   *
+   * @param aDesc
+   *          the analysis engine description.
+   * @param aThreads
+   *          the number of threads. If larger than one, the engine must allow multiple
+   *          deployment.
+   */
+  public void addStage(AnalysisEngineDescription aDesc, int aThreads) {
+    addStage(aDesc, aThreads, 2 * aThreads);
+  }
+
+  /**
+   * Add a stage.
+   *
+   * @param aDesc
+   *          the analysis engine description.
+   * @param aThreads
+   *          the number of threads. If larger than one, the engine must allow multiple
+   *          deployment.
+   * @param aQueueCapacity
+   *          the number of CASes which may wait for the stage.
+   */
+  public void addStage(AnalysisEngineDescription aDesc, int aThreads, int aQueueCapacity) {
+    if (aThreads < 1) {
+      throw new IllegalArgumentException("Number of threads must be at least 1");
+    }
+
+    if (aQueueCapacity < 1) {
+      throw new IllegalArgumentException("Queue capacity must be at least 1");
+    }
+
+    if (aThreads > 1 && !DescriptionUtils.isMultipleDeploymentAllowed(aDesc)) {
+      throw new IllegalArgumentException("Stage [" + getName(aDesc, stages.size())
+              + "] does not allow multiple deployment and cannot use multiple threads");
+    }
+
+    stages.add(new Stage(aDesc, aThreads, aQueueCapacity));
+  }
+
+  /**
+   * Set the number of CASes shared by all stages. By default, the pool holds twice as many CASes as
+   * there are stage threads in total.
+   *
+   * @param aCasPoolSize
+   *          the number of CASes.
+   */
+  public void setCasPoolSize(int aCasPoolSize) {
+    if (aCasPoolSize < 1) {
+      throw new IllegalArgumentException("CAS pool size must be at least 1");
+    }
+    casPoolSize = aCasPoolSize;
+  }
+
+  /**
+   * Whether to stop processing at the first failure (the default). Otherwise, a CAS which fails in
+   * one stage is skipped by the remaining stages and processing continues with the next document.
+   * In both cases, {@link #run()} throws the first failure.
+   *
+   * @param aFailFast
+   *          whether to stop at the first failure.
+   */
+  public void setFailFast(boolean aFailFast) {
+    failFast = aFailFast;
+  }
+
+  /**
+   * Periodically report the metrics while the pipeline is running and once more when it is done.
+   *
+   * @param aListener
+   *          the listener receiving the metrics.
+   * @param aIntervalMillis
+   *          the reporting interval in milliseconds.
+   */
+  public void setMetricsListener(Consumer<PipelineMetrics> aListener, long aIntervalMillis) {
+    if (aIntervalMillis < 1) {
+      throw new IllegalArgumentException("Reporting interval must be at least 1ms");
+    }
+    metricsListener = aListener;
+    metricsInterval = aIntervalMillis;
+  }
+
+  /**
+   * @return the metrics of the current or most recent run.
+   */
+  public PipelineMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Run the pipeline until the reader is exhausted.
+   *
+   * @throws ResourceInitializationException
+   *           if a component could not be initialized.
+   * @throws AnalysisEngineProcessException
+   *           if a stage failed to process a document.
+   * @throws CollectionException
+   *           if the reader failed to produce a document.
+   * @throws IOException
+   *           if the reader failed to produce a document.
+   */
+  public void run() throws ResourceInitializationException, AnalysisEngineProcessException,
+          CollectionException, IOException {
+    if (readerDesc == null) {
+      throw new IllegalStateException("No reader has been set");
+    }
+
+    if (stages.isEmpty()) {
+      throw new IllegalStateException("No stages have been added");
+    }
+
+    Failures failures = new Failures();
+    ResourceManager resMgr = null;
+    CollectionReader[] readers = new CollectionReader[readerThreads];
+    List<AnalysisEngine[]> engines = new ArrayList<>();
+    ExecutorService executor = null;
+    ScheduledExecutorService reporter = null;
+    PipelineMetrics runMetrics = new PipelineMetrics();
+    try {
+      resMgr = ResourceManagerFactory.newResourceManager();
+
+      for (int i = 0; i < readers.length; i++) {
+        CollectionReaderDescription desc = readers.length > 1
+                ? createShardReaderDescription(readerDesc, i, readers.length)
+                : readerDesc;
+        readers[i] = UIMAFramework.produceCollectionReader(desc, resMgr, null);
+      }
+
+      List<ProcessingResourceMetaData> metaData = new ArrayList<>();
+      metaData.add(readers[0].getProcessingResourceMetaData());
+
+      int totalThreads = 0;
+      for (Stage stage : stages) {
+        AnalysisEngine[] replicas = new AnalysisEngine[stage.threads];
+        engines.add(replicas);
+        for (int i = 0; i < replicas.length; i++) {
+          replicas[i] = UIMAFramework.produceAnalysisEngine(stage.desc, resMgr, null);
+        }
+        metaData.add(replicas[0].getAnalysisEngineMetaData());
+        totalThreads += stage.threads;
+      }
+
+      CasPool casPool = new CasPool(casPoolSize > 0 ? casPoolSize : 2 * totalThreads, metaData,
+              resMgr);
+      CAS first = casPool.getCas(0);
+      try {
+        for (CollectionReader reader : readers) {
+          reader.typeSystemInit(first.getTypeSystem());
+        }
+      } finally {
+        casPool.releaseCas(first);
+      }
+
+      List<BlockingQueue<Job>> queues = new ArrayList<>();
+      List<StageMetrics> stageMetrics = new ArrayList<>();
+      for (int i = 0; i < stages.size(); i++) {
+        Stage stage = stages.get(i);
+        BlockingQueue<Job> queue = new ArrayBlockingQueue<>(stage.queueCapacity);
+        queues.add(queue);
+        stageMetrics.add(runMetrics.addStage(getName(stage.desc, i), stage.threads, queue,
+                stage.queueCapacity));
+      }
+      metrics = runMetrics;
+
+      AtomicInteger threadCounter = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(totalThreads + readers.length - 1, r -> {
+        Thread t = new Thread(r, "uimafit-parallel-pipeline-" + threadCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+
+      if (metricsListener != null) {
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+          Thread t = new Thread(r, "uimafit-parallel-pipeline-metrics");
+          t.setDaemon(true);
+          return t;
+        });
+        reporter.scheduleAtFixedRate(() -> metricsListener.accept(runMetrics), metricsInterval,
+                metricsInterval, TimeUnit.MILLISECONDS);
+      }
+
+      runMetrics.start();
+
+      List<Future<?>> workers = new ArrayList<>();
+      for (int i = 0; i < stages.size(); i++) {
+        boolean last = i == stages.size() - 1;
+        BlockingQueue<Job> input = queues.get(i);
+        BlockingQueue<Job> output = last ? null : queues.get(i + 1);
+        StageMetrics inputMetrics = stageMetrics.get(i);
+        StageMetrics outputMetrics = last ? null : stageMetrics.get(i + 1);
+        int downstreamThreads = last ? 0 : stages.get(i + 1).threads;
+        AtomicInteger active = new AtomicInteger(stages.get(i).threads);
+        for (AnalysisEngine engine : engines.get(i)) {
+          workers.add(executor.submit(() -> work(engine, input, inputMetrics, output,
+                  outputMetrics, downstreamThreads, active, casPool, runMetrics, failures)));
+        }
+      }
+
+      List<Future<?>> readerTasks = new ArrayList<>();
+      for (int i = 1; i < readers.length; i++) {
+        CollectionReader reader = readers[i];
+        readerTasks.add(executor.submit(() -> read(reader, casPool, queues.get(0),
+                stageMetrics.get(0), runMetrics, failures)));
+      }
+
+      try {
+        read(readers[0], casPool, queues.get(0), stageMetrics.get(0), runMetrics, failures);
+      } finally {
+        // The first stage may only finish once all readers are done
+        await(readerTasks, failures);
+        for (int i = 0; i < stages.get(0).threads; i++) {
+          put(queues.get(0), POISON);
+        }
+        await(workers, failures);
+        runMetrics.stop();
+      }
+
+      failures.rethrow();
+
+      // Signal end of processing
+      for (AnalysisEngine[] replicas : engines) {
+        LifeCycleUtil.collectionProcessComplete(replicas);
+      }
+    } finally {
+      if (reporter != null) {
+        reporter.shutdownNow();
+        try {
+          // The final report must not overlap with a scheduled report which is still running
+          reporter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+          metricsListener.accept(runMetrics);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+
+      // Close and destroy
+      for (CollectionReader reader : readers) {
+        LifeCycleUtil.close(reader);
+      }
+      LifeCycleUtil.destroy(readers);
+      for (AnalysisEngine[] replicas : engines) {
+        LifeCycleUtil.destroy(replicas);
+      }
+      LifeCycleUtil.destroy(resMgr);
+    }
+  }
+
+  private Void read(CollectionReader aReader, CasPool aCasPool, BlockingQueue<Job> aOutput,
+          StageMetrics aOutputMetrics, PipelineMetrics aMetrics, Failures aFailures) {
+    try {
+      while (!aFailures.isAborted() && aReader.hasNext()) {
+        CAS cas = takeCas(aCasPool, aFailures);
+        if (cas == null) {
+          break;
+        }
+
+        long start = System.nanoTime();
+        try {
+          aReader.getNext(cas);
+        } catch (Throwable e) {
+          aCasPool.releaseCas(cas);
+          throw e;
+        }
+        aMetrics.documentRead(System.nanoTime() - start);
+
+        put(aOutput, new Job(cas));
+        aOutputMetrics.enqueued();
+      }
+    } catch (Throwable e) {
+      // A failing reader stops, but other readers continue unless processing is fail-fast
+      aFailures.add(e);
+    }
+    return null;
+  }
+
+  /**
+   * Waits for a free CAS. Stops waiting once processing has been aborted, so a reader cannot be
+   * blocked forever by a CAS that is never returned to the pool.
+   *
+   * @return a CAS or {@code null} if processing has been aborted.
+   */
+  private static CAS takeCas(CasPool aCasPool, Failures aFailures) {
+    while (!aFailures.isAborted()) {
+      CAS cas = aCasPool.getCas(CAS_WAIT_MILLIS);
+      if (cas != null) {
+        return cas;
+      }
+    }
+    return null;
+  }
+
+  private Void work(AnalysisEngine aEngine, BlockingQueue<Job> aInput, StageMetrics aInputMetrics,
+          BlockingQueue<Job> aOutput, StageMetrics aOutputMetrics, int aDownstreamThreads,
+          AtomicInteger aActive, CasPool aCasPool, PipelineMetrics aMetrics, Failures aFailures)
+          throws InterruptedException {
+    try {
+      while (true) {
+        Job job = aInput.take();
+        if (job == POISON) {
+          return null;
+        }
+
+        // Once processing has been aborted, CASes are only released so that the reader is not
+        // blocked waiting for the pool. Errors are recorded as well - if they ended the thread, the
+        // CAS would never be released.
+        boolean ok = false;
+        try {
+          if (!aFailures.isAborted()) {
+            long start = System.nanoTime();
+            try {
+              aEngine.process(job.cas);
+              ok = true;
+            } catch (Throwable e) {
+              aFailures.add(e);
+              aMetrics.documentFailed();
+            } finally {
+              aInputMetrics.getLatency().record(System.nanoTime() - start);
+            }
+          }
+        } finally {
+          if (ok && aOutput != null) {
+            aOutput.put(job);
+            aOutputMetrics.enqueued();
+          } else {
+            if (ok) {
+              aMetrics.documentCompleted();
+            }
+            aCasPool.releaseCas(job.cas);
+          }
+        }
+      }
+    } finally {
+      // The last thread of a stage to finish tells the threads of the next stage to finish. This
+      // also happens if a thread ends abnormally so the next stage does not wait forever.
+      if (aActive.decrementAndGet() == 0 && aOutput != null) {
+        for (int i = 0; i < aDownstreamThreads; i++) {
+          aOutput.put(POISON);
+        }
+      }
+    }
+  }
+
+  private static void put(BlockingQueue<Job> aQueue, Job aJob)
+          throws AnalysisEngineProcessException {
+    try {
+      aQueue.put(aJob);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+
+  private static void await(List<Future<?>> aFutures, Failures aFailures)
+          throws AnalysisEngineProcessException {
+    for (Future<?> future : aFutures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AnalysisEngineProcessException(e);
+      } catch (ExecutionException e) {
+        aFailures.add(e.getCause() != null ? e.getCause() : e);
+      }
+    }
+  }
+
+  private static String getName(AnalysisEngineDescription aDesc, int aIndex) {
+    String name = aDesc.getAnalysisEngineMetaData().getName();
+    return name != null ? name : "stage-" + aIndex;
+  }
+
+  private static class Stage {
+    final AnalysisEngineDescription desc;
+
+    final int threads;
+
+    final int queueCapacity;
+
+    Stage(AnalysisEngineDescription aDesc, int aThreads, int aQueueCapacity) {
+      desc = aDesc;
+      threads = aThreads;
+      queueCapacity = aQueueCapacity;
+    }
+  }
+
+  private static class Job {
+    final CAS cas;
+
+    Job(CAS aCas) {
+      cas = aCas;
+    }
+  }
+
+  /**
+   * Collects failures. In fail-fast mode, the first failure aborts processing.
+   */
+  private class Failures {
+    private final List<Throwable> exceptions = new ArrayList<>();
+
+    private volatile boolean aborted;
+
+    synchronized void add(Throwable aException) {
+      if (exceptions.isEmpty()) {
+        exceptions.add(aException);
+      } else if (exceptions.get(0).getSuppressed().length < 100) {
+        exceptions.get(0).addSuppressed(aException);
+      }
+
+      if (failFast) {
+        aborted = true;
+      }
+    }
+
+    boolean isAborted() {
+      return aborted;
+    }
+
+    synchronized void rethrow() throws IOException, AnalysisEngineProcessException,
+            CollectionException {
+      if (exceptions.isEmpty()) {
+        return;
+      }
+
+      Throwable e = exceptions.get(0);
+
+      if (e instanceof AnalysisEngineProcessException) {
+        throw (AnalysisEngineProcessException) e;
+      }
+
+      if (e instanceof CollectionException) {
+        throw (CollectionException) e;
+      }
+
+      if (e instanceof IOException) {
+        throw (IOException) e;
+      }
+
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.cpe;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.uima.fit.pipeline.LatencyHistogram;
+
+/**
+ * Live metrics of a {@link ParallelPipeline}. All values can be read from any thread while the
+ * pipeline is running.
+ */
+public final class PipelineMetrics {
+  private final LatencyHistogram readerLatency = new LatencyHistogram();
+
+  private final List<StageMetrics> stages = new ArrayList<>();
+
+  private final LongAdder documentsRead = new LongAdder();
+
+  private final LongAdder documentsCompleted = new LongAdder();
+
+  private final LongAdder documentsFailed = new LongAdder();
+
+  private volatile long startTime;
+
+  private volatile long endTime;
+
+  PipelineMetrics() {
+    // Created by the pipeline
+  }
+
+  StageMetrics addStage(String aName, int aThreads, BlockingQueue<?> aQueue, int aQueueCapacity) {
+    StageMetrics stage = new StageMetrics(aName, aThreads, aQueue, aQueueCapacity);
+    stages.add(stage);
+    return stage;
+  }
+
+  void start() {
+    startTime = System.nanoTime();
+  }
+
+  void stop() {
+    endTime = System.nanoTime();
+  }
+
+  void documentRead(long aNanos) {
+    readerLatency.record(aNanos);
+    documentsRead.increment();
+  }
+
+  void documentCompleted() {
+    documentsCompleted.increment();
+  }
+
+  void documentFailed() {
+    documentsFailed.increment();
+  }
+
+  /**
+   * @return the time taken by the reader to fill a CAS.
+   */
+  public LatencyHistogram getReaderLatency() {
+    return readerLatency;
+  }
+
+  /**
+   * @return the metrics of the analysis engine stages in pipeline order.
+   */
+  public List<StageMetrics> getStages() {
+    return unmodifiableList(stages);
+  }
+
+  /**
+   * @return the number of documents produced by the reader.
+   */
+  public long getDocumentsRead() {
+    return documentsRead.sum();
+  }
+
+  /**
+   * @return the number of documents which have passed all stages.
+   */
+  public long getDocumentsCompleted() {
+    return documentsCompleted.sum();
+  }
+
+  /**
+   * @return the number of documents which could not be processed.
+   */
+  public long getDocumentsFailed() {
+    return documentsFailed.sum();
+  }
+
+  /**
+   * @return the time since processing started or the total processing time once the pipeline has
+   *         finished in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    long start = startTime;
+    if (start == 0) {
+      return 0;
+    }
+
+    long end = endTime;
+    return (end != 0 ? end : System.nanoTime()) - start;
+  }
+
+  /**
+   * @return the number of completed documents per second.
+   */
+  public double getDocumentsPerSecond() {
+    long elapsed = getElapsedNanos();
+    return elapsed == 0 ? 0 : getDocumentsCompleted() * 1_000_000_000.0 / elapsed;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("read=%d completed=%d failed=%d docs/sec=%.2f", getDocumentsRead(),
+            getDocumentsCompleted(), getDocumentsFailed(), getDocumentsPerSecond()));
+    sb.append("\n  [reader] ").append(readerLatency);
+    for (StageMetrics stage : stages) {
+      sb.append("\n  ").append(stage);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Live metrics of a single stage of a {@link ParallelPipeline}.
+   */
+  public static final class StageMetrics {
+    private final String name;
+
+    private final int threads;
+
+    private final BlockingQueue<?> queue;
+
+    private final int queueCapacity;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAccumulator maxQueueSize = new LongAccumulator(Math::max, 0);
+
+    private StageMetrics(String aName, int aThreads, BlockingQueue<?> aQueue,
+            int aQueueCapacity) {
+      name = aName;
+      threads = aThreads;
+      queue = aQueue;
+      queueCapacity = aQueueCapacity;
+    }
+
+    void enqueued() {
+      maxQueueSize.accumulate(queue.size());
+    }
+
+    /**
+     * @return the name of the stage.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the number of threads processing CASes in this stage.
+     */
+    public int getThreads() {
+      return threads;
+    }
+
+    /**
+     * @return the time taken by the analysis engine to process a CAS.
+     */
+    public LatencyHistogram getLatency() {
+      return latency;
+    }
+
+    /**
+     * @return the number of CASes currently waiting for this stage.
+     */
+    public int getQueueSize() {
+      return queue.size();
+    }
+
+    /**
+     * @return the maximum number of CASes which may wait for this stage.
+     */
+    public int getQueueCapacity() {
+      return queueCapacity;
+    }
+
+    /**
+     * @return the largest number of CASes that has been observed waiting for this stage.
+     */
+    public long getMaxQueueSize() {
+      return maxQueueSize.get();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("[%s] threads=%d queue=%d/%d (max %d) %s", name, threads,
+              getQueueSize(), queueCapacity, getMaxQueueSize(), latency);
+    }
+  }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.cpe;
+
+import static org.apache.uima.fit.factory.AnalysisEngineFactory.createEngineDescription;
+import static org.apache.uima.fit.factory.CollectionReaderFactory.createReaderDescription;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UimaContext;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
+import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.component.ShardableCollectionReader;
+import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.descriptor.OperationalProperties;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.util.Progress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class ParallelPipelineTest {
+  @BeforeEach
+  public void setup() {
+    Writer.COUNT.set(0);
+    Writer.TEXTS.clear();
+    ShardedReader.CLOSED.set(0);
+  }
+
+  @Test
+  public void thatAllDocumentsPassAllStages() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+    pipeline.setReader(createReaderDescription(Reader.class, Reader.PARAM_SIZE, 100));
+    pipeline.addStage(createEngineDescription(Annotator.class), 4);
+    pipeline.addStage(createEngineDescription(Writer.class));
+    pipeline.run();
+
+    PipelineMetrics metrics = pipeline.getMetrics();
+    assertThat(Writer.COUNT.get()).isEqualTo(100);
+    assertThat(metrics.getDocumentsRead()).isEqualTo(100);
+    assertThat(metrics.getDocumentsCompleted()).isEqualTo(100);
+    assertThat(metrics.getDocumentsFailed()).isZero();
+    assertThat(metrics.getReaderLatency().getCount()).isEqualTo(100);
+    assertThat(metrics.getStages()).hasSize(2);
+    assertThat(metrics.getStages()) //
+            .allSatisfy(stage -> assertThat(stage.getLatency().getCount()).isEqualTo(100));
+    assertThat(metrics.getStages()) //
+            .allSatisfy(stage -> assertThat(stage.getMaxQueueSize())
+                    .isLessThanOrEqualTo(stage.getQueueCapacity()));
+  }
+
+  @Test
+  public void thatShardedReadersProduceEachDocumentOnce() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+    pipeline.setReader(createReaderDescription(ShardedReader.class, Reader.PARAM_SIZE, 100), 3);
+    pipeline.addStage(createEngineDescription(Annotator.class), 2);
+    pipeline.addStage(createEngineDescription(Writer.class));
+    pipeline.run();
+
+    assertThat(Writer.COUNT.get()).isEqualTo(100);
+    assertThat(Writer.TEXTS).hasSize(100);
+    assertThat(pipeline.getMetrics().getDocumentsRead()).isEqualTo(100);
+  }
+
+  @Test
+  public void thatReadersAreClosed() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+    pipeline.setReader(createReaderDescription(ShardedReader.class, Reader.PARAM_SIZE, 10), 3);
+    pipeline.addStage(createEngineDescription(Writer.class));
+    pipeline.run();
+
+    assertThat(ShardedReader.CLOSED.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void thatUnshardableReaderRejectsMultipleThreads() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+
+    assertThatExceptionOfType(IllegalArgumentException.class) //
+            .isThrownBy(() -> pipeline.setReader(
+                    createReaderDescription(Reader.class, Reader.PARAM_SIZE, 100), 2));
+  }
+
+  @Test
+  public void thatSingleDeploymentStageRejectsMultipleThreads() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+
+    assertThatExceptionOfType(IllegalArgumentException.class) //
+            .isThrownBy(() -> pipeline.addStage(createEngineDescription(Writer.class), 2));
+  }
+
+  @Test
+  public void thatFailureIsRethrown() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+    pipeline.setReader(createReaderDescription(Reader.class, Reader.PARAM_SIZE, 100));
+    pipeline.addStage(createEngineDescription(FailingAnnotator.class), 2);
+    pipeline.addStage(createEngineDescription(Writer.class));
+
+    assertThatExceptionOfType(AnalysisEngineProcessException.class) //
+            .isThrownBy(pipeline::run);
+    assertThat(pipeline.getMetrics().getDocumentsFailed()).isGreaterThan(0);
+  }
+
+  @Test
+  public void thatProcessingContinuesAfterFailureIfNotFailFast() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+    pipeline.setFailFast(false);
+    pipeline.setReader(createReaderDescription(Reader.class, Reader.PARAM_SIZE, 100));
+    pipeline.addStage(createEngineDescription(FailingAnnotator.class), 2);
+    pipeline.addStage(createEngineDescription(Writer.class));
+
+    assertThatExceptionOfType(AnalysisEngineProcessException.class) //
+            .isThrownBy(pipeline::run);
+
+    PipelineMetrics metrics = pipeline.getMetrics();
+    assertThat(metrics.getDocumentsFailed()).isEqualTo(10);
+    assertThat(metrics.getDocumentsCompleted()).isEqualTo(90);
+    assertThat(Writer.COUNT.get()).isEqualTo(90);
+  }
+
+  @Test
+  @Timeout(60)
+  public void thatErrorIsRethrownWithoutBlocking() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+    pipeline.setReader(createReaderDescription(Reader.class, Reader.PARAM_SIZE, 100));
+    pipeline.addStage(createEngineDescription(ErrorAnnotator.class), 2);
+    pipeline.addStage(createEngineDescription(Writer.class));
+    pipeline.setCasPoolSize(2);
+
+    assertThat(rootCause(catchThrowable(pipeline::run))) //
+            .isInstanceOf(Error.class) //
+            .hasMessage("Failing on purpose");
+    assertThat(pipeline.getMetrics().getDocumentsFailed()).isPositive();
+  }
+
+  @Test
+  @Timeout(60)
+  public void thatErrorInLastStageDoesNotBlock() throws Exception {
+    ParallelPipeline pipeline = new ParallelPipeline();
+    pipeline.setFailFast(false);
+    pipeline.setReader(createReaderDescription(Reader.class, Reader.PARAM_SIZE, 100));
+    pipeline.addStage(createEngineDescription(Annotator.class), 2);
+    pipeline.addStage(createEngineDescription(ErrorAnnotator.class));
+    pipeline.setCasPoolSize(2);
+
+    assertThat(rootCause(catchThrowable(pipeline::run))) //
+            .isInstanceOf(Error.class) //
+            .hasMessage("Failing on purpose");
+    assertThat(pipeline.getMetrics().getDocumentsFailed()).isEqualTo(10);
+    assertThat(pipeline.getMetrics().getDocumentsCompleted()).isEqualTo(90);
+  }
+
+  private static Throwable rootCause(Throwable aThrowable) {
+    assertThat(aThrowable).isNotNull();
+    Throwable cause = aThrowable;
+    while (cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  public static class Reader extends JCasCollectionReader_ImplBase {
+    public static final String PARAM_SIZE = "size";
+    @ConfigurationParameter(name = PARAM_SIZE)
+    private int size;
+
+    private int current = 0;
+
+    @Override
+    public Progress[] getProgress() {
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException, CollectionException {
+      return current < size;
+    }
+
+    @Override
+    public void getNext(JCas jCas) throws IOException, CollectionException {
+      jCas.setDocumentText(Integer.toString(current));
+      current++;
+    }
+  }
+
+  public static class ShardedReader extends JCasCollectionReader_ImplBase
+          implements ShardableCollectionReader {
+    public static final AtomicInteger CLOSED = new AtomicInteger();
+
+    @ConfigurationParameter(name = Reader.PARAM_SIZE)
+    private int size;
+
+    @ConfigurationParameter(name = PARAM_SHARD_INDEX, defaultValue = "0")
+    private int shardIndex;
+
+    @ConfigurationParameter(name = PARAM_SHARD_COUNT, defaultValue = "1")
+    private int shardCount;
+
+    private int current;
+
+    @Override
+    public void initialize(UimaContext aContext) throws ResourceInitializationException {
+      current = shardIndex;
+    }
+
+    @Override
+    public Progress[] getProgress() {
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException, CollectionException {
+      return current < size;
+    }
+
+    @Override
+    public void getNext(JCas jCas) throws IOException, CollectionException {
+      jCas.setDocumentText(Integer.toString(current));
+      current += shardCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+      CLOSED.incrementAndGet();
+    }
+  }
+
+  public static class Annotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
+      jCas.setDocumentLanguage("x");
+    }
+  }
+
+  public static class FailingAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
+      if (Integer.parseInt(jCas.getDocumentText()) % 10 == 0) {
+        throw new AnalysisEngineProcessException(new IllegalStateException("Failing on purpose"));
+      }
+    }
+  }
+
+  public static class ErrorAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
+      if (Integer.parseInt(jCas.getDocumentText()) % 10 == 0) {
+        throw new Error("Failing on purpose");
+      }
+    }
+  }
+
+  @OperationalProperties(multipleDeploymentAllowed = false)
+  public static class Writer extends JCasAnnotator_ImplBase {
+    public static final AtomicInteger COUNT = new AtomicInteger();
+
+    public static final Set<String> TEXTS = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void process(JCas jCas) throws AnalysisEngineProcessException {
+      COUNT.incrementAndGet();
+      TEXTS.add(jCas.getDocumentText());
+    }
+  }
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.fit.component.JCasCollectionReader_ImplBase;
+import org.apache.uima.fit.component.ShardableCollectionReader;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.pear.util.FileUtil;
@@ -36,25 +37,35 @@ import org.apache.uima.util.ProgressImpl;
  * line reader implementation, please see org.cleartk.util.linereader.LineReader.
  * 
  * This collection reader takes a single file and produces one JCas for each line in the file
- * putting the text of the line into the default view.
+ * putting the text of the line into the default view. When reading a shard, only every
+ * {@code shardCount}-th line starting at line {@code shardIndex} is read.
  */
-public class LineReader extends JCasCollectionReader_ImplBase {
+public class LineReader extends JCasCollectionReader_ImplBase
+        implements ShardableCollectionReader {
 
   public static final String PARAM_INPUT_FILE = "inputFile";
   @ConfigurationParameter
   private File inputFile;
 
+  @ConfigurationParameter(name = PARAM_SHARD_INDEX, defaultValue = "0")
+  private int shardIndex;
+
+  @ConfigurationParameter(name = PARAM_SHARD_COUNT, defaultValue = "1")
+  private int shardCount;
+
   private String[] lines;
 
-  private int lineIndex = 0;
+  private int lineIndex;
 
   @Override
   public void initialize(UimaContext uimaContext) throws ResourceInitializationException {
     try {
+      ShardableCollectionReader.checkShard(shardIndex, shardCount);
       lines = FileUtil.loadListOfStrings(inputFile);
-    } catch (IOException e) {
+    } catch (IOException | IllegalArgumentException e) {
       throw new ResourceInitializationException(e);
     }
+    lineIndex = shardIndex;
   }
 
   public boolean hasNext() throws IOException, CollectionException {
@@ -64,11 +75,13 @@ public class LineReader extends JCasCollectionReader_ImplBase {
   @Override
   public void getNext(JCas jCas) throws IOException, CollectionException {
     jCas.setDocumentText(lines[lineIndex]);
-    lineIndex++;
+    lineIndex += shardCount;
   }
 
   public Progress[] getProgress() {
-    Progress progress = new ProgressImpl(lineIndex, lines.length, Progress.ENTITIES);
+    int total = (lines.length - shardIndex + shardCount - 1) / shardCount;
+    int done = (lineIndex - shardIndex) / shardCount;
+    Progress progress = new ProgressImpl(done, total, Progress.ENTITIES);
     return new Progress[] { progress };
   }
 }
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.fit.maven;
+
+import static java.util.Arrays.asList;
+import static org.apache.maven.plugins.annotations.LifecyclePhase.PROCESS_CLASSES;
+import static org.apache.maven.plugins.annotations.ResolutionScope.TEST;
+import static org.apache.uima.UIMAFramework.getXMLParser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.uima.fit.factory.FsIndexFactory;
+import org.apache.uima.fit.internal.MetaDataBundle;
+import org.apache.uima.fit.internal.MetaDataType;
+import org.apache.uima.fit.internal.MetaDataUtil;
+import org.apache.uima.fit.internal.ResourceManagerFactory;
+import org.apache.uima.fit.maven.util.Util;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.ResourceManager;
+import org.apache.uima.resource.metadata.FsIndexCollection;
+import org.apache.uima.resource.metadata.FsIndexDescription;
+import org.apache.uima.resource.metadata.MetaDataObject;
+import org.apache.uima.resource.metadata.TypePriorities;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.InvalidXMLException;
+import org.apache.uima.util.XMLInputSource;
+import org.codehaus.plexus.util.FileUtils;
+import org.sonatype.plexus.build.incremental.BuildContext;
+
+/**
+ * Pre-merge the type systems, indexes and type priorities declared in the uimaFIT manifests of
+ * this project (e.g. META-INF/org.apache.uima.fit/types.txt) into XML bundles. At runtime,
+ * uimaFIT loads these bundles instead of scanning, parsing and merging the individual descriptors.
+ */
+@Mojo(name = "bundle-metadata", defaultPhase = PROCESS_CLASSES, requiresDependencyResolution = TEST, requiresDependencyCollection = TEST)
+public class BundleMetaDataMojo extends AbstractMojo {
+  @Parameter(defaultValue = "${project}", readonly = true)
+  private MavenProject project;
+
+  @Component
+  private BuildContext buildContext;
+
+  /**
+   * Path where the generated bundles are written.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/classes", required = true)
+  private File outputDirectory;
+
+  /**
+   * Source file encoding.
+   */
+  @Parameter(defaultValue = "${project.build.sourceEncoding}", required = true)
+  private String encoding;
+
+  /**
+   * Fail on error.
+   */
+  @Parameter(defaultValue = "true", required = true)
+  private boolean failOnError;
+
+  /**
+   * Skip plugin execution.
+   */
+  @Parameter(property = "uima-bundle-metadata.skip", defaultValue = "false", required = true)
+  private boolean skip;
+
+  /**
+   * Scope threshold to include. The default is "compile" (which implies compile, provided and
+   * system dependencies). Can also be changed to "test" (which implies all dependencies).
+   */
+  @Parameter(defaultValue = "compile", required = true)
+  private String includeScope;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    if (skip) {
+      getLog().info("Generation of uimaFIT meta data bundles skipped.");
+      return;
+    }
+
+    ClassLoader componentLoader = Util.getClassloader(project, getLog(), includeScope);
+
+    File indexFile = new File(outputDirectory, MetaDataBundle.BUNDLE_INDEX);
+
+    // List of bundles that is later written to META-INF/org.apache.uima.fit/bundle.txt
+    StringBuilder bundleIndex = new StringBuilder();
+
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    try {
+      // Make the componentLoader available to uimaFIT e.g. to resolve patterns and imports
+      Thread.currentThread().setContextClassLoader(componentLoader);
+
+      for (MetaDataType type : MetaDataType.values()) {
+        try {
+          MetaDataObject bundle = createBundle(type);
+          if (bundle == null) {
+            continue;
+          }
+
+          String name = MetaDataBundle.getBundleName(type);
+          File out = new File(indexFile.getParentFile(), name);
+          out.getParentFile().mkdirs();
+          getLog().debug("Writing " + type + " bundle to: " + out);
+          MetaDataUtil.writeXml(bundle, new FileOutputStream(out));
+          buildContext.refresh(out);
+
+          bundleIndex.append(type.name()).append('=').append(name).append('\n');
+        } catch (IOException e) {
+          handleError("Cannot write " + type + " bundle", e);
+        } catch (ResourceInitializationException e) {
+          handleError("Cannot create " + type + " bundle", e);
+        }
+      }
+    } finally {
+      Thread.currentThread().setContextClassLoader(classLoader);
+    }
+
+    if (bundleIndex.length() == 0) {
+      getLog().info("No uimaFIT meta data manifests found - no bundles generated.");
+      return;
+    }
+
+    FileUtils.mkdir(indexFile.getParent());
+    try {
+      FileUtils.fileWrite(indexFile.getPath(), encoding, bundleIndex.toString());
+      buildContext.refresh(indexFile);
+    } catch (IOException e) {
+      handleError("Cannot write bundle index to [" + indexFile + "]"
+              + ExceptionUtils.getRootCauseMessage(e), e);
+    }
+  }
+
+  /**
+   * Parse and merge all descriptors of the given type which are declared in the manifest of this
+   * project. Since the manifest is no longer scanned at runtime once a bundle exists, this includes
+   * descriptors matched by the manifest in dependencies. Imports are resolved and inlined.
+   *
+   * @return the merged meta data or {@code null} if the project has no manifest for the type.
+   */
+  private MetaDataObject createBundle(MetaDataType aType)
+          throws IOException, ResourceInitializationException {
+    List<String> patterns = new ArrayList<>();
+    for (String manifest : MetaDataUtil.getManifestResources(aType)) {
+      File file = new File(project.getBuild().getOutputDirectory(), manifest);
+      if (file.isFile()) {
+        patterns.addAll(FileUtils.loadFile(file));
+      }
+    }
+
+    if (patterns.isEmpty()) {
+      return null;
+    }
+
+    ResourceManager resMgr = ResourceManagerFactory.newResourceManager();
+    List<TypeSystemDescription> typeSystems = new ArrayList<>();
+    List<FsIndexDescription> indexes = new ArrayList<>();
+    List<TypePriorities> priorities = new ArrayList<>();
+    int count = 0;
+    for (String location : MetaDataUtil.resolve(patterns.toArray(new String[patterns.size()]))) {
+      try {
+        XMLInputSource source = new XMLInputSource(location);
+        switch (aType) {
+          case TYPE_SYSTEM: {
+            TypeSystemDescription desc = getXMLParser().parseTypeSystemDescription(source);
+            desc.resolveImports(resMgr);
+            typeSystems.add(desc);
+            break;
+          }
+          case FS_INDEX: {
+            FsIndexCollection desc = getXMLParser().parseFsIndexCollection(source);
+            desc.resolveImports(resMgr);
+            indexes.addAll(asList(desc.getFsIndexes()));
+            break;
+          }
+          case TYPE_PRIORITIES: {
+            TypePriorities desc = getXMLParser().parseTypePriorities(source);
+            desc.resolveImports(resMgr);
+            priorities.add(desc);
+            break;
+          }
+        }
+        count++;
+      } catch (InvalidXMLException e) {
+        getLog().warn("[" + location + "] is not a " + aType + " descriptor. Ignoring.");
+      }
+    }
+
+    getLog().info("Bundled " + count + " " + aType + " descriptor" + (count != 1 ? "s." : "."));
+
+    switch (aType) {
+      case TYPE_SYSTEM:
+        return CasCreationUtils.mergeTypeSystems(typeSystems, resMgr);
+      case FS_INDEX:
+        return FsIndexFactory
+                .createFsIndexCollection(indexes.toArray(new FsIndexDescription[indexes.size()]));
+      case TYPE_PRIORITIES:
+        return CasCreationUtils.mergeTypePriorities(priorities, resMgr);
+      default:
+        throw new IllegalArgumentException("Unsupported meta data type [" + aType + "]");
+    }
+  }
+
+  private void handleError(String message, Exception e) throws MojoExecutionException {
+    if (failOnError) {
+      throw new MojoExecutionException(message, e);
+    }
+
+    getLog().error(message, e);
+  }
+}
@@ -23,15 +23,14 @@ import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.uima.UIMAFramework;
+import org.apache.uima.resource.ExternalResourceDependency;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.impl.ResourceManager_impl;
+import org.apache.uima.resource.metadata.ExternalResourceBinding;
 import org.apache.uima.resource.metadata.ResourceManagerConfiguration;
-import org.apache.uima.util.Level;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.PropertyAccessorFactory;
-import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
@@ -45,59 +44,87 @@ public class SpringContextResourceManager extends ResourceManager_impl
 
   private boolean autowireEnabled = false;
 
+  /**
+   * Beans which have already been looked up in the context. Each bean is obtained from the context
+   * at most once, so prototype-scoped beans resolve to the same instance for all components.
+   */
+  private final Map<String, Object> beans = new ConcurrentHashMap<>();
+
+  /**
+   * Register the beans referenced by the resource bindings of the given configuration. Beans which
+   * are not bound to any resource key are not looked up.
+   */
   @SuppressWarnings({ "rawtypes", "unchecked" })
   @Override
   public void initializeExternalResources(ResourceManagerConfiguration aConfiguration,
           String aQualifiedContextName, java.util.Map<String, Object> aAdditionalParams)
           throws ResourceInitializationException {
 
-    for (String name : BeanFactoryUtils.beanNamesIncludingAncestors(context)) {
-      Object registration = mInternalResourceRegistrationMap.get(name);
-
-      if (registration == null) {
-        try {
-          // Register resource
-          ResourceRegistration reg = new ResourceRegistration(context.getBean(name), null,
-                  aQualifiedContextName);
-          ((Map) mInternalResourceRegistrationMap).put(name, reg);
+    if (aConfiguration != null) {
+      for (ExternalResourceBinding binding : aConfiguration.getExternalResourceBindings()) {
+        String name = binding.getResourceName();
+        if (mInternalResourceRegistrationMap.containsKey(name)) {
+          continue;
+        }
 
-          // Perform binding
-          if (isAutowireEnabled()) {
-            mResourceMap.put(aQualifiedContextName + name, context.getBean(name));
-          }
-        } catch (Exception e1) {
-          throw new ResourceInitializationException(e1);
+        Object bean = getBean(name);
+        if (bean != null) {
+          ((Map) mInternalResourceRegistrationMap).put(name,
+                  new ResourceRegistration(bean, null, aQualifiedContextName));
         }
-      } else {
-        try {
-          Object desc = getFieldValue(registration, "description");
-
-          if (desc != null) {
-            String definingContext = getFieldValue(registration, "definingContext");
-
-            if (aQualifiedContextName.startsWith(definingContext)) {
-              UIMAFramework.getLogger().logrb(Level.CONFIG, ResourceManager_impl.class.getName(),
-                      "initializeExternalResources", LOG_RESOURCE_BUNDLE,
-                      "UIMA_overridden_resource__CONFIG",
-                      new Object[] { name, aQualifiedContextName, definingContext });
-            } else {
-              UIMAFramework.getLogger().logrb(Level.WARNING, ResourceManager_impl.class.getName(),
-                      "initializeExternalResources", LOG_RESOURCE_BUNDLE,
-                      "UIMA_duplicate_resource_name__WARNING",
-                      new Object[] { name, definingContext, aQualifiedContextName });
-            }
+      }
+    }
+
+    super.initializeExternalResources(aConfiguration, aQualifiedContextName, aAdditionalParams);
+  }
+
+  /**
+   * If autowiring is enabled, dependencies which have not been bound explicitly are resolved to the
+   * bean of the same name as the dependency key.
+   */
+  @Override
+  public void resolveAndValidateResourceDependencies(ExternalResourceDependency[] aDependencies,
+          String aQualifiedContextName) throws ResourceInitializationException {
+    if (isAutowireEnabled() && aDependencies != null) {
+      for (ExternalResourceDependency dep : aDependencies) {
+        String qualifiedName = aQualifiedContextName + dep.getKey();
+        if (!mResourceMap.containsKey(qualifiedName)) {
+          Object bean = getBean(dep.getKey());
+          if (bean != null) {
+            mResourceMap.put(qualifiedName, bean);
           }
-        } catch (Exception e1) {
-          throw new ResourceInitializationException(e1);
         }
       }
     }
 
-    super.initializeExternalResources(aConfiguration, aQualifiedContextName, aAdditionalParams);
+    super.resolveAndValidateResourceDependencies(aDependencies, aQualifiedContextName);
+  }
+
+  private Object getBean(String aName) throws ResourceInitializationException {
+    if (context == null || !context.containsBean(aName)) {
+      return null;
+    }
+
+    Object bean = beans.get(aName);
+    if (bean == null) {
+      // Not using computeIfAbsent because creating the bean may in turn look up other beans
+      try {
+        bean = context.getBean(aName);
+      } catch (BeansException e) {
+        throw new ResourceInitializationException(e);
+      }
+
+      Object existing = beans.putIfAbsent(aName, bean);
+      if (existing != null) {
+        bean = existing;
+      }
+    }
+    return bean;
   }
 
   public void setApplicationContext(ApplicationContext aApplicationContext) throws BeansException {
     context = aApplicationContext;
+    beans.clear();
   }
 
   /**
@@ -129,14 +156,6 @@ public class SpringContextResourceManager extends ResourceManager_impl
     }
   }
 
-  /**
-   * Get a field value from a non-visible field.
-   */
-  @SuppressWarnings("unchecked")
-  private static <T> T getFieldValue(Object aObject, String aFieldName) {
-    return (T) PropertyAccessorFactory.forDirectFieldAccess(aObject).getPropertyValue(aFieldName);
-  }
-
   public void setAutowireEnabled(boolean aAutowireEnabled) {
     autowireEnabled = aAutowireEnabled;
   }
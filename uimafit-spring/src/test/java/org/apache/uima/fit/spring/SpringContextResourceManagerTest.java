@@ -66,6 +66,55 @@ public class SpringContextResourceManagerTest {
     ae.process(ae.newJCas());
   }
 
+  @Test
+  public void thatUnboundBeansAreNotInstantiated() throws Exception {
+    GenericApplicationContext ctx = new GenericApplicationContext();
+    ctx.registerBeanDefinition("springBean",
+            BeanDefinitionBuilder.genericBeanDefinition(String.class).addConstructorArgValue("BEAN")
+                    .getBeanDefinition());
+    ctx.registerBeanDefinition("unusedBean", BeanDefinitionBuilder
+            .genericBeanDefinition(FailingBean.class).setLazyInit(true).getBeanDefinition());
+    ctx.refresh();
+
+    SpringContextResourceManager resMgr = new SpringContextResourceManager();
+    resMgr.setApplicationContext(ctx);
+
+    AnalysisEngineDescription desc = createEngineDescription(MyAnalysisEngine.class);
+    bindResourceOnceWithoutNested(desc, "injectedBean", "springBean");
+
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(desc, resMgr, null);
+
+    ae.process(ae.newJCas());
+  }
+
+  @Test
+  public void thatAutowiringResolvesDeclaredKeys() throws Exception {
+    SpringContextResourceManager resMgr = new SpringContextResourceManager();
+    resMgr.setApplicationContext(getApplicationContext());
+    resMgr.setAutowireEnabled(true);
+
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(
+            createEngineDescription(AutowiredAnalysisEngine.class), resMgr, null);
+
+    ae.process(ae.newJCas());
+  }
+
+  public static class FailingBean {
+    public FailingBean() {
+      throw new IllegalStateException("Bean should not have been instantiated");
+    }
+  }
+
+  public static class AutowiredAnalysisEngine extends JCasAnnotator_ImplBase {
+    @ExternalResource(key = "springBean")
+    private Object springBean;
+
+    @Override
+    public void process(JCas aJCas) throws AnalysisEngineProcessException {
+      assertEquals("BEAN", springBean);
+    }
+  }
+
   public static class MyAnalysisEngine extends JCasAnnotator_ImplBase {
     @ExternalResource(key = "injectedBean")
     private Object injectedBean;